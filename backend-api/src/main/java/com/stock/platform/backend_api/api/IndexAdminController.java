@@ -4,6 +4,7 @@ import com.stock.platform.backend_api.api.dto.CreateIndexRequestDto;
 import com.stock.platform.backend_api.api.dto.IndexListItemDto;
 import com.stock.platform.backend_api.api.dto.UpdateIndexConstituentsRequestDto;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.MarketDataVersion;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -15,9 +16,11 @@ import java.util.List;
 @RequestMapping("/api/indices")
 public class IndexAdminController {
     private final MarketRepository market;
+    private final MarketDataVersion dataVersion;
 
-    public IndexAdminController(MarketRepository market) {
+    public IndexAdminController(MarketRepository market, MarketDataVersion dataVersion) {
         this.market = market;
+        this.dataVersion = dataVersion;
     }
 
     @GetMapping
@@ -35,6 +38,7 @@ public class IndexAdminController {
         if (req.initialStockSymbols() != null && !req.initialStockSymbols().isEmpty()) {
             List<String> members = req.initialStockSymbols().stream().map(IndexAdminController::normalizeStockSymbol).toList();
             market.replaceIndexConstituents(symbol, members, LocalDate.now());
+            dataVersion.bump();
         }
         return new IndexListItemDto(symbol, name, wikiUrl);
     }
@@ -52,6 +56,7 @@ public class IndexAdminController {
         String idx = normalizeIndexSymbol(symbol);
         List<String> members = req.stockSymbols().stream().map(IndexAdminController::normalizeStockSymbol).distinct().toList();
         market.replaceIndexConstituents(idx, members, LocalDate.now());
+        dataVersion.bump();
     }
 
     private static String normalizeOptional(String v) {
@@ -1,15 +1,21 @@
 package com.stock.platform.backend_api.api;
 
 import com.stock.platform.backend_api.api.dto.BarDto;
+import com.stock.platform.backend_api.api.dto.ColumnarFrame;
+import com.stock.platform.backend_api.api.dto.IndicatorColumnsDto;
 import com.stock.platform.backend_api.api.dto.IndicatorsResponseDto;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.BarStreamService;
 import com.stock.platform.backend_api.service.IndicatorsService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -20,10 +26,16 @@ import java.util.List;
 public class IndexController {
     private final MarketRepository marketRepository;
     private final IndicatorsService indicatorsService;
+    private final BarStreamService barStreamService;
 
-    public IndexController(MarketRepository marketRepository, IndicatorsService indicatorsService) {
+    public IndexController(
+            MarketRepository marketRepository,
+            IndicatorsService indicatorsService,
+            BarStreamService barStreamService
+    ) {
         this.marketRepository = marketRepository;
         this.indicatorsService = indicatorsService;
+        this.barStreamService = barStreamService;
     }
 
     @GetMapping("/{symbol}/bars")
@@ -39,13 +51,47 @@ public class IndexController {
             throw new IllegalArgumentException("start must be <= end");
         }
         
-        String canonicalSymbol = symbol.toUpperCase();
-        if ("SP500".equals(canonicalSymbol)) canonicalSymbol = "^SPX";
-        if (!canonicalSymbol.startsWith("^")) canonicalSymbol = "^" + canonicalSymbol;
+        String canonicalSymbol = canonicalIndexSymbol(symbol);
 
         return marketRepository.getBarsBySymbol(canonicalSymbol, interval, effectiveStart, effectiveEnd);
     }
 
+    @GetMapping(value = "/{symbol}/bars", produces = ColumnarFrame.MEDIA_TYPE_VALUE)
+    public ColumnarFrame getIndexBarColumns(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+    ) {
+        LocalDate effectiveEnd = end != null ? end : LocalDate.now().minusDays(1);
+        LocalDate effectiveStart = start != null ? start : effectiveEnd.minusYears(2);
+        if (effectiveStart.isAfter(effectiveEnd)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        return marketRepository.getBarSeries(canonicalIndexSymbol(symbol), interval, effectiveStart, effectiveEnd)
+                .toColumnarFrame();
+    }
+
+    @GetMapping(value = "/{symbol}/bars", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamIndexBars(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+    ) {
+        LocalDate effectiveEnd = end != null ? end : LocalDate.now().minusDays(1);
+        LocalDate effectiveStart = start != null ? start : effectiveEnd.minusYears(2);
+        if (effectiveStart.isAfter(effectiveEnd)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+
+        String canonicalSymbol = canonicalIndexSymbol(symbol);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(barStreamService.streamBars(canonicalSymbol, interval, effectiveStart, effectiveEnd));
+    }
+
     @GetMapping("/{symbol}/indicators")
     public IndicatorsResponseDto getIndexIndicators(
             @PathVariable String symbol,
@@ -61,9 +107,7 @@ public class IndexController {
             throw new IllegalArgumentException("start must be <= end");
         }
 
-        String canonicalSymbol = symbol.toUpperCase();
-        if ("SP500".equals(canonicalSymbol)) canonicalSymbol = "^SPX";
-        if (!canonicalSymbol.startsWith("^")) canonicalSymbol = "^" + canonicalSymbol;
+        String canonicalSymbol = canonicalIndexSymbol(symbol);
 
         List<Integer> maPeriods = parseIntCsv(ma);
         String inc = include == null ? "" : include.toLowerCase();
@@ -72,6 +116,52 @@ public class IndexController {
         return indicatorsService.getIndicators(canonicalSymbol, interval, effectiveStart, effectiveEnd, maPeriods, macd, kdj);
     }
 
+    @GetMapping(value = "/{symbol}/indicators", produces = ColumnarFrame.MEDIA_TYPE_VALUE)
+    public ColumnarFrame getIndexIndicatorColumns(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) String ma,
+            @RequestParam(required = false) String include
+    ) {
+        String inc = include == null ? "" : include.toLowerCase();
+        return indicatorsService.getIndicatorColumns(
+                canonicalIndexSymbol(symbol), interval, start, end, parseIntCsv(ma), inc.contains("macd"), inc.contains("kdj"));
+    }
+
+    /**
+     * Indicators from a declarative spec, e.g. {@code spec=sma(20),rsi(14),boll(20,2)}; {@code ma}/{@code include} are ignored.
+     */
+    @GetMapping(value = "/{symbol}/indicators", params = "spec")
+    public IndicatorColumnsDto getIndexIndicatorsBySpec(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam String spec
+    ) {
+        return indicatorsService.getIndicatorsBySpec(canonicalIndexSymbol(symbol), interval, start, end, spec);
+    }
+
+    @GetMapping(value = "/{symbol}/indicators", params = "spec", produces = ColumnarFrame.MEDIA_TYPE_VALUE)
+    public ColumnarFrame getIndexIndicatorColumnsBySpec(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam String spec
+    ) {
+        return indicatorsService.getIndicatorColumnsBySpec(canonicalIndexSymbol(symbol), interval, start, end, spec);
+    }
+
+    private static String canonicalIndexSymbol(String symbol) {
+        String canonicalSymbol = symbol.toUpperCase();
+        if ("SP500".equals(canonicalSymbol)) canonicalSymbol = "^SPX";
+        if (!canonicalSymbol.startsWith("^")) canonicalSymbol = "^" + canonicalSymbol;
+        return canonicalSymbol;
+    }
+
     private static List<Integer> parseIntCsv(String csv) {
         if (csv == null || csv.isBlank()) return List.of();
         return Arrays.stream(csv.split(","))
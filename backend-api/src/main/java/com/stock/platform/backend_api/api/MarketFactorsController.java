@@ -1,11 +1,19 @@
 package com.stock.platform.backend_api.api;
 
+import com.stock.platform.backend_api.api.dto.DrawdownDto;
+import com.stock.platform.backend_api.api.dto.FactorPanelDto;
 import com.stock.platform.backend_api.api.dto.FactorRankItemDto;
+import com.stock.platform.backend_api.api.dto.FactorSeriesDto;
 import com.stock.platform.backend_api.service.market.BarInterval;
+import com.stock.platform.backend_api.service.market.DrawdownQuery;
+import com.stock.platform.backend_api.service.market.DrawdownService;
 import com.stock.platform.backend_api.service.market.FactorMetric;
+import com.stock.platform.backend_api.service.market.FactorPanelQuery;
 import com.stock.platform.backend_api.service.market.FactorRankQuery;
+import com.stock.platform.backend_api.service.market.FactorSeriesQuery;
 import com.stock.platform.backend_api.service.market.MarketFactorService;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,9 +25,11 @@ import java.util.List;
 @RequestMapping("/api/market/factors")
 public class MarketFactorsController {
     private final MarketFactorService factors;
+    private final DrawdownService drawdowns;
 
-    public MarketFactorsController(MarketFactorService factors) {
+    public MarketFactorsController(MarketFactorService factors, DrawdownService drawdowns) {
         this.factors = factors;
+        this.drawdowns = drawdowns;
     }
 
     @GetMapping("/rank")
@@ -31,7 +41,8 @@ public class MarketFactorsController {
             @RequestParam(required = false) Integer lookback,
             @RequestParam(required = false) LocalDate start,
             @RequestParam(required = false) LocalDate end,
-            @RequestParam(defaultValue = "20") Integer limit
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(defaultValue = "false") boolean pointInTime
     ) {
         return factors.rank(new FactorRankQuery(
                 index,
@@ -41,8 +52,98 @@ public class MarketFactorsController {
                 lookback,
                 start,
                 end,
-                limit
+                limit,
+                pointInTime
+        ));
+    }
+
+    @GetMapping("/panel")
+    public FactorPanelDto panel(
+            @RequestParam(defaultValue = "^SPX") String index,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) Integer lookback,
+            @RequestParam(required = false) LocalDate start,
+            @RequestParam(required = false) LocalDate end,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Boolean desc,
+            @RequestParam(defaultValue = "false") boolean pointInTime
+    ) {
+        return factors.panel(new FactorPanelQuery(
+                index,
+                BarInterval.parse(interval),
+                lookback,
+                start,
+                end,
+                sort,
+                desc,
+                pointInTime
+        ));
+    }
+
+    @GetMapping("/series/{symbol}")
+    public FactorSeriesDto series(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) Integer window,
+            @RequestParam(required = false) Integer lookback,
+            @RequestParam(required = false) LocalDate start,
+            @RequestParam(required = false) LocalDate end
+    ) {
+        return factors.series(new FactorSeriesQuery(
+                symbol,
+                BarInterval.parse(interval),
+                window,
+                lookback,
+                start,
+                end
         ));
     }
-}
 
+    @GetMapping("/drawdowns")
+    public List<DrawdownDto> rankDrawdowns(
+            @RequestParam(defaultValue = "^SPX") String index,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) LocalDate start,
+            @RequestParam(required = false) LocalDate end,
+            @RequestParam(defaultValue = "depth") String sort,
+            @RequestParam(required = false) String mode,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(defaultValue = "1") Integer episodes,
+            @RequestParam(defaultValue = "false") boolean pointInTime
+    ) {
+        return drawdowns.rank(new DrawdownQuery(
+                index,
+                null,
+                BarInterval.parse(interval),
+                start,
+                end,
+                sort,
+                mode,
+                limit,
+                episodes,
+                pointInTime
+        ));
+    }
+
+    @GetMapping("/drawdowns/{symbol}")
+    public DrawdownDto drawdownsForSymbol(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) LocalDate start,
+            @RequestParam(required = false) LocalDate end,
+            @RequestParam(defaultValue = "10") Integer episodes
+    ) {
+        return drawdowns.forSymbol(new DrawdownQuery(
+                null,
+                symbol,
+                BarInterval.parse(interval),
+                start,
+                end,
+                null,
+                null,
+                null,
+                episodes,
+                null
+        ));
+    }
+}
@@ -1,25 +1,66 @@
 package com.stock.platform.backend_api.api;
 
+import com.stock.platform.backend_api.api.dto.BreadthHistoryDto;
 import com.stock.platform.backend_api.api.dto.BreadthSnapshotDto;
+import com.stock.platform.backend_api.api.dto.RsMatrixDto;
+import com.stock.platform.backend_api.api.dto.RsMatrixRequestDto;
 import com.stock.platform.backend_api.api.dto.RsRankItemDto;
+import com.stock.platform.backend_api.api.dto.RsRatingDto;
 import com.stock.platform.backend_api.api.dto.RsSeriesDto;
+import com.stock.platform.backend_api.api.dto.ScreenResultDto;
+import com.stock.platform.backend_api.api.dto.SectorHeatmapDto;
 import com.stock.platform.backend_api.api.dto.ScreenerItemDto;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.BreadthHistoryService;
+import com.stock.platform.backend_api.service.InsightResultCache;
+import com.stock.platform.backend_api.service.market.BreadthBoard;
+import com.stock.platform.backend_api.service.market.BreadthService;
+import com.stock.platform.backend_api.service.market.RsMatrixService;
+import com.stock.platform.backend_api.service.market.RsRatingService;
+import com.stock.platform.backend_api.service.market.SectorService;
+import com.stock.platform.backend_api.service.screener.ScreenerService;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/market")
 public class MarketInsightsController {
     private final MarketRepository market;
+    private final BreadthHistoryService breadthHistory;
+    private final BreadthService breadth;
+    private final ScreenerService screener;
+    private final RsRatingService rsRatings;
+    private final RsMatrixService rsMatrix;
+    private final SectorService sectors;
+    private final InsightResultCache cache;
 
-    public MarketInsightsController(MarketRepository market) {
+    public MarketInsightsController(
+            MarketRepository market,
+            BreadthHistoryService breadthHistory,
+            BreadthService breadth,
+            ScreenerService screener,
+            RsRatingService rsRatings,
+            RsMatrixService rsMatrix,
+            SectorService sectors,
+            InsightResultCache cache
+    ) {
         this.market = market;
+        this.breadthHistory = breadthHistory;
+        this.breadth = breadth;
+        this.screener = screener;
+        this.rsRatings = rsRatings;
+        this.rsMatrix = rsMatrix;
+        this.sectors = sectors;
+        this.cache = cache;
     }
 
     @GetMapping("/breadth")
@@ -28,8 +69,20 @@ public class MarketInsightsController {
             @RequestParam(defaultValue = "2.0") double volumeSurgeMultiple
     ) {
         String idx = index == null ? "^SPX" : index.trim().toUpperCase();
-        double multiple = Math.max(1.0, Math.min(volumeSurgeMultiple, 20.0));
-        return market.getBreadthSnapshot(idx, multiple);
+        double multiple = BreadthBoard.volumeMultiple(volumeSurgeMultiple);
+        return breadth.snapshot(idx, multiple);
+    }
+
+    @GetMapping("/breadth/history")
+    public BreadthHistoryDto getBreadthHistory(
+            @RequestParam(defaultValue = "^SPX") String index,
+            @RequestParam(required = false) LocalDate start,
+            @RequestParam(required = false) LocalDate end
+    ) {
+        String idx = index == null ? "^SPX" : index.trim().toUpperCase();
+        LocalDate effectiveEnd = end != null ? end : LocalDate.now();
+        LocalDate effectiveStart = start != null ? start : effectiveEnd.minusYears(1);
+        return breadthHistory.getHistory(idx, effectiveStart, effectiveEnd);
     }
 
     @GetMapping("/breadth/detail")
@@ -40,8 +93,22 @@ public class MarketInsightsController {
     ) {
         String idx = index == null ? "^SPX" : index.trim().toUpperCase();
         String m = metric == null ? "" : metric.trim().toLowerCase();
-        double multiple = Math.max(1.0, Math.min(volumeSurgeMultiple, 20.0));
-        return market.getBreadthDetail(idx, m, multiple);
+        double multiple = BreadthBoard.volumeMultiple(volumeSurgeMultiple);
+        return breadth.detail(idx, m, multiple);
+    }
+
+    /**
+     * Breadth and equal-weight returns per sector ({@code level=sector}) or sub-industry
+     * ({@code level=sub_industry}); {@code horizons} are return windows in bars.
+     */
+    @GetMapping("/sectors")
+    public SectorHeatmapDto getSectors(
+            @RequestParam(defaultValue = "^SPX") String index,
+            @RequestParam(defaultValue = "sector") String level,
+            @RequestParam(defaultValue = "5,21,63,126,252") String horizons
+    ) {
+        String idx = index == null ? "^SPX" : index.trim().toUpperCase();
+        return sectors.heatmap(idx, level, parseIntCsv(horizons));
     }
 
     @GetMapping("/screener")
@@ -55,7 +122,19 @@ public class MarketInsightsController {
         String p = preset == null ? "trend" : preset.trim().toLowerCase();
         int lb = Math.min(Math.max(lookbackDays, 5), 252);
         int lim = Math.min(Math.max(limit, 5), 200);
-        return market.runScreener(idx, p, lb, lim);
+        return screener.preset(idx, p, lb, lim);
+    }
+
+    @GetMapping("/screen")
+    public ScreenResultDto screen(
+            @RequestParam(defaultValue = "^SPX") String index,
+            @RequestParam(required = false) String filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        String idx = index == null ? "^SPX" : index.trim().toUpperCase();
+        int lim = Math.min(Math.max(limit, 1), 500);
+        return screener.screen(idx, filter, sort, lim);
     }
 
     @GetMapping("/rs")
@@ -75,6 +154,17 @@ public class MarketInsightsController {
         return market.getRelativeStrengthSeries(sym, idx, effectiveStart, effectiveEnd);
     }
 
+    /**
+     * Normalised RS series of many symbols against several benchmarks (default {@code ^SPX}), aligned on
+     * one shared calendar. Up to 100 symbols and 5 benchmarks; unknown ones are listed under {@code notFound}.
+     */
+    @PostMapping("/rs/matrix")
+    public RsMatrixDto getRelativeStrengthMatrix(@RequestBody RsMatrixRequestDto request) {
+        LocalDate effectiveEnd = request.end() != null ? request.end() : LocalDate.now().minusDays(1);
+        LocalDate effectiveStart = request.start() != null ? request.start() : effectiveEnd.minusYears(2);
+        return rsMatrix.matrix(request.symbols(), request.benchmarks(), effectiveStart, effectiveEnd);
+    }
+
     @GetMapping("/rs/rank")
     public List<RsRankItemDto> rankRelativeStrength(
             @RequestParam(defaultValue = "^SPX") String index,
@@ -85,6 +175,42 @@ public class MarketInsightsController {
         String idx = index == null ? "^SPX" : index.trim().toUpperCase();
         int lb = Math.min(Math.max(lookbackDays, 5), 252);
         int lim = Math.min(Math.max(limit, 5), 200);
-        return market.rankRelativeStrength(idx, lb, lim, requireAboveMa50);
+        return cache.get("rs-rank|" + idx + "|" + lb + "|" + lim + "|" + requireAboveMa50,
+                () -> market.rankRelativeStrength(idx, lb, lim, requireAboveMa50));
+    }
+
+    @GetMapping("/rs/ratings")
+    public List<RsRatingDto> rankRsRatings(
+            @RequestParam(required = false) String index,
+            @RequestParam(defaultValue = "composite") String horizon,
+            @RequestParam(defaultValue = "1") int minRating,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        String idx = index == null || index.isBlank() ? null : index.trim().toUpperCase();
+        int min = Math.min(Math.max(minRating, 1), 99);
+        int lim = Math.min(Math.max(limit, 1), 1000);
+        return rsRatings.rank(idx, horizon, min, lim);
+    }
+
+    @GetMapping("/rs/ratings/{symbol}")
+    public RsRatingDto getRsRating(@PathVariable("symbol") String symbol) {
+        String sym = symbol == null ? "" : symbol.trim().toUpperCase();
+        return rsRatings.lookup(sym);
+    }
+
+    private static List<Integer> parseIntCsv(String csv) {
+        if (csv == null || csv.isBlank()) return List.of();
+        return Arrays.stream(csv.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isBlank())
+                .map(s -> {
+                    try {
+                        return Integer.parseInt(s);
+                    } catch (Exception e) {
+                        return null;
+                    }
+                })
+                .filter(v -> v != null && v > 0)
+                .toList();
     }
 }
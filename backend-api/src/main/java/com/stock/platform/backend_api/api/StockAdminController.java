@@ -2,6 +2,7 @@ package com.stock.platform.backend_api.api;
 
 import com.stock.platform.backend_api.api.dto.CreateStockRequestDto;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.MarketDataVersion;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -17,9 +18,11 @@ import java.util.Set;
 @PreAuthorize("hasAuthority('admin.stock.write')")
 public class StockAdminController {
     private final MarketRepository market;
+    private final MarketDataVersion dataVersion;
 
-    public StockAdminController(MarketRepository market) {
+    public StockAdminController(MarketRepository market, MarketDataVersion dataVersion) {
         this.market = market;
+        this.dataVersion = dataVersion;
     }
 
     @PostMapping
@@ -48,6 +51,7 @@ public class StockAdminController {
                 }
                 market.replaceIndexConstituents(idx, current, LocalDate.now());
             }
+            dataVersion.bump();
         }
     }
 
@@ -1,19 +1,29 @@
 package com.stock.platform.backend_api.api;
 
 import com.stock.platform.backend_api.api.dto.BarDto;
+import com.stock.platform.backend_api.api.dto.BatchIndicatorsRequestDto;
+import com.stock.platform.backend_api.api.dto.BatchIndicatorsResponseDto;
+import com.stock.platform.backend_api.api.dto.ColumnarFrame;
 import com.stock.platform.backend_api.api.dto.CorporateActionDto;
+import com.stock.platform.backend_api.api.dto.IndicatorColumnsDto;
 import com.stock.platform.backend_api.api.dto.IndicatorsResponseDto;
 import com.stock.platform.backend_api.api.dto.PagedResponse;
 import com.stock.platform.backend_api.api.dto.StockDetailDto;
 import com.stock.platform.backend_api.api.dto.StockListItemDto;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.BarStreamService;
 import com.stock.platform.backend_api.service.IndicatorsService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -28,10 +38,16 @@ import java.util.List;
 public class StockController {
     private final MarketRepository marketRepository;
     private final IndicatorsService indicatorsService;
+    private final BarStreamService barStreamService;
 
-    public StockController(MarketRepository marketRepository, IndicatorsService indicatorsService) {
+    public StockController(
+            MarketRepository marketRepository,
+            IndicatorsService indicatorsService,
+            BarStreamService barStreamService
+    ) {
         this.marketRepository = marketRepository;
         this.indicatorsService = indicatorsService;
+        this.barStreamService = barStreamService;
     }
 
     /**
@@ -103,6 +119,45 @@ public class StockController {
         return marketRepository.getBarsBySymbol(symbol.toUpperCase(), interval, effectiveStart, effectiveEnd);
     }
 
+    /**
+     * Same as {@link #getStockBars}, encoded as a {@link ColumnarFrame} for clients that accept it.
+     */
+    @GetMapping(value = "/{symbol}/bars", produces = ColumnarFrame.MEDIA_TYPE_VALUE)
+    public ColumnarFrame getStockBarColumns(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+    ) {
+        LocalDate effectiveEnd = end != null ? end : LocalDate.now().minusDays(1);
+        LocalDate effectiveStart = start != null ? start : effectiveEnd.minusYears(2);
+        if (effectiveStart.isAfter(effectiveEnd)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        return marketRepository.getBarSeries(symbol.toUpperCase(), interval, effectiveStart, effectiveEnd).toColumnarFrame();
+    }
+
+    /**
+     * Same as {@link #getStockBars}, but with {@code stream=true} the JSON array is written bar by bar,
+     * so long ranges (e.g. 20+ years) do not have to be held in memory.
+     */
+    @GetMapping(value = "/{symbol}/bars", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamStockBars(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+    ) {
+        LocalDate effectiveEnd = end != null ? end : LocalDate.now().minusDays(1);
+        LocalDate effectiveStart = start != null ? start : effectiveEnd.minusYears(2);
+        if (effectiveStart.isAfter(effectiveEnd)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(barStreamService.streamBars(symbol.toUpperCase(), interval, effectiveStart, effectiveEnd));
+    }
+
     /**
      * Get calculated indicators (MA, MACD, KDJ) for a stock.
      * 
@@ -132,6 +187,72 @@ public class StockController {
         return indicatorsService.getIndicators(symbol.toUpperCase(), interval, start, end, maPeriods, macd, kdj);
     }
 
+    /**
+     * Same as {@link #getIndicators}, encoded as a {@link ColumnarFrame} for clients that accept it.
+     */
+    @GetMapping(value = "/{symbol}/indicators", produces = ColumnarFrame.MEDIA_TYPE_VALUE)
+    public ColumnarFrame getIndicatorColumns(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) String ma,
+            @RequestParam(required = false) String include
+    ) {
+        List<Integer> maPeriods = parseIntCsv(ma);
+        String inc = include == null ? "" : include.toLowerCase();
+        boolean macd = inc.contains("macd");
+        boolean kdj = inc.contains("kdj");
+        return indicatorsService.getIndicatorColumns(symbol.toUpperCase(), interval, start, end, maPeriods, macd, kdj);
+    }
+
+    /**
+     * Get indicators described by a declarative spec, computed in a single pass.
+     *
+     * Example: {@code spec=sma(20),ema(12),rsi(14),boll(20,2),atr(14),obv,macd,kdj}.
+     * When {@code spec} is present, {@code ma} and {@code include} are ignored.
+     *
+     * @param spec Comma-separated indicator terms (see {@link com.stock.platform.backend_api.service.indicator.IndicatorSpec})
+     * @return One value list per column, aligned with the returned dates
+     */
+    @GetMapping(value = "/{symbol}/indicators", params = "spec")
+    public IndicatorColumnsDto getIndicatorsBySpec(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam String spec
+    ) {
+        return indicatorsService.getIndicatorsBySpec(symbol.toUpperCase(), interval, start, end, spec);
+    }
+
+    /**
+     * Same as {@link #getIndicatorsBySpec}, encoded as a {@link ColumnarFrame} for clients that accept it.
+     */
+    @GetMapping(value = "/{symbol}/indicators", params = "spec", produces = ColumnarFrame.MEDIA_TYPE_VALUE)
+    public ColumnarFrame getIndicatorColumnsBySpec(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam String spec
+    ) {
+        return indicatorsService.getIndicatorColumnsBySpec(symbol.toUpperCase(), interval, start, end, spec);
+    }
+
+    /**
+     * Compute one indicator spec for many symbols in a single request (watchlists, dashboards).
+     * Accepts up to 200 symbols; unknown ones are listed under {@code notFound}.
+     *
+     * @param request Symbols, interval, date range and spec (see {@link #getIndicatorsBySpec})
+     * @return Per-symbol indicator columns
+     */
+    @PostMapping("/indicators/batch")
+    public BatchIndicatorsResponseDto getIndicatorsBatch(@RequestBody BatchIndicatorsRequestDto request) {
+        return indicatorsService.getIndicatorsBatch(
+                request.symbols(), request.interval(), request.start(), request.end(), request.spec());
+    }
+
     @GetMapping("/{symbol}/corporate-actions")
     public List<CorporateActionDto> getCorporateActions(
             @PathVariable String symbol,
@@ -32,7 +32,8 @@ public class StreakController {
             @RequestParam(required = false) LocalDate end,
             @RequestParam(defaultValue = "20") Integer limit,
             @RequestParam(required = false) Double volumeMultiple,
-            @RequestParam(required = false) Double flatThresholdPct
+            @RequestParam(required = false) Double flatThresholdPct,
+            @RequestParam(defaultValue = "false") boolean pointInTime
     ) {
         return streaks.rank(new StreakQuery(
                 index,
@@ -43,7 +44,8 @@ public class StreakController {
                 end,
                 limit,
                 volumeMultiple,
-                flatThresholdPct
+                flatThresholdPct,
+                pointInTime
         ));
     }
 
@@ -66,7 +68,8 @@ public class StreakController {
                 end,
                 null,
                 volumeMultiple,
-                flatThresholdPct
+                flatThresholdPct,
+                null
         ));
     }
 }
@@ -0,0 +1,13 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record BatchIndicatorsRequestDto(
+        List<String> symbols,
+        String interval,        // default 1d
+        LocalDate start,
+        LocalDate end,
+        String spec             // e.g. "sma(20),rsi(14),macd"
+) {
+}
@@ -0,0 +1,12 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record BatchIndicatorsResponseDto(
+        String interval,
+        String spec,
+        Map<String, IndicatorColumnsDto> results,
+        List<String> notFound
+) {
+}
@@ -0,0 +1,11 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record BreadthHistoryDto(
+        String indexSymbol,
+        String start,
+        String end,
+        List<BreadthPointDto> points
+) {
+}
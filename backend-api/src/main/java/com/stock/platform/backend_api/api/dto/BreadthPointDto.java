@@ -0,0 +1,19 @@
+package com.stock.platform.backend_api.api.dto;
+
+public record BreadthPointDto(
+        String date,
+        int membersWithData,
+        int up,
+        int down,
+        int flat,
+        int aboveMa20,
+        int aboveMa50,
+        int aboveMa200,
+        int newHigh52w,
+        int newLow52w,
+        Double pctAboveMa50,
+        Double pctAboveMa200,
+        int netNewHighs,
+        long advanceDeclineLine
+) {
+}
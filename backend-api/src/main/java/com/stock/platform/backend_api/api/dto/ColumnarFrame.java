@@ -0,0 +1,112 @@
+package com.stock.platform.backend_api.api.dto;
+
+import org.springframework.http.MediaType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Date-indexed numeric columns, served as {@value #MEDIA_TYPE_VALUE} when a client asks for it.
+ *
+ * Binary layout (big-endian, what {@code DataView} reads by default):
+ * <pre>
+ * int32   rows
+ * int32   epoch day of the first row (only present when rows &gt; 0)
+ * uint16  day gap to the previous row, rows - 1 times
+ * uint8   columns
+ * per column:
+ *   uint8   name length, then the UTF-8 name (e.g. "close", "ma20", "macd.dif")
+ *   uint8   value type: 1 = float32, 2 = float64
+ *   values  rows values of that type, NaN where missing
+ * </pre>
+ *
+ * Prices and indicator values go out as float32 (about 7 significant digits, plenty for charts);
+ * volumes as float64 so they stay exact.
+ */
+public final class ColumnarFrame {
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.stock-platform.columns";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final int FLOAT32 = 1;
+    private static final int FLOAT64 = 2;
+
+    private record Column(byte[] name, int type, double[] values) {}
+
+    private final int[] days;
+    private final List<Column> columns = new ArrayList<>();
+
+    /**
+     * @param days Epoch days of the rows, ascending
+     */
+    public ColumnarFrame(int[] days) {
+        this.days = days;
+    }
+
+    public int rows() {
+        return days.length;
+    }
+
+    public ColumnarFrame float32(String name, double[] values) {
+        return add(name, FLOAT32, values);
+    }
+
+    public ColumnarFrame float64(String name, double[] values) {
+        return add(name, FLOAT64, values);
+    }
+
+    private ColumnarFrame add(String name, int type, double[] values) {
+        if (values.length != days.length) {
+            throw new IllegalArgumentException("Column " + name + " has " + values.length + " values, expected " + days.length);
+        }
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > 255 || columns.size() == 255) {
+            throw new IllegalArgumentException("Too many columns or column name too long: " + name);
+        }
+        columns.add(new Column(encoded, type, values));
+        return this;
+    }
+
+    public long byteSize() {
+        long size = 4 + (days.length > 0 ? 4 + 2L * (days.length - 1) : 0) + 1;
+        for (Column c : columns) {
+            size += 1 + c.name().length + 1 + (long) (c.type() == FLOAT32 ? 4 : 8) * days.length;
+        }
+        return size;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(days.length);
+        if (days.length > 0) {
+            data.writeInt(days[0]);
+            for (int i = 1; i < days.length; i++) {
+                int gap = days[i] - days[i - 1];
+                if (gap < 0 || gap > 0xFFFF) {
+                    throw new IllegalStateException("Row dates must be ascending with gaps below 65536 days");
+                }
+                data.writeShort(gap);
+            }
+        }
+        data.writeByte(columns.size());
+        for (Column c : columns) {
+            data.writeByte(c.name().length);
+            data.write(c.name());
+            data.writeByte(c.type());
+            if (c.type() == FLOAT32) {
+                for (double v : c.values()) {
+                    data.writeFloat((float) v);
+                }
+            } else {
+                for (double v : c.values()) {
+                    data.writeDouble(v);
+                }
+            }
+        }
+        data.flush();
+    }
+}
@@ -0,0 +1,14 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record DrawdownDto(
+        String symbol,
+        String name,
+        String interval,
+        int bars,
+        Double maxDrawdown,         // 0 when the series never fell below a high
+        Double currentDrawdown,
+        List<DrawdownEpisodeDto> episodes   // deepest first
+) {
+}
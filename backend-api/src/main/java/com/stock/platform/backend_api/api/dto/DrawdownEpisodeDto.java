@@ -0,0 +1,13 @@
+package com.stock.platform.backend_api.api.dto;
+
+public record DrawdownEpisodeDto(
+        String peakDate,
+        double peakClose,
+        String troughDate,
+        double troughClose,
+        String recoveryDate,    // null while still under water
+        double depth,           // trough / peak - 1
+        int durationBars,       // peak to recovery, or to the last bar while under water
+        Integer recoveryBars    // trough to recovery; null while under water
+) {
+}
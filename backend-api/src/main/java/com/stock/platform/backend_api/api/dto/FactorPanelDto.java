@@ -0,0 +1,15 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record FactorPanelDto(
+        String indexSymbol,
+        String interval,
+        String start,
+        String end,
+        int lookback,       // bars of the new-high/low window
+        String sort,        // column the rows are ordered by
+        boolean descending,
+        List<FactorPanelRowDto> rows
+) {
+}
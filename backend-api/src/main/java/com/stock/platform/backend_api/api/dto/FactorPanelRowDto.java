@@ -0,0 +1,21 @@
+package com.stock.platform.backend_api.api.dto;
+
+public record FactorPanelRowDto(
+        String symbol,
+        String name,
+        int bars,
+        Double maxDrawdown,
+        String troughDate,
+        Double maxRunup,
+        String runupDate,
+        Double maxRundown,
+        Integer newHighCount,
+        Double newHighRate,
+        Integer newLowCount,
+        Double newLowRate,
+        int upStreak,
+        String upStreakEndDate,
+        int downStreak,
+        String downStreakEndDate
+) {
+}
@@ -0,0 +1,26 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rolling factors of one stock, one list per factor aligned with {@code dates}. Max run-down is the
+ * max drawdown and is not repeated.
+ */
+public record FactorSeriesDto(
+        String symbol,
+        String name,
+        String interval,
+        String start,
+        String end,
+        int window,         // bars of the trailing window each value is computed over
+        int lookback,       // bars of the new-high/low window
+        List<LocalDate> dates,
+        List<Double> maxDrawdown,
+        List<Double> maxRunup,
+        List<Integer> newHighCount,
+        List<Integer> newLowCount,
+        List<Integer> upStreak,
+        List<Integer> downStreak
+) {
+}
@@ -0,0 +1,17 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indicator values for a spec request, one list per column aligned with {@code dates}
+ * (null where a value is undefined, e.g. during warm-up).
+ */
+public record IndicatorColumnsDto(
+        String interval,
+        String spec,
+        List<LocalDate> dates,
+        Map<String, List<Double>> columns
+) {
+}
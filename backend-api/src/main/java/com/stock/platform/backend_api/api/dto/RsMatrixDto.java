@@ -0,0 +1,12 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record RsMatrixDto(
+        String start,
+        String end,
+        List<String> dates,
+        List<RsMatrixSeriesDto> series,
+        List<String> notFound
+) {
+}
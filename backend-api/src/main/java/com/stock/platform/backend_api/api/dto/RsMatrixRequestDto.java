@@ -0,0 +1,12 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record RsMatrixRequestDto(
+        List<String> symbols,
+        List<String> benchmarks,   // default ^SPX
+        LocalDate start,
+        LocalDate end
+) {
+}
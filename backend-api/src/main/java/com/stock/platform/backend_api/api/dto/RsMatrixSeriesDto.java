@@ -0,0 +1,13 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record RsMatrixSeriesDto(
+        String symbol,
+        String indexSymbol,
+        Double stockReturnPct,
+        Double indexReturnPct,
+        Double rsReturnPct,
+        List<Double> rsNormalized   // aligned with RsMatrixDto.dates, null where either side has no bar
+) {
+}
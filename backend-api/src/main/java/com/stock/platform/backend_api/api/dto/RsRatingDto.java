@@ -0,0 +1,18 @@
+package com.stock.platform.backend_api.api.dto;
+
+public record RsRatingDto(
+        String symbol,
+        String name,
+        String asOfDate,
+        int rating,
+        double score,
+        Integer rating3m,
+        Integer rating6m,
+        Integer rating9m,
+        Integer rating12m,
+        Double return3m,
+        Double return6m,
+        Double return9m,
+        Double return12m
+) {
+}
@@ -0,0 +1,14 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record ScreenResultDto(
+        String indexSymbol,
+        String asOfDate,
+        String filter,
+        String sort,
+        int universe,
+        int matched,
+        List<ScreenRowDto> items
+) {
+}
@@ -0,0 +1,11 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.Map;
+
+public record ScreenRowDto(
+        String symbol,
+        String name,
+        Double close,
+        Map<String, Double> values
+) {
+}
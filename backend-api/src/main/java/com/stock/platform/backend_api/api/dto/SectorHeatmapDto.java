@@ -0,0 +1,12 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record SectorHeatmapDto(
+        String indexSymbol,
+        String asOfDate,
+        String level,           // sector | sub_industry
+        List<Integer> horizons, // bars
+        List<SectorStatsDto> groups
+) {
+}
@@ -0,0 +1,19 @@
+package com.stock.platform.backend_api.api.dto;
+
+import java.util.List;
+
+public record SectorStatsDto(
+        String name,
+        int members,
+        int membersWithData,
+        int up,
+        int down,
+        int flat,
+        Double pctAboveMa20,
+        Double pctAboveMa50,
+        Double pctAboveMa200,
+        int newHigh52w,
+        int newLow52w,
+        List<Double> returns   // equal-weight mean return per horizon, aligned with SectorHeatmapDto.horizons
+) {
+}
@@ -1,11 +1,14 @@
 package com.stock.platform.backend_api.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "app")
 public record AppProperties(
         Cors cors,
-        DataCollector dataCollector
+        DataCollector dataCollector,
+        BarStore barStore,
+        IndicatorCache indicatorCache
 ) {
     public record Cors(String allowedOrigins) {
     }
@@ -20,4 +23,10 @@ public record AppProperties(
             Boolean eodhdUseForSpx
     ) {
     }
+
+    public record BarStore(boolean enabled) {
+    }
+
+    public record IndicatorCache(DataSize maxSize) {
+    }
 }
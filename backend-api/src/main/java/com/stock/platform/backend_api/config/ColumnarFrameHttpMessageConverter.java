@@ -0,0 +1,44 @@
+package com.stock.platform.backend_api.config;
+
+import com.stock.platform.backend_api.api.dto.ColumnarFrame;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link ColumnarFrame} responses in their binary form; frames are never read from requests.
+ */
+public class ColumnarFrameHttpMessageConverter extends AbstractHttpMessageConverter<ColumnarFrame> {
+    public ColumnarFrameHttpMessageConverter() {
+        super(ColumnarFrame.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ColumnarFrame.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ColumnarFrame readInternal(Class<? extends ColumnarFrame> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar frames cannot be read", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ColumnarFrame frame, MediaType contentType) {
+        return frame.byteSize();
+    }
+
+    @Override
+    protected void writeInternal(ColumnarFrame frame, HttpOutputMessage outputMessage) throws IOException {
+        frame.writeTo(outputMessage.getBody());
+    }
+}
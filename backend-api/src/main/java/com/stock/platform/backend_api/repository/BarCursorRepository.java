@@ -0,0 +1,68 @@
+package com.stock.platform.backend_api.repository;
+
+import com.stock.platform.backend_api.api.dto.BarDto;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+@Repository
+/**
+ * Reads bars through a forward-only server-side cursor.
+ *
+ * PostgreSQL only honours the fetch size inside a transaction, so every read runs in a read-only one;
+ * rows are fetched {@value #FETCH_SIZE} at a time and handed over one by one, keeping memory flat
+ * however long the requested range is.
+ */
+public class BarCursorRepository {
+    private static final int FETCH_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public BarCursorRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachBar(long securityId, String interval, LocalDate start, LocalDate end, Consumer<BarDto> action) {
+        jdbc.getJdbcOperations().query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            """
+                            select bar_date, open, high, low, close, volume
+                            from market.price_bar
+                            where security_id = ?
+                              and interval = ?
+                              and bar_date between ? and ?
+                            order by bar_date
+                            """,
+                            ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY
+                    );
+                    ps.setFetchSize(FETCH_SIZE);
+                    ps.setLong(1, securityId);
+                    ps.setString(2, interval);
+                    ps.setDate(3, Date.valueOf(start));
+                    ps.setDate(4, Date.valueOf(end));
+                    return ps;
+                },
+                rs -> {
+                    long volume = rs.getLong("volume");
+                    boolean noVolume = rs.wasNull();
+                    action.accept(new BarDto(
+                            rs.getObject("bar_date", LocalDate.class),
+                            rs.getBigDecimal("open"),
+                            rs.getBigDecimal("high"),
+                            rs.getBigDecimal("low"),
+                            rs.getBigDecimal("close"),
+                            noVolume ? null : volume
+                    ));
+                }
+        );
+    }
+}
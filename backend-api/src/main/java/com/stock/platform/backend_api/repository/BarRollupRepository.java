@@ -0,0 +1,145 @@
+package com.stock.platform.backend_api.repository;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+/**
+ * Maintains weekly, monthly, quarterly and yearly bars in {@code market.price_bar} from the daily bars.
+ *
+ * Only periods that contain a daily bar ingested since a watermark are rebuilt: their old rollup rows
+ * are deleted and one row per period is inserted, dated at the period's last trading day and tagged
+ * with {@code source = 'rollup'}. Bars of those intervals ingested from a provider are never touched: a
+ * period that has one keeps it and gets no rollup, and one arriving later replaces the period's rollup.
+ */
+public class BarRollupRepository {
+    public static final List<String> INTERVALS = List.of("1w", "1m", "1q", "1y");
+
+    // date_trunc field and period length per rollup interval
+    private static final Map<String, String[]> PERIODS = Map.of(
+            "1w", new String[]{"week", "1 week"},
+            "1m", new String[]{"month", "1 month"},
+            "1q", new String[]{"quarter", "3 months"},
+            "1y", new String[]{"year", "1 year"}
+    );
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public BarRollupRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Time of the newest rollup bar per interval; intervals never rolled up are missing.
+     */
+    public Map<String, Instant> findWatermarks() {
+        Map<String, Instant> out = new HashMap<>();
+        jdbc.query(
+                """
+                select interval, max(ingested_at) as last_rollup
+                from market.price_bar
+                where interval in ('1w', '1m', '1q', '1y') and source = 'rollup'
+                group by interval
+                """,
+                new MapSqlParameterSource(),
+                (RowCallbackHandler) rs -> out.put(rs.getString("interval"), rs.getTimestamp("last_rollup").toInstant())
+        );
+        return out;
+    }
+
+    /**
+     * Rebuild the {@code interval} rollup bars of every period touched by daily or provider {@code interval}
+     * bars ingested at or after {@code since} ({@code null} rebuilds everything), except periods holding a
+     * provider bar, whose rollup is dropped.
+     *
+     * @return Number of rollup bars written
+     */
+    @Transactional
+    public int rebuild(String interval, Instant since) {
+        String[] period = PERIODS.get(interval);
+        if (period == null) {
+            throw new IllegalArgumentException("interval must be one of: 1w, 1m, 1q, 1y");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("interval", interval)
+                .addValue("since", Timestamp.from(since == null ? Instant.EPOCH : since));
+
+        String changedCte = """
+                changed as (
+                    select distinct
+                        security_id,
+                        date_trunc('%1$s', bar_date)::date as period_start,
+                        (date_trunc('%1$s', bar_date) + interval '%2$s')::date as period_end
+                    from market.price_bar
+                    where (interval = '1d' or (interval = :interval and source <> 'rollup'))
+                      and ingested_at >= :since
+                )
+                """.formatted(period[0], period[1]);
+
+        jdbc.update(
+                """
+                with
+                %s
+                delete from market.price_bar pb
+                using changed c
+                where pb.security_id = c.security_id
+                  and pb.interval = :interval
+                  and pb.source = 'rollup'
+                  and pb.bar_date >= c.period_start
+                  and pb.bar_date < c.period_end
+                """.formatted(changedCte),
+                params
+        );
+
+        return jdbc.update(
+                """
+                with
+                %s
+                insert into market.price_bar (security_id, interval, bar_date, open, high, low, close, volume, currency, source, ingested_at)
+                select
+                    d.security_id,
+                    :interval,
+                    max(d.bar_date),
+                    (array_agg(d.open order by d.bar_date))[1],
+                    max(d.high),
+                    min(d.low),
+                    (array_agg(d.close order by d.bar_date desc))[1],
+                    sum(d.volume),
+                    (array_agg(d.currency order by d.bar_date desc))[1],
+                    'rollup',
+                    now()
+                from changed c
+                join market.price_bar d
+                  on d.security_id = c.security_id
+                 and d.interval = '1d'
+                 and d.bar_date >= c.period_start
+                 and d.bar_date < c.period_end
+                where not exists (
+                    select 1
+                    from market.price_bar p
+                    where p.security_id = c.security_id
+                      and p.interval = :interval
+                      and p.source <> 'rollup'
+                      and p.bar_date >= c.period_start
+                      and p.bar_date < c.period_end
+                )
+                group by d.security_id, c.period_start
+                """.formatted(changedCte),
+                params
+        );
+    }
+
+    public Instant currentDbTime() {
+        Timestamp now = jdbc.queryForObject("select now()", new MapSqlParameterSource(), Timestamp.class);
+        return now == null ? Instant.now() : now.toInstant();
+    }
+}
@@ -0,0 +1,430 @@
+package com.stock.platform.backend_api.repository;
+
+import com.stock.platform.backend_api.api.dto.BarDto;
+import com.stock.platform.backend_api.api.dto.ColumnarFrame;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read-only, column-oriented price bars of one security, sorted by date.
+ *
+ * A series is a window ({@code offset}, {@code size}) over shared primitive arrays, so slicing a
+ * date range is a pair of binary searches and never copies. Dates are kept as epoch days (the
+ * trading-day index), prices as doubles ({@code NaN} when missing) and volume as longs
+ * ({@link #NO_VOLUME} when missing).
+ */
+public final class BarSeries {
+    public static final long NO_VOLUME = Long.MIN_VALUE;
+
+    private static final BarSeries EMPTY = new BarSeries(new int[0], new double[0], new double[0], new double[0], new double[0], new long[0], 0, 0, null);
+
+    private final int[] days;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+    private final int offset;
+    private final int size;
+    private final RangeIndex ranges;
+
+    private BarSeries(
+            int[] days,
+            double[] open,
+            double[] high,
+            double[] low,
+            double[] close,
+            long[] volume,
+            int offset,
+            int size,
+            RangeIndex ranges
+    ) {
+        this.days = days;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.offset = offset;
+        this.size = size;
+        this.ranges = ranges;
+    }
+
+    public static BarSeries empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int day(int i) {
+        return days[offset + i];
+    }
+
+    public LocalDate date(int i) {
+        return LocalDate.ofEpochDay(days[offset + i]);
+    }
+
+    public double open(int i) {
+        return open[offset + i];
+    }
+
+    public double high(int i) {
+        return high[offset + i];
+    }
+
+    public double low(int i) {
+        return low[offset + i];
+    }
+
+    public double close(int i) {
+        return close[offset + i];
+    }
+
+    public long volume(int i) {
+        return volume[offset + i];
+    }
+
+    public boolean hasVolume(int i) {
+        return volume[offset + i] != NO_VOLUME;
+    }
+
+    /**
+     * Position of the first bar dated on or after {@code date} ({@link #size()} if none).
+     */
+    public int indexOnOrAfter(LocalDate date) {
+        return lowerBound((int) date.toEpochDay()) - offset;
+    }
+
+    /**
+     * Position of the last bar dated on or before {@code date} (-1 if none).
+     */
+    public int indexOnOrBefore(LocalDate date) {
+        return upperBound((int) date.toEpochDay()) - offset - 1;
+    }
+
+    /**
+     * Position of the bar dated exactly {@code date}, or -1.
+     */
+    public int indexOf(LocalDate date) {
+        int i = Arrays.binarySearch(days, offset, offset + size, (int) date.toEpochDay());
+        return i >= 0 ? i - offset : -1;
+    }
+
+    /**
+     * Bars dated within {@code [start, end]} (both inclusive) as a view sharing this series' arrays.
+     */
+    public BarSeries slice(LocalDate start, LocalDate end) {
+        int from = start == null ? offset : lowerBound((int) start.toEpochDay());
+        int to = end == null ? offset + size : upperBound((int) end.toEpochDay());
+        return range(from - offset, to - offset);
+    }
+
+    /**
+     * Bars at positions {@code [from, to)} as a view sharing this series' arrays.
+     */
+    public BarSeries range(int from, int to) {
+        if (from <= 0 && to >= size) {
+            return this;
+        }
+        int f = Math.max(0, from);
+        int t = Math.min(size, to);
+        if (f >= t) {
+            return EMPTY;
+        }
+        return new BarSeries(days, open, high, low, close, volume, offset + f, t - f, ranges);
+    }
+
+    /**
+     * This series with a {@link RangeIndex} over its arrays, so the range extremes below take constant
+     * time; views sliced from it share the index. Series from the bar store are already indexed.
+     */
+    public BarSeries indexed() {
+        if (ranges != null) {
+            return this;
+        }
+        int length = offset + size;
+        return new BarSeries(days, open, high, low, close, volume, offset, size, RangeIndex.build(close, high, low, length));
+    }
+
+    /**
+     * This (whole, unsliced) series indexed by extending the index of {@code previous} when that series is a
+     * prefix of this one, as after ingesting new bars; otherwise indexed from scratch.
+     */
+    BarSeries indexedFrom(BarSeries previous) {
+        if (previous == null || previous.ranges == null || previous.offset != 0 || offset != 0
+                || previous.size > size || previous.ranges.size() != previous.size || !isPrefix(previous)) {
+            return indexed();
+        }
+        return new BarSeries(days, open, high, low, close, volume, 0, size, previous.ranges.extend(close, high, low, size));
+    }
+
+    private boolean isPrefix(BarSeries p) {
+        int n = p.size;
+        return Arrays.equals(days, 0, n, p.days, 0, n)
+                && Arrays.equals(close, 0, n, p.close, 0, n)
+                && Arrays.equals(high, 0, n, p.high, 0, n)
+                && Arrays.equals(low, 0, n, p.low, 0, n);
+    }
+
+    /**
+     * Highest close among positions {@code [from, to)}, clamped to the series ({@code NaN} if none).
+     */
+    public double highestClose(int from, int to) {
+        int f = offset + Math.max(0, from);
+        int t = offset + Math.min(size, to);
+        return ranges != null ? ranges.maxClose(f, t) : RangeIndex.scan(close, f, t, true);
+    }
+
+    public double lowestClose(int from, int to) {
+        int f = offset + Math.max(0, from);
+        int t = offset + Math.min(size, to);
+        return ranges != null ? ranges.minClose(f, t) : RangeIndex.scan(close, f, t, false);
+    }
+
+    public double highestHigh(int from, int to) {
+        int f = offset + Math.max(0, from);
+        int t = offset + Math.min(size, to);
+        return ranges != null ? ranges.maxHigh(f, t) : RangeIndex.scan(high, f, t, true);
+    }
+
+    public double lowestLow(int from, int to) {
+        int f = offset + Math.max(0, from);
+        int t = offset + Math.min(size, to);
+        return ranges != null ? ranges.minLow(f, t) : RangeIndex.scan(low, f, t, false);
+    }
+
+    public double[] opens() {
+        return Arrays.copyOfRange(open, offset, offset + size);
+    }
+
+    public double[] highs() {
+        return Arrays.copyOfRange(high, offset, offset + size);
+    }
+
+    public double[] lows() {
+        return Arrays.copyOfRange(low, offset, offset + size);
+    }
+
+    public double[] closes() {
+        return Arrays.copyOfRange(close, offset, offset + size);
+    }
+
+    /**
+     * Volumes with missing values mapped to 0.
+     */
+    public long[] volumes() {
+        long[] out = Arrays.copyOfRange(volume, offset, offset + size);
+        for (int i = 0; i < out.length; i++) {
+            if (out[i] == NO_VOLUME) out[i] = 0;
+        }
+        return out;
+    }
+
+    public BarDto toBarDto(int i) {
+        int k = offset + i;
+        return new BarDto(
+                LocalDate.ofEpochDay(days[k]),
+                bd(open[k]),
+                bd(high[k]),
+                bd(low[k]),
+                bd(close[k]),
+                volume[k] == NO_VOLUME ? null : volume[k]
+        );
+    }
+
+    public List<BarDto> toBarDtos() {
+        List<BarDto> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            out.add(toBarDto(i));
+        }
+        return out;
+    }
+
+    public int[] days() {
+        return Arrays.copyOfRange(days, offset, offset + size);
+    }
+
+    /**
+     * Columns date/open/high/low/close/volume for the compact wire format; missing volume is sent as NaN.
+     */
+    public ColumnarFrame toColumnarFrame() {
+        double[] vol = new double[size];
+        for (int i = 0; i < size; i++) {
+            long v = volume[offset + i];
+            vol[i] = v == NO_VOLUME ? Double.NaN : v;
+        }
+        return new ColumnarFrame(days())
+                .float32("open", opens())
+                .float32("high", highs())
+                .float32("low", lows())
+                .float32("close", closes())
+                .float64("volume", vol);
+    }
+
+    /**
+     * Roll daily bars up into weekly (ISO weeks), monthly, quarterly or yearly bars.
+     * Each output bar is dated at the last trading day of its period.
+     *
+     * @param interval One of 1d, 1w, 1m, 1q, 1y
+     */
+    public BarSeries aggregate(String interval) {
+        String iv = normalizeInterval(interval);
+        if (iv.equals("1d")) {
+            return this;
+        }
+        Builder b = new Builder(Math.max(16, size / 4));
+        int i = 0;
+        while (i < size) {
+            int key = periodKey(iv, day(i));
+            double o = open(i);
+            double h = Double.NaN;
+            double l = Double.NaN;
+            double c = Double.NaN;
+            long v = 0;
+            boolean hasVol = false;
+            int last = i;
+            for (; i < size && periodKey(iv, day(i)) == key; i++) {
+                double hi = high(i);
+                double lo = low(i);
+                if (!Double.isNaN(hi)) h = Double.isNaN(h) ? hi : Math.max(h, hi);
+                if (!Double.isNaN(lo)) l = Double.isNaN(l) ? lo : Math.min(l, lo);
+                if (hasVolume(i)) {
+                    v += volume(i);
+                    hasVol = true;
+                }
+                c = close(i);
+                last = i;
+            }
+            b.add(day(last), o, h, l, c, hasVol ? v : NO_VOLUME);
+        }
+        return b.build();
+    }
+
+    /**
+     * Lower-cased bar interval ({@code null} means daily).
+     *
+     * @throws IllegalArgumentException if it is not one of 1d, 1w, 1m, 1q, 1y
+     */
+    public static String normalizeInterval(String interval) {
+        String iv = interval == null ? "1d" : interval.trim().toLowerCase(Locale.ROOT);
+        switch (iv) {
+            case "1d", "1w", "1m", "1q", "1y":
+                return iv;
+            default:
+                throw new IllegalArgumentException("interval must be one of: 1d, 1w, 1m, 1q, 1y");
+        }
+    }
+
+    /**
+     * A number identifying the calendar period {@code epochDay} belongs to.
+     */
+    static int periodKey(String interval, int epochDay) {
+        switch (interval) {
+            case "1w":
+                // 1970-01-01 was a Thursday; shift so that keys change on Mondays (ISO weeks).
+                return epochDay - Math.floorMod(epochDay + 3, 7);
+            case "1m": {
+                LocalDate d = LocalDate.ofEpochDay(epochDay);
+                return d.getYear() * 12 + d.getMonthValue() - 1;
+            }
+            case "1q": {
+                LocalDate d = LocalDate.ofEpochDay(epochDay);
+                return d.getYear() * 4 + (d.getMonthValue() - 1) / 3;
+            }
+            case "1y":
+                return LocalDate.ofEpochDay(epochDay).getYear();
+            default:
+                return epochDay;
+        }
+    }
+
+    // Bar dates are unique, so an exact hit needs no scan for neighbours.
+    private int lowerBound(int day) {
+        int i = Arrays.binarySearch(days, offset, offset + size, day);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private int upperBound(int day) {
+        int i = Arrays.binarySearch(days, offset, offset + size, day);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private static BigDecimal bd(double v) {
+        return Double.isNaN(v) ? null : BigDecimal.valueOf(v);
+    }
+
+    /**
+     * Append-only builder; bars must be added in ascending date order.
+     */
+    public static final class Builder {
+        private int size;
+        private int[] days;
+        private double[] open;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private long[] volume;
+
+        public Builder(int capacity) {
+            int cap = Math.max(capacity, 16);
+            days = new int[cap];
+            open = new double[cap];
+            high = new double[cap];
+            low = new double[cap];
+            close = new double[cap];
+            volume = new long[cap];
+        }
+
+        public Builder add(int epochDay, double o, double h, double l, double c, long v) {
+            if (size == days.length) {
+                int cap = size * 2;
+                days = Arrays.copyOf(days, cap);
+                open = Arrays.copyOf(open, cap);
+                high = Arrays.copyOf(high, cap);
+                low = Arrays.copyOf(low, cap);
+                close = Arrays.copyOf(close, cap);
+                volume = Arrays.copyOf(volume, cap);
+            }
+            days[size] = epochDay;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public BarSeries build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new BarSeries(
+                    Arrays.copyOf(days, size),
+                    Arrays.copyOf(open, size),
+                    Arrays.copyOf(high, size),
+                    Arrays.copyOf(low, size),
+                    Arrays.copyOf(close, size),
+                    Arrays.copyOf(volume, size),
+                    0,
+                    size,
+                    null
+            );
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.stock.platform.backend_api.repository;
+
+import com.stock.platform.backend_api.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+/**
+ * Memory-resident copy of all daily and stored rollup (1w/1m/1q/1y) bars, kept in primitive columns
+ * per security and interval.
+ *
+ * The store is filled once at startup and refreshed after every successful price sync, so chart,
+ * indicator and analysis reads can be answered with a binary search and an array slice instead of a
+ * JDBC round trip. Until the first load completes (or when disabled) callers fall back to the database.
+ * Daily series carry a {@link RangeIndex} for constant-time range highs and lows; a refresh extends the
+ * index of a series that only gained bars at its end instead of rebuilding it.
+ */
+public class BarStore {
+    private static final Logger log = LoggerFactory.getLogger(BarStore.class);
+    private static final int LOAD_CHUNK_SIZE = 50;
+    // Sync jobs commit in batches and may overlap, so re-check a little history on every refresh.
+    private static final Duration WATERMARK_SLACK = Duration.ofMinutes(10);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final boolean enabled;
+
+    private final Map<String, Map<Long, BarSeries>> bars = new ConcurrentHashMap<>();
+    private final Map<String, Long> symbolIds = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile Instant watermark;
+
+    public BarStore(NamedParameterJdbcTemplate jdbc, AppProperties appProperties) {
+        this.jdbc = jdbc;
+        this.enabled = appProperties.barStore() == null || appProperties.barStore().enabled();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    Optional<Long> findSecurityId(String canonicalSymbol) {
+        if (!loaded || canonicalSymbol == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(symbolIds.get(canonicalSymbol));
+    }
+
+    /**
+     * Bars of a security at {@code interval}, or empty when the store cannot answer (not loaded yet).
+     * A loaded store returns an empty series for securities without bars.
+     */
+    Optional<BarSeries> find(long securityId, String interval) {
+        if (!loaded) {
+            return Optional.empty();
+        }
+        Map<Long, BarSeries> byId = bars.get(interval);
+        return Optional.of(byId == null ? BarSeries.empty() : byId.getOrDefault(securityId, BarSeries.empty()));
+    }
+
+    /**
+     * Load every security's bars from scratch.
+     */
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        long t0 = System.currentTimeMillis();
+        Instant startedAt = currentDbTime().minus(WATERMARK_SLACK);
+        List<Long> ids = jdbc.query(
+                "select distinct security_id from market.price_bar",
+                new MapSqlParameterSource(),
+                (rs, rowNum) -> rs.getLong("security_id")
+        );
+        Map<String, Map<Long, BarSeries>> loadedBars = loadChunked(ids);
+        if (loadedBars.containsKey("1d")) {
+            loadedBars.get("1d").replaceAll((id, series) -> series.indexed());
+        }
+        bars.clear();
+        bars.putAll(loadedBars);
+        reloadSymbols();
+        watermark = startedAt;
+        loaded = true;
+        log.info("Bar store loaded {} securities in {} ms", ids.size(), System.currentTimeMillis() - t0);
+    }
+
+    /**
+     * Reload only the securities whose bars were written since the previous load.
+     *
+     * @return Canonical symbols of the reloaded securities; empty when the store is disabled or was loaded
+     *         from scratch, so that any security may have changed
+     */
+    public synchronized Optional<Set<String>> refresh() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        if (!loaded || watermark == null) {
+            reload();
+            return Optional.empty();
+        }
+        Instant startedAt = currentDbTime().minus(WATERMARK_SLACK);
+        List<Long> changed = jdbc.query(
+                """
+                select distinct security_id
+                from market.price_bar
+                where ingested_at >= :since
+                """,
+                new MapSqlParameterSource().addValue("since", Timestamp.from(watermark)),
+                (rs, rowNum) -> rs.getLong("security_id")
+        );
+        if (!changed.isEmpty()) {
+            Map<String, Map<Long, BarSeries>> reloaded = loadChunked(changed);
+            if (reloaded.containsKey("1d")) {
+                Map<Long, BarSeries> daily = bars.getOrDefault("1d", Map.of());
+                reloaded.get("1d").replaceAll((id, series) -> series.indexedFrom(daily.get(id)));
+            }
+            for (Map.Entry<String, Map<Long, BarSeries>> e : reloaded.entrySet()) {
+                bars.computeIfAbsent(e.getKey(), k -> new ConcurrentHashMap<>()).putAll(e.getValue());
+            }
+        }
+        reloadSymbols();
+        watermark = startedAt;
+        log.info("Bar store refreshed {} securities", changed.size());
+
+        Set<Long> changedIds = new HashSet<>(changed);
+        Set<String> symbols = new HashSet<>();
+        symbolIds.forEach((symbol, id) -> {
+            if (changedIds.contains(id)) {
+                symbols.add(symbol);
+            }
+        });
+        return Optional.of(symbols);
+    }
+
+    private Map<String, Map<Long, BarSeries>> loadChunked(List<Long> ids) {
+        Map<String, Map<Long, BarSeries>> out = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += LOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + LOAD_CHUNK_SIZE));
+            loadChunk(chunk, out);
+        }
+        return out;
+    }
+
+    private void loadChunk(List<Long> ids, Map<String, Map<Long, BarSeries>> out) {
+        Map<String, Map<Long, BarSeries.Builder>> builders = new HashMap<>();
+        jdbc.query(
+                """
+                select security_id, interval, bar_date, open, high, low, close, volume
+                from market.price_bar
+                where security_id in (:ids)
+                order by security_id, interval, bar_date
+                """,
+                new MapSqlParameterSource().addValue("ids", ids),
+                rs -> {
+                    long id = rs.getLong("security_id");
+                    long v = rs.getLong("volume");
+                    boolean noVolume = rs.wasNull();
+                    BarSeries.Builder builder = builders
+                            .computeIfAbsent(rs.getString("interval"), k -> new HashMap<>())
+                            .computeIfAbsent(id, k -> new BarSeries.Builder(256));
+                    builder.add(
+                            (int) rs.getObject("bar_date", LocalDate.class).toEpochDay(),
+                            toDouble(rs.getBigDecimal("open")),
+                            toDouble(rs.getBigDecimal("high")),
+                            toDouble(rs.getBigDecimal("low")),
+                            toDouble(rs.getBigDecimal("close")),
+                            noVolume ? BarSeries.NO_VOLUME : v
+                    );
+                }
+        );
+        for (Map.Entry<String, Map<Long, BarSeries.Builder>> byInterval : builders.entrySet()) {
+            Map<Long, BarSeries> target = out.computeIfAbsent(byInterval.getKey(), k -> new ConcurrentHashMap<>());
+            for (Map.Entry<Long, BarSeries.Builder> e : byInterval.getValue().entrySet()) {
+                target.put(e.getKey(), e.getValue().build());
+            }
+        }
+    }
+
+    private void reloadSymbols() {
+        List<Map.Entry<String, Long>> rows = jdbc.query(
+                "select canonical_symbol, id from market.security",
+                new MapSqlParameterSource(),
+                (rs, rowNum) -> Map.entry(rs.getString("canonical_symbol"), rs.getLong("id"))
+        );
+        Set<String> seen = new HashSet<>(rows.size() * 2);
+        for (Map.Entry<String, Long> e : rows) {
+            symbolIds.put(e.getKey(), e.getValue());
+            seen.add(e.getKey());
+        }
+        symbolIds.keySet().retainAll(seen);
+    }
+
+    private Instant currentDbTime() {
+        Timestamp now = jdbc.queryForObject("select now()", new MapSqlParameterSource(), Timestamp.class);
+        return now == null ? Instant.now() : now.toInstant();
+    }
+
+    private static double toDouble(BigDecimal v) {
+        return v == null ? Double.NaN : v.doubleValue();
+    }
+}
@@ -0,0 +1,252 @@
+package com.stock.platform.backend_api.repository;
+
+import com.stock.platform.backend_api.api.dto.BreadthPointDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+/**
+ * Maintains {@code market.index_breadth_daily}: per index and trading day, how many constituents advanced,
+ * declined, closed above their moving averages or at 52-week extremes.
+ *
+ * Each day is aggregated from {@code market.security_daily_metrics} over the constituents in effect that day
+ * (see {@link #PERIODS_CTE}), so past days are not judged by today's members. Only days holding metrics
+ * written since a watermark are re-aggregated, plus the days whose constituent period changed: a new snapshot
+ * with a different member list only re-aggregates the days from its as-of date on, and a snapshot repeating
+ * the previous list (as every sync writes one) re-aggregates nothing.
+ */
+public class BreadthHistoryRepository {
+    /**
+     * Constituent periods per index. Consecutive snapshots with the same member list collapse into the first
+     * of them; each remaining snapshot holds from its as-of date until the next one, and the earliest also
+     * covers the days before it, from each member's {@code date_first_added} when known.
+     * {@code period_members} has one row per member and period with its {@code [valid_from, valid_to)};
+     * {@code stale} lists the stored days whose period no longer covers them.
+     */
+    private static final String PERIODS_CTE = """
+            snapshots as (
+                select index_id, as_of_date, array_agg(security_id order by security_id) as security_ids
+                from market.index_membership
+                group by index_id, as_of_date
+            ),
+            changes as (
+                select
+                    index_id,
+                    as_of_date,
+                    security_ids,
+                    lag(security_ids) over(partition by index_id order by as_of_date) as previous_ids
+                from snapshots
+            ),
+            periods as (
+                select
+                    index_id,
+                    as_of_date,
+                    case when row_number() over w = 1 then '-infinity'::date else as_of_date end as valid_from,
+                    coalesce(lead(as_of_date) over w, 'infinity'::date) as valid_to
+                from changes
+                where previous_ids is distinct from security_ids
+                window w as (partition by index_id order by as_of_date)
+            ),
+            period_members as (
+                select
+                    p.index_id,
+                    p.as_of_date,
+                    m.security_id,
+                    case
+                        when p.valid_from = '-infinity'::date then coalesce(m.date_first_added, p.valid_from)
+                        else p.valid_from
+                    end as valid_from,
+                    p.valid_to
+                from periods p
+                join market.index_membership m on m.index_id = p.index_id and m.as_of_date = p.as_of_date
+            ),
+            stale as (
+                select b.index_id, b.bar_date
+                from market.index_breadth_daily b
+                where not exists (
+                    select 1
+                    from periods p
+                    where p.index_id = b.index_id
+                      and p.as_of_date = b.membership_as_of
+                      and b.bar_date >= p.valid_from
+                      and b.bar_date < p.valid_to
+                )
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public BreadthHistoryRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * When breadth was last written, or empty when the table was never filled.
+     */
+    public Optional<Instant> findWatermark() {
+        Timestamp last = jdbc.queryForObject(
+                "select max(computed_at) from market.index_breadth_daily",
+                new MapSqlParameterSource(),
+                Timestamp.class
+        );
+        return Optional.ofNullable(last).map(Timestamp::toInstant);
+    }
+
+    /**
+     * Re-aggregate every (index, day) with daily metrics computed at or after {@code since} (all when null),
+     * every day of indices without any breadth yet, and every stored day whose constituent period changed.
+     * Stored days left without constituent data are deleted.
+     *
+     * @return rows written
+     */
+    @Transactional
+    public int rebuild(Instant since) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("since", Timestamp.from(since == null ? Instant.EPOCH : since));
+
+        int written = jdbc.update(
+                """
+                with
+                %s,
+                rebuilt as (
+                    select distinct p.index_id
+                    from periods p
+                    where not exists (select 1 from market.index_breadth_daily b where b.index_id = p.index_id)
+                ),
+                changed as (
+                    select pm.index_id, m.bar_date
+                    from period_members pm
+                    join market.security_daily_metrics m
+                      on m.security_id = pm.security_id
+                     and m.bar_date >= pm.valid_from
+                     and m.bar_date < pm.valid_to
+                    where m.computed_at >= :since
+                    union
+                    select index_id, bar_date
+                    from stale
+                    union
+                    select pm.index_id, m.bar_date
+                    from period_members pm
+                    join rebuilt r on r.index_id = pm.index_id
+                    join market.security_daily_metrics m
+                      on m.security_id = pm.security_id
+                     and m.bar_date >= pm.valid_from
+                     and m.bar_date < pm.valid_to
+                )
+                insert into market.index_breadth_daily (
+                    index_id, bar_date, membership_as_of, members_with_data, up, down, flat,
+                    above_ma20, above_ma50, above_ma200, new_high_52w, new_low_52w, computed_at
+                )
+                select
+                    pm.index_id,
+                    m.bar_date,
+                    pm.as_of_date,
+                    count(*),
+                    count(*) filter (where m.prev_close is not null and m.close > m.prev_close),
+                    count(*) filter (where m.prev_close is not null and m.close < m.prev_close),
+                    count(*) filter (where m.prev_close is not null and m.close = m.prev_close),
+                    count(*) filter (where m.ma20 is not null and m.close > m.ma20),
+                    count(*) filter (where m.ma50 is not null and m.close > m.ma50),
+                    count(*) filter (where m.ma200 is not null and m.close > m.ma200),
+                    count(*) filter (where m.high252 is not null and m.close >= m.high252),
+                    count(*) filter (where m.low252 is not null and m.close <= m.low252),
+                    now()
+                from changed c
+                join period_members pm
+                  on pm.index_id = c.index_id
+                 and c.bar_date >= pm.valid_from
+                 and c.bar_date < pm.valid_to
+                join market.security_daily_metrics m on m.security_id = pm.security_id and m.bar_date = c.bar_date
+                group by pm.index_id, m.bar_date, pm.as_of_date
+                on conflict (index_id, bar_date) do update set
+                    membership_as_of = excluded.membership_as_of,
+                    members_with_data = excluded.members_with_data,
+                    up = excluded.up,
+                    down = excluded.down,
+                    flat = excluded.flat,
+                    above_ma20 = excluded.above_ma20,
+                    above_ma50 = excluded.above_ma50,
+                    above_ma200 = excluded.above_ma200,
+                    new_high_52w = excluded.new_high_52w,
+                    new_low_52w = excluded.new_low_52w,
+                    computed_at = excluded.computed_at
+                """.formatted(PERIODS_CTE.stripTrailing()),
+                params
+        );
+
+        // Days still tagged with a period that no longer covers them had no member data under the new one
+        jdbc.update(
+                """
+                with
+                %s
+                delete from market.index_breadth_daily b
+                using stale s
+                where b.index_id = s.index_id and b.bar_date = s.bar_date
+                """.formatted(PERIODS_CTE),
+                params
+        );
+        return written;
+    }
+
+    /**
+     * Stored breadth of an index within {@code [start, end]} in date order. The advance/decline line is
+     * accumulated from the first stored day, so it does not depend on the requested range.
+     */
+    public List<BreadthPointDto> findHistory(long indexId, LocalDate start, LocalDate end) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("indexId", indexId)
+                .addValue("start", start)
+                .addValue("end", end);
+        return jdbc.query(
+                """
+                select *
+                from (
+                    select
+                        b.*,
+                        sum(b.up - b.down) over(order by b.bar_date) as ad_line
+                    from market.index_breadth_daily b
+                    where b.index_id = :indexId and b.bar_date <= :end
+                ) h
+                where h.bar_date >= :start
+                order by h.bar_date
+                """,
+                params,
+                (rs, rowNum) -> {
+                    int members = rs.getInt("members_with_data");
+                    int aboveMa50 = rs.getInt("above_ma50");
+                    int aboveMa200 = rs.getInt("above_ma200");
+                    int newHigh = rs.getInt("new_high_52w");
+                    int newLow = rs.getInt("new_low_52w");
+                    return new BreadthPointDto(
+                            rs.getObject("bar_date", LocalDate.class).toString(),
+                            members,
+                            rs.getInt("up"),
+                            rs.getInt("down"),
+                            rs.getInt("flat"),
+                            rs.getInt("above_ma20"),
+                            aboveMa50,
+                            aboveMa200,
+                            newHigh,
+                            newLow,
+                            members == 0 ? null : aboveMa50 * 100.0 / members,
+                            members == 0 ? null : aboveMa200 * 100.0 / members,
+                            newHigh - newLow,
+                            rs.getLong("ad_line")
+                    );
+                }
+        );
+    }
+
+    public Instant currentDbTime() {
+        Timestamp now = jdbc.queryForObject("select now()", new MapSqlParameterSource(), Timestamp.class);
+        return now == null ? Instant.now() : now.toInstant();
+    }
+}
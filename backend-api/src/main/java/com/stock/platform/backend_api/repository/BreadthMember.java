@@ -0,0 +1,20 @@
+package com.stock.platform.backend_api.repository;
+
+/**
+ * A constituent of an index together with its daily metrics on the index's newest metrics date.
+ *
+ * @param sector GICS sector from {@code market.security_detail}, {@code null} when unknown
+ * @param subIndustry GICS sub-industry, {@code null} when unknown
+ * @param stock Whether the constituent is a stock (indices may list other securities)
+ * @param metrics {@code null} when the constituent has no metrics on that date
+ */
+public record BreadthMember(
+        long securityId,
+        String symbol,
+        String name,
+        String sector,
+        String subIndustry,
+        boolean stock,
+        SecurityDailyMetrics metrics
+) {
+}
@@ -0,0 +1,25 @@
+package com.stock.platform.backend_api.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The constituents of an index at its latest membership date.
+ *
+ * @param asOf {@code null} when the index has no membership rows yet
+ * @param securityIds Ascending security ids of the constituents (stocks and any other listed securities)
+ */
+public record IndexMembership(
+        long indexId,
+        String indexSymbol,
+        LocalDate asOf,
+        long[] securityIds
+) {
+    public boolean isEmpty() {
+        return asOf == null || securityIds.length == 0;
+    }
+
+    public boolean contains(long securityId) {
+        return Arrays.binarySearch(securityIds, securityId) >= 0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.stock.platform.backend_api.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Every period in which a security was a constituent of an index, derived from the
+ * {@code market.index_membership} snapshots.
+ *
+ * A security is a member from the first snapshot of each run of consecutive snapshots listing it up to
+ * (excluding) the first snapshot after the run, or indefinitely when the run reaches the latest snapshot.
+ * The first run of a security starts at its {@code date_first_added} when that is earlier; members of the
+ * earliest snapshot without one are members since the beginning, as nothing older is known.
+ *
+ * Periods are held as epoch days sorted by start, so the periods overlapping a window are found with a
+ * binary search over the starts and a scan of that prefix.
+ */
+public final class IndexMembershipHistory {
+    private static final int OPEN_START = Integer.MIN_VALUE;
+    private static final int OPEN_END = Integer.MAX_VALUE;
+
+    /**
+     * One run of consecutive snapshots listing a security.
+     *
+     * @param start First snapshot of the run
+     * @param end First snapshot after the run that no longer lists the security, {@code null} when the run
+     *            reaches the latest snapshot
+     * @param firstAdded The security's {@code date_first_added}, if known
+     */
+    public record Run(long securityId, LocalDate start, LocalDate end, LocalDate firstAdded) {}
+
+    /**
+     * Periods as parallel arrays, {@code null} bounds being open.
+     */
+    public record Periods(long[] securityIds, LocalDate[] validFrom, LocalDate[] validTo) {
+        public int size() {
+            return securityIds.length;
+        }
+    }
+
+    private final long indexId;
+    private final long[] securityIds;
+    private final int[] validFrom;
+    private final int[] validTo;
+
+    private IndexMembershipHistory(long indexId, long[] securityIds, int[] validFrom, int[] validTo) {
+        this.indexId = indexId;
+        this.securityIds = securityIds;
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+    }
+
+    public static IndexMembershipHistory of(long indexId, List<Run> runs) {
+        LocalDate earliest = runs.stream().map(Run::start).min(Comparator.naturalOrder()).orElse(null);
+        List<Run> sorted = new ArrayList<>(runs);
+        sorted.sort(Comparator.comparingLong(Run::securityId).thenComparing(Run::start));
+
+        record Period(long securityId, int from, int to) {}
+        List<Period> periods = new ArrayList<>(sorted.size());
+        Set<Long> seen = new HashSet<>();
+        for (Run run : sorted) {
+            int from = (int) run.start().toEpochDay();
+            if (seen.add(run.securityId())) {
+                if (run.firstAdded() != null && run.firstAdded().isBefore(run.start())) {
+                    from = (int) run.firstAdded().toEpochDay();
+                } else if (run.firstAdded() == null && run.start().equals(earliest)) {
+                    from = OPEN_START;
+                }
+            }
+            int to = run.end() == null ? OPEN_END : (int) run.end().toEpochDay();
+            periods.add(new Period(run.securityId(), from, to));
+        }
+        periods.sort(Comparator.comparingInt(Period::from));
+
+        int n = periods.size();
+        long[] ids = new long[n];
+        int[] from = new int[n];
+        int[] to = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = periods.get(i).securityId();
+            from[i] = periods.get(i).from();
+            to[i] = periods.get(i).to();
+        }
+        return new IndexMembershipHistory(indexId, ids, from, to);
+    }
+
+    public long indexId() {
+        return indexId;
+    }
+
+    public int size() {
+        return securityIds.length;
+    }
+
+    /**
+     * Whether the security was a constituent on {@code date}.
+     */
+    public boolean isMember(long securityId, LocalDate date) {
+        int day = (int) date.toEpochDay();
+        int candidates = startedBy(day);
+        for (int i = 0; i < candidates; i++) {
+            if (securityIds[i] == securityId && validTo[i] > day) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The periods intersecting {@code [start, end]}.
+     */
+    public Periods overlapping(LocalDate start, LocalDate end) {
+        int first = (int) start.toEpochDay();
+        int candidates = startedBy((int) end.toEpochDay());
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < candidates; i++) {
+            if (validTo[i] > first) {
+                hits.add(i);
+            }
+        }
+        long[] ids = new long[hits.size()];
+        LocalDate[] from = new LocalDate[hits.size()];
+        LocalDate[] to = new LocalDate[hits.size()];
+        for (int k = 0; k < hits.size(); k++) {
+            int i = hits.get(k);
+            ids[k] = securityIds[i];
+            from[k] = validFrom[i] == OPEN_START ? null : LocalDate.ofEpochDay(validFrom[i]);
+            to[k] = validTo[i] == OPEN_END ? null : LocalDate.ofEpochDay(validTo[i]);
+        }
+        return new Periods(ids, from, to);
+    }
+
+    // Number of periods starting on or before day (they form a prefix, as periods are sorted by start)
+    private int startedBy(int day) {
+        int lo = 0;
+        int hi = validFrom.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (validFrom[mid] <= day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
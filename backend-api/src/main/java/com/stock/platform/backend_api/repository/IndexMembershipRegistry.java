@@ -0,0 +1,174 @@
+package com.stock.platform.backend_api.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Repository
+/**
+ * In-memory index symbol -> latest membership ({@link IndexMembership}) map, so insight queries get their
+ * universe as an id array instead of resolving the index and its latest as-of date on every call. The
+ * full membership history ({@link IndexMembershipHistory}) is kept alongside for point-in-time rankings.
+ *
+ * Entries are loaded on first use with a single query and tagged with the registry generation;
+ * {@link #invalidate()} bumps the generation, which also discards entries whose load raced with it.
+ * Callers must invalidate after writing {@code market.index_membership}.
+ */
+public class IndexMembershipRegistry {
+    private record Entry<T>(long generation, T value) {}
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Map<String, Entry<IndexMembership>> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry<IndexMembershipHistory>> histories = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public IndexMembershipRegistry(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * The latest membership of an index, empty when no index has that symbol.
+     */
+    public Optional<IndexMembership> find(String indexSymbol) {
+        if (indexSymbol == null) {
+            return Optional.empty();
+        }
+        long current = generation.get();
+        Entry<IndexMembership> entry = entries.get(indexSymbol);
+        if (entry != null && entry.generation() == current) {
+            return Optional.of(entry.value());
+        }
+        IndexMembership loaded = load(indexSymbol);
+        if (loaded == null) {
+            return Optional.empty();
+        }
+        entries.put(indexSymbol, new Entry<>(current, loaded));
+        return Optional.of(loaded);
+    }
+
+    /**
+     * Every membership period of an index.
+     *
+     * @throws IllegalArgumentException when no index has that symbol
+     */
+    public IndexMembershipHistory history(String indexSymbol) {
+        long current = generation.get();
+        Entry<IndexMembershipHistory> entry = histories.get(indexSymbol);
+        if (entry != null && entry.generation() == current) {
+            return entry.value();
+        }
+        IndexMembershipHistory loaded = loadHistory(resolve(indexSymbol).indexId());
+        histories.put(indexSymbol, new Entry<>(current, loaded));
+        return loaded;
+    }
+
+    /**
+     * @throws IllegalArgumentException when no index has that symbol
+     */
+    public IndexMembership resolve(String indexSymbol) {
+        return find(indexSymbol).orElseThrow(() -> new IllegalArgumentException("Index not found: " + indexSymbol));
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+        histories.clear();
+    }
+
+    // Runs of consecutive snapshots per security ("gaps and islands" over the snapshot sequence)
+    private IndexMembershipHistory loadHistory(long indexId) {
+        List<IndexMembershipHistory.Run> runs = jdbc.query(
+                """
+                with snapshots as (
+                    select
+                        as_of_date,
+                        row_number() over(order by as_of_date) as seq,
+                        lead(as_of_date) over(order by as_of_date) as next_date
+                    from (
+                        select distinct as_of_date
+                        from market.index_membership
+                        where index_id = :indexId
+                    ) d
+                ),
+                presence as (
+                    select
+                        m.security_id,
+                        m.date_first_added,
+                        s.as_of_date,
+                        s.seq,
+                        s.next_date,
+                        s.seq - row_number() over(partition by m.security_id order by s.seq) as island
+                    from market.index_membership m
+                    join snapshots s on s.as_of_date = m.as_of_date
+                    where m.index_id = :indexId
+                )
+                select
+                    security_id,
+                    min(as_of_date) as run_start,
+                    (array_agg(next_date order by seq desc))[1] as run_end,
+                    min(date_first_added) as first_added
+                from presence
+                group by security_id, island
+                """,
+                new MapSqlParameterSource().addValue("indexId", indexId),
+                (rs, rowNum) -> new IndexMembershipHistory.Run(
+                        rs.getLong("security_id"),
+                        rs.getObject("run_start", LocalDate.class),
+                        rs.getObject("run_end", LocalDate.class),
+                        rs.getObject("first_added", LocalDate.class)
+                )
+        );
+        return IndexMembershipHistory.of(indexId, runs);
+    }
+
+    private IndexMembership load(String indexSymbol) {
+        return jdbc.query(
+                """
+                select
+                    idx.id as index_id,
+                    la.as_of_date,
+                    (
+                        select array_agg(m.security_id order by m.security_id)
+                        from market.index_membership m
+                        where m.index_id = idx.id and m.as_of_date = la.as_of_date
+                    ) as security_ids
+                from market.security idx
+                left join lateral (
+                    select max(as_of_date) as as_of_date
+                    from market.index_membership
+                    where index_id = idx.id
+                ) la on true
+                where idx.security_type = 'INDEX' and idx.canonical_symbol = :symbol
+                """,
+                new MapSqlParameterSource().addValue("symbol", indexSymbol),
+                rs -> {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    long[] ids = new long[0];
+                    Array array = rs.getArray("security_ids");
+                    if (array != null) {
+                        Object[] values = (Object[]) array.getArray();
+                        ids = new long[values.length];
+                        for (int i = 0; i < values.length; i++) {
+                            ids[i] = ((Number) values[i]).longValue();
+                        }
+                    }
+                    return new IndexMembership(
+                            rs.getLong("index_id"),
+                            indexSymbol,
+                            rs.getObject("as_of_date", LocalDate.class),
+                            ids
+                    );
+                }
+        );
+    }
+}
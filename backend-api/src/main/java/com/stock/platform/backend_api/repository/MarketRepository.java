@@ -1,24 +1,32 @@
 package com.stock.platform.backend_api.repository;
 
 import com.stock.platform.backend_api.api.dto.*;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlTypeValue;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.YearMonth;
-import java.time.temporal.WeekFields;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Repository
 /**
@@ -29,44 +37,152 @@ import java.util.Optional;
  * directly in the database for performance.
  */
 public class MarketRepository {
-    private final NamedParameterJdbcTemplate jdbc;
+    private static final int BULK_CHUNK_SIZE = 100;
+
+    /**
+     * Ranking universes ({@link #rankingMembers}): {@code members} with the {@code [valid_from, valid_to)}
+     * range of bars each one counts for.
+     */
+    private static final String ALL_STOCKS_CTE = """
+                members as (
+                    select id as security_id, '-infinity'::date as valid_from, 'infinity'::date as valid_to
+                    from market.security
+                    where security_type = 'STOCK'
+                )
+                """;
+    private static final String INDEX_MEMBERS_CTE = """
+                members as (
+                    select unnest(:memberIds::bigint[]) as security_id, '-infinity'::date as valid_from, 'infinity'::date as valid_to
+                )
+                """;
+    private static final String MEMBER_PERIODS_CTE = """
+                members as (
+                    select
+                        p.security_id,
+                        coalesce(p.valid_from, '-infinity'::date) as valid_from,
+                        coalesce(p.valid_to, 'infinity'::date) as valid_to
+                    from unnest(:memberIds::bigint[], :validFrom::date[], :validTo::date[]) as p(security_id, valid_from, valid_to)
+                )
+                """;
 
-    public MarketRepository(NamedParameterJdbcTemplate jdbc) {
+    /**
+     * {@code members} of an index ({@code :memberIds}), the newest metrics date among them
+     * ({@code as_of_bar}) and their {@code market.security_daily_metrics} rows on that date ({@code latest}).
+     */
+    private static final String MEMBER_METRICS_CTE = """
+            with members as (
+                select unnest(:memberIds::bigint[]) as security_id
+            ),
+            as_of_bar as (
+                select max(lm.bar_date) as bar_date
+                from members mem
+                cross join lateral (
+                    select bar_date
+                    from market.security_daily_metrics
+                    where security_id = mem.security_id
+                    order by bar_date desc
+                    limit 1
+                ) lm
+            ),
+            latest as (
+                select m.*
+                from market.security_daily_metrics m
+                join members mem on mem.security_id = m.security_id
+                where m.bar_date = (select bar_date from as_of_bar)
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final BarStore barStore;
+    private final BarCursorRepository barCursor;
+    private final IndexMembershipRegistry memberships;
+
+    public MarketRepository(
+            NamedParameterJdbcTemplate jdbc,
+            BarStore barStore,
+            BarCursorRepository barCursor,
+            IndexMembershipRegistry memberships
+    ) {
         this.jdbc = jdbc;
+        this.barStore = barStore;
+        this.barCursor = barCursor;
+        this.memberships = memberships;
     }
 
     /**
      * Get the latest date for which we have index membership data.
      */
     public Optional<LocalDate> getLatestIndexAsOfDate(String indexSymbol) {
-        MapSqlParameterSource params = new MapSqlParameterSource().addValue("symbol", indexSymbol);
-        LocalDate asOf = jdbc.query(
-                """
-                select max(m.as_of_date) as as_of_date 
-                from market.index_membership m
-                join market.security s on s.id = m.index_id
-                where s.canonical_symbol = :symbol
-                """,
-                params,
-                rs -> rs.next() ? rs.getObject("as_of_date", LocalDate.class) : null
-        );
-        return Optional.ofNullable(asOf);
+        return memberships.find(indexSymbol).map(IndexMembership::asOf);
+    }
+
+    // The constituents as a bigint[] parameter for :memberIds
+    private static SqlTypeValue memberIds(IndexMembership membership) {
+        return sqlArray("bigint", Arrays.stream(membership.securityIds()).boxed().toArray());
+    }
+
+    private static SqlTypeValue sqlArray(String elementType, Object[] values) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection con, int sqlType, String typeName) throws SQLException {
+                return con.createArrayOf(elementType, values);
+            }
+        };
+    }
+
+    /**
+     * Adds the universe of a ranking to {@code params} and returns its {@code members} CTE: all stocks for
+     * {@code ALL} (or blank), otherwise the latest constituents of the index or, with {@code pointInTime},
+     * every security that was a constituent during {@code [start, end]}, counted only for the periods in which
+     * it was one (see {@link IndexMembershipHistory}). {@code null} when the index has no constituents.
+     *
+     * @throws IllegalArgumentException when the index does not exist
+     */
+    private String rankingMembers(
+            String indexSymbol,
+            boolean pointInTime,
+            LocalDate start,
+            LocalDate end,
+            MapSqlParameterSource params
+    ) {
+        if (indexSymbol == null || indexSymbol.isBlank() || "ALL".equalsIgnoreCase(indexSymbol)) {
+            return ALL_STOCKS_CTE;
+        }
+        if (!pointInTime) {
+            IndexMembership membership = memberships.resolve(indexSymbol);
+            if (membership.isEmpty()) {
+                return null;
+            }
+            params.addValue("memberIds", memberIds(membership));
+            return INDEX_MEMBERS_CTE;
+        }
+        IndexMembershipHistory.Periods periods = memberships.history(indexSymbol).overlapping(start, end);
+        if (periods.size() == 0) {
+            return null;
+        }
+        params.addValue("memberIds", sqlArray("bigint", Arrays.stream(periods.securityIds()).boxed().toArray()));
+        params.addValue("validFrom", sqlArray("date", sqlDates(periods.validFrom())));
+        params.addValue("validTo", sqlArray("date", sqlDates(periods.validTo())));
+        return MEMBER_PERIODS_CTE;
+    }
+
+    private static Object[] sqlDates(LocalDate[] dates) {
+        return Arrays.stream(dates).map(d -> d == null ? null : java.sql.Date.valueOf(d)).toArray();
     }
 
     public List<StockListItemDto> getAllIndexStocks(String indexSymbol) {
         boolean listAll = indexSymbol == null || indexSymbol.isBlank() || "ALL".equalsIgnoreCase(indexSymbol);
-        LocalDate asOf = null;
+        IndexMembership membership = null;
         if (!listAll) {
-            asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-            if (asOf == null) {
+            membership = memberships.find(indexSymbol).orElse(null);
+            if (membership == null || membership.isEmpty()) {
                 return List.of();
             }
         }
 
         MapSqlParameterSource params = new MapSqlParameterSource();
         if (!listAll) {
-            params.addValue("indexSymbol", indexSymbol);
-            params.addValue("asOf", asOf);
+            params.addValue("memberIds", memberIds(membership));
         }
 
         String sql;
@@ -93,8 +209,7 @@ public class MarketRepository {
                     sd.headquarters,
                     null as wiki_description
                 from market.security s
-                join market.index_membership m on m.security_id = s.id and m.as_of_date = :asOf
-                join market.security idx on idx.id = m.index_id and idx.canonical_symbol = :indexSymbol
+                join unnest(:memberIds::bigint[]) as mem(security_id) on mem.security_id = s.id
                 left join market.security_detail sd on sd.security_id = s.id
                 where s.security_type = 'STOCK'
                 """;
@@ -120,10 +235,10 @@ public class MarketRepository {
             String lang
     ) {
         boolean listAll = indexSymbol == null || indexSymbol.isBlank() || "ALL".equalsIgnoreCase(indexSymbol);
-        LocalDate asOf = null;
+        IndexMembership membership = null;
         if (!listAll) {
-            asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-            if (asOf == null) {
+            membership = memberships.find(indexSymbol).orElse(null);
+            if (membership == null || membership.isEmpty()) {
                 return new PagedResponse<>(List.of(), 0, page, size);
             }
         }
@@ -136,8 +251,7 @@ public class MarketRepository {
                 .addValue("limit", size)
                 .addValue("offset", Math.max(0, page) * size);
         if (!listAll) {
-            params.addValue("indexSymbol", indexSymbol);
-            params.addValue("asOf", asOf);
+            params.addValue("memberIds", memberIds(membership));
         }
 
         if (hasQuery) {
@@ -179,8 +293,7 @@ public class MarketRepository {
                     """
                     select count(*) as cnt
                     from market.security s
-                    join market.index_membership m on m.security_id = s.id and m.as_of_date = :asOf
-                    join market.security idx on idx.id = m.index_id and idx.canonical_symbol = :indexSymbol
+                    join unnest(:memberIds::bigint[]) as mem(security_id) on mem.security_id = s.id
                     left join market.wiki_summary ws on ws.security_id = s.id and ws.lang = :lang
                     where s.security_type = 'STOCK'
                     %s
@@ -230,8 +343,7 @@ public class MarketRepository {
                         sd.headquarters,
                         ws.description as wiki_description
                     from market.security s
-                    join market.index_membership m on m.security_id = s.id and m.as_of_date = :asOf
-                    join market.security idx on idx.id = m.index_id and idx.canonical_symbol = :indexSymbol
+                    join unnest(:memberIds::bigint[]) as mem(security_id) on mem.security_id = s.id
                     left join market.security_detail sd on sd.security_id = s.id
                     left join market.wiki_summary ws on ws.security_id = s.id and ws.lang = :lang
                     where s.security_type = 'STOCK'
@@ -264,6 +376,10 @@ public class MarketRepository {
     }
 
     public Optional<Long> findSecurityIdBySymbol(String canonicalSymbol) {
+        Optional<Long> cached = barStore.findSecurityId(canonicalSymbol);
+        if (cached.isPresent()) {
+            return cached;
+        }
         MapSqlParameterSource params = new MapSqlParameterSource().addValue("symbol", canonicalSymbol);
         List<Long> ids = jdbc.query(
                 "select id from market.security where canonical_symbol = :symbol",
@@ -362,16 +478,7 @@ public class MarketRepository {
     }
 
     public long requireIndexId(String indexSymbol) {
-        MapSqlParameterSource params = new MapSqlParameterSource().addValue("symbol", indexSymbol);
-        List<Long> ids = jdbc.query(
-                "select id from market.security where security_type = 'INDEX' and canonical_symbol = :symbol",
-                params,
-                (rs, rowNum) -> rs.getLong("id")
-        );
-        if (ids.isEmpty()) {
-            throw new IllegalArgumentException("Index not found: " + indexSymbol);
-        }
-        return ids.get(0);
+        return memberships.resolve(indexSymbol).indexId();
     }
 
     public Map<String, Long> resolveStockIds(List<String> canonicalSymbols) {
@@ -860,32 +967,20 @@ public class MarketRepository {
         MapSqlParameterSource params = new MapSqlParameterSource().addValue("securityId", securityId);
         return jdbc.query(
                 """
-                with base as (
-                    select
-                        bar_date,
-                        close,
-                        volume,
-                        lag(close) over(order by bar_date) as prev_close,
-                        avg(close) over(order by bar_date rows between 19 preceding and current row) as ma20,
-                        avg(close) over(order by bar_date rows between 49 preceding and current row) as ma50,
-                        avg(close) over(order by bar_date rows between 199 preceding and current row) as ma200,
-                        avg(volume) over(order by bar_date rows between 49 preceding and current row) as vma50
-                    from market.price_bar
-                    where security_id = :securityId and interval = '1d'
-                )
                 select
                     bar_date,
                     close,
                     prev_close,
                     ma20,
-                    lag(ma20) over(order by bar_date) as prev_ma20,
+                    prev_ma20,
                     ma50,
-                    lag(ma50) over(order by bar_date) as prev_ma50,
+                    prev_ma50,
                     ma200,
-                    lag(ma200) over(order by bar_date) as prev_ma200,
+                    prev_ma200,
                     volume,
                     vma50
-                from base
+                from market.security_daily_metrics
+                where security_id = :securityId
                 order by bar_date desc
                 limit 1
                 """,
@@ -994,21 +1089,17 @@ public class MarketRepository {
     }
 
     public List<String> listIndexConstituentSymbols(String indexSymbol) {
-        requireIndexId(indexSymbol);
-        LocalDate asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-        if (asOf == null) {
+        IndexMembership membership = memberships.resolve(indexSymbol);
+        if (membership.isEmpty()) {
             return List.of();
         }
         MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("symbol", indexSymbol)
-                .addValue("asOf", asOf);
+                .addValue("memberIds", memberIds(membership));
         return jdbc.query(
                 """
                 select s.canonical_symbol as symbol
-                from market.index_membership m
-                join market.security idx on idx.id = m.index_id and idx.canonical_symbol = :symbol
-                join market.security s on s.id = m.security_id
-                where m.as_of_date = :asOf and s.security_type = 'STOCK'
+                from market.security s
+                where s.id = any(:memberIds::bigint[]) and s.security_type = 'STOCK'
                 order by s.canonical_symbol asc
                 """,
                 params,
@@ -1028,6 +1119,14 @@ public class MarketRepository {
             }
         }
 
+        try {
+            writeIndexConstituents(indexId, symbols, idMap, asOf);
+        } finally {
+            memberships.invalidate();
+        }
+    }
+
+    private void writeIndexConstituents(long indexId, List<String> symbols, Map<String, Long> idMap, LocalDate asOf) {
         jdbc.update(
                 "delete from market.index_membership where index_id = :indexId and as_of_date = :asOf",
                 new MapSqlParameterSource().addValue("indexId", indexId).addValue("asOf", asOf)
@@ -1075,1349 +1174,277 @@ public class MarketRepository {
     }
 
     /**
-     * Calculate a snapshot of market breadth for a given index.
-     * Computes statistics like:
-     * - Number of advancing/declining stocks
-     * - Stocks above their 20/50/200-day Moving Averages
-     * - Stocks making new 52-week highs/lows
-     * - Stocks with volume surges
-     * 
-     * Uses a complex SQL query with window functions to compute these metrics for all constituents in one go.
+     * Every constituent of an index (at its latest membership date) with its daily metrics on the newest
+     * date any constituent has metrics for. Breadth counts and drill-downs are derived from this in memory.
      */
-    public BreadthSnapshotDto getBreadthSnapshot(String indexSymbol, double volumeSurgeMultiple) {
-        requireIndexId(indexSymbol);
-        LocalDate asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-        if (asOf == null) {
-            return new BreadthSnapshotDto(indexSymbol, null, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    public List<BreadthMember> loadBreadthMembers(String indexSymbol) {
+        IndexMembership membership = memberships.resolve(indexSymbol);
+        if (membership.isEmpty()) {
+            return List.of();
         }
 
         MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("asOf", asOf)
-                .addValue("volumeMultiple", volumeSurgeMultiple);
-
-        record Counts(
-                String asOfDate,
-                int totalMembers,
-                int membersWithData,
-                int up,
-                int down,
-                int flat,
-                int aboveMa20,
-                int aboveMa50,
-                int aboveMa200,
-                int newHigh52w,
-                int newLow52w,
-                int volumeSurge
-        ) {}
+                .addValue("memberIds", memberIds(membership));
 
-        Counts c = jdbc.query(
+        return jdbc.query(
                 """
-                with idx as (
-                    select id as index_id
-                    from market.security
-                    where security_type = 'INDEX' and canonical_symbol = :indexSymbol
-                ),
-                members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join idx on idx.index_id = m.index_id
-                    where m.as_of_date = :asOf
-                ),
-                as_of_bar as (
-                    select max(pb.bar_date) as bar_date
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d'
-                ),
-                bars as (
-                    select
-                        pb.security_id,
-                        pb.bar_date,
-                        pb.close,
-                        pb.volume,
-                        lag(pb.close) over(partition by pb.security_id order by pb.bar_date) as prev_close,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 19 preceding and current row) as ma20,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 49 preceding and current row) as ma50,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 199 preceding and current row) as ma200,
-                        max(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 251 preceding and current row) as high252,
-                        min(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 251 preceding and current row) as low252,
-                        avg(pb.volume) over(partition by pb.security_id order by pb.bar_date rows between 49 preceding and current row) as vma50
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    join as_of_bar a on pb.bar_date <= a.bar_date
-                    where pb.interval = '1d'
-                      and pb.bar_date >= (select bar_date from as_of_bar) - interval '400 days'
-                ),
-                latest as (
-                    select distinct on (security_id)
-                        security_id,
-                        bar_date,
-                        close,
-                        volume,
-                        prev_close,
-                        ma20,
-                        ma50,
-                        ma200,
-                        high252,
-                        low252,
-                        vma50,
-                        (bar_date = (select bar_date from as_of_bar)) as has_today
-                    from bars
-                    order by security_id, bar_date desc
-                )
+                %s
                 select
-                    (select to_char(bar_date, 'YYYY-MM-DD') from as_of_bar) as as_of_date,
-                    (select count(*) from members) as total_members,
-                    count(*) filter (where has_today) as members_with_data,
-                    count(*) filter (where has_today and prev_close is not null and close > prev_close) as up,
-                    count(*) filter (where has_today and prev_close is not null and close < prev_close) as down,
-                    count(*) filter (where has_today and prev_close is not null and close = prev_close) as flat,
-                    count(*) filter (where has_today and ma20 is not null and close > ma20) as above_ma20,
-                    count(*) filter (where has_today and ma50 is not null and close > ma50) as above_ma50,
-                    count(*) filter (where has_today and ma200 is not null and close > ma200) as above_ma200,
-                    count(*) filter (where has_today and high252 is not null and close >= high252) as new_high_52w,
-                    count(*) filter (where has_today and low252 is not null and close <= low252) as new_low_52w,
-                    count(*) filter (where has_today and vma50 is not null and volume is not null and volume >= vma50 * :volumeMultiple) as volume_surge
-                from latest
-                """,
+                    mem.security_id,
+                    s.canonical_symbol as symbol,
+                    s.name,
+                    s.security_type,
+                    sd.sector,
+                    sd.sub_industry,
+                    l.bar_date,
+                    l.close,
+                    l.prev_close,
+                    l.volume,
+                    l.ma20,
+                    l.ma50,
+                    l.ma200,
+                    l.prev_ma20,
+                    l.prev_ma50,
+                    l.prev_ma200,
+                    l.high252,
+                    l.low252,
+                    l.vma50
+                from members mem
+                join market.security s on s.id = mem.security_id
+                left join market.security_detail sd on sd.security_id = mem.security_id
+                left join latest l on l.security_id = mem.security_id
+                order by s.canonical_symbol
+                """.formatted(MEMBER_METRICS_CTE),
                 params,
-                rs -> {
-                    if (!rs.next()) {
-                        return new Counts(null, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+                (rs, rowNum) -> {
+                    long securityId = rs.getLong("security_id");
+                    LocalDate barDate = rs.getObject("bar_date", LocalDate.class);
+                    SecurityDailyMetrics metrics = null;
+                    if (barDate != null) {
+                        Long volume = rs.getObject("volume", Long.class);
+                        metrics = new SecurityDailyMetrics(
+                                securityId,
+                                barDate,
+                                toDouble(rs.getBigDecimal("close")),
+                                toDouble(rs.getBigDecimal("prev_close")),
+                                volume == null ? BarSeries.NO_VOLUME : volume,
+                                toDouble(rs.getBigDecimal("ma20")),
+                                toDouble(rs.getBigDecimal("ma50")),
+                                toDouble(rs.getBigDecimal("ma200")),
+                                toDouble(rs.getBigDecimal("prev_ma20")),
+                                toDouble(rs.getBigDecimal("prev_ma50")),
+                                toDouble(rs.getBigDecimal("prev_ma200")),
+                                toDouble(rs.getBigDecimal("high252")),
+                                toDouble(rs.getBigDecimal("low252")),
+                                toDouble(rs.getBigDecimal("vma50"))
+                        );
                     }
-                    return new Counts(
-                            rs.getString("as_of_date"),
-                            rs.getInt("total_members"),
-                            rs.getInt("members_with_data"),
-                            rs.getInt("up"),
-                            rs.getInt("down"),
-                            rs.getInt("flat"),
-                            rs.getInt("above_ma20"),
-                            rs.getInt("above_ma50"),
-                            rs.getInt("above_ma200"),
-                            rs.getInt("new_high_52w"),
-                            rs.getInt("new_low_52w"),
-                            rs.getInt("volume_surge")
+                    return new BreadthMember(
+                            securityId,
+                            rs.getString("symbol"),
+                            rs.getString("name"),
+                            rs.getString("sector"),
+                            rs.getString("sub_industry"),
+                            "STOCK".equals(rs.getString("security_type")),
+                            metrics
                     );
                 }
         );
+    }
+
+    /**
+     * The stocks of a ranking universe, by symbol: all stocks for {@code ALL} (or blank), otherwise the latest
+     * constituents of the index or, with {@code pointInTime}, every stock that was a constituent during
+     * {@code [start, end]} together with the periods in which it was one. Empty when the index has no
+     * constituents.
+     *
+     * @throws IllegalArgumentException when the index does not exist
+     */
+    public List<RankingStock> loadRankingUniverse(String indexSymbol, boolean pointInTime, LocalDate start, LocalDate end) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String membersCte = rankingMembers(indexSymbol, pointInTime, start, end, params);
+        if (membersCte == null) {
+            return List.of();
+        }
 
-        return new BreadthSnapshotDto(
-                indexSymbol,
-                c.asOfDate(),
-                c.totalMembers(),
-                c.membersWithData(),
-                c.up(),
-                c.down(),
-                c.flat(),
-                c.aboveMa20(),
-                c.aboveMa50(),
-                c.aboveMa200(),
-                c.newHigh52w(),
-                c.newLow52w(),
-                c.volumeSurge()
+        record Row(long securityId, String symbol, String name, LocalDate from, LocalDate to) {}
+        List<Row> rows = jdbc.query(
+                """
+                with
+                %s
+                select
+                    mem.security_id,
+                    s.canonical_symbol as symbol,
+                    s.name,
+                    nullif(mem.valid_from, '-infinity'::date) as valid_from,
+                    nullif(mem.valid_to, 'infinity'::date) as valid_to
+                from members mem
+                join market.security s on s.id = mem.security_id and s.security_type = 'STOCK'
+                order by s.canonical_symbol, mem.valid_from
+                """.formatted(membersCte),
+                params,
+                (rs, rowNum) -> new Row(
+                        rs.getLong("security_id"),
+                        rs.getString("symbol"),
+                        rs.getString("name"),
+                        rs.getObject("valid_from", LocalDate.class),
+                        rs.getObject("valid_to", LocalDate.class)
+                )
         );
+
+        List<RankingStock> out = new ArrayList<>();
+        int i = 0;
+        while (i < rows.size()) {
+            Row first = rows.get(i);
+            List<RankingStock.Period> periods = new ArrayList<>();
+            for (; i < rows.size() && rows.get(i).securityId() == first.securityId(); i++) {
+                periods.add(new RankingStock.Period(rows.get(i).from(), rows.get(i).to()));
+            }
+            boolean always = periods.size() == 1 && periods.get(0).equals(RankingStock.ALWAYS.get(0));
+            out.add(new RankingStock(first.securityId(), first.symbol(), first.name(), always ? RankingStock.ALWAYS : List.copyOf(periods)));
+        }
+        return out;
     }
 
-    public List<ScreenerItemDto> getBreadthDetail(String indexSymbol, String metric, double volumeSurgeMultiple) {
-        requireIndexId(indexSymbol);
-        LocalDate asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-        if (asOf == null) {
-            return List.of();
+    public Optional<String> findSecurityName(String canonicalSymbol) {
+        List<String> names = jdbc.query(
+                "select name from market.security where canonical_symbol = :symbol",
+                new MapSqlParameterSource().addValue("symbol", canonicalSymbol),
+                (rs, rowNum) -> rs.getString("name")
+        );
+        return names.isEmpty() ? Optional.empty() : Optional.ofNullable(names.get(0));
+    }
+
+    public RsSeriesDto getRelativeStrengthSeries(String stockSymbol, String indexSymbol, LocalDate start, LocalDate end) {
+        if (stockSymbol == null || stockSymbol.isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
         }
+        long stockId = findSecurityIdBySymbol(stockSymbol)
+                .orElseThrow(() -> new IllegalArgumentException("Security not found: " + stockSymbol));
+        long indexId = requireIndexId(indexSymbol);
 
         MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("asOf", asOf)
-                .addValue("volumeMultiple", volumeSurgeMultiple);
-
-        String condition = "1=0";
-        if ("up".equalsIgnoreCase(metric)) condition = "l.prev_close is not null and l.close > l.prev_close";
-        else if ("down".equalsIgnoreCase(metric)) condition = "l.prev_close is not null and l.close < l.prev_close";
-        else if ("flat".equalsIgnoreCase(metric)) condition = "l.prev_close is not null and l.close = l.prev_close";
-        else if ("above_ma20".equalsIgnoreCase(metric)) condition = "l.ma20 is not null and l.close > l.ma20";
-        else if ("above_ma50".equalsIgnoreCase(metric)) condition = "l.ma50 is not null and l.close > l.ma50";
-        else if ("above_ma200".equalsIgnoreCase(metric)) condition = "l.ma200 is not null and l.close > l.ma200";
-        else if ("new_high_52w".equalsIgnoreCase(metric)) condition = "l.high252 is not null and l.close >= l.high252";
-        else if ("new_low_52w".equalsIgnoreCase(metric)) condition = "l.low252 is not null and l.close <= l.low252";
-        else if ("volume_surge".equalsIgnoreCase(metric)) condition = "l.vma50 is not null and l.volume is not null and l.volume >= l.vma50 * :volumeMultiple";
+                .addValue("stockId", stockId)
+                .addValue("indexId", indexId)
+                .addValue("start", start)
+                .addValue("end", end);
 
-        return jdbc.query(
+        record Row(LocalDate date, Double stockClose, Double indexClose) {}
+
+        List<Row> rows = jdbc.query(
                 """
-                with idx as (
-                    select id as index_id
-                    from market.security
-                    where security_type = 'INDEX' and canonical_symbol = :indexSymbol
-                ),
-                members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join idx on idx.index_id = m.index_id
-                    where m.as_of_date = :asOf
-                ),
-                as_of_bar as (
-                    select max(pb.bar_date) as bar_date
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d'
-                ),
-                bars as (
-                    select
-                        pb.security_id,
-                        pb.bar_date,
-                        pb.close,
-                        pb.volume,
-                        lag(pb.close) over(partition by pb.security_id order by pb.bar_date) as prev_close,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 19 preceding and current row) as ma20,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 49 preceding and current row) as ma50,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 199 preceding and current row) as ma200,
-                        max(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 251 preceding and current row) as high252,
-                        min(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 251 preceding and current row) as low252,
-                        avg(pb.volume) over(partition by pb.security_id order by pb.bar_date rows between 49 preceding and current row) as vma50
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    join as_of_bar a on pb.bar_date <= a.bar_date
-                    where pb.interval = '1d'
-                      and pb.bar_date >= (select bar_date from as_of_bar) - interval '400 days'
+                with s as (
+                    select bar_date, close
+                    from market.price_bar
+                    where security_id = :stockId and interval = '1d' and bar_date between :start and :end
                 ),
-                latest as (
-                    select distinct on (security_id)
-                        security_id,
-                        bar_date,
-                        close,
-                        volume,
-                        prev_close,
-                        ma20,
-                        ma50,
-                        ma200,
-                        high252,
-                        low252,
-                        vma50,
-                        (bar_date = (select bar_date from as_of_bar)) as has_today
-                    from bars
-                    order by security_id, bar_date desc
+                i as (
+                    select bar_date, close
+                    from market.price_bar
+                    where security_id = :indexId and interval = '1d' and bar_date between :start and :end
                 )
-                select
-                    s.canonical_symbol as symbol,
-                    s.name as name,
-                    to_char(l.bar_date, 'YYYY-MM-DD') as as_of_date,
-                    l.close as close,
-                    case when l.prev_close is null or l.prev_close = 0 then null else ((l.close / l.prev_close) - 1.0) end as return_pct,
-                    l.ma50 as ma50,
-                    l.ma200 as ma200,
-                    l.volume as volume
-                from latest l
-                join market.security s on s.id = l.security_id and s.security_type = 'STOCK'
-                where l.has_today
-                  and (%s)
-                order by return_pct desc nulls last
-                """.formatted(condition),
+                select s.bar_date as bar_date, s.close as stock_close, i.close as index_close
+                from s
+                join i on i.bar_date = s.bar_date
+                where s.close is not null and i.close is not null and i.close <> 0
+                order by s.bar_date
+                """,
                 params,
-                (rs, rowNum) -> new ScreenerItemDto(
-                        rs.getString("symbol"),
-                        rs.getString("name"),
-                        rs.getString("as_of_date"),
-                        rs.getObject("close") == null ? null : rs.getBigDecimal("close").doubleValue(),
-                        rs.getObject("return_pct") == null ? null : rs.getBigDecimal("return_pct").doubleValue(),
-                        rs.getObject("ma50") == null ? null : rs.getBigDecimal("ma50").doubleValue(),
-                        rs.getObject("ma200") == null ? null : rs.getBigDecimal("ma200").doubleValue(),
-                        rs.getObject("volume") == null ? null : rs.getLong("volume")
+                (rs, rowNum) -> new Row(
+                        rs.getObject("bar_date", LocalDate.class),
+                        rs.getObject("stock_close") == null ? null : rs.getBigDecimal("stock_close").doubleValue(),
+                        rs.getObject("index_close") == null ? null : rs.getBigDecimal("index_close").doubleValue()
                 )
         );
+
+        if (rows.isEmpty()) {
+            return new RsSeriesDto(stockSymbol, indexSymbol, start.toString(), end.toString(), null, null, null, List.of());
+        }
+
+        double firstStock = rows.get(0).stockClose() == null ? 0 : rows.get(0).stockClose();
+        double firstIndex = rows.get(0).indexClose() == null ? 0 : rows.get(0).indexClose();
+        Double firstRs = firstIndex == 0 ? null : (firstStock / firstIndex);
+
+        Double lastStock = rows.get(rows.size() - 1).stockClose();
+        Double lastIndex = rows.get(rows.size() - 1).indexClose();
+        Double stockReturn = (firstStock != 0 && lastStock != null) ? (lastStock / firstStock - 1.0) : null;
+        Double indexReturn = (firstIndex != 0 && lastIndex != null) ? (lastIndex / firstIndex - 1.0) : null;
+        Double rsReturn = (stockReturn != null && indexReturn != null)
+                ? ((1.0 + stockReturn) / (1.0 + indexReturn) - 1.0)
+                : null;
+
+        List<RsPointDto> points = rows.stream().map(r -> {
+            Double rs = (r.indexClose() == null || r.indexClose() == 0 || r.stockClose() == null) ? null : (r.stockClose() / r.indexClose());
+            Double rsNorm = (rs != null && firstRs != null && firstRs != 0) ? (rs / firstRs) : null;
+            return new RsPointDto(
+                    r.date().toString(),
+                    r.stockClose(),
+                    r.indexClose(),
+                    rs,
+                    rsNorm
+            );
+        }).toList();
+
+        return new RsSeriesDto(stockSymbol, indexSymbol, start.toString(), end.toString(), stockReturn, indexReturn, rsReturn, points);
     }
 
-    public List<ScreenerItemDto> runScreener(String indexSymbol, String preset, int lookbackDays, int limit) {
-        requireIndexId(indexSymbol);
-        LocalDate asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-        if (asOf == null) {
+    /**
+     * Rank stocks by Relative Strength (RS) compared to an index (e.g. SPX).
+     * RS is calculated as StockPrice / IndexPrice.
+     * Returns stocks with the highest RS performance over the lookback period.
+     */
+    public List<RsRankItemDto> rankRelativeStrength(String indexSymbol, int lookbackDays, int limit, boolean requireAboveMa50) {
+        IndexMembership membership = memberships.resolve(indexSymbol);
+        if (membership.isEmpty()) {
             return List.of();
         }
-        boolean trend = preset == null || preset.isBlank() || preset.equalsIgnoreCase("trend");
-        boolean breakout = preset != null && preset.equalsIgnoreCase("breakout");
 
         MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("asOf", asOf)
+                .addValue("memberIds", memberIds(membership))
+                .addValue("indexId", membership.indexId())
                 .addValue("lookback", lookbackDays)
-                .addValue("limit", limit);
-
-        String whereExtra = "";
-        String orderBy = "order by return_pct desc nulls last";
-        if (breakout) {
-            whereExtra = "and close >= high252 and high252 is not null";
-            orderBy = "order by return_pct desc nulls last";
-        } else if (trend) {
-            whereExtra = "and ma50 is not null and close > ma50";
-            orderBy = "order by return_pct desc nulls last";
-        }
+                .addValue("limit", limit)
+                .addValue("requireMa50", requireAboveMa50);
 
         return jdbc.query(
                 """
-                with idx as (
-                    select id as index_id
-                    from market.security
-                    where security_type = 'INDEX' and canonical_symbol = :indexSymbol
-                ),
-                members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join idx on idx.index_id = m.index_id
-                    where m.as_of_date = :asOf
+                with members as (
+                    select unnest(:memberIds::bigint[]) as security_id
                 ),
-                as_of_bar as (
-                    select max(pb.bar_date) as bar_date
+                idx_bars as (
+                    select
+                        pb.bar_date,
+                        pb.close,
+                        lag(pb.close, :lookback) over(order by pb.bar_date) as close_lb
                     from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d'
+                    where pb.security_id = :indexId and pb.interval = '1d'
+                ),
+                idx_latest as (
+                    select max(bar_date) as bar_date
+                    from idx_bars
+                ),
+                idx_at as (
+                    select
+                        to_char(b.bar_date, 'YYYY-MM-DD') as as_of_date,
+                        b.close as idx_close,
+                        b.close_lb as idx_close_lb
+                    from idx_bars b
+                    join idx_latest l on l.bar_date = b.bar_date
+                    where b.close is not null and b.close_lb is not null and b.close_lb <> 0
                 ),
-                bars as (
+                stock_bars as (
                     select
                         pb.security_id,
                         pb.bar_date,
                         pb.close,
-                        pb.volume,
                         lag(pb.close, :lookback) over(partition by pb.security_id order by pb.bar_date) as close_lb,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 49 preceding and current row) as ma50,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 199 preceding and current row) as ma200,
-                        max(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 251 preceding and current row) as high252
+                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 49 preceding and current row) as ma50
                     from market.price_bar pb
                     join members mem on mem.security_id = pb.security_id
-                    join as_of_bar a on pb.bar_date <= a.bar_date
                     where pb.interval = '1d'
-                      and pb.bar_date >= (select bar_date from as_of_bar) - interval '450 days'
+                      and pb.bar_date >= (select bar_date from idx_latest) - interval '500 days'
                 ),
-                latest as (
-                    select distinct on (security_id)
-                        security_id,
-                        bar_date,
-                        close,
-                        volume,
-                        close_lb,
-                        ma50,
-                        ma200,
-                        high252
-                    from bars
-                    order by security_id, bar_date desc
-                )
-                select
-                    s.canonical_symbol as symbol,
-                    s.name as name,
-                    to_char(l.bar_date, 'YYYY-MM-DD') as as_of_date,
-                    l.close as close,
-                    case when l.close_lb is null or l.close_lb = 0 then null else ((l.close / l.close_lb) - 1.0) end as return_pct,
-                    l.ma50 as ma50,
-                    l.ma200 as ma200,
-                    l.volume as volume
-                from latest l
-                join market.security s on s.id = l.security_id and s.security_type = 'STOCK'
-                where l.bar_date = (select bar_date from as_of_bar)
-                %s
-                %s
-                limit :limit
-                """.formatted(whereExtra, orderBy),
-                params,
-                (rs, rowNum) -> new ScreenerItemDto(
-                        rs.getString("symbol"),
-                        rs.getString("name"),
-                        rs.getString("as_of_date"),
-                        rs.getObject("close") == null ? null : rs.getBigDecimal("close").doubleValue(),
-                        rs.getObject("return_pct") == null ? null : rs.getBigDecimal("return_pct").doubleValue(),
-                        rs.getObject("ma50") == null ? null : rs.getBigDecimal("ma50").doubleValue(),
-                        rs.getObject("ma200") == null ? null : rs.getBigDecimal("ma200").doubleValue(),
-                        rs.getObject("volume") == null ? null : rs.getLong("volume")
-                )
-        );
-    }
-
-    /**
-     * Rank stocks by their longest winning or losing streak.
-     * Uses the "Gaps and Islands" pattern with SQL window functions to identify consecutive days of movement.
-     *
-     * @param indexSymbol Index to filter by
-     * @param interval Bar interval
-     * @param directionSign Positive for winning streak, negative for losing streak
-     * @param start Start date
-     * @param end End date
-     * @param limit Max results
-     * @param volumeMultiple Volume filter (must be > N * AvgVolume)
-     * @param flatThresholdPct Threshold to consider a day "flat" (unchanged)
-     */
-    public List<StreakRankItemDto> rankLongestStreaks(
-            String indexSymbol,
-            String interval,
-            int directionSign,
-            LocalDate start,
-            LocalDate end,
-            int limit,
-            double volumeMultiple,
-            double flatThresholdPct
-    ) {
-        boolean listAll = indexSymbol == null || indexSymbol.isBlank() || "ALL".equalsIgnoreCase(indexSymbol);
-        LocalDate asOf = null;
-        if (!listAll) {
-            requireIndexId(indexSymbol);
-            asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-            if (asOf == null) {
-                return List.of();
-            }
-        }
-
-        String itv = interval == null ? "1d" : interval.trim().toLowerCase();
-        if (!itv.equals("1d") && !itv.equals("1w") && !itv.equals("1m")) {
-            throw new IllegalArgumentException("Unsupported interval: " + interval);
-        }
-        int dir = directionSign >= 0 ? 1 : -1;
-
-        double flatThreshold = Math.max(0.0, flatThresholdPct) / 100.0;
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("asOf", asOf)
-                .addValue("start", start)
-                .addValue("end", end)
-                .addValue("dir", dir)
-                .addValue("volumeMultiple", Math.max(0.0, volumeMultiple))
-                .addValue("flatThreshold", flatThreshold)
-                .addValue("limit", limit);
-
-        String membersCte;
-        if (listAll) {
-            membersCte = """
-                members as (
-                    select id as security_id
-                    from market.security
-                    where security_type = 'STOCK'
-                )
-                """;
-        } else {
-            membersCte = """
-                idx as (
-                    select id as index_id
-                    from market.security
-                    where security_type = 'INDEX' and canonical_symbol = :indexSymbol
-                ),
-                members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join idx on idx.index_id = m.index_id
-                    where m.as_of_date = :asOf
-                )
-                """;
-        }
-
-        String barsSql;
-        if (itv.equals("1d")) {
-            barsSql = "select security_id, bar_date, close, volume from raw";
-        } else if (itv.equals("1w")) {
-            barsSql = """
-                select lc.security_id, lc.period as bar_date, lc.close, va.volume
-                from (
-                    select distinct on (security_id, period)
-                        security_id,
-                        date_trunc('week', bar_date)::date as period,
-                        bar_date,
-                        close
-                    from raw
-                    order by security_id, period, bar_date desc
-                ) lc
-                join (
-                    select
-                        security_id,
-                        date_trunc('week', bar_date)::date as period,
-                        sum(coalesce(volume, 0)) as volume
-                    from raw
-                    group by security_id, date_trunc('week', bar_date)::date
-                ) va on va.security_id = lc.security_id and va.period = lc.period
-                """;
-        } else {
-            barsSql = """
-                select lc.security_id, lc.period as bar_date, lc.close, va.volume
-                from (
-                    select distinct on (security_id, period)
-                        security_id,
-                        date_trunc('month', bar_date)::date as period,
-                        bar_date,
-                        close
-                    from raw
-                    order by security_id, period, bar_date desc
-                ) lc
-                join (
-                    select
-                        security_id,
-                        date_trunc('month', bar_date)::date as period,
-                        sum(coalesce(volume, 0)) as volume
-                    from raw
-                    group by security_id, date_trunc('month', bar_date)::date
-                ) va on va.security_id = lc.security_id and va.period = lc.period
-                """;
-        }
-
-        String sql = """
-                with
-                %s,
-                effective_end as (
-                    select max(pb.bar_date) as bar_date
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d' and pb.bar_date <= :end
-                ),
-                raw as (
-                    select pb.security_id, pb.bar_date, pb.close, pb.volume
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    join effective_end ee on pb.bar_date between :start and ee.bar_date
-                    where pb.interval = '1d' and pb.close is not null
-                ),
-                bars as (
-                    %s
-                ),
-                calc as (
-                    select
-                        security_id,
-                        bar_date,
-                        close,
-                        volume,
-                        lag(close) over(partition by security_id order by bar_date) as prev_close,
-                        avg(volume) over(partition by security_id order by bar_date rows between 19 preceding and current row) as vol_ma20
-                    from bars
-                ),
-                dirs as (
-                    select
-                        security_id,
-                        bar_date,
-                        case
-                            when prev_close is null or close is null then null
-                            when :volumeMultiple > 0 and (vol_ma20 is null or vol_ma20 = 0 or volume is null or volume < (vol_ma20 * :volumeMultiple)) then 0
-                            when :flatThreshold > 0 and abs((close / prev_close) - 1.0) < :flatThreshold then 0
-                            when close > prev_close then 1
-                            when close < prev_close then -1
-                            else 0
-                        end as dir
-                    from calc
-                ),
-                tagged as (
-                    select
-                        security_id,
-                        bar_date,
-                        dir,
-                        sum(case when dir <> :dir then 1 else 0 end) over(partition by security_id order by bar_date) as grp
-                    from dirs
-                    where dir is not null
-                ),
-                segments as (
-                    select
-                        security_id,
-                        grp,
-                        min(bar_date) as start_date,
-                        max(bar_date) as end_date,
-                        count(*) as streak
-                    from tagged
-                    where dir = :dir
-                    group by security_id, grp
-                ),
-                best as (
-                    select distinct on (security_id)
-                        security_id,
-                        streak,
-                        start_date,
-                        end_date
-                    from segments
-                    order by security_id, streak desc, end_date desc
-                )
-                select
-                    s.canonical_symbol as symbol,
-                    s.name as name,
-                    b.streak as streak,
-                    to_char(b.start_date, 'YYYY-MM-DD') as start_date,
-                    to_char(b.end_date, 'YYYY-MM-DD') as end_date
-                from best b
-                join market.security s on s.id = b.security_id and s.security_type = 'STOCK'
-                order by b.streak desc, b.end_date desc
-                limit :limit
-                """.formatted(membersCte, barsSql);
-
-        String dirLabel = dir > 0 ? "up" : "down";
-        return jdbc.query(
-                sql,
-                params,
-                (rs, rowNum) -> new StreakRankItemDto(
-                        rs.getString("symbol"),
-                        rs.getString("name"),
-                        itv,
-                        dirLabel,
-                        rs.getObject("streak") == null ? null : rs.getInt("streak"),
-                        rs.getString("start_date"),
-                        rs.getString("end_date")
-                )
-        );
-    }
-
-    public StreakRankItemDto getLongestStreakForSymbol(
-            String stockSymbol,
-            String interval,
-            int directionSign,
-            LocalDate start,
-            LocalDate end,
-            double volumeMultiple,
-            double flatThresholdPct
-    ) {
-        long securityId = findSecurityIdBySymbol(stockSymbol)
-                .orElseThrow(() -> new IllegalArgumentException("Security not found: " + stockSymbol));
-
-        String itv = interval == null ? "1d" : interval.trim().toLowerCase();
-        if (!itv.equals("1d") && !itv.equals("1w") && !itv.equals("1m")) {
-            throw new IllegalArgumentException("Unsupported interval: " + interval);
-        }
-        int dir = directionSign >= 0 ? 1 : -1;
-
-        String name = jdbc.query(
-                "select name from market.security where id = :id",
-                new MapSqlParameterSource().addValue("id", securityId),
-                rs -> rs.next() ? rs.getString("name") : stockSymbol
-        );
-
-        double flatThreshold = Math.max(0.0, flatThresholdPct) / 100.0;
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("securityId", securityId)
-                .addValue("start", start)
-                .addValue("end", end)
-                .addValue("dir", dir)
-                .addValue("volumeMultiple", Math.max(0.0, volumeMultiple))
-                .addValue("flatThreshold", flatThreshold);
-
-        String barsSql;
-        if (itv.equals("1d")) {
-            barsSql = "select security_id, bar_date, close, volume from raw";
-        } else if (itv.equals("1w")) {
-            barsSql = """
-                select lc.security_id, lc.period as bar_date, lc.close, va.volume
-                from (
-                    select distinct on (security_id, period)
-                        security_id,
-                        date_trunc('week', bar_date)::date as period,
-                        bar_date,
-                        close
-                    from raw
-                    order by security_id, period, bar_date desc
-                ) lc
-                join (
-                    select
-                        security_id,
-                        date_trunc('week', bar_date)::date as period,
-                        sum(coalesce(volume, 0)) as volume
-                    from raw
-                    group by security_id, date_trunc('week', bar_date)::date
-                ) va on va.security_id = lc.security_id and va.period = lc.period
-                """;
-        } else {
-            barsSql = """
-                select lc.security_id, lc.period as bar_date, lc.close, va.volume
-                from (
-                    select distinct on (security_id, period)
-                        security_id,
-                        date_trunc('month', bar_date)::date as period,
-                        bar_date,
-                        close
-                    from raw
-                    order by security_id, period, bar_date desc
-                ) lc
-                join (
-                    select
-                        security_id,
-                        date_trunc('month', bar_date)::date as period,
-                        sum(coalesce(volume, 0)) as volume
-                    from raw
-                    group by security_id, date_trunc('month', bar_date)::date
-                ) va on va.security_id = lc.security_id and va.period = lc.period
-                """;
-        }
-
-        String sql = """
-                with
-                members as (
-                    select :securityId::bigint as security_id
-                ),
-                effective_end as (
-                    select max(pb.bar_date) as bar_date
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d' and pb.bar_date <= :end
-                ),
-                raw as (
-                    select pb.security_id, pb.bar_date, pb.close, pb.volume
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    join effective_end ee on pb.bar_date between :start and ee.bar_date
-                    where pb.interval = '1d' and pb.close is not null
-                ),
-                bars as (
-                    %s
-                ),
-                calc as (
-                    select
-                        security_id,
-                        bar_date,
-                        close,
-                        volume,
-                        lag(close) over(partition by security_id order by bar_date) as prev_close,
-                        avg(volume) over(partition by security_id order by bar_date rows between 19 preceding and current row) as vol_ma20
-                    from bars
-                ),
-                dirs as (
-                    select
-                        security_id,
-                        bar_date,
-                        case
-                            when prev_close is null or close is null then null
-                            when :volumeMultiple > 0 and (vol_ma20 is null or vol_ma20 = 0 or volume is null or volume < (vol_ma20 * :volumeMultiple)) then 0
-                            when :flatThreshold > 0 and abs((close / prev_close) - 1.0) < :flatThreshold then 0
-                            when close > prev_close then 1
-                            when close < prev_close then -1
-                            else 0
-                        end as dir
-                    from calc
-                ),
-                tagged as (
-                    select
-                        security_id,
-                        bar_date,
-                        dir,
-                        sum(case when dir <> :dir then 1 else 0 end) over(partition by security_id order by bar_date) as grp
-                    from dirs
-                    where dir is not null
-                ),
-                segments as (
-                    select
-                        security_id,
-                        grp,
-                        min(bar_date) as start_date,
-                        max(bar_date) as end_date,
-                        count(*) as streak
-                    from tagged
-                    where dir = :dir
-                    group by security_id, grp
-                ),
-                best as (
-                    select distinct on (security_id)
-                        security_id,
-                        streak,
-                        start_date,
-                        end_date
-                    from segments
-                    order by security_id, streak desc, end_date desc
-                )
-                select
-                    streak,
-                    to_char(start_date, 'YYYY-MM-DD') as start_date,
-                    to_char(end_date, 'YYYY-MM-DD') as end_date
-                from best
-                """.formatted(barsSql);
-
-        record Row(Integer streak, String startDate, String endDate) {}
-
-        List<Row> rows = jdbc.query(
-                sql,
-                params,
-                (rs, rowNum) -> new Row(
-                        rs.getObject("streak") == null ? null : rs.getInt("streak"),
-                        rs.getString("start_date"),
-                        rs.getString("end_date")
-                )
-        );
-
-        String dirLabel = dir > 0 ? "up" : "down";
-        if (rows.isEmpty()) {
-            return new StreakRankItemDto(stockSymbol, name, itv, dirLabel, 0, null, null);
-        }
-        Row r = rows.get(0);
-        return new StreakRankItemDto(stockSymbol, name, itv, dirLabel, r.streak(), r.startDate(), r.endDate());
-    }
-
-    /**
-     * Rank stocks by Maximum Drawdown (MDD) over a period.
-     * MDD is calculated as the maximum percentage drop from a running maximum.
-     */
-    public List<FactorRankItemDto> rankMaxDrawdown(
-            String indexSymbol,
-            String interval,
-            LocalDate start,
-            LocalDate end,
-            int limit,
-            boolean best
-    ) {
-        boolean listAll = indexSymbol == null || indexSymbol.isBlank() || "ALL".equalsIgnoreCase(indexSymbol);
-        LocalDate asOf = null;
-        if (!listAll) {
-            requireIndexId(indexSymbol);
-            asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-            if (asOf == null) {
-                return List.of();
-            }
-        }
-
-        String itv = interval == null ? "1d" : interval.trim().toLowerCase();
-        if (!itv.equals("1d") && !itv.equals("1w") && !itv.equals("1m")) {
-            throw new IllegalArgumentException("Unsupported interval: " + interval);
-        }
-
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("asOf", asOf)
-                .addValue("start", start)
-                .addValue("end", end)
-                .addValue("limit", limit);
-
-        String membersCte;
-        if (listAll) {
-            membersCte = """
-                members as (
-                    select id as security_id
-                    from market.security
-                    where security_type = 'STOCK'
-                )
-                """;
-        } else {
-            membersCte = """
-                idx as (
-                    select id as index_id
-                    from market.security
-                    where security_type = 'INDEX' and canonical_symbol = :indexSymbol
-                ),
-                members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join idx on idx.index_id = m.index_id
-                    where m.as_of_date = :asOf
-                )
-                """;
-        }
-
-        String barsSql = buildCloseBarsSql(itv);
-        String order = best ? "mdd desc nulls last" : "mdd asc nulls last";
-        String sql = """
-                with
-                %s,
-                effective_end as (
-                    select max(pb.bar_date) as bar_date
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d' and pb.bar_date <= :end
-                ),
-                raw as (
-                    select pb.security_id, pb.bar_date, pb.close
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    join effective_end ee on pb.bar_date between :start and ee.bar_date
-                    where pb.interval = '1d' and pb.close is not null
-                ),
-                bars as (
-                    %s
-                ),
-                calc as (
-                    select
-                        security_id,
-                        bar_date,
-                        close,
-                        max(close) over(partition by security_id order by bar_date rows between unbounded preceding and current row) as run_max
-                    from bars
-                ),
-                dd as (
-                    select
-                        security_id,
-                        bar_date,
-                        case when run_max is null or run_max = 0 then null else (close / run_max - 1.0) end as dd
-                    from calc
-                ),
-                mdd as (
-                    select security_id, min(dd) as mdd
-                    from dd
-                    group by security_id
-                ),
-                trough as (
-                    select distinct on (d.security_id)
-                        d.security_id,
-                        d.bar_date as trough_date
-                    from dd d
-                    join mdd m on m.security_id = d.security_id and m.mdd = d.dd
-                    order by d.security_id, d.bar_date desc
-                )
-                select
-                    s.canonical_symbol as symbol,
-                    s.name as name,
-                    m.mdd as mdd,
-                    to_char(t.trough_date, 'YYYY-MM-DD') as end_date
-                from mdd m
-                join market.security s on s.id = m.security_id and s.security_type = 'STOCK'
-                left join trough t on t.security_id = m.security_id
-                order by %s
-                limit :limit
-                """.formatted(membersCte, barsSql, order);
-
-        String metric = "max_drawdown";
-        return jdbc.query(
-                sql,
-                params,
-                (rs, rowNum) -> new FactorRankItemDto(
-                        rs.getString("symbol"),
-                        rs.getString("name"),
-                        metric,
-                        rs.getObject("mdd") == null ? null : rs.getBigDecimal("mdd").doubleValue(),
-                        null,
-                        null,
-                        null,
-                        rs.getString("end_date")
-                )
-        );
-    }
-
-    public List<FactorRankItemDto> rankMaxRundown(
-            String indexSymbol,
-            String interval,
-            LocalDate start,
-            LocalDate end,
-            int limit
-    ) {
-        List<FactorRankItemDto> rows = rankMaxDrawdown(indexSymbol, interval, start, end, limit, false);
-        return rows.stream()
-                .map(r -> new FactorRankItemDto(r.symbol(), r.name(), "max_rundown", r.value(), r.count(), r.rate(), r.startDate(), r.endDate()))
-                .toList();
-    }
-
-    public List<FactorRankItemDto> rankMaxRunup(
-            String indexSymbol,
-            String interval,
-            LocalDate start,
-            LocalDate end,
-            int limit
-    ) {
-        boolean listAll = indexSymbol == null || indexSymbol.isBlank() || "ALL".equalsIgnoreCase(indexSymbol);
-        LocalDate asOf = null;
-        if (!listAll) {
-            requireIndexId(indexSymbol);
-            asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-            if (asOf == null) {
-                return List.of();
-            }
-        }
-
-        String itv = interval == null ? "1d" : interval.trim().toLowerCase();
-        if (!itv.equals("1d") && !itv.equals("1w") && !itv.equals("1m")) {
-            throw new IllegalArgumentException("Unsupported interval: " + interval);
-        }
-
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("asOf", asOf)
-                .addValue("start", start)
-                .addValue("end", end)
-                .addValue("limit", limit);
-
-        String membersCte;
-        if (listAll) {
-            membersCte = """
-                members as (
-                    select id as security_id
-                    from market.security
-                    where security_type = 'STOCK'
-                )
-                """;
-        } else {
-            membersCte = """
-                idx as (
-                    select id as index_id
-                    from market.security
-                    where security_type = 'INDEX' and canonical_symbol = :indexSymbol
-                ),
-                members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join idx on idx.index_id = m.index_id
-                    where m.as_of_date = :asOf
-                )
-                """;
-        }
-
-        String barsSql = buildCloseBarsSql(itv);
-        String sql = """
-                with
-                %s,
-                effective_end as (
-                    select max(pb.bar_date) as bar_date
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d' and pb.bar_date <= :end
-                ),
-                raw as (
-                    select pb.security_id, pb.bar_date, pb.close
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    join effective_end ee on pb.bar_date between :start and ee.bar_date
-                    where pb.interval = '1d' and pb.close is not null
-                ),
-                bars as (
-                    %s
-                ),
-                calc as (
-                    select
-                        security_id,
-                        bar_date,
-                        close,
-                        min(close) over(partition by security_id order by bar_date rows between unbounded preceding and current row) as run_min
-                    from bars
-                ),
-                ru as (
-                    select
-                        security_id,
-                        bar_date,
-                        case when run_min is null or run_min = 0 then null else (close / run_min - 1.0) end as ru
-                    from calc
-                ),
-                mru as (
-                    select security_id, max(ru) as mru
-                    from ru
-                    group by security_id
-                ),
-                peak as (
-                    select distinct on (r.security_id)
-                        r.security_id,
-                        r.bar_date as peak_date
-                    from ru r
-                    join mru m on m.security_id = r.security_id and m.mru = r.ru
-                    order by r.security_id, r.bar_date desc
-                )
-                select
-                    s.canonical_symbol as symbol,
-                    s.name as name,
-                    m.mru as mru,
-                    to_char(p.peak_date, 'YYYY-MM-DD') as end_date
-                from mru m
-                join market.security s on s.id = m.security_id and s.security_type = 'STOCK'
-                left join peak p on p.security_id = m.security_id
-                order by m.mru desc nulls last
-                limit :limit
-                """.formatted(membersCte, barsSql);
-
-        String metric = "max_runup";
-        return jdbc.query(
-                sql,
-                params,
-                (rs, rowNum) -> new FactorRankItemDto(
-                        rs.getString("symbol"),
-                        rs.getString("name"),
-                        metric,
-                        rs.getObject("mru") == null ? null : rs.getBigDecimal("mru").doubleValue(),
-                        null,
-                        null,
-                        null,
-                        rs.getString("end_date")
-                )
-        );
-    }
-
-    public List<FactorRankItemDto> rankNewHighLowCounts(
-            String indexSymbol,
-            String interval,
-            LocalDate start,
-            LocalDate end,
-            int limit,
-            int lookback,
-            boolean high
-    ) {
-        boolean listAll = indexSymbol == null || indexSymbol.isBlank() || "ALL".equalsIgnoreCase(indexSymbol);
-        LocalDate asOf = null;
-        if (!listAll) {
-            requireIndexId(indexSymbol);
-            asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-            if (asOf == null) {
-                return List.of();
-            }
-        }
-
-        String itv = interval == null ? "1d" : interval.trim().toLowerCase();
-        if (!itv.equals("1d") && !itv.equals("1w") && !itv.equals("1m")) {
-            throw new IllegalArgumentException("Unsupported interval: " + interval);
-        }
-
-        int lb = Math.min(Math.max(lookback, 2), 2000);
-
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("asOf", asOf)
-                .addValue("start", start)
-                .addValue("end", end)
-                .addValue("limit", limit);
-
-        String membersCte;
-        if (listAll) {
-            membersCte = """
-                members as (
-                    select id as security_id
-                    from market.security
-                    where security_type = 'STOCK'
-                )
-                """;
-        } else {
-            membersCte = """
-                idx as (
-                    select id as index_id
-                    from market.security
-                    where security_type = 'INDEX' and canonical_symbol = :indexSymbol
-                ),
-                members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join idx on idx.index_id = m.index_id
-                    where m.as_of_date = :asOf
-                )
-                """;
-        }
-
-        String barsSql = buildCloseBarsSql(itv);
-        String statField = high ? "highs" : "lows";
-        String metric = high ? "new_high_count" : "new_low_count";
-        String sql = """
-                with
-                %s,
-                effective_end as (
-                    select max(pb.bar_date) as bar_date
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d' and pb.bar_date <= :end
-                ),
-                raw as (
-                    select pb.security_id, pb.bar_date, pb.close
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    join effective_end ee on pb.bar_date between :start and ee.bar_date
-                    where pb.interval = '1d' and pb.close is not null
-                ),
-                bars as (
-                    %s
-                ),
-                calc as (
-                    select
-                        security_id,
-                        bar_date,
-                        close,
-                        max(close) over(partition by security_id order by bar_date rows between %d preceding and 1 preceding) as prev_max,
-                        min(close) over(partition by security_id order by bar_date rows between %d preceding and 1 preceding) as prev_min
-                    from bars
-                ),
-                stats as (
-                    select
-                        security_id,
-                        sum(case when prev_max is not null and close > prev_max then 1 else 0 end) as highs,
-                        sum(case when prev_min is not null and close < prev_min then 1 else 0 end) as lows,
-                        sum(case when prev_max is not null then 1 else 0 end) as evals
-                    from calc
-                    group by security_id
-                )
-                select
-                    s.canonical_symbol as symbol,
-                    s.name as name,
-                    st.%s as cnt,
-                    st.evals as evals
-                from stats st
-                join market.security s on s.id = st.security_id and s.security_type = 'STOCK'
-                order by st.%s desc nulls last
-                limit :limit
-                """.formatted(membersCte, barsSql, lb - 1, lb - 1, statField, statField);
-
-        return jdbc.query(
-                sql,
-                params,
-                (rs, rowNum) -> {
-                    Integer cnt = rs.getObject("cnt") == null ? null : rs.getInt("cnt");
-                    Integer evals = rs.getObject("evals") == null ? null : rs.getInt("evals");
-                    Double rate = (cnt != null && evals != null && evals > 0) ? (cnt.doubleValue() / evals.doubleValue()) : null;
-                    return new FactorRankItemDto(
-                            rs.getString("symbol"),
-                            rs.getString("name"),
-                            metric,
-                            null,
-                            cnt,
-                            rate,
-                            null,
-                            null
-                    );
-                }
-        );
-    }
-
-    private static String buildCloseBarsSql(String itv) {
-        if ("1w".equals(itv)) {
-            return """
-                select distinct on (security_id, period)
-                    security_id,
-                    period as bar_date,
-                    close
-                from (
-                    select
-                        security_id,
-                        date_trunc('week', bar_date)::date as period,
-                        bar_date,
-                        close
-                    from raw
-                ) t
-                order by security_id, period, bar_date desc
-                """;
-        }
-        if ("1m".equals(itv)) {
-            return """
-                select distinct on (security_id, period)
-                    security_id,
-                    period as bar_date,
-                    close
-                from (
-                    select
-                        security_id,
-                        date_trunc('month', bar_date)::date as period,
-                        bar_date,
-                        close
-                    from raw
-                ) t
-                order by security_id, period, bar_date desc
-                """;
-        }
-        return "select security_id, bar_date, close from raw";
-    }
-
-    public RsSeriesDto getRelativeStrengthSeries(String stockSymbol, String indexSymbol, LocalDate start, LocalDate end) {
-        if (stockSymbol == null || stockSymbol.isBlank()) {
-            throw new IllegalArgumentException("symbol is required");
-        }
-        requireIndexId(indexSymbol);
-        long stockId = findSecurityIdBySymbol(stockSymbol)
-                .orElseThrow(() -> new IllegalArgumentException("Security not found: " + stockSymbol));
-        long indexId = requireIndexId(indexSymbol);
-
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("stockId", stockId)
-                .addValue("indexId", indexId)
-                .addValue("start", start)
-                .addValue("end", end);
-
-        record Row(LocalDate date, Double stockClose, Double indexClose) {}
-
-        List<Row> rows = jdbc.query(
-                """
-                with s as (
-                    select bar_date, close
-                    from market.price_bar
-                    where security_id = :stockId and interval = '1d' and bar_date between :start and :end
-                ),
-                i as (
-                    select bar_date, close
-                    from market.price_bar
-                    where security_id = :indexId and interval = '1d' and bar_date between :start and :end
-                )
-                select s.bar_date as bar_date, s.close as stock_close, i.close as index_close
-                from s
-                join i on i.bar_date = s.bar_date
-                where s.close is not null and i.close is not null and i.close <> 0
-                order by s.bar_date
-                """,
-                params,
-                (rs, rowNum) -> new Row(
-                        rs.getObject("bar_date", LocalDate.class),
-                        rs.getObject("stock_close") == null ? null : rs.getBigDecimal("stock_close").doubleValue(),
-                        rs.getObject("index_close") == null ? null : rs.getBigDecimal("index_close").doubleValue()
-                )
-        );
-
-        if (rows.isEmpty()) {
-            return new RsSeriesDto(stockSymbol, indexSymbol, start.toString(), end.toString(), null, null, null, List.of());
-        }
-
-        double firstStock = rows.get(0).stockClose() == null ? 0 : rows.get(0).stockClose();
-        double firstIndex = rows.get(0).indexClose() == null ? 0 : rows.get(0).indexClose();
-        Double firstRs = firstIndex == 0 ? null : (firstStock / firstIndex);
-
-        Double lastStock = rows.get(rows.size() - 1).stockClose();
-        Double lastIndex = rows.get(rows.size() - 1).indexClose();
-        Double stockReturn = (firstStock != 0 && lastStock != null) ? (lastStock / firstStock - 1.0) : null;
-        Double indexReturn = (firstIndex != 0 && lastIndex != null) ? (lastIndex / firstIndex - 1.0) : null;
-        Double rsReturn = (stockReturn != null && indexReturn != null)
-                ? ((1.0 + stockReturn) / (1.0 + indexReturn) - 1.0)
-                : null;
-
-        List<RsPointDto> points = rows.stream().map(r -> {
-            Double rs = (r.indexClose() == null || r.indexClose() == 0 || r.stockClose() == null) ? null : (r.stockClose() / r.indexClose());
-            Double rsNorm = (rs != null && firstRs != null && firstRs != 0) ? (rs / firstRs) : null;
-            return new RsPointDto(
-                    r.date().toString(),
-                    r.stockClose(),
-                    r.indexClose(),
-                    rs,
-                    rsNorm
-            );
-        }).toList();
-
-        return new RsSeriesDto(stockSymbol, indexSymbol, start.toString(), end.toString(), stockReturn, indexReturn, rsReturn, points);
-    }
-
-    /**
-     * Rank stocks by Relative Strength (RS) compared to an index (e.g. SPX).
-     * RS is calculated as StockPrice / IndexPrice.
-     * Returns stocks with the highest RS performance over the lookback period.
-     */
-    public List<RsRankItemDto> rankRelativeStrength(String indexSymbol, int lookbackDays, int limit, boolean requireAboveMa50) {
-        long indexId = requireIndexId(indexSymbol);
-        LocalDate asOf = getLatestIndexAsOfDate(indexSymbol).orElse(null);
-        if (asOf == null) {
-            return List.of();
-        }
-
-        MapSqlParameterSource params = new MapSqlParameterSource()
-                .addValue("indexSymbol", indexSymbol)
-                .addValue("indexId", indexId)
-                .addValue("asOf", asOf)
-                .addValue("lookback", lookbackDays)
-                .addValue("limit", limit)
-                .addValue("requireMa50", requireAboveMa50);
-
-        return jdbc.query(
-                """
-                with members as (
-                    select m.security_id
-                    from market.index_membership m
-                    join market.security idx on idx.id = m.index_id and idx.canonical_symbol = :indexSymbol and idx.security_type = 'INDEX'
-                    where m.as_of_date = :asOf
-                ),
-                idx_bars as (
-                    select
-                        pb.bar_date,
-                        pb.close,
-                        lag(pb.close, :lookback) over(order by pb.bar_date) as close_lb
-                    from market.price_bar pb
-                    where pb.security_id = :indexId and pb.interval = '1d'
-                ),
-                idx_latest as (
-                    select max(bar_date) as bar_date
-                    from idx_bars
-                ),
-                idx_at as (
-                    select
-                        to_char(b.bar_date, 'YYYY-MM-DD') as as_of_date,
-                        b.close as idx_close,
-                        b.close_lb as idx_close_lb
-                    from idx_bars b
-                    join idx_latest l on l.bar_date = b.bar_date
-                    where b.close is not null and b.close_lb is not null and b.close_lb <> 0
-                ),
-                stock_bars as (
-                    select
-                        pb.security_id,
-                        pb.bar_date,
-                        pb.close,
-                        lag(pb.close, :lookback) over(partition by pb.security_id order by pb.bar_date) as close_lb,
-                        avg(pb.close) over(partition by pb.security_id order by pb.bar_date rows between 49 preceding and current row) as ma50
-                    from market.price_bar pb
-                    join members mem on mem.security_id = pb.security_id
-                    where pb.interval = '1d'
-                      and pb.bar_date >= (select bar_date from idx_latest) - interval '500 days'
-                ),
-                stock_at as (
+                stock_at as (
                     select distinct on (security_id)
                         security_id,
                         bar_date,
@@ -2602,32 +1629,112 @@ public class MarketRepository {
             String interval,
             LocalDate start,
             LocalDate end
+    ) {
+        return getBarSeries(canonicalSymbol, interval, start, end).toBarDtos();
+    }
+
+    /**
+     * Bars of a security as primitive columns. Weekly and longer intervals come from the stored rollups;
+     * until those exist for the security the daily bars are rolled up on the fly.
+     */
+    public BarSeries getBarSeries(
+            String canonicalSymbol,
+            String interval,
+            LocalDate start,
+            LocalDate end
     ) {
         long securityId = findSecurityIdBySymbol(canonicalSymbol)
                 .orElseThrow(() -> new IllegalArgumentException("Security not found: " + canonicalSymbol));
+        return getBarSeries(securityId, BarSeries.normalizeInterval(interval), start, end);
+    }
 
-        String iv = interval == null ? "1d" : interval.toLowerCase(Locale.ROOT);
-        if (!iv.equals("1d")) {
-            List<BarDto> daily = getBarsBySecurityId(securityId, "1d", start, end);
-            return aggregateIfNeeded(daily, iv);
+    /**
+     * Hand the bars of a security to {@code action} one at a time in date order, without materialising
+     * the whole range: from the bar store when it is loaded, otherwise through a database cursor. As with
+     * {@link #getBarSeries}, a security without any stored bars at a longer interval gets its daily bars rolled up.
+     *
+     * @param interval A normalised interval, see {@link BarSeries#normalizeInterval(String)}
+     */
+    public void streamBars(long securityId, String interval, LocalDate start, LocalDate end, Consumer<BarDto> action) {
+        if (!barStore.isLoaded()) {
+            boolean[] any = new boolean[1];
+            barCursor.forEachBar(securityId, interval, start, end, bar -> {
+                any[0] = true;
+                action.accept(bar);
+            });
+            if (any[0] || interval.equals("1d")) {
+                return;
+            }
+        }
+        BarSeries bars = getBarSeries(securityId, interval, start, end);
+        for (int i = 0; i < bars.size(); i++) {
+            action.accept(bars.toBarDto(i));
         }
+    }
 
-        return getBarsBySecurityId(securityId, "1d", start, end);
+    /**
+     * Daily bars of a security within {@code [start, end]}, from the bar store when it is loaded.
+     */
+    public BarSeries getDailySeries(long securityId, LocalDate start, LocalDate end) {
+        return loadSeries(securityId, "1d", start, end);
     }
 
-    private List<BarDto> getBarsBySecurityId(
-            long securityId,
-            String interval,
-            LocalDate start,
-            LocalDate end
-    ) {
+    private BarSeries getBarSeries(long securityId, String iv, LocalDate start, LocalDate end) {
+        if (iv.equals("1d")) {
+            return loadSeries(securityId, iv, start, end);
+        }
+        Supplier<BarSeries> rolledUp = () -> loadSeries(securityId, "1d", start, end).aggregate(iv);
+        Optional<BarSeries> stored = barStore.find(securityId, iv);
+        if (stored.isPresent()) {
+            return sliceOrRollUp(stored.get(), start, end, rolledUp);
+        }
+        BarSeries bars = loadSeries(securityId, iv, start, end);
+        if (bars.isEmpty() && !hasBars(securityId, iv)) {
+            return rolledUp.get();
+        }
+        return bars;
+    }
+
+    /**
+     * The stored bars of a security within {@code [start, end]}, or its daily bars rolled up when it has no
+     * stored bars at the interval at all. A range with no stored bar of its own, such as a few days inside one
+     * period, stays empty rather than getting a partial bar.
+     *
+     * @param stored Every stored bar of the security at the interval
+     */
+    static BarSeries sliceOrRollUp(BarSeries stored, LocalDate start, LocalDate end, Supplier<BarSeries> rolledUp) {
+        return stored.isEmpty() ? rolledUp.get() : stored.slice(start, end);
+    }
+
+    private boolean hasBars(long securityId, String interval) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                """
+                select exists (
+                    select 1 from market.price_bar
+                    where security_id = :securityId and interval = :interval
+                )
+                """,
+                new MapSqlParameterSource()
+                        .addValue("securityId", securityId)
+                        .addValue("interval", interval),
+                Boolean.class
+        ));
+    }
+
+    private BarSeries loadSeries(long securityId, String interval, LocalDate start, LocalDate end) {
+        Optional<BarSeries> cached = barStore.find(securityId, interval);
+        if (cached.isPresent()) {
+            return cached.get().slice(start, end);
+        }
+
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("securityId", securityId)
                 .addValue("interval", interval)
                 .addValue("start", start)
                 .addValue("end", end);
 
-        return jdbc.query(
+        BarSeries.Builder builder = new BarSeries.Builder(512);
+        jdbc.query(
                 """
                 select bar_date, open, high, low, close, volume
                 from market.price_bar
@@ -2637,96 +1744,167 @@ public class MarketRepository {
                 order by bar_date
                 """,
                 params,
-                BAR_MAPPER
+                rs -> {
+                    long v = rs.getLong("volume");
+                    boolean noVolume = rs.wasNull();
+                    builder.add(
+                            (int) rs.getObject("bar_date", LocalDate.class).toEpochDay(),
+                            toDouble(rs.getBigDecimal("open")),
+                            toDouble(rs.getBigDecimal("high")),
+                            toDouble(rs.getBigDecimal("low")),
+                            toDouble(rs.getBigDecimal("close")),
+                            noVolume ? BarSeries.NO_VOLUME : v
+                    );
+                }
         );
+        return builder.build();
     }
 
-    private static List<BarDto> aggregateIfNeeded(List<BarDto> daily, String interval) {
-        if (interval.equals("1w")) return aggregateWeekly(daily);
-        if (interval.equals("1m")) return aggregateMonthly(daily);
-        if (interval.equals("1q")) return aggregateQuarterly(daily);
-        if (interval.equals("1y")) return aggregateYearly(daily);
-        throw new IllegalArgumentException("interval must be one of: 1d, 1w, 1m, 1q, 1y");
+    /**
+     * Stream the daily bars of many securities within {@code [start, end]}, one series per security.
+     *
+     * @see #forEachSeries
+     */
+    public void forEachDailySeries(
+            Collection<String> canonicalSymbols,
+            LocalDate start,
+            LocalDate end,
+            BiConsumer<String, BarSeries> action
+    ) {
+        forEachSeries(canonicalSymbols, "1d", start, end, action);
     }
 
-    private static List<BarDto> aggregateWeekly(List<BarDto> daily) {
-        WeekFields wf = WeekFields.ISO;
-        Map<String, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            LocalDate d = b.date();
-            int wy = d.get(wf.weekBasedYear());
-            int ww = d.get(wf.weekOfWeekBasedYear());
-            String key = wy + "-" + ww;
-            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(b);
+    /**
+     * Stream the bars of many securities at {@code interval} within {@code [start, end]}, one series per security.
+     *
+     * Answered from the bar store when it is loaded; otherwise bars are read with one ordered query per
+     * {@value #BULK_CHUNK_SIZE} securities and each series is handed over as soon as it is complete.
+     * Securities without any stored bars at the interval get their daily bars aggregated, as in
+     * {@link #getBarSeries}.
+     * The action runs once for every symbol that resolves to a security (with an empty series when it
+     * has no bars in range), in no particular order; unknown symbols are skipped.
+     */
+    public void forEachSeries(
+            Collection<String> canonicalSymbols,
+            String interval,
+            LocalDate start,
+            LocalDate end,
+            BiConsumer<String, BarSeries> action
+    ) {
+        String iv = BarSeries.normalizeInterval(interval);
+        Map<Long, String> symbolsById = resolveSecurityIds(canonicalSymbols);
+        if (symbolsById.isEmpty()) {
+            return;
+        }
+        if (barStore.isLoaded()) {
+            for (Map.Entry<Long, String> e : symbolsById.entrySet()) {
+                action.accept(e.getValue(), getBarSeries(e.getKey(), iv, start, end));
+            }
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(symbolsById.keySet());
+        for (int i = 0; i < ids.size(); i += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + BULK_CHUNK_SIZE));
+            SeriesCollector collector = new SeriesCollector((id, bars) -> {
+                if (bars.isEmpty() && !iv.equals("1d") && !hasBars(id, iv)) {
+                    bars = loadSeries(id, "1d", start, end).aggregate(iv);
+                }
+                action.accept(symbolsById.get(id), bars);
+            });
+            jdbc.query(
+                    """
+                    select security_id, bar_date, open, high, low, close, volume
+                    from market.price_bar
+                    where security_id in (:ids)
+                      and interval = :interval
+                      and bar_date between :start and :end
+                    order by security_id, bar_date
+                    """,
+                    new MapSqlParameterSource()
+                            .addValue("ids", chunk)
+                            .addValue("interval", iv)
+                            .addValue("start", start)
+                            .addValue("end", end),
+                    collector
+            );
+            collector.finish(chunk);
         }
-        return aggregateGroups(groups.values());
     }
 
-    private static List<BarDto> aggregateMonthly(List<BarDto> daily) {
-        Map<YearMonth, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            YearMonth ym = YearMonth.from(b.date());
-            groups.computeIfAbsent(ym, k -> new ArrayList<>()).add(b);
+    private Map<Long, String> resolveSecurityIds(Collection<String> canonicalSymbols) {
+        Map<Long, String> out = new LinkedHashMap<>();
+        List<String> unresolved = new ArrayList<>();
+        for (String symbol : canonicalSymbols) {
+            Optional<Long> id = barStore.findSecurityId(symbol);
+            if (id.isPresent()) {
+                out.put(id.get(), symbol);
+            } else if (symbol != null) {
+                unresolved.add(symbol);
+            }
         }
-        return aggregateGroups(groups.values());
+        if (!unresolved.isEmpty()) {
+            jdbc.query(
+                    "select id, canonical_symbol from market.security where canonical_symbol in (:symbols)",
+                    new MapSqlParameterSource().addValue("symbols", unresolved),
+                    (RowCallbackHandler) rs -> out.put(rs.getLong("id"), rs.getString("canonical_symbol"))
+            );
+        }
+        return out;
     }
 
-    private static List<BarDto> aggregateQuarterly(List<BarDto> daily) {
-        Map<String, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            LocalDate d = b.date();
-            int q = (d.getMonthValue() - 1) / 3 + 1;
-            String key = d.getYear() + "-Q" + q;
-            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(b);
+    /**
+     * Cuts rows ordered by (security_id, bar_date) into one series per security.
+     */
+    private static final class SeriesCollector implements RowCallbackHandler {
+        private final BiConsumer<Long, BarSeries> action;
+        private final Set<Long> emitted = new HashSet<>();
+        private long currentId = -1;
+        private BarSeries.Builder builder;
+
+        SeriesCollector(BiConsumer<Long, BarSeries> action) {
+            this.action = action;
         }
-        return aggregateGroups(groups.values());
-    }
 
-    private static List<BarDto> aggregateYearly(List<BarDto> daily) {
-        Map<Integer, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            groups.computeIfAbsent(b.date().getYear(), k -> new ArrayList<>()).add(b);
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("security_id");
+            if (builder == null || id != currentId) {
+                flush();
+                currentId = id;
+                builder = new BarSeries.Builder(256);
+            }
+            long v = rs.getLong("volume");
+            boolean noVolume = rs.wasNull();
+            builder.add(
+                    (int) rs.getObject("bar_date", LocalDate.class).toEpochDay(),
+                    toDouble(rs.getBigDecimal("open")),
+                    toDouble(rs.getBigDecimal("high")),
+                    toDouble(rs.getBigDecimal("low")),
+                    toDouble(rs.getBigDecimal("close")),
+                    noVolume ? BarSeries.NO_VOLUME : v
+            );
         }
-        return aggregateGroups(groups.values());
-    }
 
-    private static List<BarDto> aggregateGroups(Collection<List<BarDto>> groups) {
-        List<BarDto> out = new ArrayList<>();
-        for (List<BarDto> g : groups) {
-            if (g.isEmpty()) continue;
-            g.sort(Comparator.comparing(BarDto::date));
-            BarDto first = g.get(0);
-            BarDto last = g.get(g.size() - 1);
-            BigDecimal open = first.open();
-            BigDecimal close = last.close();
-            BigDecimal high = null;
-            BigDecimal low = null;
-            long vol = 0;
-            boolean hasVol = false;
-            for (BarDto b : g) {
-                if (b.high() != null) {
-                    high = high == null ? b.high() : high.max(b.high());
-                }
-                if (b.low() != null) {
-                    low = low == null ? b.low() : low.min(b.low());
-                }
-                if (b.volume() != null) {
-                    vol += b.volume();
-                    hasVol = true;
+        void finish(List<Long> ids) {
+            flush();
+            for (Long id : ids) {
+                if (emitted.add(id)) {
+                    action.accept(id, BarSeries.empty());
                 }
             }
-            out.add(new BarDto(last.date(), open, high, low, close, hasVol ? vol : null));
         }
-        out.sort(Comparator.comparing(BarDto::date));
-        return out;
+
+        private void flush() {
+            if (builder != null) {
+                emitted.add(currentId);
+                action.accept(currentId, builder.build());
+                builder = null;
+            }
+        }
     }
 
-    private static final RowMapper<BarDto> BAR_MAPPER = (rs, rowNum) -> new BarDto(
-            rs.getObject("bar_date", LocalDate.class),
-            rs.getObject("open", BigDecimal.class),
-            rs.getObject("high", BigDecimal.class),
-            rs.getObject("low", BigDecimal.class),
-            rs.getObject("close", BigDecimal.class),
-            rs.getObject("volume") == null ? null : rs.getLong("volume")
-    );
+    private static double toDouble(BigDecimal v) {
+        return v == null ? Double.NaN : v.doubleValue();
+    }
 }
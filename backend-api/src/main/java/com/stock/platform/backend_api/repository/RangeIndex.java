@@ -0,0 +1,156 @@
+package com.stock.platform.backend_api.repository;
+
+import java.util.Arrays;
+
+/**
+ * Range maximum and minimum queries over the closes, highs and lows of a series' arrays.
+ *
+ * Each column is cut into blocks of {@value #BLOCK} bars; a sparse table over the block extremes answers
+ * the whole blocks of a range with two lookups, and the partial blocks at either end are scanned, so a query
+ * costs at most {@code 2 * BLOCK} comparisons whatever its length. Keeping extremes per block rather than per
+ * bar keeps the index a small fraction of the size of the series itself. Missing values ({@code NaN}) are
+ * ignored; a range without any value yields {@code NaN}.
+ *
+ * The arrays only ever grow at the end when new bars are ingested, so {@link #extend} rebuilds just the last
+ * block and the table entries reaching it.
+ */
+final class RangeIndex {
+    static final int BLOCK = 32;
+    private static final int SHIFT = 5;
+
+    private final Table closeMax;
+    private final Table closeMin;
+    private final Table highMax;
+    private final Table lowMin;
+
+    private RangeIndex(Table closeMax, Table closeMin, Table highMax, Table lowMin) {
+        this.closeMax = closeMax;
+        this.closeMin = closeMin;
+        this.highMax = highMax;
+        this.lowMin = lowMin;
+    }
+
+    static RangeIndex build(double[] close, double[] high, double[] low, int size) {
+        return new RangeIndex(
+                Table.build(close, size, true),
+                Table.build(close, size, false),
+                Table.build(high, size, true),
+                Table.build(low, size, false)
+        );
+    }
+
+    /**
+     * The index of arrays whose first {@link #size()} values are the ones this index was built over.
+     */
+    RangeIndex extend(double[] close, double[] high, double[] low, int size) {
+        return new RangeIndex(
+                closeMax.extend(close, size),
+                closeMin.extend(close, size),
+                highMax.extend(high, size),
+                lowMin.extend(low, size)
+        );
+    }
+
+    int size() {
+        return closeMax.size;
+    }
+
+    /**
+     * Extremes over the absolute array positions {@code [from, to)}.
+     */
+    double maxClose(int from, int to) {
+        return closeMax.query(from, to);
+    }
+
+    double minClose(int from, int to) {
+        return closeMin.query(from, to);
+    }
+
+    double maxHigh(int from, int to) {
+        return highMax.query(from, to);
+    }
+
+    double minLow(int from, int to) {
+        return lowMin.query(from, to);
+    }
+
+    /**
+     * Linear-scan extreme of {@code values[from, to)}, for unindexed series and partial blocks.
+     */
+    static double scan(double[] values, int from, int to, boolean max) {
+        double out = Double.NaN;
+        for (int i = from; i < to; i++) {
+            out = combine(out, values[i], max);
+        }
+        return out;
+    }
+
+    private static double combine(double a, double b, boolean max) {
+        if (Double.isNaN(a)) {
+            return b;
+        }
+        if (Double.isNaN(b)) {
+            return a;
+        }
+        return max ? Math.max(a, b) : Math.min(a, b);
+    }
+
+    /**
+     * One column and direction: {@code levels[k][b]} is the extreme of blocks {@code [b, b + 2^k)}.
+     */
+    private static final class Table {
+        private final double[] values;
+        private final int size;
+        private final boolean max;
+        private final double[][] levels;
+
+        private Table(double[] values, int size, boolean max, double[][] levels) {
+            this.values = values;
+            this.size = size;
+            this.max = max;
+            this.levels = levels;
+        }
+
+        static Table build(double[] values, int size, boolean max) {
+            return fill(values, size, max, new double[0][], 0);
+        }
+
+        Table extend(double[] values, int size) {
+            return fill(values, size, max, levels, this.size >> SHIFT);
+        }
+
+        // Copies the levels of a table over a prefix and computes every entry touching block firstDirty onwards
+        private static Table fill(double[] values, int size, boolean max, double[][] previous, int firstDirty) {
+            int blocks = (size + BLOCK - 1) >> SHIFT;
+            int depth = blocks == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(blocks);
+            double[][] levels = new double[depth][];
+            for (int k = 0; k < depth; k++) {
+                int length = blocks - (1 << k) + 1;
+                levels[k] = k < previous.length ? Arrays.copyOf(previous[k], length) : new double[length];
+                int from = k < previous.length ? Math.max(0, firstDirty - (1 << k) + 1) : 0;
+                for (int b = from; b < length; b++) {
+                    levels[k][b] = k == 0
+                            ? scan(values, b << SHIFT, Math.min(size, (b + 1) << SHIFT), max)
+                            : combine(levels[k - 1][b], levels[k - 1][b + (1 << (k - 1))], max);
+                }
+            }
+            return new Table(values, size, max, levels);
+        }
+
+        double query(int from, int to) {
+            if (from >= to) {
+                return Double.NaN;
+            }
+            int firstFull = (from + BLOCK - 1) >> SHIFT;
+            int endFull = to >> SHIFT;
+            if (firstFull >= endFull) {
+                return scan(values, from, to, max);
+            }
+            double out = scan(values, from, firstFull << SHIFT, max);
+            out = combine(out, scan(values, endFull << SHIFT, to, max), max);
+            int k = 31 - Integer.numberOfLeadingZeros(endFull - firstFull);
+            out = combine(out, levels[k][firstFull], max);
+            return combine(out, levels[k][endFull - (1 << k)], max);
+        }
+    }
+}
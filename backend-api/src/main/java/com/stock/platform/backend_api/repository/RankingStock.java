@@ -0,0 +1,69 @@
+package com.stock.platform.backend_api.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A stock of a ranking universe (see {@link MarketRepository#loadRankingUniverse}) with the periods its bars
+ * count for.
+ *
+ * A stock that left the index and later rejoined has several periods. Its {@link #restrict restricted} bars
+ * are then one series with gaps, and the engines ranking it restart their state at every {@link #breaks
+ * break} so no streak, peak or trough spans a time the stock was out of the index.
+ *
+ * @param periods {@code [from, to)} ranges sorted by start, {@code null} bounds being open; a single open
+ *                period unless the universe is point-in-time
+ */
+public record RankingStock(long securityId, String symbol, String name, List<Period> periods) {
+    public static final List<Period> ALWAYS = List.of(new Period(null, null));
+
+    public record Period(LocalDate from, LocalDate to) {
+        boolean contains(int epochDay) {
+            return (from == null || epochDay >= from.toEpochDay()) && (to == null || epochDay < to.toEpochDay());
+        }
+    }
+
+    /**
+     * The bars of {@code bars} falling in one of the periods.
+     */
+    public BarSeries restrict(BarSeries bars) {
+        if (periods.equals(ALWAYS)) {
+            return bars;
+        }
+        BarSeries.Builder b = new BarSeries.Builder(bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            int day = bars.day(i);
+            for (Period p : periods) {
+                if (p.contains(day)) {
+                    b.add(day, bars.open(i), bars.high(i), bars.low(i), bars.close(i), bars.volume(i));
+                    break;
+                }
+            }
+        }
+        return b.build();
+    }
+
+    /**
+     * Positions in {@code restricted} (bars returned by {@link #restrict}) where a period other than the first
+     * starts after a gap, ascending; empty for a single period.
+     */
+    public int[] breaks(BarSeries restricted) {
+        if (periods.size() < 2) {
+            return new int[0];
+        }
+        int[] out = new int[periods.size() - 1];
+        int n = 0;
+        for (int p = 1; p < periods.size(); p++) {
+            Period period = periods.get(p);
+            if (period.from() == null || period.from().equals(periods.get(p - 1).to())) {
+                continue;
+            }
+            int i = restricted.indexOnOrAfter(period.from());
+            if (i > 0 && i < restricted.size() && (n == 0 || i > out[n - 1])) {
+                out[n++] = i;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,140 @@
+package com.stock.platform.backend_api.repository;
+
+import com.stock.platform.backend_api.api.dto.RsRatingDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+/**
+ * Stores the latest relative-strength rating of every rated stock in {@code market.security_rs_rating}.
+ */
+public class RsRatingRepository {
+    public record StockRef(long securityId, String symbol, String name) {}
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public RsRatingRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * When ratings were last written, or empty when none are stored.
+     */
+    public Optional<Instant> findWatermark() {
+        Timestamp last = jdbc.queryForObject(
+                "select max(computed_at) from market.security_rs_rating",
+                new MapSqlParameterSource(),
+                Timestamp.class
+        );
+        return Optional.ofNullable(last).map(Timestamp::toInstant);
+    }
+
+    public List<StockRef> listStocks() {
+        return jdbc.query(
+                """
+                select id, canonical_symbol, name
+                from market.security
+                where security_type = 'STOCK'
+                order by canonical_symbol
+                """,
+                new MapSqlParameterSource(),
+                (rs, rowNum) -> new StockRef(rs.getLong("id"), rs.getString("canonical_symbol"), rs.getString("name"))
+        );
+    }
+
+    /**
+     * Newest trading day with daily metrics, the date ratings are computed for.
+     */
+    public LocalDate findLatestBarDate() {
+        return jdbc.queryForObject(
+                "select max(bar_date) from market.security_daily_metrics",
+                new MapSqlParameterSource(),
+                LocalDate.class
+        );
+    }
+
+    /**
+     * Replace all stored ratings with {@code ratings}; {@code ids} holds the security id of each rating.
+     */
+    @Transactional
+    public void replaceAll(List<RsRatingDto> ratings, List<Long> ids) {
+        jdbc.update("delete from market.security_rs_rating", new MapSqlParameterSource());
+        SqlParameterSource[] batch = new SqlParameterSource[ratings.size()];
+        for (int i = 0; i < ratings.size(); i++) {
+            RsRatingDto r = ratings.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("securityId", ids.get(i))
+                    .addValue("asOf", LocalDate.parse(r.asOfDate()))
+                    .addValue("score", r.score())
+                    .addValue("rating", r.rating())
+                    .addValue("return3m", r.return3m(), Types.NUMERIC)
+                    .addValue("return6m", r.return6m(), Types.NUMERIC)
+                    .addValue("return9m", r.return9m(), Types.NUMERIC)
+                    .addValue("return12m", r.return12m(), Types.NUMERIC)
+                    .addValue("rating3m", r.rating3m(), Types.SMALLINT)
+                    .addValue("rating6m", r.rating6m(), Types.SMALLINT)
+                    .addValue("rating9m", r.rating9m(), Types.SMALLINT)
+                    .addValue("rating12m", r.rating12m(), Types.SMALLINT);
+        }
+        jdbc.batchUpdate(
+                """
+                insert into market.security_rs_rating (
+                    security_id, as_of_date, score, rating,
+                    return_3m, return_6m, return_9m, return_12m,
+                    rating_3m, rating_6m, rating_9m, rating_12m, computed_at
+                )
+                values (
+                    :securityId, :asOf, :score, :rating,
+                    :return3m, :return6m, :return9m, :return12m,
+                    :rating3m, :rating6m, :rating9m, :rating12m, now()
+                )
+                """,
+                batch
+        );
+    }
+
+    public List<RsRatingDto> findAll() {
+        return jdbc.query(
+                """
+                select s.canonical_symbol, s.name, r.*
+                from market.security_rs_rating r
+                join market.security s on s.id = r.security_id
+                order by r.rating desc, r.score desc
+                """,
+                new MapSqlParameterSource(),
+                (rs, rowNum) -> new RsRatingDto(
+                        rs.getString("canonical_symbol"),
+                        rs.getString("name"),
+                        rs.getObject("as_of_date", LocalDate.class).toString(),
+                        rs.getInt("rating"),
+                        rs.getBigDecimal("score").doubleValue(),
+                        rs.getObject("rating_3m", Integer.class),
+                        rs.getObject("rating_6m", Integer.class),
+                        rs.getObject("rating_9m", Integer.class),
+                        rs.getObject("rating_12m", Integer.class),
+                        toDouble(rs, "return_3m"),
+                        toDouble(rs, "return_6m"),
+                        toDouble(rs, "return_9m"),
+                        toDouble(rs, "return_12m")
+                )
+        );
+    }
+
+    private static Double toDouble(ResultSet rs, String column) throws SQLException {
+        BigDecimal v = rs.getBigDecimal(column);
+        return v == null ? null : v.doubleValue();
+    }
+}
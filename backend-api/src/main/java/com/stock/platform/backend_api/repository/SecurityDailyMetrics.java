@@ -0,0 +1,26 @@
+package com.stock.platform.backend_api.repository;
+
+import java.time.LocalDate;
+
+/**
+ * One row of {@code market.security_daily_metrics}: the technicals of a security as of one trading day.
+ *
+ * Prices are {@code NaN} and {@code volume} is {@link BarSeries#NO_VOLUME} when undefined; both are
+ * stored as SQL {@code null}.
+ */
+public record SecurityDailyMetrics(
+        long securityId,
+        LocalDate barDate,
+        double close,
+        double prevClose,
+        long volume,
+        double ma20,
+        double ma50,
+        double ma200,
+        double prevMa20,
+        double prevMa50,
+        double prevMa200,
+        double high252,
+        double low252,
+        double vma50
+) {}
@@ -0,0 +1,133 @@
+package com.stock.platform.backend_api.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+/**
+ * Reads and writes {@code market.security_daily_metrics}, the per-security daily technicals maintained by
+ * {@link com.stock.platform.backend_api.service.SecurityMetricsService}.
+ */
+public class SecurityMetricsRepository {
+    private static final int BATCH_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public SecurityMetricsRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * When metrics were last written, or empty when the table was never filled.
+     */
+    public Optional<Instant> findWatermark() {
+        Timestamp last = jdbc.queryForObject(
+                "select max(computed_at) from market.security_daily_metrics",
+                new MapSqlParameterSource(),
+                Timestamp.class
+        );
+        return Optional.ofNullable(last).map(Timestamp::toInstant);
+    }
+
+    /**
+     * Securities with daily bars ingested at or after {@code since} (all when null), each mapped to the
+     * oldest such bar date: metrics from that day on need recomputing.
+     */
+    public Map<Long, LocalDate> findChangedSince(Instant since) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("since", Timestamp.from(since == null ? Instant.EPOCH : since));
+        Map<Long, LocalDate> changed = new LinkedHashMap<>();
+        jdbc.query(
+                """
+                select security_id, min(bar_date) as changed_from
+                from market.price_bar
+                where interval = '1d' and ingested_at >= :since
+                group by security_id
+                order by security_id
+                """,
+                params,
+                rs -> {
+                    changed.put(rs.getLong("security_id"), rs.getObject("changed_from", LocalDate.class));
+                }
+        );
+        return changed;
+    }
+
+    public int upsert(List<SecurityDailyMetrics> rows) {
+        int written = 0;
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<SecurityDailyMetrics> chunk = rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE));
+            SqlParameterSource[] batch = chunk.stream().map(SecurityMetricsRepository::toParams).toArray(SqlParameterSource[]::new);
+            jdbc.batchUpdate(
+                    """
+                    insert into market.security_daily_metrics (
+                        security_id, bar_date, close, prev_close, volume,
+                        ma20, ma50, ma200, prev_ma20, prev_ma50, prev_ma200,
+                        high252, low252, vma50, computed_at
+                    )
+                    values (
+                        :securityId, :barDate, :close, :prevClose, :volume,
+                        :ma20, :ma50, :ma200, :prevMa20, :prevMa50, :prevMa200,
+                        :high252, :low252, :vma50, now()
+                    )
+                    on conflict (security_id, bar_date) do update set
+                        close = excluded.close,
+                        prev_close = excluded.prev_close,
+                        volume = excluded.volume,
+                        ma20 = excluded.ma20,
+                        ma50 = excluded.ma50,
+                        ma200 = excluded.ma200,
+                        prev_ma20 = excluded.prev_ma20,
+                        prev_ma50 = excluded.prev_ma50,
+                        prev_ma200 = excluded.prev_ma200,
+                        high252 = excluded.high252,
+                        low252 = excluded.low252,
+                        vma50 = excluded.vma50,
+                        computed_at = excluded.computed_at
+                    """,
+                    batch
+            );
+            written += chunk.size();
+        }
+        return written;
+    }
+
+    public Instant currentDbTime() {
+        Timestamp now = jdbc.queryForObject("select now()", new MapSqlParameterSource(), Timestamp.class);
+        return now == null ? Instant.now() : now.toInstant();
+    }
+
+    private static SqlParameterSource toParams(SecurityDailyMetrics m) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("securityId", m.securityId())
+                .addValue("barDate", m.barDate())
+                .addValue("volume", m.volume() == BarSeries.NO_VOLUME ? null : m.volume(), Types.BIGINT);
+        numeric(p, "close", m.close());
+        numeric(p, "prevClose", m.prevClose());
+        numeric(p, "ma20", m.ma20());
+        numeric(p, "ma50", m.ma50());
+        numeric(p, "ma200", m.ma200());
+        numeric(p, "prevMa20", m.prevMa20());
+        numeric(p, "prevMa50", m.prevMa50());
+        numeric(p, "prevMa200", m.prevMa200());
+        numeric(p, "high252", m.high252());
+        numeric(p, "low252", m.low252());
+        numeric(p, "vma50", m.vma50());
+        return p;
+    }
+
+    private static void numeric(MapSqlParameterSource p, String name, double v) {
+        p.addValue(name, Double.isNaN(v) ? null : v, Types.NUMERIC);
+    }
+}
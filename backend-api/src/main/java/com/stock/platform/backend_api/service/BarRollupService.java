@@ -0,0 +1,50 @@
+package com.stock.platform.backend_api.service;
+
+import com.stock.platform.backend_api.repository.BarRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+/**
+ * Keeps the stored 1w/1m/1q/1y bars in step with the daily bars.
+ *
+ * The first run after startup resumes each interval from its newest rollup already in the database, and
+ * rebuilds from scratch only the intervals never rolled up; later runs only touch periods with newly
+ * ingested bars.
+ */
+public class BarRollupService {
+    private static final Logger log = LoggerFactory.getLogger(BarRollupService.class);
+    // Daily bars still being committed while a run starts carry an older ingested_at; overlap runs by this much.
+    private static final Duration WATERMARK_SLACK = Duration.ofMinutes(10);
+
+    private final BarRollupRepository rollupRepository;
+
+    // Per interval; a missing interval is rebuilt from scratch
+    private final Map<String, Instant> watermarks = new HashMap<>();
+    private boolean resumed;
+
+    public BarRollupService(BarRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    public synchronized void refresh() {
+        if (!resumed) {
+            rollupRepository.findWatermarks().forEach((interval, t) -> watermarks.put(interval, t.minus(WATERMARK_SLACK)));
+            resumed = true;
+        }
+        long t0 = System.currentTimeMillis();
+        Instant startedAt = rollupRepository.currentDbTime().minus(WATERMARK_SLACK);
+        int written = 0;
+        for (String interval : BarRollupRepository.INTERVALS) {
+            written += rollupRepository.rebuild(interval, watermarks.get(interval));
+            watermarks.put(interval, startedAt);
+        }
+        log.info("Rolled up {} bars in {} ms", written, System.currentTimeMillis() - t0);
+    }
+}
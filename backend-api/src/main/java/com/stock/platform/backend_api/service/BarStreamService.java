@@ -0,0 +1,45 @@
+package com.stock.platform.backend_api.service;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+
+@Service
+/**
+ * Writes long bar histories as a JSON array, one bar at a time.
+ *
+ * The response has the same shape as the buffered bars endpoints, but no list of bars is ever built,
+ * so memory stays flat however many years are requested.
+ */
+public class BarStreamService {
+    private final MarketRepository marketRepository;
+    private final JsonMapper jsonMapper;
+
+    public BarStreamService(MarketRepository marketRepository, JsonMapper jsonMapper) {
+        this.marketRepository = marketRepository;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Validate the request up front (so errors still map to 400/404) and return a body that streams the bars.
+     */
+    public StreamingResponseBody streamBars(String canonicalSymbol, String interval, LocalDate start, LocalDate end) {
+        String iv = BarSeries.normalizeInterval(interval);
+        long securityId = marketRepository.findSecurityIdBySymbol(canonicalSymbol)
+                .orElseThrow(() -> new IllegalArgumentException("Security not found: " + canonicalSymbol));
+
+        return out -> {
+            try (JsonGenerator gen = jsonMapper.createGenerator(StreamUtils.nonClosing(out))) {
+                gen.writeStartArray();
+                marketRepository.streamBars(securityId, iv, start, end, bar -> jsonMapper.writeValue(gen, bar));
+                gen.writeEndArray();
+            }
+        };
+    }
+}
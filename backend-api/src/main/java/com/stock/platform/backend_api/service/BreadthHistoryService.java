@@ -0,0 +1,61 @@
+package com.stock.platform.backend_api.service;
+
+import com.stock.platform.backend_api.api.dto.BreadthHistoryDto;
+import com.stock.platform.backend_api.repository.BreadthHistoryRepository;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Service
+/**
+ * Keeps the per-day breadth of every index in step with {@code market.security_daily_metrics} and serves it.
+ *
+ * The first run after startup resumes from the newest breadth row already in the database (or aggregates the
+ * whole history when there is none); later runs only re-aggregate days whose metrics were just recomputed.
+ */
+public class BreadthHistoryService {
+    private static final Logger log = LoggerFactory.getLogger(BreadthHistoryService.class);
+    // Metrics still being committed while a run starts carry an older computed_at; overlap runs by this much.
+    private static final Duration WATERMARK_SLACK = Duration.ofMinutes(10);
+
+    private final BreadthHistoryRepository breadthRepository;
+    private final MarketRepository marketRepository;
+
+    private Instant watermark;
+    private boolean resumed;
+
+    public BreadthHistoryService(BreadthHistoryRepository breadthRepository, MarketRepository marketRepository) {
+        this.breadthRepository = breadthRepository;
+        this.marketRepository = marketRepository;
+    }
+
+    public synchronized void refresh() {
+        if (!resumed) {
+            watermark = breadthRepository.findWatermark().map(t -> t.minus(WATERMARK_SLACK)).orElse(null);
+            resumed = true;
+        }
+        long t0 = System.currentTimeMillis();
+        Instant startedAt = breadthRepository.currentDbTime().minus(WATERMARK_SLACK);
+        int written = breadthRepository.rebuild(watermark);
+        watermark = startedAt;
+        log.info("Aggregated {} index breadth days in {} ms", written, System.currentTimeMillis() - t0);
+    }
+
+    public BreadthHistoryDto getHistory(String indexSymbol, LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        long indexId = marketRepository.requireIndexId(indexSymbol);
+        return new BreadthHistoryDto(
+                indexSymbol,
+                start.toString(),
+                end.toString(),
+                breadthRepository.findHistory(indexId, start, end)
+        );
+    }
+}
@@ -4,6 +4,7 @@ import com.stock.platform.backend_api.api.dto.SyncJobDto;
 import com.stock.platform.backend_api.config.AppProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
@@ -31,12 +32,14 @@ public class DataCollectorService {
 
     private final AppProperties appProperties;
     private final Environment environment;
+    private final ApplicationEventPublisher events;
 
     private final Map<String, Job> jobs = new ConcurrentHashMap<>();
 
-    public DataCollectorService(AppProperties appProperties, Environment environment) {
+    public DataCollectorService(AppProperties appProperties, Environment environment, ApplicationEventPublisher events) {
         this.appProperties = appProperties;
         this.environment = environment;
+        this.events = events;
     }
 
     public SyncJobDto startSyncIndices(String index, LocalDate start, LocalDate end) {
@@ -195,6 +198,15 @@ public class DataCollectorService {
         } finally {
             job.finishedAt = Instant.now();
         }
+
+        // The listeners refresh derived data synchronously; the job is already finished by then
+        if ("SUCCEEDED".equals(job.status)) {
+            try {
+                events.publishEvent(new MarketDataSyncedEvent(job.jobId, scriptArgs.get(1), scriptArgs));
+            } catch (Exception e) {
+                log.warn("Refresh after job {} failed: {}", job.jobId, e.getMessage());
+            }
+        }
     }
 
     private String resolvePythonPath(String workingDir) {
@@ -1,31 +1,53 @@
 package com.stock.platform.backend_api.service;
 
 import com.stock.platform.backend_api.api.dto.*;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.indicator.IndicatorAccumulator;
+import com.stock.platform.backend_api.service.indicator.IndicatorSeries;
+import com.stock.platform.backend_api.service.indicator.IndicatorSpec;
+import com.stock.platform.backend_api.service.indicator.IndicatorStateCache;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.YearMonth;
-import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
 
 @Service
 /**
  * Service for calculating technical indicators.
- * Computes MA, MACD, KDJ, and handles time-frame aggregation (weekly, monthly, etc.).
+ * Computes MA, MACD and KDJ (or any {@link IndicatorSpec}) over daily or stored weekly/monthly/quarterly/yearly
+ * bars, all indicators of a request in one fused pass.
+ * Results are cached per symbol, interval and parameter set and resumed from their saved state when
+ * newer bars arrive, so repeat chart loads only pay for the bars added since.
  */
 public class IndicatorsService {
-    private final MarketRepository marketRepository;
+    private static final int MAX_BATCH_SYMBOLS = 200;
+    private static final int BATCH_THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
 
-    public IndicatorsService(MarketRepository marketRepository) {
+    private final MarketRepository marketRepository;
+    private final IndicatorStateCache stateCache;
+    private final ExecutorService batchExecutor = Executors.newFixedThreadPool(BATCH_THREADS, r -> {
+        Thread t = new Thread(r, "indicator-batch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public IndicatorsService(MarketRepository marketRepository, IndicatorStateCache stateCache) {
         this.marketRepository = marketRepository;
+        this.stateCache = stateCache;
     }
 
     /**
      * Compute indicators for a given symbol and interval.
-     * Fetches raw daily bars from DB, aggregates them if needed, and then computes requested indicators.
+     * Fetches daily bars (rolled up to the interval if needed), and then computes requested indicators.
      *
      * @param canonicalSymbol Stock symbol
      * @param interval Interval string (1d, 1w, 1m, 1q, 1y)
@@ -45,287 +67,293 @@ public class IndicatorsService {
             boolean includeMacd,
             boolean includeKdj
     ) {
-        LocalDate effectiveEnd = end != null ? end : LocalDate.now().minusDays(1);
-        LocalDate effectiveStart = start != null ? start : effectiveEnd.minusYears(2);
-        if (effectiveStart.isAfter(effectiveEnd)) {
-            throw new IllegalArgumentException("start must be <= end");
-        }
-
-        // 1. Determine fetch range. We need extra history for indicators to stabilize (warm-up period).
-        // e.g. for MA200, we need at least 200 days prior to start date.
-        int maxMa = maPeriods.stream().max(Integer::compareTo).orElse(0);
-        int lookbackDays = Math.max(1200, maxMa * 3);
-        LocalDate fetchStart = effectiveStart.minusDays(lookbackDays);
-
-        // 2. Fetch daily bars and aggregate if interval > 1d
-        List<BarDto> dailyBars = marketRepository.getBarsBySymbol(canonicalSymbol, "1d", fetchStart, effectiveEnd);
-        List<BarDto> bars = aggregateIfNeeded(dailyBars, interval);
-
-        // 3. Prepare arrays for calculation
-        List<LocalDate> dates = new ArrayList<>(bars.size());
-        double[] close = new double[bars.size()];
-        double[] high = new double[bars.size()];
-        double[] low = new double[bars.size()];
-
-        for (int i = 0; i < bars.size(); i++) {
-            BarDto b = bars.get(i);
-            dates.add(b.date());
-            close[i] = toDouble(b.close());
-            high[i] = toDouble(b.high());
-            low[i] = toDouble(b.low());
-        }
-
-        // 4. Calculate SMAs
-        Map<Integer, double[]> maMap = new HashMap<>();
-        for (Integer p : maPeriods) {
-            if (p != null && p > 0) {
-                maMap.put(p, sma(close, p));
-            }
-        }
-
-        // 5. Calculate MACD (standard settings: 12, 26, 9)
-        double[] dif = null;
-        double[] dea = null;
-        double[] hist = null;
-        if (includeMacd) {
-            double[] ema12 = ema(close, 12);
-            double[] ema26 = ema(close, 26);
-            dif = new double[close.length];
-            for (int i = 0; i < close.length; i++) {
-                dif[i] = ema12[i] - ema26[i];
-            }
-            dea = ema(dif, 9);
-            hist = new double[close.length];
-            for (int i = 0; i < close.length; i++) {
-                hist[i] = (dif[i] - dea[i]) * 2.0;
-            }
-        }
-
-        // 6. Calculate KDJ (standard settings: 9, 3, 3)
-        double[] k = null;
-        double[] d = null;
-        double[] j = null;
-        if (includeKdj) {
-            double[][] kdj = kdj(high, low, close, 9, 3, 3);
-            k = kdj[0];
-            d = kdj[1];
-            j = kdj[2];
-        }
-
-        List<IndicatorPointDto> out = new ArrayList<>();
-        for (int i = 0; i < bars.size(); i++) {
-            LocalDate dt = dates.get(i);
-            if (dt.isBefore(effectiveStart) || dt.isAfter(effectiveEnd)) continue;
+        IndicatorSpec spec = IndicatorSpec.legacy(maPeriods, includeMacd, includeKdj);
+        Computed c = compute(canonicalSymbol, interval, start, end, spec);
+        IndicatorSeries series = c.series();
 
+        List<IndicatorPointDto> out = new ArrayList<>(c.to() - c.from());
+        for (int i = c.from(); i < c.to(); i++) {
             Map<Integer, BigDecimal> maOut = null;
-            if (!maMap.isEmpty()) {
-                maOut = new TreeMap<>();
-                for (Map.Entry<Integer, double[]> e : maMap.entrySet()) {
-                    double v = e.getValue()[i];
-                    if (!Double.isNaN(v)) {
-                        maOut.put(e.getKey(), bd(v));
-                    } else {
-                        maOut.put(e.getKey(), null);
-                    }
-                }
-            }
-
             MacdDto macd = null;
-            if (includeMacd && dif != null && dea != null && hist != null) {
-                macd = new MacdDto(bd(dif[i]), bd(dea[i]), bd(hist[i]));
-            }
-
             KdjDto kdjDto = null;
-            if (includeKdj && k != null && d != null && j != null) {
-                kdjDto = new KdjDto(bd(k[i]), bd(d[i]), bd(j[i]));
+            int col = 0;
+            for (IndicatorSpec.Term term : spec.terms()) {
+                switch (term.name()) {
+                    case "sma" -> {
+                        if (maOut == null) maOut = new TreeMap<>();
+                        maOut.put(term.period(0), bd(series.value(col, i)));
+                    }
+                    case "macd" -> macd = new MacdDto(
+                            bd(series.value(col, i)), bd(series.value(col + 1, i)), bd(series.value(col + 2, i)));
+                    case "kdj" -> kdjDto = new KdjDto(
+                            bd(series.value(col, i)), bd(series.value(col + 1, i)), bd(series.value(col + 2, i)));
+                    default -> {
+                    }
+                }
+                col += term.columnNames().size();
             }
 
-            out.add(new IndicatorPointDto(dt, maOut, macd, kdjDto));
+            out.add(new IndicatorPointDto(series.date(i), maOut, macd, kdjDto));
         }
 
         return new IndicatorsResponseDto(interval, out);
     }
 
-    private static double toDouble(BigDecimal v) {
-        if (v == null) return Double.NaN;
-        return v.doubleValue();
+    /**
+     * Same computation as {@link #getIndicators}, returned as columns for the compact wire format.
+     * Columns are named {@code ma<period>}, {@code macd.dif}, {@code macd.dea}, {@code macd.hist},
+     * {@code kdj.k}, {@code kdj.d} and {@code kdj.j}.
+     */
+    public ColumnarFrame getIndicatorColumns(
+            String canonicalSymbol,
+            String interval,
+            LocalDate start,
+            LocalDate end,
+            List<Integer> maPeriods,
+            boolean includeMacd,
+            boolean includeKdj
+    ) {
+        IndicatorSpec spec = IndicatorSpec.legacy(maPeriods, includeMacd, includeKdj);
+        List<String> names = new ArrayList<>();
+        for (IndicatorSpec.Term term : spec.terms()) {
+            if (term.name().equals("sma")) {
+                names.add("ma" + term.period(0));
+            } else {
+                term.fields().forEach(f -> names.add(term.name() + "." + f));
+            }
+        }
+        return toFrame(compute(canonicalSymbol, interval, start, end, spec), names);
     }
 
-    private static BigDecimal bd(double v) {
-        if (Double.isNaN(v) || Double.isInfinite(v)) return null;
-        return BigDecimal.valueOf(v).setScale(6, RoundingMode.HALF_UP);
+    /**
+     * Compute the indicators of a declarative spec such as {@code sma(20),ema(12),rsi(14),boll(20,2),atr(14),obv}
+     * in a single pass. Columns are named after the terms, e.g. {@code sma(20)} or {@code boll(20,2).upper}.
+     *
+     * @see IndicatorSpec
+     */
+    public IndicatorColumnsDto getIndicatorsBySpec(
+            String canonicalSymbol,
+            String interval,
+            LocalDate start,
+            LocalDate end,
+            String specText
+    ) {
+        IndicatorSpec spec = IndicatorSpec.parse(specText);
+        return toColumnsDto(compute(canonicalSymbol, interval, start, end, spec), spec, interval);
     }
 
-    private static double[] sma(double[] values, int period) {
-        double[] out = new double[values.length];
-        Arrays.fill(out, Double.NaN);
-        if (period <= 0) return out;
-        double sum = 0.0;
-        int cnt = 0;
-        for (int i = 0; i < values.length; i++) {
-            double v = values[i];
-            if (!Double.isNaN(v)) {
-                sum += v;
-                cnt += 1;
-            }
-            if (i >= period) {
-                double prev = values[i - period];
-                if (!Double.isNaN(prev)) {
-                    sum -= prev;
-                    cnt -= 1;
-                }
-            }
-            if (i >= period - 1 && cnt == period) {
-                out[i] = sum / period;
-            }
-        }
-        return out;
+    /**
+     * Same computation as {@link #getIndicatorsBySpec}, encoded as a {@link ColumnarFrame}.
+     */
+    public ColumnarFrame getIndicatorColumnsBySpec(
+            String canonicalSymbol,
+            String interval,
+            LocalDate start,
+            LocalDate end,
+            String specText
+    ) {
+        IndicatorSpec spec = IndicatorSpec.parse(specText);
+        return toFrame(compute(canonicalSymbol, interval, start, end, spec), spec.columnNames());
     }
 
-    private static double[] ema(double[] values, int period) {
-        double[] out = new double[values.length];
-        Arrays.fill(out, Double.NaN);
-        if (values.length == 0) return out;
-        double alpha = 2.0 / (period + 1.0);
-        double prev = Double.NaN;
-        for (int i = 0; i < values.length; i++) {
-            double v = values[i];
-            if (Double.isNaN(v)) {
-                out[i] = prev;
-                continue;
+    /**
+     * Compute one spec for many symbols at once (watchlists, dashboards).
+     *
+     * Symbols whose cached series already covers the range are answered without touching bars; the
+     * rest are loaded in bulk and computed in parallel on a small fixed pool. Unknown symbols are listed
+     * in {@code notFound} rather than failing the whole batch.
+     */
+    public BatchIndicatorsResponseDto getIndicatorsBatch(
+            List<String> symbols,
+            String interval,
+            LocalDate start,
+            LocalDate end,
+            String specText
+    ) {
+        if (symbols == null || symbols.isEmpty()) {
+            throw new IllegalArgumentException("symbols must not be empty");
+        }
+        Set<String> canonical = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                canonical.add(symbol.trim().toUpperCase());
             }
-            if (Double.isNaN(prev)) {
-                prev = v;
+        }
+        if (canonical.size() > MAX_BATCH_SYMBOLS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SYMBOLS + " symbols per batch");
+        }
+        String iv = BarSeries.normalizeInterval(interval);
+        IndicatorSpec spec = IndicatorSpec.parse(specText);
+        IndicatorAccumulator layout = new IndicatorAccumulator(spec);
+        Window w = Window.of(start, end, spec);
+
+        Map<String, IndicatorColumnsDto> results = new ConcurrentHashMap<>();
+        List<String> toLoad = new ArrayList<>();
+        for (String symbol : canonical) {
+            IndicatorSeries hit = cachedWithoutBars(IndicatorStateCache.key(symbol, iv, layout), w);
+            if (hit != null) {
+                results.put(symbol, toColumnsDto(w.cut(hit), spec, iv));
             } else {
-                prev = alpha * v + (1.0 - alpha) * prev;
+                toLoad.add(symbol);
             }
-            out[i] = prev;
         }
-        return out;
-    }
 
-    private static double[][] kdj(double[] high, double[] low, double[] close, int n, int kPeriod, int dPeriod) {
-        int len = close.length;
-        double[] k = new double[len];
-        double[] d = new double[len];
-        double[] j = new double[len];
-
-        double prevK = 50.0;
-        double prevD = 50.0;
-
-        for (int i = 0; i < len; i++) {
-            int from = Math.max(0, i - n + 1);
-            double llv = Double.POSITIVE_INFINITY;
-            double hhv = Double.NEGATIVE_INFINITY;
-            for (int t = from; t <= i; t++) {
-                double lo = low[t];
-                double hi = high[t];
-                if (!Double.isNaN(lo)) llv = Math.min(llv, lo);
-                if (!Double.isNaN(hi)) hhv = Math.max(hhv, hi);
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        marketRepository.forEachSeries(toLoad, iv, w.fetchStart(), w.end(), (symbol, bars) ->
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    String key = IndicatorStateCache.key(symbol, iv, layout);
+                    IndicatorSeries series = resolve(key, layout, w, bars::slice);
+                    results.put(symbol, toColumnsDto(w.cut(series), spec, iv));
+                }, batchExecutor)));
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            double rsv;
-            if (!Double.isFinite(llv) || !Double.isFinite(hhv) || hhv - llv <= 0.0 || Double.isNaN(close[i])) {
-                rsv = 50.0;
+            throw e;
+        }
+
+        Map<String, IndicatorColumnsDto> ordered = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        for (String symbol : canonical) {
+            IndicatorColumnsDto dto = results.get(symbol);
+            if (dto != null) {
+                ordered.put(symbol, dto);
             } else {
-                rsv = (close[i] - llv) / (hhv - llv) * 100.0;
+                notFound.add(symbol);
             }
+        }
+        return new BatchIndicatorsResponseDto(iv, spec.signature(), ordered, notFound);
+    }
 
-            double kAlpha = 1.0 / kPeriod;
-            double dAlpha = 1.0 / dPeriod;
-            double curK = (1.0 - kAlpha) * prevK + kAlpha * rsv;
-            double curD = (1.0 - dAlpha) * prevD + dAlpha * curK;
-            double curJ = 3.0 * curK - 2.0 * curD;
+    private static IndicatorColumnsDto toColumnsDto(Computed c, IndicatorSpec spec, String interval) {
+        IndicatorSeries series = c.series();
 
-            k[i] = curK;
-            d[i] = curD;
-            j[i] = curJ;
-            prevK = curK;
-            prevD = curD;
+        List<LocalDate> dates = new ArrayList<>(c.to() - c.from());
+        for (int i = c.from(); i < c.to(); i++) {
+            dates.add(series.date(i));
         }
-
-        return new double[][]{k, d, j};
+        Map<String, List<Double>> columns = new LinkedHashMap<>();
+        List<String> names = spec.columnNames();
+        for (int col = 0; col < names.size(); col++) {
+            List<Double> values = new ArrayList<>(dates.size());
+            for (int i = c.from(); i < c.to(); i++) {
+                values.add(round(series.value(col, i)));
+            }
+            columns.put(names.get(col), values);
+        }
+        return new IndicatorColumnsDto(interval, spec.signature(), dates, columns);
     }
 
-    private static List<BarDto> aggregateIfNeeded(List<BarDto> daily, String interval) {
-        if (interval == null || interval.equalsIgnoreCase("1d")) return daily;
-        String iv = interval.toLowerCase(Locale.ROOT);
-        if (iv.equals("1w")) return aggregateWeekly(daily);
-        if (iv.equals("1m")) return aggregateMonthly(daily);
-        if (iv.equals("1q")) return aggregateQuarterly(daily);
-        if (iv.equals("1y")) return aggregateYearly(daily);
-        throw new IllegalArgumentException("interval must be one of: 1d, 1w, 1m, 1q, 1y");
+    private static ColumnarFrame toFrame(Computed c, List<String> names) {
+        int from = c.from();
+        int to = c.to();
+        ColumnarFrame frame = new ColumnarFrame(c.series().days(from, to));
+        for (int col = 0; col < names.size(); col++) {
+            frame.float32(names.get(col), c.series().column(col, from, to));
+        }
+        return frame;
     }
 
-    private static List<BarDto> aggregateWeekly(List<BarDto> daily) {
-        WeekFields wf = WeekFields.ISO;
-        Map<String, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            LocalDate d = b.date();
-            int wy = d.get(wf.weekBasedYear());
-            int ww = d.get(wf.weekOfWeekBasedYear());
-            String key = wy + "-" + ww;
-            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(b);
+    /**
+     * Indicator series covering the request (warm-up included); {@code [from, to)} is the requested range.
+     * Columns follow {@link IndicatorSpec#columnNames()}.
+     */
+    private record Computed(IndicatorSeries series, int from, int to) {}
+
+    /**
+     * Requested range after defaults, plus where to start fetching so indicators are warmed up by {@code start}.
+     */
+    private record Window(LocalDate start, LocalDate end, LocalDate fetchStart) {
+        static Window of(LocalDate start, LocalDate end, IndicatorSpec spec) {
+            LocalDate effectiveEnd = end != null ? end : LocalDate.now().minusDays(1);
+            LocalDate effectiveStart = start != null ? start : effectiveEnd.minusYears(2);
+            if (effectiveStart.isAfter(effectiveEnd)) {
+                throw new IllegalArgumentException("start must be <= end");
+            }
+            // We need extra history for indicators to stabilize (warm-up period).
+            // e.g. for MA200, we need at least 200 days prior to start date.
+            int lookbackDays = Math.max(1200, spec.warmupBars() * 3);
+            return new Window(effectiveStart, effectiveEnd, effectiveStart.minusDays(lookbackDays));
         }
-        return aggregateGroups(groups.values());
-    }
 
-    private static List<BarDto> aggregateMonthly(List<BarDto> daily) {
-        Map<YearMonth, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            YearMonth ym = YearMonth.from(b.date());
-            groups.computeIfAbsent(ym, k -> new ArrayList<>()).add(b);
+        Computed cut(IndicatorSeries series) {
+            int from = series.indexOnOrAfter(start);
+            int to = series.indexOnOrBefore(end) + 1;
+            return new Computed(series, from, Math.max(from, to));
         }
-        return aggregateGroups(groups.values());
     }
 
-    private static List<BarDto> aggregateQuarterly(List<BarDto> daily) {
-        Map<String, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            LocalDate d = b.date();
-            int q = (d.getMonthValue() - 1) / 3 + 1;
-            String key = d.getYear() + "-Q" + q;
-            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(b);
-        }
-        return aggregateGroups(groups.values());
+    private Computed compute(
+            String canonicalSymbol,
+            String interval,
+            LocalDate start,
+            LocalDate end,
+            IndicatorSpec spec
+    ) {
+        Window w = Window.of(start, end, spec);
+        IndicatorAccumulator layout = new IndicatorAccumulator(spec);
+        String key = IndicatorStateCache.key(canonicalSymbol, BarSeries.normalizeInterval(interval), layout);
+        IndicatorSeries series = resolve(key, layout, w,
+                (from, to) -> marketRepository.getBarSeries(canonicalSymbol, interval, from, to));
+        return w.cut(series);
     }
 
-    private static List<BarDto> aggregateYearly(List<BarDto> daily) {
-        Map<Integer, List<BarDto>> groups = new LinkedHashMap<>();
-        for (BarDto b : daily) {
-            groups.computeIfAbsent(b.date().getYear(), k -> new ArrayList<>()).add(b);
+    /**
+     * The cached series if it can answer {@code w} without reading any bars, else null.
+     */
+    private IndicatorSeries cachedWithoutBars(String key, Window w) {
+        IndicatorSeries cached = stateCache.get(key);
+        if (cached != null && !cached.seededFrom().isAfter(w.fetchStart()) && cached.checkpointDate() != null
+                && !w.end().isAfter(cached.checkpointDate())) {
+            return cached;
         }
-        return aggregateGroups(groups.values());
+        return null;
     }
 
-    private static List<BarDto> aggregateGroups(Collection<List<BarDto>> groups) {
-        List<BarDto> out = new ArrayList<>();
-        for (List<BarDto> g : groups) {
-            if (g.isEmpty()) continue;
-            g.sort(Comparator.comparing(BarDto::date));
-            BarDto first = g.get(0);
-            BarDto last = g.get(g.size() - 1);
-            BigDecimal open = first.open();
-            BigDecimal close = last.close();
-            BigDecimal high = null;
-            BigDecimal low = null;
-            long vol = 0;
-            boolean hasVol = false;
-            for (BarDto b : g) {
-                if (b.high() != null) {
-                    high = high == null ? b.high() : high.max(b.high());
-                }
-                if (b.low() != null) {
-                    low = low == null ? b.low() : low.min(b.low());
-                }
-                if (b.volume() != null) {
-                    vol += b.volume();
-                    hasVol = true;
+    /**
+     * Serve from the cached series when it has at least the requested warm-up: as-is when the request
+     * ends before its checkpoint, otherwise by resuming from the checkpoint over the newer bars only.
+     * Anything else (cache miss, shorter warm-up, corrected history) is computed from scratch.
+     *
+     * @param bars Loads the bars in {@code [from, to]}
+     */
+    private IndicatorSeries resolve(
+            String key,
+            IndicatorAccumulator layout,
+            Window w,
+            BiFunction<LocalDate, LocalDate, BarSeries> bars
+    ) {
+        IndicatorSeries hit = cachedWithoutBars(key, w);
+        if (hit != null) {
+            return hit;
+        }
+        IndicatorSeries cached = stateCache.get(key);
+        if (cached != null && !cached.seededFrom().isAfter(w.fetchStart()) && cached.checkpointDate() != null) {
+            IndicatorSeries extended = cached.extend(bars.apply(cached.checkpointDate(), w.end()));
+            if (extended != null) {
+                if (!extended.lastDate().isBefore(cached.lastDate())) {
+                    stateCache.put(key, extended);
                 }
+                return extended;
             }
-            out.add(new BarDto(last.date(), open, high, low, close, hasVol ? vol : null));
         }
-        out.sort(Comparator.comparing(BarDto::date));
-        return out;
+
+        IndicatorSeries computed = IndicatorSeries.compute(layout, bars.apply(w.fetchStart(), w.end()), w.fetchStart());
+        if (computed.size() > 0) {
+            stateCache.put(key, computed);
+        }
+        return computed;
+    }
+
+    private static BigDecimal bd(double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) return null;
+        return BigDecimal.valueOf(v).setScale(6, RoundingMode.HALF_UP);
     }
-}
 
+    private static Double round(double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) return null;
+        return Math.rint(v * 1e6) / 1e6;
+    }
+}
@@ -0,0 +1,132 @@
+package com.stock.platform.backend_api.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+/**
+ * Caches market insight results (breadth, screener, RS rankings) per request parameters for the current
+ * {@link MarketDataVersion}.
+ *
+ * Results are the same for every user until new prices land, so each key is computed once per version.
+ * Concurrent misses on the same key share one computation: the first caller runs it and the others wait
+ * for its result. A failed computation is not cached. Entries of older versions are dropped as soon as a
+ * newer version is seen. Past {@value #MAX_ENTRIES} entries, the least recently used completed ones are
+ * evicted; computations still in flight are never evicted, so callers keep joining them.
+ */
+public class InsightResultCache {
+    static final int MAX_ENTRIES = 1024;
+    // Evict a little below the bound so the scan runs once per batch of new keys rather than per key
+    private static final int EVICT_TO = MAX_ENTRIES - MAX_ENTRIES / 8;
+
+    private static final class Entry {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        volatile long lastUsed;
+    }
+
+    private record Generation(long version, ConcurrentHashMap<String, Entry> entries) {}
+
+    private final MarketDataVersion dataVersion;
+    private final AtomicLong clock = new AtomicLong();
+    private volatile Generation generation = new Generation(-1, new ConcurrentHashMap<>());
+
+    public InsightResultCache(MarketDataVersion dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> compute) {
+        ConcurrentHashMap<String, Entry> entries = entriesFor(dataVersion.current());
+        Entry mine = new Entry();
+        mine.lastUsed = clock.incrementAndGet();
+        Entry existing = entries.putIfAbsent(key, mine);
+        if (existing != null) {
+            existing.lastUsed = mine.lastUsed;
+            return (T) await(existing.future);
+        }
+
+        try {
+            T result = compute.get();
+            mine.future.complete(result);
+            if (entries.size() > MAX_ENTRIES) {
+                evict(entries);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        return generation.entries().size();
+    }
+
+    boolean contains(String key) {
+        return generation.entries().containsKey(key);
+    }
+
+    // Least recently used completed entries first, down to EVICT_TO
+    private static void evict(ConcurrentHashMap<String, Entry> entries) {
+        synchronized (entries) {
+            if (entries.size() <= MAX_ENTRIES) {
+                return;
+            }
+            int excess = entries.size() - EVICT_TO;
+            // Snapshot the access times: they keep moving while the candidates are sorted
+            record Candidate(String key, Entry entry, long lastUsed) {}
+            List<Candidate> done = new ArrayList<>(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getValue().future.isDone()) {
+                    done.add(new Candidate(e.getKey(), e.getValue(), e.getValue().lastUsed));
+                }
+            }
+            done.sort(Comparator.comparingLong(Candidate::lastUsed));
+            for (int i = 0; i < done.size() && i < excess; i++) {
+                entries.remove(done.get(i).key(), done.get(i).entry());
+            }
+        }
+    }
+
+    private ConcurrentHashMap<String, Entry> entriesFor(long version) {
+        Generation g = generation;
+        if (g.version() == version) {
+            return g.entries();
+        }
+        synchronized (this) {
+            g = generation;
+            if (g.version() < version) {
+                g = new Generation(version, new ConcurrentHashMap<>());
+                generation = g;
+            } else if (g.version() > version) {
+                // Read the version just before a bump: compute, but do not cache under the newer version
+                return new ConcurrentHashMap<>();
+            }
+            return g.entries();
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.stock.platform.backend_api.service;
+
+import com.stock.platform.backend_api.repository.BarStore;
+import com.stock.platform.backend_api.repository.IndexMembershipRegistry;
+import com.stock.platform.backend_api.service.indicator.IndicatorStateCache;
+import com.stock.platform.backend_api.service.market.RsRatingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+/**
+ * Keeps derived and memory-resident market data in step with the database.
+ *
+ * - On startup: catch up the stored rollups, warm the bar store, then catch up the daily metrics and
+ *   the index breadth and relative-strength ratings built on them
+ * - After each successful sync job: forget the cached index memberships (wiki syncs rewrite them), roll
+ *   up the new daily bars, refresh whatever the job may have touched and drop the cached indicator series
+ *   of those securities (all of them when the bar store cannot tell), then recompute the daily metrics of
+ *   the securities it updated, the breadth of the affected days and the relative-strength ratings
+ *
+ * Each pass ends by bumping the {@link MarketDataVersion}, invalidating cached insight results.
+ * Failures are logged and never propagate; readers fall back to the database.
+ */
+public class MarketDataRefresher {
+    private static final Logger log = LoggerFactory.getLogger(MarketDataRefresher.class);
+
+    private final BarRollupService barRollupService;
+    private final BarStore barStore;
+    private final IndexMembershipRegistry memberships;
+    private final SecurityMetricsService securityMetricsService;
+    private final BreadthHistoryService breadthHistoryService;
+    private final RsRatingService rsRatingService;
+    private final IndicatorStateCache indicatorCache;
+    private final MarketDataVersion dataVersion;
+
+    public MarketDataRefresher(
+            BarRollupService barRollupService,
+            BarStore barStore,
+            IndexMembershipRegistry memberships,
+            SecurityMetricsService securityMetricsService,
+            BreadthHistoryService breadthHistoryService,
+            RsRatingService rsRatingService,
+            IndicatorStateCache indicatorCache,
+            MarketDataVersion dataVersion
+    ) {
+        this.barRollupService = barRollupService;
+        this.barStore = barStore;
+        this.memberships = memberships;
+        this.securityMetricsService = securityMetricsService;
+        this.breadthHistoryService = breadthHistoryService;
+        this.rsRatingService = rsRatingService;
+        this.indicatorCache = indicatorCache;
+        this.dataVersion = dataVersion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rollUp("startup");
+        guard("Bar store warm-up", "startup", barStore::reload);
+        guard("Indicator cache reset", "startup", indicatorCache::clear);
+        computeMetrics("startup");
+        guard("Data version bump", "startup", dataVersion::bump);
+    }
+
+    @EventListener
+    public void onSynced(MarketDataSyncedEvent event) {
+        String trigger = "job " + event.jobId();
+        guard("Membership invalidation", trigger, memberships::invalidate);
+        rollUp(trigger);
+        Optional<Set<String>> changed = Optional.empty();
+        try {
+            changed = barStore.refresh();
+        } catch (Exception e) {
+            log.warn("Bar store refresh after {} failed: {}", trigger, e.getMessage());
+        }
+        Optional<Set<String>> symbols = changed;
+        guard("Indicator cache invalidation", trigger,
+                () -> symbols.ifPresentOrElse(indicatorCache::invalidate, indicatorCache::clear));
+        computeMetrics(trigger);
+        guard("Data version bump", trigger, dataVersion::bump);
+    }
+
+    private void rollUp(String trigger) {
+        guard("Bar rollup", trigger, barRollupService::refresh);
+    }
+
+    private void computeMetrics(String trigger) {
+        if (!guard("Daily metrics", trigger, securityMetricsService::refresh)) {
+            return;
+        }
+        guard("Breadth history", trigger, breadthHistoryService::refresh);
+        guard("RS ratings", trigger, rsRatingService::refresh);
+    }
+
+    /**
+     * Runs one step of a pass, logging its failure so the next steps still run.
+     *
+     * @return Whether the step succeeded
+     */
+    private static boolean guard(String step, String trigger, Runnable action) {
+        try {
+            action.run();
+            return true;
+        } catch (Exception e) {
+            log.warn("{} after {} failed: {}", step, trigger, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.stock.platform.backend_api.service;
+
+import java.util.List;
+
+/**
+ * Published after a data collector job finished successfully.
+ *
+ * @param jobId Sync job id
+ * @param command Data collector sub-command, e.g. {@code db-full-prices} or {@code db-sync-wiki}
+ * @param scriptArgs Full argument list passed to the collector
+ */
+public record MarketDataSyncedEvent(
+        String jobId,
+        String command,
+        List<String> scriptArgs
+) {
+}
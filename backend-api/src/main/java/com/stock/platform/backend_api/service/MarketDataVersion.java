@@ -0,0 +1,23 @@
+package com.stock.platform.backend_api.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+/**
+ * Monotonic version of the market data visible to readers. It is bumped once derived data (rollups,
+ * daily metrics, breadth) has caught up with a finished sync job, or when index constituents change,
+ * so anything cached under an older version is stale.
+ */
+public class MarketDataVersion {
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+}
@@ -0,0 +1,86 @@
+package com.stock.platform.backend_api.service;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.SecurityDailyMetrics;
+import com.stock.platform.backend_api.service.indicator.RollingExtreme;
+import com.stock.platform.backend_api.service.indicator.RollingSum;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes {@link SecurityDailyMetrics} rows from daily bars in one pass with the rolling kernels.
+ *
+ * Windows count rows, not calendar days, and skip missing values the way SQL {@code avg/max/min ... over
+ * (rows between n preceding and current row)} does: a window holding fewer than {@code n} bars (the start
+ * of a listing) still averages what it has.
+ */
+public final class SecurityMetricsCalculator {
+    /**
+     * Calendar days of bars to replay before the first recomputed day so every window is full again.
+     */
+    public static final int LOOKBACK_DAYS = 450;
+
+    private SecurityMetricsCalculator() {
+    }
+
+    /**
+     * Metrics for every bar of {@code bars} dated on or after {@code from}; earlier bars only warm up the windows.
+     */
+    public static List<SecurityDailyMetrics> compute(long securityId, BarSeries bars, LocalDate from) {
+        RollingSum ma20 = new RollingSum(20);
+        RollingSum ma50 = new RollingSum(50);
+        RollingSum ma200 = new RollingSum(200);
+        RollingSum vma50 = new RollingSum(50);
+        RollingExtreme high252 = RollingExtreme.max(252);
+        RollingExtreme low252 = RollingExtreme.min(252);
+
+        int first = from == null ? 0 : bars.indexOnOrAfter(from);
+        List<SecurityDailyMetrics> out = new ArrayList<>(Math.max(0, bars.size() - first));
+        double prevClose = Double.NaN;
+        double prevMa20 = Double.NaN;
+        double prevMa50 = Double.NaN;
+        double prevMa200 = Double.NaN;
+        for (int i = 0; i < bars.size(); i++) {
+            double close = bars.close(i);
+            ma20.push(close);
+            ma50.push(close);
+            ma200.push(close);
+            vma50.push(bars.hasVolume(i) ? bars.volume(i) : Double.NaN);
+            double high = high252.push(close);
+            double low = low252.push(close);
+
+            double m20 = average(ma20);
+            double m50 = average(ma50);
+            double m200 = average(ma200);
+            if (i >= first) {
+                out.add(new SecurityDailyMetrics(
+                        securityId,
+                        bars.date(i),
+                        close,
+                        prevClose,
+                        bars.volume(i),
+                        m20,
+                        m50,
+                        m200,
+                        prevMa20,
+                        prevMa50,
+                        prevMa200,
+                        high,
+                        low,
+                        average(vma50)
+                ));
+            }
+            prevClose = close;
+            prevMa20 = m20;
+            prevMa50 = m50;
+            prevMa200 = m200;
+        }
+        return out;
+    }
+
+    private static double average(RollingSum window) {
+        return window.count() == 0 ? Double.NaN : window.sum() / window.count();
+    }
+}
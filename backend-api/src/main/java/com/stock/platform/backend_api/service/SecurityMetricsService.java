@@ -0,0 +1,69 @@
+package com.stock.platform.backend_api.service;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.repository.SecurityDailyMetrics;
+import com.stock.platform.backend_api.repository.SecurityMetricsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+/**
+ * Keeps {@code market.security_daily_metrics} in step with the daily bars.
+ *
+ * The first run after startup resumes from the newest metrics row already in the database (or fills the
+ * whole history when there is none); later runs only recompute securities with newly ingested daily bars,
+ * from their oldest new bar onwards.
+ */
+public class SecurityMetricsService {
+    private static final Logger log = LoggerFactory.getLogger(SecurityMetricsService.class);
+    // Daily bars still being committed while a run starts carry an older ingested_at; overlap runs by this much.
+    private static final Duration WATERMARK_SLACK = Duration.ofMinutes(10);
+    // Rows buffered before they are written
+    private static final int FLUSH_ROWS = 20_000;
+
+    private final SecurityMetricsRepository metricsRepository;
+    private final MarketRepository marketRepository;
+
+    private Instant watermark;
+    private boolean resumed;
+
+    public SecurityMetricsService(SecurityMetricsRepository metricsRepository, MarketRepository marketRepository) {
+        this.metricsRepository = metricsRepository;
+        this.marketRepository = marketRepository;
+    }
+
+    public synchronized void refresh() {
+        if (!resumed) {
+            watermark = metricsRepository.findWatermark().map(t -> t.minus(WATERMARK_SLACK)).orElse(null);
+            resumed = true;
+        }
+        long t0 = System.currentTimeMillis();
+        Instant startedAt = metricsRepository.currentDbTime().minus(WATERMARK_SLACK);
+        Map<Long, LocalDate> changed = metricsRepository.findChangedSince(watermark);
+
+        LocalDate end = LocalDate.now().plusDays(1);
+        List<SecurityDailyMetrics> pending = new ArrayList<>();
+        int written = 0;
+        for (Map.Entry<Long, LocalDate> e : changed.entrySet()) {
+            LocalDate from = e.getValue();
+            BarSeries bars = marketRepository.getDailySeries(e.getKey(), from.minusDays(SecurityMetricsCalculator.LOOKBACK_DAYS), end);
+            pending.addAll(SecurityMetricsCalculator.compute(e.getKey(), bars, from));
+            if (pending.size() >= FLUSH_ROWS) {
+                written += metricsRepository.upsert(pending);
+                pending.clear();
+            }
+        }
+        written += metricsRepository.upsert(pending);
+        watermark = startedAt;
+        log.info("Computed {} daily metrics rows for {} securities in {} ms", written, changed.size(), System.currentTimeMillis() - t0);
+    }
+}
@@ -2,10 +2,10 @@ package com.stock.platform.backend_api.service.analysis.strategy;
 
 import com.stock.platform.backend_api.api.dto.AnalysisRequestDto;
 import com.stock.platform.backend_api.api.dto.AnalysisResultDto;
-import com.stock.platform.backend_api.api.dto.BarDto;
 import com.stock.platform.backend_api.api.dto.StockListItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
+import com.stock.platform.backend_api.service.indicator.RollingRegression;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -28,35 +28,47 @@ public class AlphaBetaAnalysisStrategy implements AnalysisStrategy {
     public List<AnalysisResultDto> execute(AnalysisRequestDto request) {
         // 1. Get Index Bars as benchmark
         String benchmarkSymbol = request.index().equals("ALL") ? "^SPX" : request.index();
-        List<BarDto> indexBars = marketRepository.getBarsBySymbol(benchmarkSymbol, "1d", request.start(), request.end());
+        BarSeries indexBars = marketRepository.getBarSeries(benchmarkSymbol, "1d", request.start(), request.end());
         if (indexBars.size() < 10) return Collections.emptyList();
 
-        Map<java.time.LocalDate, Double> indexReturns = calculateDailyReturns(indexBars);
+        double[] indexReturns = calculateDailyReturns(indexBars);
 
         List<StockListItemDto> stocks = marketRepository.getAllIndexStocks(request.index());
         List<AnalysisResultDto> results = new ArrayList<>();
 
+        Map<String, String> names = new HashMap<>();
         for (StockListItemDto stock : stocks) {
-            List<BarDto> stockBars = marketRepository.getBarsBySymbol(stock.symbol(), "1d", request.start(), request.end());
-            if (stockBars.size() < 10) continue;
-
-            Map<java.time.LocalDate, Double> stockReturns = calculateDailyReturns(stockBars);
-            
-            SimpleRegression regression = new SimpleRegression();
-            int points = 0;
-            for (Map.Entry<java.time.LocalDate, Double> entry : indexReturns.entrySet()) {
-                Double sReturn = stockReturns.get(entry.getKey());
-                if (sReturn != null) {
-                    regression.addData(entry.getValue(), sReturn);
-                    points++;
+            names.put(stock.symbol(), stock.name());
+        }
+
+        marketRepository.forEachDailySeries(names.keySet(), request.start(), request.end(), (symbol, stockBars) -> {
+            if (stockBars.size() < 10) return;
+
+            double[] stockReturns = calculateDailyReturns(stockBars);
+
+            // Both series are sorted by date: walk them together and pair returns of the same day.
+            RollingRegression regression = RollingRegression.expanding();
+            int i = 0;
+            int j = 0;
+            while (i < indexBars.size() && j < stockBars.size()) {
+                int indexDay = indexBars.day(i);
+                int stockDay = stockBars.day(j);
+                if (indexDay < stockDay) {
+                    i++;
+                } else if (indexDay > stockDay) {
+                    j++;
+                } else {
+                    regression.push(indexReturns[i], stockReturns[j]);
+                    i++;
+                    j++;
                 }
             }
 
-            if (points < 10) continue;
+            if (regression.count() < 10) return;
 
-            double alpha = regression.getIntercept();
-            double beta = regression.getSlope();
-            double rSquare = regression.getRSquare();
+            double alpha = regression.intercept();
+            double beta = regression.slope();
+            double rSquare = regression.rSquare();
 
             Map<String, Object> details = new HashMap<>();
             details.put("alpha", alpha);
@@ -65,8 +77,8 @@ public class AlphaBetaAnalysisStrategy implements AnalysisStrategy {
             details.put("benchmark", benchmarkSymbol);
 
             // Default score is Alpha (Excess return)
-            results.add(new AnalysisResultDto(stock.symbol(), stock.name(), alpha, details));
-        }
+            results.add(new AnalysisResultDto(symbol, names.get(symbol), alpha, details));
+        });
 
         boolean sortByBeta = request.params() != null && "beta".equals(request.params().get("sortType"));
         
@@ -85,13 +97,17 @@ public class AlphaBetaAnalysisStrategy implements AnalysisStrategy {
                 .collect(Collectors.toList());
     }
 
-    private Map<java.time.LocalDate, Double> calculateDailyReturns(List<BarDto> bars) {
-        Map<java.time.LocalDate, Double> returns = new HashMap<>();
+    /**
+     * Close-to-close return of every bar ({@code NaN} for the first bar or a non-positive previous close).
+     */
+    private double[] calculateDailyReturns(BarSeries bars) {
+        double[] returns = new double[bars.size()];
+        Arrays.fill(returns, Double.NaN);
         for (int i = 1; i < bars.size(); i++) {
-            double prev = bars.get(i - 1).close().doubleValue();
-            double curr = bars.get(i).close().doubleValue();
+            double prev = bars.close(i - 1);
+            double curr = bars.close(i);
             if (prev > 0) {
-                returns.put(bars.get(i).date(), (curr - prev) / prev);
+                returns[i] = (curr - prev) / prev;
             }
         }
         return returns;
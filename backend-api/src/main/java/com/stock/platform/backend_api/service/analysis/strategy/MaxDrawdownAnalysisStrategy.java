@@ -2,8 +2,8 @@ package com.stock.platform.backend_api.service.analysis.strategy;
 
 import com.stock.platform.backend_api.api.dto.AnalysisRequestDto;
 import com.stock.platform.backend_api.api.dto.AnalysisResultDto;
-import com.stock.platform.backend_api.api.dto.BarDto;
 import com.stock.platform.backend_api.api.dto.StockListItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
 import org.springframework.stereotype.Component;
 
@@ -28,15 +28,19 @@ public class MaxDrawdownAnalysisStrategy implements AnalysisStrategy {
         List<StockListItemDto> stocks = marketRepository.getAllIndexStocks(request.index());
         List<AnalysisResultDto> results = new ArrayList<>();
 
+        Map<String, String> names = new HashMap<>();
         for (StockListItemDto stock : stocks) {
-            List<BarDto> bars = marketRepository.getBarsBySymbol(stock.symbol(), "1d", request.start(), request.end());
-            if (bars.size() < 2) continue;
+            names.put(stock.symbol(), stock.name());
+        }
+
+        marketRepository.forEachDailySeries(names.keySet(), request.start(), request.end(), (symbol, bars) -> {
+            if (bars.size() < 2) return;
 
             double maxDrawdown = 0.0;
             double peak = Double.NEGATIVE_INFINITY;
 
-            for (BarDto bar : bars) {
-                double price = bar.close().doubleValue();
+            for (int i = 0; i < bars.size(); i++) {
+                double price = bars.close(i);
                 if (price > peak) {
                     peak = price;
                 }
@@ -52,8 +56,8 @@ public class MaxDrawdownAnalysisStrategy implements AnalysisStrategy {
             details.put("totalDays", bars.size());
 
             // Score is absolute drawdown for easier sorting (smaller is better, but usually we show negative)
-            results.add(new AnalysisResultDto(stock.symbol(), stock.name(), maxDrawdown, details));
-        }
+            results.add(new AnalysisResultDto(symbol, names.get(symbol), maxDrawdown, details));
+        });
 
         // Default: sort by least drawdown (highest score, since drawdown is negative)
         return results.stream()
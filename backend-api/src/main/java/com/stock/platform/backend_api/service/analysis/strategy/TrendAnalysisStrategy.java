@@ -2,10 +2,10 @@ package com.stock.platform.backend_api.service.analysis.strategy;
 
 import com.stock.platform.backend_api.api.dto.AnalysisRequestDto;
 import com.stock.platform.backend_api.api.dto.AnalysisResultDto;
-import com.stock.platform.backend_api.api.dto.BarDto;
 import com.stock.platform.backend_api.api.dto.StockListItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
+import com.stock.platform.backend_api.service.indicator.RollingRegression;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -29,19 +29,23 @@ public class TrendAnalysisStrategy implements AnalysisStrategy {
         List<StockListItemDto> stocks = marketRepository.getAllIndexStocks(request.index());
         List<AnalysisResultDto> results = new ArrayList<>();
 
+        Map<String, String> names = new HashMap<>();
         for (StockListItemDto stock : stocks) {
-            List<BarDto> bars = marketRepository.getBarsBySymbol(stock.symbol(), "1d", request.start(), request.end());
-            if (bars.size() < 10) continue; // Not enough data
+            names.put(stock.symbol(), stock.name());
+        }
+
+        marketRepository.forEachDailySeries(names.keySet(), request.start(), request.end(), (symbol, bars) -> {
+            if (bars.size() < 10) return; // Not enough data
 
-            SimpleRegression regression = new SimpleRegression();
-            double startPrice = bars.get(0).close().doubleValue();
+            RollingRegression regression = RollingRegression.expanding();
+            double startPrice = bars.close(0);
             
             for (int i = 0; i < bars.size(); i++) {
-                regression.addData(i, bars.get(i).close().doubleValue());
+                regression.push(i, bars.close(i));
             }
 
-            double slope = regression.getSlope();
-            double rSquared = regression.getRSquare();
+            double slope = regression.slope();
+            double rSquared = regression.rSquare();
             
             // Normalized slope: percentage change per day relative to start price
             double normalizedSlope = slope / startPrice;
@@ -53,8 +57,8 @@ public class TrendAnalysisStrategy implements AnalysisStrategy {
             details.put("rSquared", rSquared);
             details.put("totalDays", bars.size());
 
-            results.add(new AnalysisResultDto(stock.symbol(), stock.name(), score, details));
-        }
+            results.add(new AnalysisResultDto(symbol, names.get(symbol), score, details));
+        });
 
         // Handle Trend Strong/Weak
         boolean strong = true;
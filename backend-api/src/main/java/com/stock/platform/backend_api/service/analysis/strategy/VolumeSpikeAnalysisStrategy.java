@@ -2,8 +2,8 @@ package com.stock.platform.backend_api.service.analysis.strategy;
 
 import com.stock.platform.backend_api.api.dto.AnalysisRequestDto;
 import com.stock.platform.backend_api.api.dto.AnalysisResultDto;
-import com.stock.platform.backend_api.api.dto.BarDto;
 import com.stock.platform.backend_api.api.dto.StockListItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
 import org.springframework.stereotype.Component;
 
@@ -28,35 +28,33 @@ public class VolumeSpikeAnalysisStrategy implements AnalysisStrategy {
         List<StockListItemDto> stocks = marketRepository.getAllIndexStocks(request.index());
         List<AnalysisResultDto> results = new ArrayList<>();
 
+        Map<String, String> names = new HashMap<>();
         for (StockListItemDto stock : stocks) {
-            // Get data including a lookback for baseline volume
-            List<BarDto> bars = marketRepository.getBarsBySymbol(stock.symbol(), "1d", request.start().minusDays(30), request.end());
-            if (bars.isEmpty()) continue;
+            names.put(stock.symbol(), stock.name());
+        }
+
+        // Get data including a lookback for baseline volume
+        marketRepository.forEachDailySeries(names.keySet(), request.start().minusDays(30), request.end(), (symbol, bars) -> {
+            if (bars.isEmpty()) return;
 
             // Split into baseline (before start) and target (after start)
-            List<BarDto> baselineBars = new ArrayList<>();
-            List<BarDto> targetBars = new ArrayList<>();
-            for (BarDto bar : bars) {
-                if (bar.date().isBefore(request.start())) {
-                    baselineBars.add(bar);
-                } else {
-                    targetBars.add(bar);
-                }
-            }
+            int split = bars.indexOnOrAfter(request.start());
+            BarSeries baselineBars = bars.range(0, split);
+            BarSeries targetBars = bars.range(split, bars.size());
 
-            if (targetBars.isEmpty()) continue;
+            if (targetBars.isEmpty()) return;
 
             double avgBaselineVolume;
             if (baselineBars.isEmpty()) {
                 // If no baseline, use target's own average (less ideal)
-                avgBaselineVolume = targetBars.stream().mapToLong(b -> b.volume() != null ? b.volume() : 0).average().orElse(0);
+                avgBaselineVolume = Arrays.stream(targetBars.volumes()).average().orElse(0);
             } else {
-                avgBaselineVolume = baselineBars.stream().mapToLong(b -> b.volume() != null ? b.volume() : 0).average().orElse(0);
+                avgBaselineVolume = Arrays.stream(baselineBars.volumes()).average().orElse(0);
             }
 
-            if (avgBaselineVolume <= 0) continue;
+            if (avgBaselineVolume <= 0) return;
 
-            double maxVolume = targetBars.stream().mapToLong(b -> b.volume() != null ? b.volume() : 0).max().orElse(0);
+            double maxVolume = Arrays.stream(targetBars.volumes()).max().orElse(0);
             double spikeMultiplier = maxVolume / avgBaselineVolume;
 
             Map<String, Object> details = new HashMap<>();
@@ -64,8 +62,8 @@ public class VolumeSpikeAnalysisStrategy implements AnalysisStrategy {
             details.put("avgBaselineVolume", avgBaselineVolume);
             details.put("maxVolume", maxVolume);
 
-            results.add(new AnalysisResultDto(stock.symbol(), stock.name(), spikeMultiplier, details));
-        }
+            results.add(new AnalysisResultDto(symbol, names.get(symbol), spikeMultiplier, details));
+        });
 
         return results.stream()
                 .sorted(Comparator.comparing(AnalysisResultDto::score).reversed())
@@ -2,8 +2,8 @@ package com.stock.platform.backend_api.service.analysis.strategy;
 
 import com.stock.platform.backend_api.api.dto.AnalysisRequestDto;
 import com.stock.platform.backend_api.api.dto.AnalysisResultDto;
-import com.stock.platform.backend_api.api.dto.BarDto;
 import com.stock.platform.backend_api.api.dto.StockListItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
 import org.springframework.stereotype.Component;
 
@@ -28,18 +28,21 @@ public class WinRateAnalysisStrategy implements AnalysisStrategy {
         List<StockListItemDto> stocks = marketRepository.getAllIndexStocks(request.index());
         List<AnalysisResultDto> results = new ArrayList<>();
 
-        double threshold = 0.0;
-        if (request.params() != null && request.params().get("threshold") != null) {
-            threshold = Double.parseDouble(request.params().get("threshold").toString());
-        }
+        double threshold = request.params() != null && request.params().get("threshold") != null
+                ? Double.parseDouble(request.params().get("threshold").toString())
+                : 0.0;
 
+        Map<String, String> names = new HashMap<>();
         for (StockListItemDto stock : stocks) {
-            List<BarDto> bars = marketRepository.getBarsBySymbol(stock.symbol(), "1d", request.start(), request.end());
-            if (bars.size() < 10) continue;
+            names.put(stock.symbol(), stock.name());
+        }
+
+        marketRepository.forEachDailySeries(names.keySet(), request.start(), request.end(), (symbol, bars) -> {
+            if (bars.size() < 10) return;
 
             int upDays = 0;
-            for (BarDto bar : bars) {
-                if (bar.close().compareTo(bar.open()) > 0) {
+            for (int i = 0; i < bars.size(); i++) {
+                if (bars.close(i) > bars.open(i)) {
                     upDays++;
                 }
             }
@@ -52,9 +55,9 @@ public class WinRateAnalysisStrategy implements AnalysisStrategy {
                 details.put("upDays", upDays);
                 details.put("totalDays", bars.size());
 
-                results.add(new AnalysisResultDto(stock.symbol(), stock.name(), winRate, details));
+                results.add(new AnalysisResultDto(symbol, names.get(symbol), winRate, details));
             }
-        }
+        });
 
         return results.stream()
                 .sorted(Comparator.comparing(AnalysisResultDto::score).reversed())
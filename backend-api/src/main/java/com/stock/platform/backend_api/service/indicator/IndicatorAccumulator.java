@@ -0,0 +1,298 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes every indicator of an {@link IndicatorSpec} in one pass, one bar at a time.
+ *
+ * The spec is compiled into a short program over shared intermediates: all terms needing the same
+ * close window sum, EMA, Wilder average or high/low deque read one kernel, so {@code sma(20)} next to
+ * {@code boll(20,2)}, or {@code ema(12)} next to {@code macd}, costs almost nothing extra. All mutable
+ * state lives in this object, so a {@link #copy()} taken after any bar can later resume the
+ * computation from that bar without replaying the history before it.
+ */
+public final class IndicatorAccumulator {
+    private enum Kind { SMA, EMA, RSI, BOLL, ATR, OBV, MACD, KDJ }
+
+    /**
+     * One compiled term: which shared slots it reads and where its own recursive state starts.
+     */
+    private record Op(Kind kind, IndicatorSpec.Term term, int a, int b, int state) {}
+
+    private final IndicatorSpec spec;
+    private final List<Op> program;
+    private final int columnCount;
+
+    // Shared intermediates, indexed by the slots in the program
+    private final RollingSum[] sums;
+    private final RollingVariance[] variances;
+    private final int[] emaPeriods;
+    private final double[] emas;
+    private final WilderAverage[] gains;
+    private final WilderAverage[] losses;
+    private final WilderAverage[] trueRanges;
+    private final RollingExtreme[] highest;
+    private final RollingExtreme[] lowest;
+
+    // Per-term recursive values (MACD signal line, previous K/D, OBV)
+    private final double[] state;
+    private double prevClose = Double.NaN;
+
+    public IndicatorAccumulator(IndicatorSpec spec) {
+        this.spec = spec;
+        Map<Integer, Integer> sumSlots = new LinkedHashMap<>();
+        Map<Integer, Integer> varianceSlots = new LinkedHashMap<>();
+        Map<Integer, Integer> emaSlots = new LinkedHashMap<>();
+        Map<Integer, Integer> rsiSlots = new LinkedHashMap<>();
+        Map<Integer, Integer> atrSlots = new LinkedHashMap<>();
+        Map<Integer, Integer> extremeSlots = new LinkedHashMap<>();
+        List<Double> initialState = new ArrayList<>();
+
+        List<Op> ops = new ArrayList<>();
+        int columns = 0;
+        for (IndicatorSpec.Term term : spec.terms()) {
+            Op op = switch (term.name()) {
+                case "sma" -> new Op(Kind.SMA, term, slot(sumSlots, term.period(0)), -1, -1);
+                case "ema" -> new Op(Kind.EMA, term, slot(emaSlots, term.period(0)), -1, -1);
+                case "rsi" -> new Op(Kind.RSI, term, slot(rsiSlots, term.period(0)), -1, -1);
+                case "boll" -> new Op(Kind.BOLL, term, slot(sumSlots, term.period(0)), slot(varianceSlots, term.period(0)), -1);
+                case "atr" -> new Op(Kind.ATR, term, slot(atrSlots, term.period(0)), -1, -1);
+                case "obv" -> new Op(Kind.OBV, term, -1, -1, push(initialState, 0.0));
+                case "macd" -> new Op(Kind.MACD, term, slot(emaSlots, term.period(0)), slot(emaSlots, term.period(1)),
+                        push(initialState, Double.NaN));
+                case "kdj" -> {
+                    int s = push(initialState, 50.0);
+                    push(initialState, 50.0);
+                    yield new Op(Kind.KDJ, term, slot(extremeSlots, term.period(0)), -1, s);
+                }
+                default -> throw new IllegalArgumentException("Unknown indicator: " + term.name());
+            };
+            ops.add(op);
+            columns += term.columnNames().size();
+        }
+        this.program = List.copyOf(ops);
+        this.columnCount = columns;
+
+        this.sums = sumSlots.keySet().stream().map(RollingSum::new).toArray(RollingSum[]::new);
+        this.variances = varianceSlots.keySet().stream().map(RollingVariance::new).toArray(RollingVariance[]::new);
+        this.emaPeriods = emaSlots.keySet().stream().mapToInt(Integer::intValue).toArray();
+        this.emas = new double[emaPeriods.length];
+        Arrays.fill(emas, Double.NaN);
+        this.gains = rsiSlots.keySet().stream().map(WilderAverage::new).toArray(WilderAverage[]::new);
+        this.losses = rsiSlots.keySet().stream().map(WilderAverage::new).toArray(WilderAverage[]::new);
+        this.trueRanges = atrSlots.keySet().stream().map(WilderAverage::new).toArray(WilderAverage[]::new);
+        this.highest = extremeSlots.keySet().stream().map(RollingExtreme::max).toArray(RollingExtreme[]::new);
+        this.lowest = extremeSlots.keySet().stream().map(RollingExtreme::min).toArray(RollingExtreme[]::new);
+        this.state = initialState.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private IndicatorAccumulator(IndicatorAccumulator other) {
+        this.spec = other.spec;
+        this.program = other.program;
+        this.columnCount = other.columnCount;
+        this.sums = Arrays.stream(other.sums).map(RollingSum::copy).toArray(RollingSum[]::new);
+        this.variances = Arrays.stream(other.variances).map(RollingVariance::copy).toArray(RollingVariance[]::new);
+        this.emaPeriods = other.emaPeriods;
+        this.emas = other.emas.clone();
+        this.gains = Arrays.stream(other.gains).map(WilderAverage::copy).toArray(WilderAverage[]::new);
+        this.losses = Arrays.stream(other.losses).map(WilderAverage::copy).toArray(WilderAverage[]::new);
+        this.trueRanges = Arrays.stream(other.trueRanges).map(WilderAverage::copy).toArray(WilderAverage[]::new);
+        this.highest = Arrays.stream(other.highest).map(RollingExtreme::copy).toArray(RollingExtreme[]::new);
+        this.lowest = Arrays.stream(other.lowest).map(RollingExtreme::copy).toArray(RollingExtreme[]::new);
+        this.state = other.state.clone();
+        this.prevClose = other.prevClose;
+    }
+
+    private static int slot(Map<Integer, Integer> slots, int period) {
+        Integer existing = slots.get(period);
+        if (existing != null) {
+            return existing;
+        }
+        slots.put(period, slots.size());
+        return slots.size() - 1;
+    }
+
+    private static int push(List<Double> state, double initial) {
+        state.add(initial);
+        return state.size() - 1;
+    }
+
+    public IndicatorAccumulator copy() {
+        return new IndicatorAccumulator(this);
+    }
+
+    /**
+     * Rough heap footprint of the mutable state (the compiled program is shared between copies).
+     */
+    long bytes() {
+        long out = 96 + 8L * emas.length + 8L * state.length
+                + 40L * (gains.length + losses.length + trueRanges.length);
+        for (RollingSum s : sums) {
+            out += s.bytes();
+        }
+        for (RollingVariance v : variances) {
+            out += v.bytes();
+        }
+        for (RollingExtreme e : highest) {
+            out += e.bytes();
+        }
+        for (RollingExtreme e : lowest) {
+            out += e.bytes();
+        }
+        return out;
+    }
+
+    public IndicatorSpec spec() {
+        return spec;
+    }
+
+    /**
+     * Identifies the parameter set; accumulators with equal signatures produce the same columns.
+     */
+    public String signature() {
+        return spec.signature();
+    }
+
+    /**
+     * Output column names, in the order {@link #step} writes them (see {@link IndicatorSpec#columnNames()}).
+     */
+    public List<String> columnNames() {
+        return spec.columnNames();
+    }
+
+    public int columnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Consume bar {@code i} of {@code bars} and write its indicator values to {@code out[column][row]}
+     * ({@code NaN} = undefined).
+     */
+    public void step(BarSeries bars, int i, double[][] out, int row) {
+        double close = bars.close(i);
+        double high = bars.high(i);
+        double low = bars.low(i);
+
+        // 1. Advance the shared intermediates once
+        for (RollingSum sum : sums) {
+            sum.push(close);
+        }
+        for (RollingVariance variance : variances) {
+            variance.push(close);
+        }
+        for (int k = 0; k < emas.length; k++) {
+            emas[k] = ema(emas[k], close, emaPeriods[k]);
+        }
+        if (gains.length > 0) {
+            double change = close - prevClose;
+            double gain = Double.isNaN(change) ? Double.NaN : Math.max(change, 0.0);
+            double loss = Double.isNaN(change) ? Double.NaN : Math.max(-change, 0.0);
+            for (int k = 0; k < gains.length; k++) {
+                gains[k].push(gain);
+                losses[k].push(loss);
+            }
+        }
+        if (trueRanges.length > 0) {
+            double tr = high - low;
+            if (!Double.isNaN(prevClose)) {
+                tr = Math.max(tr, Math.max(Math.abs(high - prevClose), Math.abs(low - prevClose)));
+            }
+            for (WilderAverage atr : trueRanges) {
+                atr.push(tr);
+            }
+        }
+        for (int k = 0; k < highest.length; k++) {
+            highest[k].push(high);
+            lowest[k].push(low);
+        }
+
+        // 2. Run the program
+        int c = 0;
+        for (Op op : program) {
+            switch (op.kind()) {
+                case SMA -> out[c++][row] = sums[op.a()].mean();
+                case EMA -> out[c++][row] = emas[op.a()];
+                case RSI -> out[c++][row] = rsi(gains[op.a()].current(), losses[op.a()].current());
+                case ATR -> out[c++][row] = trueRanges[op.a()].current();
+                case BOLL -> {
+                    double mid = sums[op.a()].mean();
+                    double width = op.term().args().get(1) * variances[op.b()].stdev();
+                    out[c++][row] = mid;
+                    out[c++][row] = mid + width;
+                    out[c++][row] = mid - width;
+                }
+                case OBV -> {
+                    if (!Double.isNaN(prevClose) && !Double.isNaN(close) && bars.hasVolume(i)) {
+                        if (close > prevClose) {
+                            state[op.state()] += bars.volume(i);
+                        } else if (close < prevClose) {
+                            state[op.state()] -= bars.volume(i);
+                        }
+                    }
+                    out[c++][row] = state[op.state()];
+                }
+                case MACD -> {
+                    double dif = emas[op.a()] - emas[op.b()];
+                    double dea = ema(state[op.state()], dif, op.term().period(2));
+                    state[op.state()] = dea;
+                    out[c++][row] = dif;
+                    out[c++][row] = dea;
+                    out[c++][row] = (dif - dea) * 2.0;
+                }
+                case KDJ -> {
+                    double hhv = highest[op.a()].current();
+                    double llv = lowest[op.a()].current();
+                    double rsv;
+                    if (Double.isNaN(llv) || Double.isNaN(hhv) || hhv - llv <= 0.0 || Double.isNaN(close)) {
+                        rsv = 50.0;
+                    } else {
+                        rsv = (close - llv) / (hhv - llv) * 100.0;
+                    }
+                    double kAlpha = 1.0 / op.term().period(1);
+                    double dAlpha = 1.0 / op.term().period(2);
+                    double k = (1.0 - kAlpha) * state[op.state()] + kAlpha * rsv;
+                    double d = (1.0 - dAlpha) * state[op.state() + 1] + dAlpha * k;
+                    out[c++][row] = k;
+                    out[c++][row] = d;
+                    out[c++][row] = 3.0 * k - 2.0 * d;
+                    state[op.state()] = k;
+                    state[op.state() + 1] = d;
+                }
+            }
+        }
+
+        if (!Double.isNaN(close)) {
+            prevClose = close;
+        }
+    }
+
+    /**
+     * One EMA update; a missing value carries the previous EMA forward, the first value seeds it.
+     */
+    private static double ema(double prev, double v, int period) {
+        if (Double.isNaN(v)) {
+            return prev;
+        }
+        if (Double.isNaN(prev)) {
+            return v;
+        }
+        double alpha = 2.0 / (period + 1.0);
+        return alpha * v + (1.0 - alpha) * prev;
+    }
+
+    private static double rsi(double avgGain, double avgLoss) {
+        if (Double.isNaN(avgGain) || Double.isNaN(avgLoss)) {
+            return Double.NaN;
+        }
+        if (avgLoss == 0.0) {
+            return avgGain == 0.0 ? 50.0 : 100.0;
+        }
+        return 100.0 - 100.0 / (1.0 + avgGain / avgLoss);
+    }
+}
@@ -0,0 +1,156 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Indicator values computed over a run of bars, plus the accumulator state needed to continue them.
+ *
+ * The last {@value #PROVISIONAL_BARS} rows are treated as provisional: the latest daily bar may still be
+ * corrected and the latest weekly/monthly bar keeps changing until its period closes. The checkpoint is
+ * therefore taken just before them, and {@link #extend} recomputes the provisional rows together with
+ * whatever arrived after them. Instances are immutable.
+ */
+public final class IndicatorSeries {
+    static final int PROVISIONAL_BARS = 5;
+
+    private final int seededFromDay;
+    private final int[] days;
+    private final double[][] columns;
+    private final int settled;
+    private final double settledClose;
+    private final IndicatorAccumulator checkpoint;
+
+    private IndicatorSeries(int seededFromDay, int[] days, double[][] columns, int settled, double settledClose,
+                            IndicatorAccumulator checkpoint) {
+        this.seededFromDay = seededFromDay;
+        this.days = days;
+        this.columns = columns;
+        this.settled = settled;
+        this.settledClose = settledClose;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Compute from scratch over {@code bars}, which were fetched starting at {@code seededFrom}.
+     */
+    public static IndicatorSeries compute(IndicatorAccumulator fresh, BarSeries bars, LocalDate seededFrom) {
+        return run(fresh.copy(), (int) seededFrom.toEpochDay(), new int[0], new double[fresh.columnCount()][0], 0, bars, 0);
+    }
+
+    /**
+     * Continue with {@code tail}, which must have been fetched starting at {@link #checkpointDate()}.
+     * Rows before the checkpoint are kept; the rest are recomputed from the saved state.
+     *
+     * @return the extended series, or null if the tail does not line up with the checkpoint
+     *         (bar missing or corrected), in which case the caller should recompute from scratch
+     */
+    public IndicatorSeries extend(BarSeries tail) {
+        if (settled == 0 || tail.isEmpty() || tail.day(0) != days[settled - 1]
+                || Double.compare(tail.close(0), settledClose) != 0) {
+            return null;
+        }
+        return run(checkpoint.copy(), seededFromDay, days, columns, settled, tail, 1);
+    }
+
+    private static IndicatorSeries run(IndicatorAccumulator acc, int seededFromDay, int[] keptDays, double[][] keptColumns,
+                                       int kept, BarSeries bars, int skip) {
+        int n = kept + bars.size() - skip;
+        int[] days = Arrays.copyOf(keptDays, n);
+        double[][] columns = new double[keptColumns.length][];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = Arrays.copyOf(keptColumns[c], n);
+        }
+
+        int settled = Math.max(kept, n - PROVISIONAL_BARS);
+        IndicatorAccumulator checkpoint = kept > 0 ? acc.copy() : null;
+        double settledClose = Double.NaN;
+        for (int i = skip, row = kept; i < bars.size(); i++, row++) {
+            days[row] = bars.day(i);
+            acc.step(bars, i, columns, row);
+            if (row == settled - 1) {
+                checkpoint = acc.copy();
+                settledClose = bars.close(i);
+            }
+        }
+        if (settled == kept && kept > 0) {
+            // Nothing new got settled: keep the previous checkpoint and its bar
+            settledClose = bars.close(skip - 1);
+        }
+        return new IndicatorSeries(seededFromDay, days, columns, settled, settledClose, checkpoint);
+    }
+
+    /**
+     * First day of the fetch this series was seeded from; recursive indicators (EMA, KDJ) depend on it.
+     */
+    public LocalDate seededFrom() {
+        return LocalDate.ofEpochDay(seededFromDay);
+    }
+
+    /**
+     * Last bar whose state is checkpointed, or null if nothing is settled yet.
+     */
+    public LocalDate checkpointDate() {
+        return settled == 0 ? null : LocalDate.ofEpochDay(days[settled - 1]);
+    }
+
+    public LocalDate lastDate() {
+        return days.length == 0 ? null : LocalDate.ofEpochDay(days[days.length - 1]);
+    }
+
+    public int size() {
+        return days.length;
+    }
+
+    public int day(int i) {
+        return days[i];
+    }
+
+    public LocalDate date(int i) {
+        return LocalDate.ofEpochDay(days[i]);
+    }
+
+    /**
+     * Value of column {@code c} (in {@link IndicatorAccumulator#columnNames()} order) at row {@code i}.
+     */
+    public double value(int c, int i) {
+        return columns[c][i];
+    }
+
+    /**
+     * Copy of column {@code c} over rows {@code [from, to)}.
+     */
+    public double[] column(int c, int from, int to) {
+        return Arrays.copyOfRange(columns[c], from, to);
+    }
+
+    public int[] days(int from, int to) {
+        return Arrays.copyOfRange(days, from, to);
+    }
+
+    /**
+     * First row dated on or after {@code date} ({@link #size()} if none).
+     */
+    public int indexOnOrAfter(LocalDate date) {
+        int i = Arrays.binarySearch(days, (int) date.toEpochDay());
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Last row dated on or before {@code date} (-1 if none).
+     */
+    public int indexOnOrBefore(LocalDate date) {
+        int i = Arrays.binarySearch(days, (int) date.toEpochDay());
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * Rough heap footprint, checkpoint state included, used to bound the cache.
+     */
+    long bytes() {
+        return 256 + 4L * days.length + 8L * columns.length * days.length
+                + (checkpoint == null ? 0 : checkpoint.bytes());
+    }
+}
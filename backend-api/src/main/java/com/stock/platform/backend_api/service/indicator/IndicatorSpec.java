@@ -0,0 +1,214 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A parsed indicator request such as {@code sma(20),ema(12),rsi(14),boll(20,2),atr(14),obv}.
+ *
+ * Supported terms (arguments in parentheses are optional and default as shown):
+ * <ul>
+ *   <li>{@code sma(n)} / {@code ma(n)}: simple moving average of close</li>
+ *   <li>{@code ema(n)}: exponential moving average of close, seeded with the first close</li>
+ *   <li>{@code rsi(n=14)}: Wilder's relative strength index</li>
+ *   <li>{@code boll(n=20,k=2)}: Bollinger bands ({@code mid}, {@code upper}, {@code lower}), population stdev</li>
+ *   <li>{@code atr(n=14)}: Wilder's average true range</li>
+ *   <li>{@code obv}: on-balance volume</li>
+ *   <li>{@code macd(fast=12,slow=26,signal=9)}: {@code dif}, {@code dea}, {@code hist}</li>
+ *   <li>{@code kdj(n=9,k=3,d=3)}: {@code k}, {@code d}, {@code j}</li>
+ * </ul>
+ * Duplicate terms are dropped; output columns follow the order the terms were written in.
+ */
+public record IndicatorSpec(List<Term> terms) {
+    private static final int MAX_TERMS = 32;
+    private static final int MAX_PERIOD = 1000;
+
+    /**
+     * One indicator with its (defaulted) arguments; {@code args} holds integer periods except Bollinger's k.
+     */
+    public record Term(String name, List<Double> args) {
+        public int period(int i) {
+            return args.get(i).intValue();
+        }
+
+        /**
+         * Canonical text, e.g. {@code boll(20,2)}; also the prefix of the term's column names.
+         */
+        public String label() {
+            if (args.isEmpty()) {
+                return name;
+            }
+            return name + args.stream()
+                    .map(a -> BigDecimal.valueOf(a).stripTrailingZeros().toPlainString())
+                    .collect(Collectors.joining(",", "(", ")"));
+        }
+
+        public List<String> fields() {
+            return switch (name) {
+                case "boll" -> List.of("mid", "upper", "lower");
+                case "macd" -> List.of("dif", "dea", "hist");
+                case "kdj" -> List.of("k", "d", "j");
+                default -> List.of();
+            };
+        }
+
+        public List<String> columnNames() {
+            List<String> fields = fields();
+            if (fields.isEmpty()) {
+                return List.of(label());
+            }
+            return fields.stream().map(f -> label() + "." + f).toList();
+        }
+
+        /**
+         * Bars needed before values settle, used to size the warm-up fetch.
+         */
+        int warmup() {
+            return switch (name) {
+                case "obv" -> 0;
+                case "macd" -> period(1) + period(2);
+                case "ema", "rsi", "atr" -> period(0) * 3;
+                default -> period(0);
+            };
+        }
+    }
+
+    public IndicatorSpec {
+        terms = List.copyOf(terms);
+    }
+
+    /**
+     * The spec behind the classic {@code ma=...&include=macd,kdj} parameters: SMAs in ascending period
+     * order, then MACD and KDJ with standard settings.
+     */
+    public static IndicatorSpec legacy(List<Integer> maPeriods, boolean macd, boolean kdj) {
+        List<Term> terms = new ArrayList<>();
+        maPeriods.stream()
+                .filter(p -> p != null && p > 0)
+                .distinct()
+                .sorted()
+                .forEach(p -> terms.add(new Term("sma", List.of((double) p))));
+        if (macd) {
+            terms.add(new Term("macd", List.of(12.0, 26.0, 9.0)));
+        }
+        if (kdj) {
+            terms.add(new Term("kdj", List.of(9.0, 3.0, 3.0)));
+        }
+        return new IndicatorSpec(terms);
+    }
+
+    public static IndicatorSpec parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("spec must not be empty");
+        }
+        Map<String, Term> terms = new LinkedHashMap<>();
+        for (String raw : splitTerms(text)) {
+            Term term = parseTerm(raw.trim());
+            terms.putIfAbsent(term.label(), term);
+        }
+        if (terms.size() > MAX_TERMS) {
+            throw new IllegalArgumentException("spec may contain at most " + MAX_TERMS + " indicators");
+        }
+        return new IndicatorSpec(new ArrayList<>(terms.values()));
+    }
+
+    private static List<String> splitTerms(String text) {
+        List<String> out = new ArrayList<>();
+        int depth = 0;
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '(') {
+                depth++;
+            } else if (ch == ')') {
+                depth--;
+                if (depth < 0) {
+                    throw new IllegalArgumentException("Unbalanced parentheses in spec: " + text);
+                }
+            } else if (ch == ',' && depth == 0) {
+                out.add(text.substring(from, i));
+                from = i + 1;
+            }
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException("Unbalanced parentheses in spec: " + text);
+        }
+        out.add(text.substring(from));
+        return out;
+    }
+
+    private static Term parseTerm(String raw) {
+        String name = raw;
+        double[] given = new double[0];
+        int open = raw.indexOf('(');
+        if (open >= 0) {
+            if (!raw.endsWith(")")) {
+                throw new IllegalArgumentException("Malformed indicator: " + raw);
+            }
+            name = raw.substring(0, open);
+            String inner = raw.substring(open + 1, raw.length() - 1).trim();
+            if (!inner.isEmpty()) {
+                try {
+                    given = Arrays.stream(inner.split(",")).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Malformed indicator arguments: " + raw);
+                }
+            }
+        }
+        name = name.trim().toLowerCase();
+        if (name.equals("ma")) {
+            name = "sma";
+        }
+
+        double[] defaults = switch (name) {
+            case "sma", "ema" -> new double[]{Double.NaN};
+            case "rsi", "atr" -> new double[]{14};
+            case "boll" -> new double[]{20, 2};
+            case "obv" -> new double[0];
+            case "macd" -> new double[]{12, 26, 9};
+            case "kdj" -> new double[]{9, 3, 3};
+            default -> throw new IllegalArgumentException(
+                    "Unknown indicator: " + name + " (supported: sma, ema, rsi, boll, atr, obv, macd, kdj)");
+        };
+        if (given.length > defaults.length) {
+            throw new IllegalArgumentException(name + " takes at most " + defaults.length + " arguments");
+        }
+        List<Double> args = new ArrayList<>(defaults.length);
+        for (int i = 0; i < defaults.length; i++) {
+            double v = i < given.length ? given[i] : defaults[i];
+            if (Double.isNaN(v)) {
+                throw new IllegalArgumentException(name + " requires a period, e.g. " + name + "(20)");
+            }
+            boolean multiplier = name.equals("boll") && i == 1;
+            if (multiplier ? !(v > 0 && v <= 10) : (v != Math.rint(v) || v < 1 || v > MAX_PERIOD)) {
+                throw new IllegalArgumentException("Invalid argument " + v + " for " + name
+                        + (multiplier ? " (k must be in (0, 10])" : " (periods must be integers in [1, " + MAX_PERIOD + "])"));
+            }
+            args.add(v);
+        }
+        if (name.equals("macd") && args.get(0) >= args.get(1)) {
+            throw new IllegalArgumentException("macd fast period must be shorter than the slow period");
+        }
+        return new Term(name, args);
+    }
+
+    /**
+     * Canonical text of the whole spec; specs with equal signatures compute the same columns.
+     */
+    public String signature() {
+        return terms.stream().map(Term::label).collect(Collectors.joining(","));
+    }
+
+    public List<String> columnNames() {
+        return terms.stream().flatMap(t -> t.columnNames().stream()).toList();
+    }
+
+    public int warmupBars() {
+        return terms.stream().mapToInt(Term::warmup).max().orElse(0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import com.stock.platform.backend_api.config.AppProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+/**
+ * Least-recently-used cache of computed indicator series, keyed by symbol, interval and parameter set.
+ *
+ * Entries are bounded by their estimated heap size rather than by count, since a decade of daily bars
+ * with several moving averages weighs far more than a year of monthly ones. A max size of 0 disables
+ * the cache.
+ *
+ * Entries answer requests ending before their checkpoint without reading bars, so they must be dropped
+ * whenever the bars behind them may have changed: {@code MarketDataRefresher} invalidates the symbols a
+ * sync touched, and clears everything when it cannot tell which.
+ */
+public class IndicatorStateCache {
+    private static final DataSize DEFAULT_MAX_SIZE = DataSize.ofMegabytes(64);
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, IndicatorSeries> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    public IndicatorStateCache(AppProperties appProperties) {
+        AppProperties.IndicatorCache config = appProperties.indicatorCache();
+        DataSize maxSize = config == null || config.maxSize() == null ? DEFAULT_MAX_SIZE : config.maxSize();
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    IndicatorStateCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static String key(String canonicalSymbol, String interval, IndicatorAccumulator layout) {
+        return canonicalSymbol + "|" + interval + "|" + layout.signature();
+    }
+
+    public synchronized IndicatorSeries get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(String key, IndicatorSeries series) {
+        long size = series.bytes();
+        if (size > maxBytes) {
+            return;
+        }
+        IndicatorSeries old = entries.put(key, series);
+        if (old != null) {
+            bytes -= old.bytes();
+        }
+        bytes += size;
+
+        Iterator<Map.Entry<String, IndicatorSeries>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, IndicatorSeries> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            bytes -= eldest.getValue().bytes();
+            it.remove();
+        }
+    }
+
+    /**
+     * Drop every entry of the given canonical symbols.
+     */
+    public synchronized void invalidate(Collection<String> canonicalSymbols) {
+        if (canonicalSymbols.isEmpty()) {
+            return;
+        }
+        Set<String> symbols = new HashSet<>(canonicalSymbols);
+        Iterator<Map.Entry<String, IndicatorSeries>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, IndicatorSeries> e = it.next();
+            if (symbols.contains(e.getKey().substring(0, e.getKey().indexOf('|')))) {
+                bytes -= e.getValue().bytes();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import java.util.Arrays;
+
+/**
+ * Maximum or minimum over the last {@code window} values, in amortized O(1) per value.
+ *
+ * Keeps a monotonic deque of candidates: a new value drops every older candidate it dominates, and the
+ * front falls off once it leaves the window, so each value is pushed and popped at most once.
+ * {@code NaN} values take a slot in the window but are never candidates; a window without any real
+ * value yields {@code NaN}.
+ */
+public final class RollingExtreme {
+    private final int window;
+    private final boolean max;
+
+    // Ring-buffer deque of (position, value); never holds more than window entries
+    private final long[] positions;
+    private final double[] values;
+    private int head;
+    private int size;
+    private long seen;
+
+    private RollingExtreme(int window, boolean max) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be > 0");
+        }
+        this.window = window;
+        this.max = max;
+        this.positions = new long[window];
+        this.values = new double[window];
+    }
+
+    private RollingExtreme(RollingExtreme other) {
+        this.window = other.window;
+        this.max = other.max;
+        this.positions = other.positions.clone();
+        this.values = other.values.clone();
+        this.head = other.head;
+        this.size = other.size;
+        this.seen = other.seen;
+    }
+
+    public static RollingExtreme max(int window) {
+        return new RollingExtreme(window, true);
+    }
+
+    public static RollingExtreme min(int window) {
+        return new RollingExtreme(window, false);
+    }
+
+    public RollingExtreme copy() {
+        return new RollingExtreme(this);
+    }
+
+    /**
+     * Rough heap footprint, for cache accounting.
+     */
+    long bytes() {
+        return 64 + 16L * window;
+    }
+
+    /**
+     * Add the next value and return the extreme of the window ending at it.
+     */
+    public double push(double v) {
+        long t = seen++;
+        if (size > 0 && positions[head] <= t - window) {
+            head = (head + 1) % window;
+            size--;
+        }
+        if (!Double.isNaN(v)) {
+            while (size > 0) {
+                int back = (head + size - 1) % window;
+                if (max ? values[back] > v : values[back] < v) {
+                    break;
+                }
+                size--;
+            }
+            int slot = (head + size) % window;
+            positions[slot] = t;
+            values[slot] = v;
+            size++;
+        }
+        return current();
+    }
+
+    /**
+     * Extreme of the current window, {@code NaN} if it holds no real value.
+     */
+    public double current() {
+        return size == 0 ? Double.NaN : values[head];
+    }
+
+    /**
+     * Rolling maximum of {@code values} over {@code window}; element i covers {@code [i - window + 1, i]}.
+     */
+    public static double[] max(double[] values, int window) {
+        return apply(values, max(window));
+    }
+
+    /**
+     * Rolling minimum of {@code values} over {@code window}; element i covers {@code [i - window + 1, i]}.
+     */
+    public static double[] min(double[] values, int window) {
+        return apply(values, min(window));
+    }
+
+    private static double[] apply(double[] values, RollingExtreme kernel) {
+        double[] out = new double[values.length];
+        Arrays.setAll(out, i -> kernel.push(values[i]));
+        return out;
+    }
+}
@@ -0,0 +1,147 @@
+package com.stock.platform.backend_api.service.indicator;
+
+/**
+ * Ordinary least squares of y on x over the last {@code window} pairs, O(1) per pair.
+ *
+ * Means and co-moments are updated Welford-style on both add and remove. Pairs with a {@code NaN} side
+ * take a slot but are skipped. Use {@link #expanding()} to regress over every pair pushed so far, e.g.
+ * for a trend slope or a beta over a whole date range.
+ */
+public final class RollingRegression {
+    private final int window;
+    private final double[] xs;
+    private final double[] ys;
+    private long seen;
+
+    private int n;
+    private double meanX;
+    private double meanY;
+    private double sxx;
+    private double syy;
+    private double sxy;
+
+    /**
+     * @param window Number of most recent pairs to regress over
+     */
+    public RollingRegression(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be > 0");
+        }
+        this.window = window;
+        this.xs = new double[window];
+        this.ys = new double[window];
+    }
+
+    private RollingRegression() {
+        this.window = 0;
+        this.xs = null;
+        this.ys = null;
+    }
+
+    private RollingRegression(RollingRegression other) {
+        this.window = other.window;
+        this.xs = other.xs == null ? null : other.xs.clone();
+        this.ys = other.ys == null ? null : other.ys.clone();
+        this.seen = other.seen;
+        this.n = other.n;
+        this.meanX = other.meanX;
+        this.meanY = other.meanY;
+        this.sxx = other.sxx;
+        this.syy = other.syy;
+        this.sxy = other.sxy;
+    }
+
+    /**
+     * A regression that never forgets a pair.
+     */
+    public static RollingRegression expanding() {
+        return new RollingRegression();
+    }
+
+    public RollingRegression copy() {
+        return new RollingRegression(this);
+    }
+
+    public void push(double x, double y) {
+        if (xs != null) {
+            int slot = (int) (seen % window);
+            if (seen >= window && !Double.isNaN(xs[slot]) && !Double.isNaN(ys[slot])) {
+                remove(xs[slot], ys[slot]);
+            }
+            xs[slot] = x;
+            ys[slot] = y;
+        }
+        if (!Double.isNaN(x) && !Double.isNaN(y)) {
+            add(x, y);
+        }
+        seen++;
+    }
+
+    private void add(double x, double y) {
+        n++;
+        double dx = x - meanX;
+        double dy = y - meanY;
+        meanX += dx / n;
+        meanY += dy / n;
+        sxx += dx * (x - meanX);
+        syy += dy * (y - meanY);
+        sxy += dx * (y - meanY);
+    }
+
+    private void remove(double x, double y) {
+        if (n == 1) {
+            n = 0;
+            meanX = meanY = sxx = syy = sxy = 0;
+            return;
+        }
+        n--;
+        double dx = x - meanX;
+        double dy = y - meanY;
+        meanX -= dx / n;
+        meanY -= dy / n;
+        sxx -= dx * (x - meanX);
+        syy -= dy * (y - meanY);
+        sxy -= dx * (y - meanY);
+    }
+
+    /**
+     * Number of complete pairs currently regressed over.
+     */
+    public int count() {
+        return n;
+    }
+
+    public double slope() {
+        return n >= 2 && sxx > 0 ? sxy / sxx : Double.NaN;
+    }
+
+    public double intercept() {
+        return meanY - slope() * meanX;
+    }
+
+    /**
+     * Coefficient of determination; 1 when y is constant and perfectly fitted.
+     */
+    public double rSquare() {
+        if (n < 2 || sxx <= 0) {
+            return Double.NaN;
+        }
+        if (syy <= 0) {
+            return 1.0;
+        }
+        return Math.min(1.0, sxy * sxy / (sxx * syy));
+    }
+
+    /**
+     * Rolling slope of {@code values} against their index over {@code window}.
+     */
+    public static double[] slope(double[] values, int window) {
+        RollingRegression kernel = new RollingRegression(window);
+        double[] out = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            kernel.push(i, values[i]);
+            out[i] = kernel.slope();
+        }
+        return out;
+    }
+}
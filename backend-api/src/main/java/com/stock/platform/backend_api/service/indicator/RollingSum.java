@@ -0,0 +1,94 @@
+package com.stock.platform.backend_api.service.indicator;
+
+/**
+ * Running sum over the last {@code window} values, O(1) per value.
+ *
+ * {@code NaN} values take a slot in the window but are left out of the sum; {@link #mean()} is only
+ * defined once the window is full of real values, which is the usual SMA convention.
+ */
+public final class RollingSum {
+    private final int window;
+    private final double[] ring;
+    private double sum;
+    private int count;
+    private long seen;
+
+    public RollingSum(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be > 0");
+        }
+        this.window = window;
+        this.ring = new double[window];
+    }
+
+    private RollingSum(RollingSum other) {
+        this.window = other.window;
+        this.ring = other.ring.clone();
+        this.sum = other.sum;
+        this.count = other.count;
+        this.seen = other.seen;
+    }
+
+    public RollingSum copy() {
+        return new RollingSum(this);
+    }
+
+    /**
+     * Rough heap footprint, for cache accounting.
+     */
+    long bytes() {
+        return 48 + 8L * window;
+    }
+
+    public void push(double v) {
+        int slot = (int) (seen % window);
+        if (!Double.isNaN(v)) {
+            sum += v;
+            count++;
+        }
+        if (seen >= window) {
+            double old = ring[slot];
+            if (!Double.isNaN(old)) {
+                sum -= old;
+                count--;
+            }
+        }
+        ring[slot] = v;
+        seen++;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * Number of real (non-NaN) values in the window.
+     */
+    public int count() {
+        return count;
+    }
+
+    public boolean full() {
+        return count == window;
+    }
+
+    /**
+     * Mean of the window, {@code NaN} until it holds {@code window} real values.
+     */
+    public double mean() {
+        return full() ? sum / window : Double.NaN;
+    }
+
+    /**
+     * Rolling mean (SMA) of {@code values} over {@code window}.
+     */
+    public static double[] mean(double[] values, int window) {
+        RollingSum kernel = new RollingSum(window);
+        double[] out = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            kernel.push(values[i]);
+            out[i] = kernel.mean();
+        }
+        return out;
+    }
+}
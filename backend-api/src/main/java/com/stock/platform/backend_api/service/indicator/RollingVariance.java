@@ -0,0 +1,116 @@
+package com.stock.platform.backend_api.service.indicator;
+
+/**
+ * Mean and variance over the last {@code window} values using Welford's update, O(1) per value.
+ *
+ * Adding and removing a value both update the mean and the sum of squared deviations directly, which
+ * avoids the cancellation of the naive {@code E[x²] - E[x]²} on price-sized numbers. {@code NaN} values
+ * take a slot but are skipped; results are defined only once the window is full of real values.
+ */
+public final class RollingVariance {
+    private final int window;
+    private final double[] ring;
+    private int count;
+    private double mean;
+    private double m2;
+    private long seen;
+
+    public RollingVariance(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be > 0");
+        }
+        this.window = window;
+        this.ring = new double[window];
+    }
+
+    private RollingVariance(RollingVariance other) {
+        this.window = other.window;
+        this.ring = other.ring.clone();
+        this.count = other.count;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        this.seen = other.seen;
+    }
+
+    public RollingVariance copy() {
+        return new RollingVariance(this);
+    }
+
+    /**
+     * Rough heap footprint, for cache accounting.
+     */
+    long bytes() {
+        return 64 + 8L * window;
+    }
+
+    public void push(double v) {
+        int slot = (int) (seen % window);
+        if (seen >= window && !Double.isNaN(ring[slot])) {
+            remove(ring[slot]);
+        }
+        if (!Double.isNaN(v)) {
+            add(v);
+        }
+        ring[slot] = v;
+        seen++;
+    }
+
+    private void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    private void remove(double x) {
+        if (count == 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        count--;
+        double delta = x - mean;
+        mean -= delta / count;
+        m2 -= delta * (x - mean);
+    }
+
+    public boolean full() {
+        return count == window;
+    }
+
+    public double mean() {
+        return full() ? mean : Double.NaN;
+    }
+
+    /**
+     * Population variance of the window (divides by {@code window}).
+     */
+    public double variance() {
+        return full() ? Math.max(m2, 0.0) / window : Double.NaN;
+    }
+
+    /**
+     * Sample variance of the window (divides by {@code window - 1}).
+     */
+    public double sampleVariance() {
+        return full() && window > 1 ? Math.max(m2, 0.0) / (window - 1) : Double.NaN;
+    }
+
+    public double stdev() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Rolling population standard deviation of {@code values} over {@code window}.
+     */
+    public static double[] stdev(double[] values, int window) {
+        RollingVariance kernel = new RollingVariance(window);
+        double[] out = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            kernel.push(values[i]);
+            out[i] = kernel.stdev();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,55 @@
+package com.stock.platform.backend_api.service.indicator;
+
+/**
+ * Wilder's smoothed average (RMA) as used by RSI and ATR, O(1) per value.
+ *
+ * The first {@code period} real values are averaged plainly; after that each value moves the average
+ * by {@code 1/period}. {@code NaN} values are skipped and leave the average unchanged.
+ */
+public final class WilderAverage {
+    private final int period;
+    private int count;
+    private double sum;
+    private double average = Double.NaN;
+
+    public WilderAverage(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be > 0");
+        }
+        this.period = period;
+    }
+
+    private WilderAverage(WilderAverage other) {
+        this.period = other.period;
+        this.count = other.count;
+        this.sum = other.sum;
+        this.average = other.average;
+    }
+
+    public WilderAverage copy() {
+        return new WilderAverage(this);
+    }
+
+    /**
+     * Add the next value and return the average, {@code NaN} until {@code period} values were seen.
+     */
+    public double push(double v) {
+        if (Double.isNaN(v)) {
+            return average;
+        }
+        if (count < period) {
+            sum += v;
+            count++;
+            if (count == period) {
+                average = sum / period;
+            }
+        } else {
+            average = (average * (period - 1) + v) / period;
+        }
+        return average;
+    }
+
+    public double current() {
+        return average;
+    }
+}
@@ -0,0 +1,209 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.BreadthSnapshotDto;
+import com.stock.platform.backend_api.api.dto.ScreenerItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.BreadthMember;
+import com.stock.platform.backend_api.repository.SecurityDailyMetrics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Breadth of one index on one date as a bitset per metric over the constituents' ordinals.
+ *
+ * Built once from the constituents' daily metrics; snapshot counts are popcounts, drill-downs iterate a
+ * bitset and combined filters ({@code above_ma50 AND volume_surge}) are bitwise ANDs. Volume surges depend
+ * on the requested multiple, so their bitsets are built on first use per multiple, rounded to one
+ * decimal so that only a bounded number of them is ever kept.
+ */
+public final class BreadthBoard {
+    public static final double MAX_VOLUME_MULTIPLE = 20.0;
+    // Volume multiples are rounded to 1 / VOLUME_MULTIPLE_STEPS
+    private static final int VOLUME_MULTIPLE_STEPS = 10;
+
+    private final String indexSymbol;
+    private final LocalDate asOf;
+    private final List<BreadthMember> members;
+    private final BitSet withData;
+    private final BitSet stocks;
+    private final Map<BreadthMetric, BitSet> bits = new EnumMap<>(BreadthMetric.class);
+    private final Map<Long, BitSet> volumeSurges = new ConcurrentHashMap<>();
+
+    public BreadthBoard(String indexSymbol, List<BreadthMember> members) {
+        this.indexSymbol = indexSymbol;
+        this.members = List.copyOf(members);
+        this.asOf = this.members.stream()
+                .filter(m -> m.metrics() != null)
+                .map(m -> m.metrics().barDate())
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+
+        int n = this.members.size();
+        this.withData = new BitSet(n);
+        this.stocks = new BitSet(n);
+        for (BreadthMetric metric : BreadthMetric.values()) {
+            if (metric != BreadthMetric.VOLUME_SURGE) {
+                bits.put(metric, new BitSet(n));
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            BreadthMember member = this.members.get(i);
+            if (member.stock()) {
+                stocks.set(i);
+            }
+            SecurityDailyMetrics m = member.metrics();
+            if (m == null || !m.barDate().equals(asOf)) {
+                continue;
+            }
+            withData.set(i);
+            double close = m.close();
+            // NaN compares false, matching SQL's "x is not null and ..." conditions
+            set(BreadthMetric.UP, i, close > m.prevClose());
+            set(BreadthMetric.DOWN, i, close < m.prevClose());
+            set(BreadthMetric.FLAT, i, close == m.prevClose());
+            set(BreadthMetric.ABOVE_MA20, i, close > m.ma20());
+            set(BreadthMetric.ABOVE_MA50, i, close > m.ma50());
+            set(BreadthMetric.ABOVE_MA200, i, close > m.ma200());
+            set(BreadthMetric.NEW_HIGH_52W, i, close >= m.high252());
+            set(BreadthMetric.NEW_LOW_52W, i, close <= m.low252());
+        }
+    }
+
+    private void set(BreadthMetric metric, int i, boolean value) {
+        if (value) {
+            bits.get(metric).set(i);
+        }
+    }
+
+    public LocalDate asOf() {
+        return asOf;
+    }
+
+    /**
+     * The constituents, in ordinal order.
+     */
+    public List<BreadthMember> members() {
+        return members;
+    }
+
+    /**
+     * Whether constituent {@code i} has metrics on {@link #asOf()}.
+     */
+    public boolean hasData(int i) {
+        return withData.get(i);
+    }
+
+    /**
+     * Whether constituent {@code i} matches {@code metric} (any metric but {@link BreadthMetric#VOLUME_SURGE}).
+     */
+    public boolean matches(BreadthMetric metric, int i) {
+        return bits.get(metric).get(i);
+    }
+
+    /**
+     * Constituents matching {@code metric}; the result is a copy the caller may modify.
+     */
+    public BitSet bits(BreadthMetric metric, double volumeMultiple) {
+        if (metric == BreadthMetric.VOLUME_SURGE) {
+            return (BitSet) volumeSurge(volumeMultiple).clone();
+        }
+        return (BitSet) bits.get(metric).clone();
+    }
+
+    /**
+     * Constituents matching every metric in {@code metrics}.
+     */
+    public BitSet matchAll(List<BreadthMetric> metrics, double volumeMultiple) {
+        BitSet out = (BitSet) withData.clone();
+        for (BreadthMetric metric : metrics) {
+            out.and(metric == BreadthMetric.VOLUME_SURGE
+                    ? volumeSurge(volumeMultiple)
+                    : bits.get(metric));
+        }
+        return out;
+    }
+
+    /**
+     * {@code requested} clamped to [1, {@value #MAX_VOLUME_MULTIPLE}] and rounded to one decimal, the multiple
+     * the board actually applies.
+     */
+    public static double volumeMultiple(double requested) {
+        double clamped = requested >= 1.0 ? Math.min(requested, MAX_VOLUME_MULTIPLE) : 1.0;
+        return (double) steps(clamped) / VOLUME_MULTIPLE_STEPS;
+    }
+
+    private static long steps(double multiple) {
+        return Math.round(multiple * VOLUME_MULTIPLE_STEPS);
+    }
+
+    private BitSet volumeSurge(double volumeMultiple) {
+        return volumeSurges.computeIfAbsent(steps(volumeMultiple(volumeMultiple)), this::scanVolumeSurge);
+    }
+
+    private BitSet scanVolumeSurge(long steps) {
+        double multiple = (double) steps / VOLUME_MULTIPLE_STEPS;
+        BitSet out = new BitSet(members.size());
+        for (int i = withData.nextSetBit(0); i >= 0; i = withData.nextSetBit(i + 1)) {
+            SecurityDailyMetrics m = members.get(i).metrics();
+            if (m.volume() != BarSeries.NO_VOLUME && m.volume() >= m.vma50() * multiple) {
+                out.set(i);
+            }
+        }
+        return out;
+    }
+
+    public BreadthSnapshotDto snapshot(double volumeMultiple) {
+        return new BreadthSnapshotDto(
+                indexSymbol,
+                asOf == null ? null : asOf.toString(),
+                members.size(),
+                withData.cardinality(),
+                bits.get(BreadthMetric.UP).cardinality(),
+                bits.get(BreadthMetric.DOWN).cardinality(),
+                bits.get(BreadthMetric.FLAT).cardinality(),
+                bits.get(BreadthMetric.ABOVE_MA20).cardinality(),
+                bits.get(BreadthMetric.ABOVE_MA50).cardinality(),
+                bits.get(BreadthMetric.ABOVE_MA200).cardinality(),
+                bits.get(BreadthMetric.NEW_HIGH_52W).cardinality(),
+                bits.get(BreadthMetric.NEW_LOW_52W).cardinality(),
+                volumeSurge(volumeMultiple).cardinality()
+        );
+    }
+
+    /**
+     * Stocks matching every metric, best one-day return first.
+     */
+    public List<ScreenerItemDto> detail(List<BreadthMetric> metrics, double volumeMultiple) {
+        BitSet match = matchAll(metrics, volumeMultiple);
+        match.and(stocks);
+        List<ScreenerItemDto> out = new ArrayList<>(match.cardinality());
+        for (int i = match.nextSetBit(0); i >= 0; i = match.nextSetBit(i + 1)) {
+            BreadthMember member = members.get(i);
+            SecurityDailyMetrics m = member.metrics();
+            double ret = m.prevClose() == 0.0 ? Double.NaN : m.close() / m.prevClose() - 1.0;
+            out.add(new ScreenerItemDto(
+                    member.symbol(),
+                    member.name(),
+                    m.barDate().toString(),
+                    boxed(m.close()),
+                    boxed(ret),
+                    boxed(m.ma50()),
+                    boxed(m.ma200()),
+                    m.volume() == BarSeries.NO_VOLUME ? null : m.volume()
+            ));
+        }
+        out.sort(Comparator.comparing(ScreenerItemDto::returnPct, Comparator.nullsLast(Comparator.reverseOrder())));
+        return out;
+    }
+
+    private static Double boxed(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+}
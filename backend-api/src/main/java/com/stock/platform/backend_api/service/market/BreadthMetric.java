@@ -0,0 +1,53 @@
+package com.stock.platform.backend_api.service.market;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public enum BreadthMetric {
+    UP("up"),
+    DOWN("down"),
+    FLAT("flat"),
+    ABOVE_MA20("above_ma20"),
+    ABOVE_MA50("above_ma50"),
+    ABOVE_MA200("above_ma200"),
+    NEW_HIGH_52W("new_high_52w"),
+    NEW_LOW_52W("new_low_52w"),
+    VOLUME_SURGE("volume_surge");
+
+    private final String value;
+
+    BreadthMetric(String value) {
+        this.value = value;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public static BreadthMetric parse(String value) {
+        String v = value == null ? "" : value.trim().toLowerCase();
+        for (BreadthMetric m : values()) {
+            if (m.value.equals(v)) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported breadth metric: " + value);
+    }
+
+    /**
+     * Parse a conjunction such as {@code above_ma50&volume_surge} (also accepts {@code ,} and {@code +}).
+     */
+    public static List<BreadthMetric> parseAll(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("metric is required");
+        }
+        List<BreadthMetric> out = new ArrayList<>();
+        for (String part : value.split("[&,+]")) {
+            BreadthMetric m = parse(part);
+            if (!out.contains(m)) {
+                out.add(m);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,40 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.BreadthSnapshotDto;
+import com.stock.platform.backend_api.api.dto.ScreenerItemDto;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.InsightResultCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+/**
+ * Market breadth snapshots and drill-downs, both served from one {@link BreadthBoard} per index that is
+ * loaded once per market data version.
+ */
+public class BreadthService {
+    private final MarketRepository market;
+    private final InsightResultCache cache;
+
+    public BreadthService(MarketRepository market, InsightResultCache cache) {
+        this.market = market;
+        this.cache = cache;
+    }
+
+    public BreadthSnapshotDto snapshot(String indexSymbol, double volumeSurgeMultiple) {
+        return board(indexSymbol).snapshot(volumeSurgeMultiple);
+    }
+
+    /**
+     * Constituents matching every metric of {@code metric}, e.g. {@code above_ma50&volume_surge}.
+     */
+    public List<ScreenerItemDto> detail(String indexSymbol, String metric, double volumeSurgeMultiple) {
+        List<BreadthMetric> metrics = BreadthMetric.parseAll(metric);
+        return board(indexSymbol).detail(metrics, volumeSurgeMultiple);
+    }
+
+    public BreadthBoard board(String indexSymbol) {
+        return cache.get("breadth-board|" + indexSymbol, () -> new BreadthBoard(indexSymbol, market.loadBreadthMembers(indexSymbol)));
+    }
+}
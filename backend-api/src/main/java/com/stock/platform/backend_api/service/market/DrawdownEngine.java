@@ -0,0 +1,119 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Drawdown episodes of a bar series, found in a single pass over its closes.
+ *
+ * An episode starts when a close falls below the running high (its peak) and ends on the first close back
+ * at or above that peak (its recovery); its trough is the lowest close in between, the latest one on ties.
+ * An episode still open at the end of the series is under water and has no recovery. Durations count bars
+ * by position in the series; bars without a close are skipped.
+ */
+public final class DrawdownEngine {
+    /**
+     * One episode, as positions in the series.
+     *
+     * @param recovery Position of the recovery, -1 while under water
+     * @param end Position of the recovery, or of the last bar of the episode's segment while under water
+     * @param depth {@code trough / peak - 1}, negative
+     */
+    public record Episode(int peak, int trough, int recovery, int end, double peakClose, double troughClose, double depth) {
+        public boolean recovered() {
+            return recovery >= 0;
+        }
+    }
+
+    /**
+     * @param bars Bars with a close
+     * @param lastIndex Position of the last bar with a close, -1 without bars
+     * @param currentDrawdown Last close against the running high of its segment, 0 at a high; {@code NaN}
+     *                        without bars
+     * @param longestDuration Bars of the longest episode, whether among the deepest or not
+     * @param episodes The deepest episodes, deepest first
+     */
+    public record Analysis(int bars, int lastIndex, double currentDrawdown, int longestDuration, List<Episode> episodes) {
+        public Episode deepest() {
+            return episodes.isEmpty() ? null : episodes.get(0);
+        }
+
+        /**
+         * Bars from the peak to the recovery, or to the last bar of its segment while under water.
+         */
+        public int duration(Episode e) {
+            return e.end() - e.peak();
+        }
+    }
+
+    // Greater is deeper; among equally deep episodes the latest
+    private static final Comparator<Episode> DEEPER = Comparator
+            .comparingDouble((Episode e) -> -e.depth())
+            .thenComparingInt(Episode::trough);
+
+    private DrawdownEngine() {
+    }
+
+    /**
+     * @param maxEpisodes How many of the deepest episodes to keep (at least 1)
+     */
+    public static Analysis analyze(BarSeries bars, int maxEpisodes) {
+        return analyze(bars, new int[0], maxEpisodes);
+    }
+
+    /**
+     * {@link #analyze(BarSeries, int)} with each segment analysed on its own, as when a stock's bars span
+     * several index membership periods: the running high starts over and an episode still open at the end of
+     * a segment stays under water.
+     *
+     * @param breaks Ascending positions where a new segment starts (see {@code RankingStock#breaks})
+     */
+    public static Analysis analyze(BarSeries bars, int[] breaks, int maxEpisodes) {
+        TopK<Episode> deepest = new TopK<>(maxEpisodes, DEEPER);
+        int count = 0;
+        int last = -1;
+        int peak = -1;
+        double peakClose = Double.NaN;
+        int trough = -1;
+        double troughClose = Double.NaN;
+        int longest = 0;
+        int b = 0;
+        for (int i = 0; i < bars.size(); i++) {
+            if (b < breaks.length && breaks[b] == i) {
+                b++;
+                if (trough >= 0) {
+                    deepest.offer(new Episode(peak, trough, -1, last, peakClose, troughClose, troughClose / peakClose - 1.0));
+                    longest = Math.max(longest, last - peak);
+                    trough = -1;
+                }
+                peak = -1;
+            }
+            double c = bars.close(i);
+            if (Double.isNaN(c)) {
+                continue;
+            }
+            count++;
+            last = i;
+            if (peak < 0 || c >= peakClose) {
+                if (trough >= 0) {
+                    deepest.offer(new Episode(peak, trough, i, i, peakClose, troughClose, troughClose / peakClose - 1.0));
+                    longest = Math.max(longest, i - peak);
+                    trough = -1;
+                }
+                peak = i;
+                peakClose = c;
+            } else if (trough < 0 || c <= troughClose) {
+                trough = i;
+                troughClose = c;
+            }
+        }
+        if (trough >= 0) {
+            deepest.offer(new Episode(peak, trough, -1, last, peakClose, troughClose, troughClose / peakClose - 1.0));
+            longest = Math.max(longest, last - peak);
+        }
+        double current = count == 0 ? Double.NaN : bars.close(last) / peakClose - 1.0;
+        return new Analysis(count, last, current, longest, List.copyOf(deepest.toList()));
+    }
+}
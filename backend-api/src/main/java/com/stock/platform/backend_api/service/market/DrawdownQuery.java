@@ -0,0 +1,17 @@
+package com.stock.platform.backend_api.service.market;
+
+import java.time.LocalDate;
+
+public record DrawdownQuery(
+        String universeIndexSymbol,
+        String stockSymbol,
+        BarInterval interval,
+        LocalDate start,
+        LocalDate end,
+        String sort,
+        String mode,
+        Integer limit,
+        Integer episodes,
+        Boolean pointInTime
+) {
+}
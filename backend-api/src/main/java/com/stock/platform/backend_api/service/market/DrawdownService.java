@@ -0,0 +1,156 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.DrawdownDto;
+import com.stock.platform.backend_api.api.dto.DrawdownEpisodeDto;
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.InsightResultCache;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+@Service
+/**
+ * Drawdown analytics (see {@link DrawdownEngine}) of one stock, or ranked across a universe.
+ *
+ * A ranking analyses every stock of the universe once, in parallel, keeping its {@value #MAX_EPISODES}
+ * deepest episodes; the analyses are cached per universe and window, so the order, the limit and the number
+ * of episodes shown are applied to the cached results.
+ */
+public class DrawdownService {
+    static final int MAX_EPISODES = 20;
+
+    /**
+     * A ranked stock: its drawdowns with every kept episode, and the length of its longest episode.
+     */
+    record Ranked(DrawdownDto drawdown, int longestDuration) {}
+
+    private final MarketRepository market;
+    private final UniverseScanner universe;
+    private final InsightResultCache cache;
+
+    public DrawdownService(MarketRepository market, UniverseScanner universe, InsightResultCache cache) {
+        this.market = market;
+        this.universe = universe;
+        this.cache = cache;
+    }
+
+    /**
+     * Stocks ordered by {@code sort}: {@code depth} (max drawdown, default), {@code current} (current
+     * drawdown) or {@code duration} (longest episode), worst first, or best first with mode {@code best}.
+     */
+    public List<DrawdownDto> rank(DrawdownQuery query) {
+        String index = normalizeIndexSymbol(query.universeIndexSymbol());
+        BarInterval interval = query.interval() == null ? BarInterval.D1 : query.interval();
+        LocalDate end = query.end() != null ? query.end() : LocalDate.now().minusDays(1);
+        LocalDate start = query.start() != null ? query.start() : end.minusYears(1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        int limit = clamp(query.limit() == null ? 20 : query.limit(), 5, 200);
+        int episodes = clamp(query.episodes() == null ? 1 : query.episodes(), 0, MAX_EPISODES);
+        boolean best = "best".equalsIgnoreCase(query.mode()) || "resilient".equalsIgnoreCase(query.mode());
+        Comparator<Ranked> order = order(query.sort(), best);
+
+        return ranked(index, interval, start, end, Boolean.TRUE.equals(query.pointInTime())).parallelStream()
+                .collect(() -> new TopK<>(limit, order), TopK::offer, TopK::merge)
+                .toList()
+                .stream()
+                .map(r -> withEpisodes(r.drawdown(), episodes))
+                .toList();
+    }
+
+    /**
+     * Every stock of the universe with its drawdowns, in no particular order; cached per data version.
+     */
+    List<Ranked> ranked(String index, BarInterval interval, LocalDate start, LocalDate end, boolean pointInTime) {
+        String key = "drawdowns|" + index + "|" + interval.value() + "|" + start + "|" + end + "|" + pointInTime;
+        return cache.get(key, () -> List.copyOf(universe.scan(index, pointInTime, interval, start, end, (stock, bars) -> {
+            DrawdownEngine.Analysis analysis = DrawdownEngine.analyze(bars, stock.breaks(bars), MAX_EPISODES);
+            if (analysis.bars() == 0) {
+                return null;
+            }
+            return new Ranked(toDto(stock.symbol(), stock.name(), interval, bars, analysis), analysis.longestDuration());
+        })));
+    }
+
+    public DrawdownDto forSymbol(DrawdownQuery query) {
+        String symbol = query.stockSymbol() == null ? "" : query.stockSymbol().trim().toUpperCase();
+        if (symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
+        }
+        BarInterval interval = query.interval() == null ? BarInterval.D1 : query.interval();
+        LocalDate end = query.end() != null ? query.end() : LocalDate.now().minusDays(1);
+        LocalDate start = query.start() != null ? query.start() : end.minusYears(5);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        int episodes = clamp(query.episodes() == null ? 10 : query.episodes(), 1, 100);
+
+        BarSeries bars = market.getBarSeries(symbol, interval.value(), start, end);
+        String name = market.findSecurityName(symbol).orElse(symbol);
+        return toDto(symbol, name, interval, bars, DrawdownEngine.analyze(bars, episodes));
+    }
+
+    private static Comparator<Ranked> order(String sort, boolean best) {
+        // Greater ranks first: the worst unless best is asked for
+        ToDoubleFunction<Ranked> worse = switch (sort == null || sort.isBlank() ? "depth" : sort.trim().toLowerCase()) {
+            case "depth" -> r -> -r.drawdown().maxDrawdown();
+            case "current" -> r -> -r.drawdown().currentDrawdown();
+            case "duration" -> Ranked::longestDuration;
+            default -> throw new IllegalArgumentException("Unsupported sort: " + sort + " (depth, current, duration)");
+        };
+        Comparator<Ranked> order = Comparator.comparingDouble(worse);
+        return (best ? order.reversed() : order)
+                .thenComparing(r -> r.drawdown().symbol(), Comparator.reverseOrder());
+    }
+
+    private static DrawdownDto withEpisodes(DrawdownDto d, int episodes) {
+        if (d.episodes().size() <= episodes) {
+            return d;
+        }
+        return new DrawdownDto(d.symbol(), d.name(), d.interval(), d.bars(), d.maxDrawdown(), d.currentDrawdown(),
+                d.episodes().subList(0, episodes));
+    }
+
+    private static DrawdownDto toDto(String symbol, String name, BarInterval interval, BarSeries bars, DrawdownEngine.Analysis analysis) {
+        List<DrawdownEpisodeDto> episodes = new ArrayList<>(analysis.episodes().size());
+        for (DrawdownEngine.Episode e : analysis.episodes()) {
+            episodes.add(new DrawdownEpisodeDto(
+                    bars.date(e.peak()).toString(),
+                    e.peakClose(),
+                    bars.date(e.trough()).toString(),
+                    e.troughClose(),
+                    e.recovered() ? bars.date(e.recovery()).toString() : null,
+                    e.depth(),
+                    analysis.duration(e),
+                    e.recovered() ? e.recovery() - e.trough() : null
+            ));
+        }
+        DrawdownEngine.Episode deepest = analysis.deepest();
+        return new DrawdownDto(
+                symbol,
+                name,
+                interval.value(),
+                analysis.bars(),
+                analysis.bars() == 0 ? null : deepest == null ? 0.0 : deepest.depth(),
+                Double.isNaN(analysis.currentDrawdown()) ? null : analysis.currentDrawdown(),
+                List.copyOf(episodes)
+        );
+    }
+
+    private static int clamp(int v, int min, int max) {
+        return Math.min(Math.max(v, min), max);
+    }
+
+    private static String normalizeIndexSymbol(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            return "^SPX";
+        }
+        return symbol.trim().toUpperCase();
+    }
+}
@@ -0,0 +1,121 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+/**
+ * Every {@link FactorMetric} of a bar series, plus its longest up and down streaks, in a single pass over
+ * its closes.
+ *
+ * <ul>
+ *   <li>Max drawdown: the lowest {@code close / running max - 1}, and the bar where it occurs;</li>
+ *   <li>max run-up: the highest {@code close / running min - 1}, and the bar where it occurs;</li>
+ *   <li>max run-down: the max drawdown, as ranked by {@code /api/market/factors/rank};</li>
+ *   <li>new highs / lows: bars closing above the highest / below the lowest close of the previous
+ *       {@code lookback - 1} bars (fewer at the start of the series), out of every bar with an earlier close
+ *       in that window.</li>
+ * </ul>
+ * The extremes of the previous bars are range queries on the series' {@link BarSeries#indexed() index}, so the
+ * pass is O(n) whatever the lookback. Bars without a close are skipped and ties go to the latest bar.
+ */
+public final class FactorEngine {
+    /**
+     * @param bars Bars with a close
+     * @param troughIndex Position of the max drawdown's bar, -1 without bars
+     * @param runupIndex Position of the max run-up's bar, -1 without bars
+     * @param evaluated Bars compared with the previous closes for new highs and lows
+     */
+    public record Factors(
+            int bars,
+            double maxDrawdown,
+            int troughIndex,
+            double maxRunup,
+            int runupIndex,
+            int newHighs,
+            int newLows,
+            int evaluated,
+            StreakEngine.Result streaks
+    ) {
+        public double newHighRate() {
+            return evaluated == 0 ? Double.NaN : (double) newHighs / evaluated;
+        }
+
+        public double newLowRate() {
+            return evaluated == 0 ? Double.NaN : (double) newLows / evaluated;
+        }
+    }
+
+    private FactorEngine() {
+    }
+
+    /**
+     * @param lookback Bars of the new-high/low window, the current one included (at least 2)
+     */
+    public static Factors compute(BarSeries bars, int lookback) {
+        return compute(bars, new int[0], lookback);
+    }
+
+    /**
+     * {@link #compute(BarSeries, int)} with the running extremes, the new-high/low window and the streaks
+     * starting over at each segment, as when a stock's bars span several index membership periods.
+     *
+     * @param breaks Ascending positions where a new segment starts (see {@code RankingStock#breaks})
+     */
+    public static Factors compute(BarSeries bars, int[] breaks, int lookback) {
+        BarSeries indexed = bars.indexed();
+        int previous = lookback - 1;
+        StreakEngine.Tracker streaks = new StreakEngine.Tracker(0, 0);
+
+        int count = 0;
+        double runMax = Double.NaN;
+        double runMin = Double.NaN;
+        double maxDrawdown = Double.NaN;
+        int troughIndex = -1;
+        double maxRunup = Double.NaN;
+        int runupIndex = -1;
+        int newHighs = 0;
+        int newLows = 0;
+        int evaluated = 0;
+        int segmentStart = 0;
+        boolean segmentEmpty = true;
+        int b = 0;
+        for (int i = 0; i < bars.size(); i++) {
+            if (b < breaks.length && breaks[b] == i) {
+                b++;
+                segmentStart = i;
+                segmentEmpty = true;
+                streaks.restart();
+            }
+            double c = bars.close(i);
+            if (Double.isNaN(c)) {
+                continue;
+            }
+            streaks.accept(i, c, bars.volume(i));
+
+            runMax = segmentEmpty ? c : Math.max(runMax, c);
+            runMin = segmentEmpty ? c : Math.min(runMin, c);
+            segmentEmpty = false;
+            if (runMax != 0 && (Double.isNaN(maxDrawdown) || c / runMax - 1.0 <= maxDrawdown)) {
+                maxDrawdown = c / runMax - 1.0;
+                troughIndex = i;
+            }
+            if (runMin != 0 && (Double.isNaN(maxRunup) || c / runMin - 1.0 >= maxRunup)) {
+                maxRunup = c / runMin - 1.0;
+                runupIndex = i;
+            }
+
+            int from = Math.max(segmentStart, i - previous);
+            double previousHigh = indexed.highestClose(from, i);
+            if (!Double.isNaN(previousHigh)) {
+                evaluated++;
+                if (c > previousHigh) {
+                    newHighs++;
+                }
+                if (c < indexed.lowestClose(from, i)) {
+                    newLows++;
+                }
+            }
+            count++;
+        }
+        return new Factors(count, maxDrawdown, troughIndex, maxRunup, runupIndex, newHighs, newLows, evaluated, streaks.result());
+    }
+}
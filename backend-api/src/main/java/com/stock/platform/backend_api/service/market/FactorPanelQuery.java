@@ -0,0 +1,15 @@
+package com.stock.platform.backend_api.service.market;
+
+import java.time.LocalDate;
+
+public record FactorPanelQuery(
+        String universeIndexSymbol,
+        BarInterval interval,
+        Integer lookback,
+        LocalDate start,
+        LocalDate end,
+        String sort,
+        Boolean descending,
+        Boolean pointInTime
+) {
+}
@@ -10,7 +10,8 @@ public record FactorRankQuery(
         Integer lookback,
         LocalDate start,
         LocalDate end,
-        Integer limit
+        Integer limit,
+        Boolean pointInTime
 ) {
 }
 
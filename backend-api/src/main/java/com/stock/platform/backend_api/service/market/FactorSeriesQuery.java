@@ -0,0 +1,13 @@
+package com.stock.platform.backend_api.service.market;
+
+import java.time.LocalDate;
+
+public record FactorSeriesQuery(
+        String stockSymbol,
+        BarInterval interval,
+        Integer window,
+        Integer lookback,
+        LocalDate start,
+        LocalDate end
+) {
+}
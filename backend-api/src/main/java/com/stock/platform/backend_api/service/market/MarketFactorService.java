@@ -1,18 +1,40 @@
 package com.stock.platform.backend_api.service.market;
 
+import com.stock.platform.backend_api.api.dto.DrawdownDto;
+import com.stock.platform.backend_api.api.dto.DrawdownEpisodeDto;
+import com.stock.platform.backend_api.api.dto.FactorPanelDto;
+import com.stock.platform.backend_api.api.dto.FactorPanelRowDto;
 import com.stock.platform.backend_api.api.dto.FactorRankItemDto;
+import com.stock.platform.backend_api.api.dto.FactorSeriesDto;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.repository.RankingStock;
+import com.stock.platform.backend_api.service.InsightResultCache;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 public class MarketFactorService {
     private final MarketRepository market;
+    private final UniverseScanner universe;
+    private final DrawdownService drawdowns;
+    private final InsightResultCache cache;
 
-    public MarketFactorService(MarketRepository market) {
+    public MarketFactorService(
+            MarketRepository market,
+            UniverseScanner universe,
+            DrawdownService drawdowns,
+            InsightResultCache cache
+    ) {
         this.market = market;
+        this.universe = universe;
+        this.drawdowns = drawdowns;
+        this.cache = cache;
     }
 
     public List<FactorRankItemDto> rank(FactorRankQuery query) {
@@ -25,25 +47,213 @@ public class MarketFactorService {
             throw new IllegalArgumentException("start must be <= end");
         }
         int limit = clamp(query.limit() == null ? 20 : query.limit(), 5, 200);
+        boolean pointInTime = Boolean.TRUE.equals(query.pointInTime());
 
         return switch (metric) {
-            case MAX_DRAWDOWN -> {
-                boolean best = "best".equalsIgnoreCase(query.mode()) || "resilient".equalsIgnoreCase(query.mode());
-                yield market.rankMaxDrawdown(index, interval.value(), start, end, limit, best);
+            case MAX_DRAWDOWN, MAX_RUNDOWN -> {
+                boolean best = metric == FactorMetric.MAX_DRAWDOWN
+                        && ("best".equalsIgnoreCase(query.mode()) || "resilient".equalsIgnoreCase(query.mode()));
+                DrawdownQuery drawdownQuery = new DrawdownQuery(index, null, interval, start, end, "depth", best ? "best" : null, limit, 1, pointInTime);
+                yield drawdowns.rank(drawdownQuery).stream().map(d -> drawdownItem(d, metric)).toList();
             }
-            case MAX_RUNUP -> market.rankMaxRunup(index, interval.value(), start, end, limit);
-            case MAX_RUNDOWN -> market.rankMaxRundown(index, interval.value(), start, end, limit);
-            case NEW_HIGH_COUNT -> {
+            case MAX_RUNUP, NEW_HIGH_COUNT, NEW_LOW_COUNT -> {
                 int lookback = clamp(query.lookback() == null ? defaultLookback(interval) : query.lookback(), 2, 2000);
-                yield market.rankNewHighLowCounts(index, interval.value(), start, end, limit, lookback, true);
-            }
-            case NEW_LOW_COUNT -> {
-                int lookback = clamp(query.lookback() == null ? defaultLookback(interval) : query.lookback(), 2, 2000);
-                yield market.rankNewHighLowCounts(index, interval.value(), start, end, limit, lookback, false);
+                yield panelRows(index, interval, start, end, lookback, pointInTime).stream()
+                        .sorted(panelOrder(metric.value(), true))
+                        .limit(limit)
+                        .map(r -> panelItem(r, metric))
+                        .toList();
             }
         };
     }
 
+    // The deepest episode as a ranking item: its peak and trough dates as start and end
+    private static FactorRankItemDto drawdownItem(DrawdownDto d, FactorMetric metric) {
+        DrawdownEpisodeDto deepest = d.episodes().isEmpty() ? null : d.episodes().get(0);
+        return new FactorRankItemDto(
+                d.symbol(),
+                d.name(),
+                metric.value(),
+                d.maxDrawdown(),
+                null,
+                null,
+                deepest == null ? null : deepest.peakDate(),
+                deepest == null ? null : deepest.troughDate()
+        );
+    }
+
+    // A panel row as a ranking item: the run-up with the date it peaked, or a new-high/low count and rate
+    private static FactorRankItemDto panelItem(FactorPanelRowDto r, FactorMetric metric) {
+        return switch (metric) {
+            case MAX_RUNUP -> new FactorRankItemDto(r.symbol(), r.name(), metric.value(), r.maxRunup(), null, null, null, r.runupDate());
+            case NEW_HIGH_COUNT -> new FactorRankItemDto(r.symbol(), r.name(), metric.value(), null, r.newHighCount(), r.newHighRate(), null, null);
+            default -> new FactorRankItemDto(r.symbol(), r.name(), metric.value(), null, r.newLowCount(), r.newLowRate(), null, null);
+        };
+    }
+
+    /**
+     * Every factor of every stock of the universe as one table, ordered by {@code sort} (a {@link FactorMetric},
+     * {@code up_streak}, {@code down_streak} or {@code symbol}; rows without a value last) so a client can
+     * re-sort it without asking again. Each series is traversed once for all factors (see {@link FactorEngine})
+     * and the table is cached per data version.
+     */
+    public FactorPanelDto panel(FactorPanelQuery query) {
+        String index = normalizeIndexSymbol(query.universeIndexSymbol());
+        BarInterval interval = query.interval() == null ? BarInterval.D1 : query.interval();
+        LocalDate end = query.end() != null ? query.end() : LocalDate.now().minusDays(1);
+        LocalDate start = query.start() != null ? query.start() : end.minusYears(1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        int lookback = clamp(query.lookback() == null ? defaultLookback(interval) : query.lookback(), 2, 2000);
+        boolean pointInTime = Boolean.TRUE.equals(query.pointInTime());
+        String sort = panelColumn(query.sort());
+        // By default the worst drawdowns and the alphabet come first, the largest values otherwise
+        boolean descending = query.descending() != null
+                ? query.descending()
+                : !List.of("symbol", "max_drawdown", "max_rundown").contains(sort);
+        Comparator<FactorPanelRowDto> order = panelOrder(sort, descending);
+
+        List<FactorPanelRowDto> rows = new ArrayList<>(panelRows(index, interval, start, end, lookback, pointInTime));
+        rows.sort(order);
+        return new FactorPanelDto(index, interval.value(), start.toString(), end.toString(), lookback, sort, descending, rows);
+    }
+
+    private List<FactorPanelRowDto> panelRows(
+            String index,
+            BarInterval interval,
+            LocalDate start,
+            LocalDate end,
+            int lookback,
+            boolean pointInTime
+    ) {
+        String key = "factor-panel|" + index + "|" + interval.value() + "|" + start + "|" + end + "|" + lookback + "|" + pointInTime;
+        return cache.get(key, () -> List.copyOf(universe.scan(index, pointInTime, interval, start, end,
+                (stock, bars) -> panelRow(stock, bars, lookback))));
+    }
+
+    private static FactorPanelRowDto panelRow(RankingStock stock, BarSeries bars, int lookback) {
+        FactorEngine.Factors f = FactorEngine.compute(bars, stock.breaks(bars), lookback);
+        if (f.bars() == 0) {
+            return null;
+        }
+        StreakEngine.Streak up = f.streaks().up();
+        StreakEngine.Streak down = f.streaks().down();
+        return new FactorPanelRowDto(
+                stock.symbol(),
+                stock.name(),
+                f.bars(),
+                boxed(f.maxDrawdown()),
+                f.troughIndex() < 0 ? null : bars.date(f.troughIndex()).toString(),
+                boxed(f.maxRunup()),
+                f.runupIndex() < 0 ? null : bars.date(f.runupIndex()).toString(),
+                boxed(f.maxDrawdown()),
+                f.newHighs(),
+                boxed(f.newHighRate()),
+                f.newLows(),
+                boxed(f.newLowRate()),
+                up.length(),
+                up.length() == 0 ? null : bars.date(up.to()).toString(),
+                down.length(),
+                down.length() == 0 ? null : bars.date(down.to()).toString()
+        );
+    }
+
+    /**
+     * Every factor of one stock over a trailing {@code window} of bars, at each bar of {@code [start, end]} (see
+     * {@link RollingFactorEngine}). Enough bars before {@code start} are loaded for the first windows and
+     * new-high/low flags to be complete wherever the stock has the history.
+     */
+    public FactorSeriesDto series(FactorSeriesQuery query) {
+        String symbol = query.stockSymbol() == null ? "" : query.stockSymbol().trim().toUpperCase();
+        if (symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
+        }
+        BarInterval interval = query.interval() == null ? BarInterval.D1 : query.interval();
+        LocalDate end = query.end() != null ? query.end() : LocalDate.now().minusDays(1);
+        LocalDate start = query.start() != null ? query.start() : end.minusYears(1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        int window = clamp(query.window() == null ? defaultLookback(interval) : query.window(), 2, 2000);
+        int lookback = clamp(query.lookback() == null ? defaultLookback(interval) : query.lookback(), 2, 2000);
+
+        LocalDate warmup = start.minusDays(calendarDays(interval, window + lookback));
+        BarSeries bars = market.getBarSeries(symbol, interval.value(), warmup, end);
+        String name = market.findSecurityName(symbol).orElse(symbol);
+        RollingFactorEngine.Series s = RollingFactorEngine.compute(bars, window, lookback);
+
+        int from = bars.indexOnOrAfter(start);
+        int n = bars.size() - from;
+        List<LocalDate> dates = new ArrayList<>(n);
+        List<Double> maxDrawdown = new ArrayList<>(n);
+        List<Double> maxRunup = new ArrayList<>(n);
+        List<Integer> newHighs = new ArrayList<>(n);
+        List<Integer> newLows = new ArrayList<>(n);
+        List<Integer> upStreak = new ArrayList<>(n);
+        List<Integer> downStreak = new ArrayList<>(n);
+        for (int i = from; i < bars.size(); i++) {
+            dates.add(bars.date(i));
+            maxDrawdown.add(boxed(s.maxDrawdown()[i]));
+            maxRunup.add(boxed(s.maxRunup()[i]));
+            newHighs.add(s.newHighs()[i]);
+            newLows.add(s.newLows()[i]);
+            upStreak.add(s.upStreak()[i]);
+            downStreak.add(s.downStreak()[i]);
+        }
+        return new FactorSeriesDto(symbol, name, interval.value(), start.toString(), end.toString(), window, lookback,
+                dates, maxDrawdown, maxRunup, newHighs, newLows, upStreak, downStreak);
+    }
+
+    // Calendar days spanning at least that many bars, with room for holidays
+    private static long calendarDays(BarInterval interval, int bars) {
+        return switch (interval) {
+            case D1 -> bars * 7L / 5 + 14;
+            case W1 -> bars * 7L + 7;
+            case M1 -> bars * 31L + 31;
+        };
+    }
+
+    private static String panelColumn(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return FactorMetric.MAX_DRAWDOWN.value();
+        }
+        String column = sort.trim().toLowerCase();
+        return switch (column) {
+            case "symbol", "up_streak", "down_streak" -> column;
+            default -> FactorMetric.parse(column).value();
+        };
+    }
+
+    // Rows without a value sort last either way; ties by symbol
+    private static Comparator<FactorPanelRowDto> panelOrder(String sort, boolean descending) {
+        Comparator<FactorPanelRowDto> order = switch (sort) {
+            case "symbol" -> by(FactorPanelRowDto::symbol, descending);
+            case "up_streak" -> by(FactorPanelRowDto::upStreak, descending);
+            case "down_streak" -> by(FactorPanelRowDto::downStreak, descending);
+            default -> switch (FactorMetric.parse(sort)) {
+                case MAX_DRAWDOWN -> by(FactorPanelRowDto::maxDrawdown, descending);
+                case MAX_RUNUP -> by(FactorPanelRowDto::maxRunup, descending);
+                case MAX_RUNDOWN -> by(FactorPanelRowDto::maxRundown, descending);
+                case NEW_HIGH_COUNT -> by(FactorPanelRowDto::newHighCount, descending);
+                case NEW_LOW_COUNT -> by(FactorPanelRowDto::newLowCount, descending);
+            };
+        };
+        return order.thenComparing(FactorPanelRowDto::symbol);
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<FactorPanelRowDto> by(
+            Function<FactorPanelRowDto, T> value,
+            boolean descending
+    ) {
+        Comparator<T> natural = Comparator.naturalOrder();
+        return Comparator.comparing(value, Comparator.nullsLast(descending ? natural.reversed() : natural));
+    }
+
+    private static Double boxed(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+
     private static int defaultLookback(BarInterval interval) {
         if (interval == BarInterval.W1) return 52;
         if (interval == BarInterval.M1) return 24;
@@ -0,0 +1,151 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+/**
+ * Every {@link FactorMetric} and the longest up and down streaks of a bar series over a trailing window,
+ * evaluated at every bar in a single pass.
+ *
+ * At each bar the window is that bar and the {@code window - 1} before it (fewer at the start of the series):
+ * <ul>
+ *   <li>max drawdown / run-up: the lowest {@code close / earlier high - 1} and the highest
+ *       {@code close / earlier low - 1} within the window, as {@link FactorEngine} computes over it;</li>
+ *   <li>new highs / lows: bars of the window flagged as by {@link FactorEngine}, against the previous
+ *       {@code lookback - 1} bars whether inside the window or not;</li>
+ *   <li>streaks: the longest runs of up and down moves into the bars of the window, each against the
+ *       previous close, so a window of n bars spans n moves.</li>
+ * </ul>
+ * The drawdowns and streaks are kept per window as {@link Segment} summaries in a {@link SlidingWindow};
+ * the counts are running sums. Either way a bar entering or leaving the window costs O(1), so the pass is O(n)
+ * whatever the window. Bars without a close take their place in the window but count for nothing, and a move
+ * is measured against the last close before it.
+ */
+public final class RollingFactorEngine {
+    /**
+     * Values at every position of the series; {@code NaN} drawdowns while the window holds no close.
+     */
+    public record Series(
+            double[] maxDrawdown,
+            double[] maxRunup,
+            int[] newHighs,
+            int[] newLows,
+            int[] upStreak,
+            int[] downStreak
+    ) {}
+
+    /**
+     * Lengths of the runs of consecutive flagged bars in a segment: the longest, and the ones touching its
+     * start ({@code head}) and end ({@code tail}).
+     */
+    record Run(int length, int head, int tail, int longest) {
+        static final Run EMPTY = new Run(0, 0, 0, 0);
+        static final Run IN = new Run(1, 1, 1, 1);
+        static final Run OUT = new Run(1, 0, 0, 0);
+
+        Run then(Run next) {
+            return new Run(
+                    length + next.length,
+                    head == length ? length + next.head : head,
+                    next.tail == next.length ? next.length + tail : next.tail,
+                    Math.max(Math.max(longest, next.longest), tail + next.head)
+            );
+        }
+    }
+
+    /**
+     * Summary of consecutive bars, combined associatively: the extreme closes, the max drawdown and run-up
+     * among them, and their up and down runs.
+     */
+    record Segment(int bars, double high, double low, double drawdown, double runup, Run up, Run down) {
+        static final Segment EMPTY = new Segment(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Run.EMPTY, Run.EMPTY);
+
+        static Segment of(double close, int direction) {
+            return new Segment(1, close, close, 0.0, 0.0, direction > 0 ? Run.IN : Run.OUT, direction < 0 ? Run.IN : Run.OUT);
+        }
+
+        Segment then(Segment next) {
+            if (bars == 0) {
+                return next;
+            }
+            if (next.bars == 0) {
+                return this;
+            }
+            double drawdown = Math.min(this.drawdown, next.drawdown);
+            if (high != 0) {
+                drawdown = Math.min(drawdown, next.low / high - 1.0);
+            }
+            double runup = Math.max(this.runup, next.runup);
+            if (low != 0) {
+                runup = Math.max(runup, next.high / low - 1.0);
+            }
+            return new Segment(
+                    bars + next.bars,
+                    Math.max(high, next.high),
+                    Math.min(low, next.low),
+                    drawdown,
+                    runup,
+                    up.then(next.up),
+                    down.then(next.down)
+            );
+        }
+    }
+
+    private RollingFactorEngine() {
+    }
+
+    /**
+     * @param window Bars of the trailing window, the current one included (at least 1)
+     * @param lookback Bars of the new-high/low window, the current one included (at least 2)
+     */
+    public static Series compute(BarSeries bars, int window, int lookback) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be >= 1");
+        }
+        BarSeries indexed = bars.indexed();
+        int n = bars.size();
+        int previous = lookback - 1;
+        double[] maxDrawdown = new double[n];
+        double[] maxRunup = new double[n];
+        int[] newHighs = new int[n];
+        int[] newLows = new int[n];
+        int[] upStreak = new int[n];
+        int[] downStreak = new int[n];
+        boolean[] newHigh = new boolean[n];
+        boolean[] newLow = new boolean[n];
+        SlidingWindow<Segment> segments = new SlidingWindow<>(Segment::then, Segment.EMPTY);
+
+        double prev = Double.NaN;
+        int highs = 0;
+        int lows = 0;
+        for (int i = 0; i < n; i++) {
+            double c = bars.close(i);
+            Segment segment = Segment.EMPTY;
+            if (!Double.isNaN(c)) {
+                segment = Segment.of(c, Double.isNaN(prev) ? 0 : Double.compare(c, prev));
+                prev = c;
+                double previousHigh = indexed.highestClose(i - previous, i);
+                if (!Double.isNaN(previousHigh)) {
+                    newHigh[i] = c > previousHigh;
+                    newLow[i] = c < indexed.lowestClose(i - previous, i);
+                }
+            }
+            segments.push(segment);
+            highs += newHigh[i] ? 1 : 0;
+            lows += newLow[i] ? 1 : 0;
+            if (segments.size() > window) {
+                segments.evict();
+                highs -= newHigh[i - window] ? 1 : 0;
+                lows -= newLow[i - window] ? 1 : 0;
+            }
+
+            Segment total = segments.total();
+            maxDrawdown[i] = total.drawdown();
+            maxRunup[i] = total.runup();
+            newHighs[i] = highs;
+            newLows[i] = lows;
+            upStreak[i] = total.up().longest();
+            downStreak[i] = total.down().longest();
+        }
+        return new Series(maxDrawdown, maxRunup, newHighs, newLows, upStreak, downStreak);
+    }
+}
@@ -0,0 +1,181 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.RsMatrixDto;
+import com.stock.platform.backend_api.api.dto.RsMatrixSeriesDto;
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.InsightResultCache;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+/**
+ * Relative strength of many stocks against several benchmarks at once.
+ *
+ * The daily bars of every stock and benchmark are fetched once, in bulk, and each is aligned in a single
+ * pass onto the shared calendar (the union of the benchmarks' trading days). Every stock/benchmark pair is
+ * then a division of two aligned columns, normalised to 1 on the pair's first common day.
+ */
+public class RsMatrixService {
+    public static final int MAX_SYMBOLS = 100;
+    public static final int MAX_BENCHMARKS = 5;
+
+    private final MarketRepository market;
+    private final InsightResultCache cache;
+
+    public RsMatrixService(MarketRepository market, InsightResultCache cache) {
+        this.market = market;
+        this.cache = cache;
+    }
+
+    public RsMatrixDto matrix(List<String> symbols, List<String> benchmarks, LocalDate start, LocalDate end) {
+        Set<String> stocks = canonical(symbols);
+        Set<String> indexes = canonical(benchmarks == null || benchmarks.isEmpty() ? List.of("^SPX") : benchmarks);
+        if (stocks.isEmpty()) {
+            throw new IllegalArgumentException("symbols must not be empty");
+        }
+        if (stocks.size() > MAX_SYMBOLS) {
+            throw new IllegalArgumentException("At most " + MAX_SYMBOLS + " symbols per request");
+        }
+        if (indexes.size() > MAX_BENCHMARKS) {
+            throw new IllegalArgumentException("At most " + MAX_BENCHMARKS + " benchmarks per request");
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        String key = "rs-matrix|" + stocks + "|" + indexes + "|" + start + "|" + end;
+        return cache.get(key, () -> load(stocks, indexes, start, end));
+    }
+
+    private RsMatrixDto load(Set<String> stocks, Set<String> indexes, LocalDate start, LocalDate end) {
+        Set<String> all = new LinkedHashSet<>(stocks);
+        all.addAll(indexes);
+        Map<String, BarSeries> bars = new HashMap<>();
+        market.forEachDailySeries(all, start, end, bars::put);
+
+        List<String> notFound = new ArrayList<>();
+        for (String symbol : all) {
+            if (!bars.containsKey(symbol)) {
+                notFound.add(symbol);
+            }
+        }
+        return build(start, end, select(stocks, bars), select(indexes, bars), notFound);
+    }
+
+    private static Map<String, BarSeries> select(Collection<String> symbols, Map<String, BarSeries> bars) {
+        Map<String, BarSeries> out = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            BarSeries s = bars.get(symbol);
+            if (s != null) {
+                out.put(symbol, s);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The matrix of every stock against every benchmark, stocks outermost, in the given orders.
+     */
+    static RsMatrixDto build(
+            LocalDate start,
+            LocalDate end,
+            Map<String, BarSeries> stocks,
+            Map<String, BarSeries> benchmarks,
+            List<String> notFound
+    ) {
+        int[] calendar = calendar(benchmarks.values());
+        Map<String, double[]> aligned = new HashMap<>();
+        for (Map.Entry<String, BarSeries> e : stocks.entrySet()) {
+            aligned.put(e.getKey(), align(e.getValue(), calendar));
+        }
+        for (Map.Entry<String, BarSeries> e : benchmarks.entrySet()) {
+            aligned.putIfAbsent(e.getKey(), align(e.getValue(), calendar));
+        }
+
+        List<RsMatrixSeriesDto> series = new ArrayList<>();
+        for (String stock : stocks.keySet()) {
+            double[] s = aligned.get(stock);
+            for (String index : benchmarks.keySet()) {
+                series.add(pair(stock, index, s, aligned.get(index)));
+            }
+        }
+        List<String> dates = Arrays.stream(calendar).mapToObj(d -> LocalDate.ofEpochDay(d).toString()).toList();
+        return new RsMatrixDto(start.toString(), end.toString(), dates, series, notFound);
+    }
+
+    // Sorted union of the trading days of all benchmarks
+    private static int[] calendar(Collection<BarSeries> benchmarks) {
+        return benchmarks.stream()
+                .flatMapToInt(s -> Arrays.stream(s.days()))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Closes of {@code bars} on each calendar day ({@code NaN} where it has no usable bar), in one merge pass.
+     */
+    static double[] align(BarSeries bars, int[] calendar) {
+        double[] out = new double[calendar.length];
+        int i = 0;
+        for (int t = 0; t < calendar.length; t++) {
+            while (i < bars.size() && bars.day(i) < calendar[t]) {
+                i++;
+            }
+            double c = i < bars.size() && bars.day(i) == calendar[t] ? bars.close(i) : Double.NaN;
+            out[t] = c == 0.0 ? Double.NaN : c;
+        }
+        return out;
+    }
+
+    private static RsMatrixSeriesDto pair(String stock, String index, double[] s, double[] b) {
+        int first = -1;
+        int last = -1;
+        for (int t = 0; t < s.length; t++) {
+            if (!Double.isNaN(s[t]) && !Double.isNaN(b[t])) {
+                if (first < 0) {
+                    first = t;
+                }
+                last = t;
+            }
+        }
+        List<Double> normalized = new ArrayList<>(s.length);
+        if (first < 0) {
+            for (int t = 0; t < s.length; t++) {
+                normalized.add(null);
+            }
+            return new RsMatrixSeriesDto(stock, index, null, null, null, normalized);
+        }
+        double base = s[first] / b[first];
+        for (int t = 0; t < s.length; t++) {
+            double rs = s[t] / b[t] / base;
+            normalized.add(Double.isNaN(rs) ? null : rs);
+        }
+        double stockReturn = s[last] / s[first] - 1.0;
+        double indexReturn = b[last] / b[first] - 1.0;
+        double rsReturn = (1.0 + stockReturn) / (1.0 + indexReturn) - 1.0;
+        return new RsMatrixSeriesDto(stock, index, stockReturn, indexReturn, rsReturn, normalized);
+    }
+
+    private static Set<String> canonical(List<String> symbols) {
+        Set<String> out = new LinkedHashSet<>();
+        if (symbols != null) {
+            for (String symbol : symbols) {
+                if (symbol != null && !symbol.isBlank()) {
+                    out.add(symbol.trim().toUpperCase());
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,82 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * IBD-style relative-strength ratings.
+ *
+ * A stock's score is its weighted price performance over the last 3, 6, 9 and 12 months (63, 126, 189 and
+ * 252 bars) with the latest quarter counting double: {@code 0.4 r3 + 0.2 r6 + 0.2 r9 + 0.2 r12}. When the
+ * history is too short for the longer horizons the available ones are reweighted; without three months of
+ * history a stock is not rated. Ratings are the percentile (1-99) of a value across all rated stocks.
+ */
+public final class RsRatingCalculator {
+    public static final int[] HORIZONS = {63, 126, 189, 252};
+    private static final double[] WEIGHTS = {0.4, 0.2, 0.2, 0.2};
+
+    private RsRatingCalculator() {
+    }
+
+    /**
+     * Returns over each of {@link #HORIZONS} ending at the last bar ({@code NaN} when the history is shorter).
+     */
+    public static double[] returns(BarSeries bars) {
+        double[] out = new double[HORIZONS.length];
+        int last = bars.size() - 1;
+        for (int h = 0; h < HORIZONS.length; h++) {
+            int from = last - HORIZONS[h];
+            double base = from < 0 ? Double.NaN : bars.close(from);
+            out[h] = Double.isNaN(base) || base == 0.0 ? Double.NaN : bars.close(last) / base - 1.0;
+        }
+        return out;
+    }
+
+    public static double score(double[] returns) {
+        if (Double.isNaN(returns[0])) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        double weight = 0;
+        for (int h = 0; h < returns.length; h++) {
+            if (!Double.isNaN(returns[h])) {
+                sum += WEIGHTS[h] * returns[h];
+                weight += WEIGHTS[h];
+            }
+        }
+        return sum / weight;
+    }
+
+    /**
+     * Percentile rating of each value among the defined ones: 1 for the weakest, 99 for the strongest, ties
+     * sharing the lower rating; 0 for {@code NaN}.
+     */
+    public static int[] ratings(double[] values) {
+        int[] order = IntStream.range(0, values.length)
+                .filter(i -> !Double.isNaN(values[i]))
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> values[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] out = new int[values.length];
+        int n = order.length;
+        int rank = 0;
+        for (int k = 0; k < n; k++) {
+            if (k > 0 && values[order[k - 1]] != values[order[k]]) {
+                rank = k;
+            }
+            out[order[k]] = n == 1 ? 50 : 1 + (int) Math.round(98.0 * rank / (n - 1));
+        }
+        return out;
+    }
+
+    /**
+     * {@link #ratings} of one column of a rows-by-horizons matrix.
+     */
+    public static int[] ratings(double[][] rows, int column) {
+        return ratings(Arrays.stream(rows).mapToDouble(r -> r[column]).toArray());
+    }
+}
@@ -0,0 +1,190 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.RsRatingDto;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.repository.RsRatingRepository;
+import com.stock.platform.backend_api.repository.SecurityMetricsRepository;
+import com.stock.platform.backend_api.service.InsightResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+@Service
+/**
+ * Relative-strength ratings of every stock (see {@link RsRatingCalculator}), kept in memory for O(1) lookups
+ * and persisted to {@code market.security_rs_rating}.
+ *
+ * Ratings are percentiles across the whole universe, so any new daily bar can move every rating; a refresh
+ * therefore re-rates all stocks, but only when daily bars were ingested since the last one. Stocks whose
+ * last bar is more than {@value #STALE_DAYS} days older than the newest one are left unrated.
+ */
+public class RsRatingService {
+    private static final Logger log = LoggerFactory.getLogger(RsRatingService.class);
+    private static final Duration WATERMARK_SLACK = Duration.ofMinutes(10);
+    private static final int HISTORY_DAYS = 400;
+    private static final int STALE_DAYS = 10;
+
+    private record Board(Map<String, RsRatingDto> bySymbol, List<RsRatingDto> ranked) {
+        static Board of(List<RsRatingDto> ratings) {
+            List<RsRatingDto> ranked = new ArrayList<>(ratings);
+            ranked.sort(Comparator.comparingInt(RsRatingDto::rating).thenComparingDouble(RsRatingDto::score).reversed());
+            Map<String, RsRatingDto> bySymbol = new HashMap<>();
+            for (RsRatingDto r : ranked) {
+                bySymbol.put(r.symbol(), r);
+            }
+            return new Board(bySymbol, List.copyOf(ranked));
+        }
+    }
+
+    private final RsRatingRepository ratingRepository;
+    private final SecurityMetricsRepository metricsRepository;
+    private final MarketRepository market;
+    private final InsightResultCache cache;
+
+    private volatile Board board = Board.of(List.of());
+    private Instant watermark;
+    private boolean resumed;
+
+    public RsRatingService(
+            RsRatingRepository ratingRepository,
+            SecurityMetricsRepository metricsRepository,
+            MarketRepository market,
+            InsightResultCache cache
+    ) {
+        this.ratingRepository = ratingRepository;
+        this.metricsRepository = metricsRepository;
+        this.market = market;
+        this.cache = cache;
+    }
+
+    public synchronized void refresh() {
+        if (!resumed) {
+            board = Board.of(ratingRepository.findAll());
+            watermark = ratingRepository.findWatermark().map(t -> t.minus(WATERMARK_SLACK)).orElse(null);
+            resumed = true;
+        }
+        Instant startedAt = metricsRepository.currentDbTime().minus(WATERMARK_SLACK);
+        if (watermark != null && metricsRepository.findChangedSince(watermark).isEmpty()) {
+            return;
+        }
+
+        long t0 = System.currentTimeMillis();
+        LocalDate end = ratingRepository.findLatestBarDate();
+        if (end == null) {
+            watermark = startedAt;
+            return;
+        }
+        Map<String, RsRatingRepository.StockRef> stocks = new LinkedHashMap<>();
+        for (RsRatingRepository.StockRef s : ratingRepository.listStocks()) {
+            stocks.put(s.symbol(), s);
+        }
+        List<String> symbols = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        List<double[]> returns = new ArrayList<>();
+        LocalDate fresh = end.minusDays(STALE_DAYS);
+        market.forEachDailySeries(stocks.keySet(), end.minusDays(HISTORY_DAYS), end, (symbol, bars) -> {
+            if (bars.isEmpty() || bars.date(bars.size() - 1).isBefore(fresh)) {
+                return;
+            }
+            symbols.add(symbol);
+            dates.add(bars.date(bars.size() - 1));
+            returns.add(RsRatingCalculator.returns(bars));
+        });
+
+        double[][] matrix = returns.toArray(double[][]::new);
+        double[] scores = new double[matrix.length];
+        for (int i = 0; i < matrix.length; i++) {
+            scores[i] = RsRatingCalculator.score(matrix[i]);
+        }
+        int[] composite = RsRatingCalculator.ratings(scores);
+        int[][] byHorizon = new int[RsRatingCalculator.HORIZONS.length][];
+        for (int h = 0; h < byHorizon.length; h++) {
+            byHorizon[h] = RsRatingCalculator.ratings(matrix, h);
+        }
+
+        List<RsRatingDto> ratings = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < matrix.length; i++) {
+            if (composite[i] == 0) {
+                continue;
+            }
+            RsRatingRepository.StockRef stock = stocks.get(symbols.get(i));
+            ratings.add(new RsRatingDto(
+                    stock.symbol(),
+                    stock.name(),
+                    dates.get(i).toString(),
+                    composite[i],
+                    scores[i],
+                    orNull(byHorizon[0][i]),
+                    orNull(byHorizon[1][i]),
+                    orNull(byHorizon[2][i]),
+                    orNull(byHorizon[3][i]),
+                    orNull(matrix[i][0]),
+                    orNull(matrix[i][1]),
+                    orNull(matrix[i][2]),
+                    orNull(matrix[i][3])
+            ));
+            ids.add(stock.securityId());
+        }
+        ratingRepository.replaceAll(ratings, ids);
+        board = Board.of(ratings);
+        watermark = startedAt;
+        log.info("Rated {} stocks for {} in {} ms", ratings.size(), end, System.currentTimeMillis() - t0);
+    }
+
+    /**
+     * The rating of one stock.
+     */
+    public RsRatingDto lookup(String symbol) {
+        RsRatingDto rating = board.bySymbol().get(symbol);
+        if (rating == null) {
+            throw new IllegalArgumentException("RS rating not found: " + symbol);
+        }
+        return rating;
+    }
+
+    /**
+     * Rated stocks, strongest first by the {@code horizon} rating ({@code composite}, {@code 3m}, {@code 6m},
+     * {@code 9m} or {@code 12m}), optionally limited to the constituents of an index.
+     */
+    public List<RsRatingDto> rank(String indexSymbol, String horizon, int minRating, int limit) {
+        ToIntFunction<RsRatingDto> key = switch (horizon == null ? "composite" : horizon.trim().toLowerCase()) {
+            case "", "composite" -> RsRatingDto::rating;
+            case "3m" -> r -> r.rating3m() == null ? 0 : r.rating3m();
+            case "6m" -> r -> r.rating6m() == null ? 0 : r.rating6m();
+            case "9m" -> r -> r.rating9m() == null ? 0 : r.rating9m();
+            case "12m" -> r -> r.rating12m() == null ? 0 : r.rating12m();
+            default -> throw new IllegalArgumentException("Unsupported horizon: " + horizon + " (composite, 3m, 6m, 9m, 12m)");
+        };
+        Set<String> universe = indexSymbol == null || indexSymbol.isBlank()
+                ? null
+                : cache.get("constituents|" + indexSymbol, () -> new HashSet<>(market.listIndexConstituentSymbols(indexSymbol)));
+        return board.ranked().stream()
+                .filter(r -> universe == null || universe.contains(r.symbol()))
+                .filter(r -> key.applyAsInt(r) >= minRating)
+                .sorted(Comparator.comparingInt(key).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private static Integer orNull(int rating) {
+        return rating == 0 ? null : rating;
+    }
+
+    private static Double orNull(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+}
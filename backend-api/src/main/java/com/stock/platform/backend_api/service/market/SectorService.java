@@ -0,0 +1,174 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.SectorHeatmapDto;
+import com.stock.platform.backend_api.api.dto.SectorStatsDto;
+import com.stock.platform.backend_api.repository.BreadthMember;
+import com.stock.platform.backend_api.service.InsightResultCache;
+import com.stock.platform.backend_api.service.screener.CrossSection;
+import com.stock.platform.backend_api.service.screener.ScreenerService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+/**
+ * Breadth and equal-weight returns per GICS sector or sub-industry of an index (a sector heatmap).
+ *
+ * Both inputs are already cached per market data version: breadth comes from the index's
+ * {@link BreadthBoard}, returns from the {@code ret(n)} columns of its {@link CrossSection}. Every group is
+ * then filled in one pass over the constituents, with no query per sector.
+ */
+public class SectorService {
+    public static final String UNCLASSIFIED = "Unclassified";
+    private static final int MAX_HORIZONS = 8;
+    private static final BreadthMetric[] COUNTED = {
+            BreadthMetric.UP, BreadthMetric.DOWN, BreadthMetric.FLAT,
+            BreadthMetric.ABOVE_MA20, BreadthMetric.ABOVE_MA50, BreadthMetric.ABOVE_MA200,
+            BreadthMetric.NEW_HIGH_52W, BreadthMetric.NEW_LOW_52W
+    };
+
+    private final BreadthService breadth;
+    private final ScreenerService screener;
+    private final InsightResultCache cache;
+
+    public SectorService(BreadthService breadth, ScreenerService screener, InsightResultCache cache) {
+        this.breadth = breadth;
+        this.screener = screener;
+        this.cache = cache;
+    }
+
+    /**
+     * @param level {@code sector} or {@code sub_industry}
+     * @param horizons Return horizons in bars, each in [1, {@value CrossSection#MAX_WINDOW}]
+     */
+    public SectorHeatmapDto heatmap(String indexSymbol, String level, List<Integer> horizons) {
+        boolean subIndustry = parseLevel(level);
+        if (horizons.isEmpty() || horizons.size() > MAX_HORIZONS) {
+            throw new IllegalArgumentException("horizons must list 1 to " + MAX_HORIZONS + " bar counts");
+        }
+        for (int h : horizons) {
+            if (h < 1 || h > CrossSection.MAX_WINDOW) {
+                throw new IllegalArgumentException("horizons must be in [1, " + CrossSection.MAX_WINDOW + "]");
+            }
+        }
+        String key = "sectors|" + indexSymbol + "|" + subIndustry + "|" + horizons;
+        return cache.get(key, () -> aggregate(
+                indexSymbol, breadth.board(indexSymbol), screener.crossSection(indexSymbol), subIndustry, List.copyOf(horizons)));
+    }
+
+    static SectorHeatmapDto aggregate(
+            String indexSymbol,
+            BreadthBoard board,
+            CrossSection cs,
+            boolean subIndustry,
+            List<Integer> horizons
+    ) {
+        List<BreadthMember> members = board.members();
+        Map<String, Integer> groupIds = new TreeMap<>();
+        for (BreadthMember m : members) {
+            if (m.stock()) {
+                groupIds.putIfAbsent(group(m, subIndustry), 0);
+            }
+        }
+        List<String> names = new ArrayList<>(groupIds.keySet());
+        for (int g = 0; g < names.size(); g++) {
+            groupIds.put(names.get(g), g);
+        }
+
+        int groups = names.size();
+        int[] size = new int[groups];
+        int[] withData = new int[groups];
+        int[][] counts = new int[groups][COUNTED.length];
+        Map<String, Integer> groupOfSymbol = new HashMap<>();
+        for (int i = 0; i < members.size(); i++) {
+            BreadthMember m = members.get(i);
+            if (!m.stock()) {
+                continue;
+            }
+            int g = groupIds.get(group(m, subIndustry));
+            groupOfSymbol.put(m.symbol(), g);
+            size[g]++;
+            if (!board.hasData(i)) {
+                continue;
+            }
+            withData[g]++;
+            for (int k = 0; k < COUNTED.length; k++) {
+                if (board.matches(COUNTED[k], i)) {
+                    counts[g][k]++;
+                }
+            }
+        }
+
+        double[][] sums = new double[groups][horizons.size()];
+        int[][] defined = new int[groups][horizons.size()];
+        double[][] columns = new double[horizons.size()][];
+        for (int h = 0; h < horizons.size(); h++) {
+            columns[h] = cs.column("ret", horizons.get(h));
+        }
+        for (int row = 0; row < cs.size(); row++) {
+            Integer g = groupOfSymbol.get(cs.symbol(row));
+            if (g == null) {
+                continue;
+            }
+            for (int h = 0; h < columns.length; h++) {
+                double r = columns[h][row];
+                if (!Double.isNaN(r)) {
+                    sums[g][h] += r;
+                    defined[g][h]++;
+                }
+            }
+        }
+
+        List<SectorStatsDto> out = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) {
+            List<Double> returns = new ArrayList<>(horizons.size());
+            for (int h = 0; h < horizons.size(); h++) {
+                returns.add(defined[g][h] == 0 ? null : sums[g][h] / defined[g][h]);
+            }
+            int[] c = counts[g];
+            out.add(new SectorStatsDto(
+                    names.get(g),
+                    size[g],
+                    withData[g],
+                    c[0],
+                    c[1],
+                    c[2],
+                    pct(c[3], withData[g]),
+                    pct(c[4], withData[g]),
+                    pct(c[5], withData[g]),
+                    c[6],
+                    c[7],
+                    returns
+            ));
+        }
+        return new SectorHeatmapDto(
+                indexSymbol,
+                board.asOf() == null ? null : board.asOf().toString(),
+                subIndustry ? "sub_industry" : "sector",
+                horizons,
+                out
+        );
+    }
+
+    private static String group(BreadthMember m, boolean subIndustry) {
+        String name = subIndustry ? m.subIndustry() : m.sector();
+        return name == null || name.isBlank() ? UNCLASSIFIED : name;
+    }
+
+    private static Double pct(int count, int total) {
+        return total == 0 ? null : count * 100.0 / total;
+    }
+
+    private static boolean parseLevel(String level) {
+        String v = level == null ? "" : level.trim().toLowerCase().replace('-', '_');
+        return switch (v) {
+            case "", "sector" -> false;
+            case "sub_industry", "subindustry", "industry" -> true;
+            default -> throw new IllegalArgumentException("Unsupported level: " + level + " (sector, sub_industry)");
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.stock.platform.backend_api.service.market;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+
+/**
+ * The running combination of a first-in first-out window of elements under an associative operator that need
+ * not be invertible (a maximum, a drawdown), kept with two stacks: new elements are pushed on the back stack
+ * folded into its total, and when the oldest element is evicted with the front stack empty, the back stack
+ * is moved over as suffix totals, oldest on top. Each element is combined a constant number of times, so a
+ * push or evict costs O(1) amortised and the window total two combinations at most. Not thread-safe.
+ */
+final class SlidingWindow<T> {
+    private final BinaryOperator<T> combine;
+    private final T identity;
+    // Totals of the front elements from each one to the newest of them; the oldest element's on top (last)
+    private final List<T> front = new ArrayList<>();
+    // Elements in arrival order, newest last
+    private final List<T> back = new ArrayList<>();
+    private T backTotal;
+
+    /**
+     * @param combine Combines an older part of the window with a newer one
+     * @param identity Total of an empty window
+     */
+    SlidingWindow(BinaryOperator<T> combine, T identity) {
+        this.combine = combine;
+        this.identity = identity;
+        this.backTotal = identity;
+    }
+
+    int size() {
+        return front.size() + back.size();
+    }
+
+    void push(T element) {
+        back.add(element);
+        backTotal = combine.apply(backTotal, element);
+    }
+
+    /**
+     * Drops the oldest element.
+     */
+    void evict() {
+        if (front.isEmpty()) {
+            if (back.isEmpty()) {
+                throw new IllegalStateException("window is empty");
+            }
+            T total = identity;
+            for (int i = back.size() - 1; i >= 0; i--) {
+                total = combine.apply(back.get(i), total);
+                front.add(total);
+            }
+            back.clear();
+            backTotal = identity;
+        }
+        front.remove(front.size() - 1);
+    }
+
+    /**
+     * Combination of every element in the window, oldest to newest.
+     */
+    T total() {
+        return front.isEmpty() ? backTotal : combine.apply(front.get(front.size() - 1), backTotal);
+    }
+}
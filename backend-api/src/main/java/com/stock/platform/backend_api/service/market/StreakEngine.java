@@ -0,0 +1,158 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+/**
+ * Longest up and down streaks of a bar series, found in a single pass over its closes and volumes.
+ *
+ * Every bar after the first is classified against the previous close as up, down or neither. A bar counts as
+ * neither when, with a volume multiple, its volume is missing or below that multiple of the average volume of
+ * the last {@value #VOLUME_WINDOW} bars (itself included), or when its move is smaller than the flat
+ * threshold. Bars without a close are skipped. A streak is a run of consecutive bars in one direction;
+ * among equally long ones the latest wins.
+ */
+public final class StreakEngine {
+    public static final int VOLUME_WINDOW = 20;
+
+    /**
+     * A streak of {@code length} bars at positions {@code [from, to]} of the series.
+     */
+    public record Streak(int length, int from, int to) {
+        public static final Streak NONE = new Streak(0, -1, -1);
+    }
+
+    public record Result(Streak up, Streak down) {
+        public Streak of(StreakDirection direction) {
+            return direction == StreakDirection.UP ? up : down;
+        }
+    }
+
+    private StreakEngine() {
+    }
+
+    /**
+     * @param volumeMultiple Minimum volume as a multiple of its {@value #VOLUME_WINDOW}-bar average; 0 for none
+     * @param flatThreshold Minimum move as a fraction of the previous close (0.005 = 0.5%); 0 for none
+     */
+    public static Result scan(BarSeries bars, double volumeMultiple, double flatThreshold) {
+        return scan(bars, new int[0], volumeMultiple, flatThreshold);
+    }
+
+    /**
+     * {@link #scan(BarSeries, double, double)} over segments of the series scanned on their own, as when a
+     * stock's bars span several index membership periods.
+     *
+     * @param breaks Ascending positions where a new segment starts (see {@code RankingStock#breaks})
+     */
+    public static Result scan(BarSeries bars, int[] breaks, double volumeMultiple, double flatThreshold) {
+        Tracker tracker = new Tracker(volumeMultiple, flatThreshold);
+        int b = 0;
+        for (int i = 0; i < bars.size(); i++) {
+            if (b < breaks.length && breaks[b] == i) {
+                b++;
+                tracker.restart();
+            }
+            tracker.accept(i, bars.close(i), bars.volume(i));
+        }
+        return tracker.result();
+    }
+
+    /**
+     * {@link #scan} one bar at a time, for callers walking a series for other metrics as well. Bars must be
+     * fed in date order, each with its position in the series.
+     */
+    public static final class Tracker {
+        private final double volumeMultiple;
+        private final double flatThreshold;
+        private final long[] window = new long[VOLUME_WINDOW];
+        private int seen;
+        private double volumeSum;
+        private int volumeCount;
+        private double prev = Double.NaN;
+
+        private int upLength;
+        private int upFrom = -1;
+        private int downLength;
+        private int downFrom = -1;
+        private Streak bestUp = Streak.NONE;
+        private Streak bestDown = Streak.NONE;
+
+        public Tracker(double volumeMultiple, double flatThreshold) {
+            this.volumeMultiple = volumeMultiple;
+            this.flatThreshold = flatThreshold;
+        }
+
+        public void accept(int i, double close, long volume) {
+            if (Double.isNaN(close)) {
+                return;
+            }
+            int slot = seen % VOLUME_WINDOW;
+            if (seen >= VOLUME_WINDOW && window[slot] != BarSeries.NO_VOLUME) {
+                volumeSum -= window[slot];
+                volumeCount--;
+            }
+            window[slot] = volume;
+            if (volume != BarSeries.NO_VOLUME) {
+                volumeSum += volume;
+                volumeCount++;
+            }
+            seen++;
+            if (Double.isNaN(prev)) {
+                prev = close;
+                return;
+            }
+
+            double volumeAverage = volumeCount == 0 ? Double.NaN : volumeSum / volumeCount;
+            int dir = direction(prev, close, volume, volumeAverage, volumeMultiple, flatThreshold);
+            prev = close;
+            if (dir > 0) {
+                if (upLength++ == 0) {
+                    upFrom = i;
+                }
+                downLength = 0;
+                if (upLength >= bestUp.length()) {
+                    bestUp = new Streak(upLength, upFrom, i);
+                }
+            } else if (dir < 0) {
+                if (downLength++ == 0) {
+                    downFrom = i;
+                }
+                upLength = 0;
+                if (downLength >= bestDown.length()) {
+                    bestDown = new Streak(downLength, downFrom, i);
+                }
+            } else {
+                upLength = 0;
+                downLength = 0;
+            }
+        }
+
+        /**
+         * Start a new segment: the next bar has no previous close and the volume average starts over;
+         * the longest streaks found so far are kept.
+         */
+        public void restart() {
+            seen = 0;
+            volumeSum = 0;
+            volumeCount = 0;
+            prev = Double.NaN;
+            upLength = 0;
+            downLength = 0;
+        }
+
+        public Result result() {
+            return new Result(bestUp, bestDown);
+        }
+    }
+
+    private static int direction(double prev, double close, long volume, double volumeAverage, double volumeMultiple, double flatThreshold) {
+        if (volumeMultiple > 0 && (Double.isNaN(volumeAverage) || volumeAverage == 0
+                || volume == BarSeries.NO_VOLUME || volume < volumeAverage * volumeMultiple)) {
+            return 0;
+        }
+        if (flatThreshold > 0 && Math.abs(close / prev - 1.0) < flatThreshold) {
+            return 0;
+        }
+        return close > prev ? 1 : close < prev ? -1 : 0;
+    }
+}
@@ -11,6 +11,7 @@ public record StreakQuery(
         LocalDate end,
         Integer limit,
         Double volumeMultiple,
-        Double flatThresholdPct
+        Double flatThresholdPct,
+        Boolean pointInTime
 ) {
 }
@@ -1,18 +1,44 @@
 package com.stock.platform.backend_api.service.market;
 
 import com.stock.platform.backend_api.api.dto.StreakRankItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
 import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.InsightResultCache;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
+/**
+ * Longest up and down streaks (see {@link StreakEngine}).
+ *
+ * A ranking scans the bars of every stock of the universe once, in parallel, for both directions; the scan
+ * is cached per universe, window and filters, so switching the direction or the limit only re-ranks the
+ * cached streaks through a bounded {@link TopK} heap.
+ */
 public class StreakService {
+    // Longest first, then the latest; symbols ascending among ties
+    private static final Comparator<StreakRankItemDto> LONGEST_LATEST = Comparator
+            .comparingInt(StreakRankItemDto::streak)
+            .thenComparing(StreakRankItemDto::endDate)
+            .thenComparing(StreakRankItemDto::symbol, Comparator.reverseOrder());
+
+    private record Streaks(StreakRankItemDto up, StreakRankItemDto down) {
+        StreakRankItemDto of(StreakDirection direction) {
+            return direction == StreakDirection.UP ? up : down;
+        }
+    }
+
     private final MarketRepository market;
+    private final UniverseScanner universe;
+    private final InsightResultCache cache;
 
-    public StreakService(MarketRepository market) {
+    public StreakService(MarketRepository market, UniverseScanner universe, InsightResultCache cache) {
         this.market = market;
+        this.universe = universe;
+        this.cache = cache;
     }
 
     public List<StreakRankItemDto> rank(StreakQuery query) {
@@ -27,7 +53,16 @@ public class StreakService {
         int limit = clamp(query.limit() == null ? 20 : query.limit(), 5, 200);
         double volumeMultiple = sanitizeVolumeMultiple(query.volumeMultiple());
         double flatThresholdPct = sanitizeFlatThresholdPct(query.flatThresholdPct());
-        return market.rankLongestStreaks(index, interval.value(), direction.sign(), start, end, limit, volumeMultiple, flatThresholdPct);
+        boolean pointInTime = Boolean.TRUE.equals(query.pointInTime());
+
+        String key = "streaks|" + index + "|" + interval.value() + "|" + start + "|" + end + "|"
+                + volumeMultiple + "|" + flatThresholdPct + "|" + pointInTime;
+        List<Streaks> streaks = cache.get(key, () -> scanUniverse(index, interval, start, end, volumeMultiple, flatThresholdPct, pointInTime));
+        return streaks.parallelStream()
+                .map(s -> s.of(direction))
+                .filter(s -> s.streak() > 0)
+                .collect(() -> new TopK<>(limit, LONGEST_LATEST), TopK::offer, TopK::merge)
+                .toList();
     }
 
     public StreakRankItemDto longestForSymbol(StreakQuery query) {
@@ -44,7 +79,52 @@ public class StreakService {
         }
         double volumeMultiple = sanitizeVolumeMultiple(query.volumeMultiple());
         double flatThresholdPct = sanitizeFlatThresholdPct(query.flatThresholdPct());
-        return market.getLongestStreakForSymbol(symbol, interval.value(), direction.sign(), start, end, volumeMultiple, flatThresholdPct);
+
+        BarSeries bars = market.getBarSeries(symbol, interval.value(), start, end);
+        String name = market.findSecurityName(symbol).orElse(symbol);
+        StreakEngine.Result result = StreakEngine.scan(bars, volumeMultiple, flatThresholdPct / 100.0);
+        return toDto(symbol, name, interval, direction, bars, result.of(direction));
+    }
+
+    private List<Streaks> scanUniverse(
+            String index,
+            BarInterval interval,
+            LocalDate start,
+            LocalDate end,
+            double volumeMultiple,
+            double flatThresholdPct,
+            boolean pointInTime
+    ) {
+        double flatThreshold = flatThresholdPct / 100.0;
+        return List.copyOf(universe.scan(index, pointInTime, interval, start, end, (stock, bars) -> {
+            StreakEngine.Result result = StreakEngine.scan(bars, stock.breaks(bars), volumeMultiple, flatThreshold);
+            return new Streaks(
+                    toDto(stock.symbol(), stock.name(), interval, StreakDirection.UP, bars, result.up()),
+                    toDto(stock.symbol(), stock.name(), interval, StreakDirection.DOWN, bars, result.down())
+            );
+        }));
+    }
+
+    private static StreakRankItemDto toDto(
+            String symbol,
+            String name,
+            BarInterval interval,
+            StreakDirection direction,
+            BarSeries bars,
+            StreakEngine.Streak streak
+    ) {
+        if (streak.length() == 0) {
+            return new StreakRankItemDto(symbol, name, interval.value(), direction.value(), 0, null, null);
+        }
+        return new StreakRankItemDto(
+                symbol,
+                name,
+                interval.value(),
+                direction.value(),
+                streak.length(),
+                bars.date(streak.from()).toString(),
+                bars.date(streak.to()).toString()
+        );
     }
 
     private static int clamp(int v, int min, int max) {
@@ -0,0 +1,48 @@
+package com.stock.platform.backend_api.service.market;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The {@code k} greatest of the elements offered, held in a min-heap of at most {@code k} elements, so
+ * ranking n candidates takes O(n log k) time and O(k) memory. Not thread-safe; parallel streams collect into
+ * one instance per thread and {@link #merge} them.
+ */
+final class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    TopK(int k, Comparator<? super T> order) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be >= 1");
+        }
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(k + 1, order);
+    }
+
+    void offer(T item) {
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    void merge(TopK<T> other) {
+        other.heap.forEach(this::offer);
+    }
+
+    /**
+     * The elements kept, greatest first.
+     */
+    List<T> toList() {
+        List<T> out = new ArrayList<>(heap);
+        out.sort(order.reversed());
+        return out;
+    }
+}
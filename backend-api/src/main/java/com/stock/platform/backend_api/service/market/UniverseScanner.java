@@ -0,0 +1,66 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.repository.RankingStock;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+@Component
+/**
+ * Runs a per-security computation over every stock of a ranking universe (see
+ * {@link MarketRepository#loadRankingUniverse}): the bars of all stocks are loaded in one bulk read, cut to
+ * each stock's membership periods, and handed to the computation in parallel. Computations that must not run
+ * across the gaps between periods split the bars at {@link RankingStock#breaks}.
+ */
+public class UniverseScanner {
+    private final MarketRepository market;
+
+    public UniverseScanner(MarketRepository market) {
+        this.market = market;
+    }
+
+    /**
+     * The non-null results of {@code compute} for each stock with its bars at {@code interval} within
+     * {@code [start, end]}, in no particular order.
+     */
+    public <T> List<T> scan(
+            String indexSymbol,
+            boolean pointInTime,
+            BarInterval interval,
+            LocalDate start,
+            LocalDate end,
+            BiFunction<RankingStock, BarSeries, T> compute
+    ) {
+        Map<String, RankingStock> stocks = new HashMap<>();
+        for (RankingStock stock : market.loadRankingUniverse(indexSymbol, pointInTime, start, end)) {
+            stocks.put(stock.symbol(), stock);
+        }
+        List<RankingStock> loaded = new ArrayList<>();
+        List<BarSeries> series = new ArrayList<>();
+        market.forEachSeries(stocks.keySet(), interval.value(), start, end, (symbol, bars) -> {
+            RankingStock stock = stocks.get(symbol);
+            loaded.add(stock);
+            series.add(stock.restrict(bars));
+        });
+
+        Object[] out = new Object[loaded.size()];
+        IntStream.range(0, out.length).parallel().forEach(i -> out[i] = compute.apply(loaded.get(i), series.get(i)));
+        List<T> results = new ArrayList<>(out.length);
+        for (Object r : out) {
+            if (r != null) {
+                @SuppressWarnings("unchecked")
+                T t = (T) r;
+                results.add(t);
+            }
+        }
+        return results;
+    }
+}
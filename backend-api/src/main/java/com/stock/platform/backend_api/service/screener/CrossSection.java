@@ -0,0 +1,261 @@
+package com.stock.platform.backend_api.service.screener;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * The constituents of an index on one date with their recent daily bars, exposed as columns: one
+ * {@code double[]} per metric with a value for every constituent ({@code NaN} = undefined).
+ *
+ * Columns are computed on first use, in parallel across constituents, and kept, so screens sharing a
+ * metric reuse it. Every series ends on {@link #asOf()}; windows count bars, not calendar days.
+ */
+public final class CrossSection {
+    /**
+     * Longest window a metric may ask for (about one year of trading days).
+     */
+    public static final int MAX_WINDOW = 252;
+    /**
+     * Calendar days of history to load so that every window up to {@link #MAX_WINDOW} bars fits.
+     */
+    public static final int HISTORY_DAYS = 400;
+    private static final int MAX_CACHED_COLUMNS = 256;
+    private static final double TRADING_DAYS = 252.0;
+
+    private final LocalDate asOf;
+    private final List<String> symbols;
+    private final List<String> names;
+    private final BarSeries[] series;
+    private final BarSeries index;
+    private final Map<String, double[]> columns = new ConcurrentHashMap<>();
+
+    /**
+     * @param series Bars of each constituent, ending on {@code asOf}
+     * @param index Bars of the benchmark index, used by {@code rs(n)}; may be empty
+     */
+    public CrossSection(LocalDate asOf, List<String> symbols, List<String> names, List<BarSeries> series, BarSeries index) {
+        if (symbols.size() != series.size() || names.size() != series.size()) {
+            throw new IllegalArgumentException("symbols, names and series must have the same length");
+        }
+        this.asOf = asOf;
+        this.symbols = List.copyOf(symbols);
+        this.names = names;
+        this.series = series.toArray(BarSeries[]::new);
+        this.index = index == null ? BarSeries.empty() : index;
+    }
+
+    public LocalDate asOf() {
+        return asOf;
+    }
+
+    public int size() {
+        return series.length;
+    }
+
+    public String symbol(int i) {
+        return symbols.get(i);
+    }
+
+    public String name(int i) {
+        return names.get(i);
+    }
+
+    /**
+     * Values of metric {@code name} with window {@code n} ({@code 0} for metrics without one).
+     *
+     * @throws IllegalArgumentException for an unknown metric or a window out of range
+     */
+    public double[] column(String name, int n) {
+        Metric metric = Metric.of(name);
+        if (metric.windowed() && (n < 1 || n > MAX_WINDOW)) {
+            throw new IllegalArgumentException(name + " window must be in [1, " + MAX_WINDOW + "]");
+        }
+        String key = name + "(" + n + ")";
+        double[] cached = columns.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        double[] out = new double[series.length];
+        IntStream.range(0, series.length).parallel().forEach(i -> out[i] = metric.compute(this, series[i], n));
+        if (columns.size() < MAX_CACHED_COLUMNS) {
+            columns.putIfAbsent(key, out);
+        }
+        return out;
+    }
+
+    /**
+     * The metrics screens can refer to. Windowed ones take the number of bars as their argument.
+     */
+    enum Metric {
+        CLOSE(false) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                return s.close(s.size() - 1);
+            }
+        },
+        VOLUME(false) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                int last = s.size() - 1;
+                return s.hasVolume(last) ? s.volume(last) : Double.NaN;
+            }
+        },
+        RET(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                int last = s.size() - 1;
+                return last < n ? Double.NaN : change(s.close(last - n), s.close(last));
+            }
+        },
+        MA(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                return mean(s, n);
+            }
+        },
+        DIST_MA(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                return change(mean(s, n), s.close(s.size() - 1));
+            }
+        },
+        HIGH(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                return extreme(s, n, true);
+            }
+        },
+        LOW(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                return extreme(s, n, false);
+            }
+        },
+        FROM_HIGH(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                return change(extreme(s, n, true), s.close(s.size() - 1));
+            }
+        },
+        FROM_LOW(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                return change(extreme(s, n, false), s.close(s.size() - 1));
+            }
+        },
+        VOL_RATIO(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                int last = s.size() - 1;
+                double sum = 0;
+                int count = 0;
+                for (int t = Math.max(0, last - n + 1); t <= last; t++) {
+                    if (s.hasVolume(t)) {
+                        sum += s.volume(t);
+                        count++;
+                    }
+                }
+                if (count == 0 || sum == 0 || !s.hasVolume(last)) {
+                    return Double.NaN;
+                }
+                return s.volume(last) / (sum / count);
+            }
+        },
+        RS(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                int last = s.size() - 1;
+                if (last < n) {
+                    return Double.NaN;
+                }
+                int to = cs.index.indexOnOrBefore(s.date(last));
+                int from = cs.index.indexOnOrBefore(s.date(last - n));
+                if (from < 0 || to < 0) {
+                    return Double.NaN;
+                }
+                double stock = s.close(last) / s.close(last - n);
+                double benchmark = cs.index.close(to) / cs.index.close(from);
+                return stock / benchmark - 1.0;
+            }
+        },
+        VOLATILITY(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                int last = s.size() - 1;
+                double mean = 0;
+                double m2 = 0;
+                int count = 0;
+                for (int t = Math.max(1, last - n + 1); t <= last; t++) {
+                    double r = change(s.close(t - 1), s.close(t));
+                    if (Double.isNaN(r)) {
+                        continue;
+                    }
+                    count++;
+                    double delta = r - mean;
+                    mean += delta / count;
+                    m2 += delta * (r - mean);
+                }
+                return count < 2 ? Double.NaN : Math.sqrt(m2 / (count - 1) * TRADING_DAYS);
+            }
+        },
+        MAX_DRAWDOWN(true) {
+            double compute(CrossSection cs, BarSeries s, int n) {
+                int last = s.size() - 1;
+                double peak = Double.NaN;
+                double worst = Double.NaN;
+                for (int t = Math.max(0, last - n + 1); t <= last; t++) {
+                    double c = s.close(t);
+                    if (Double.isNaN(c)) {
+                        continue;
+                    }
+                    if (Double.isNaN(peak) || c > peak) {
+                        peak = c;
+                    }
+                    double dd = c / peak - 1.0;
+                    if (Double.isNaN(worst) || dd < worst) {
+                        worst = dd;
+                    }
+                }
+                return worst;
+            }
+        };
+
+        private final boolean windowed;
+
+        Metric(boolean windowed) {
+            this.windowed = windowed;
+        }
+
+        boolean windowed() {
+            return windowed;
+        }
+
+        abstract double compute(CrossSection cs, BarSeries s, int n);
+
+        static Metric of(String name) {
+            try {
+                return valueOf(name.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown screener metric: " + name);
+            }
+        }
+
+        private static double change(double from, double to) {
+            return from == 0.0 ? Double.NaN : to / from - 1.0;
+        }
+
+        // Like SQL avg over the last n rows: missing values are skipped, a short history averages what it has
+        private static double mean(BarSeries s, int n) {
+            int last = s.size() - 1;
+            double sum = 0;
+            int count = 0;
+            for (int t = Math.max(0, last - n + 1); t <= last; t++) {
+                double c = s.close(t);
+                if (!Double.isNaN(c)) {
+                    sum += c;
+                    count++;
+                }
+            }
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        // Constant time on indexed series (as from the bar store), a scan of the window otherwise
+        private static double extreme(BarSeries s, int n, boolean max) {
+            int last = s.size() - 1;
+            return max ? s.highestClose(last - n + 1, last + 1) : s.lowestClose(last - n + 1, last + 1);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.stock.platform.backend_api.service.screener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A parsed screener expression such as {@code ret(126) > 0.2 and close > ma(50) and vol_ratio(50) >= 1.5},
+ * evaluated column-wise over a {@link CrossSection}.
+ *
+ * Grammar, loosest binding first:
+ * <pre>
+ *   or      := and (("or" | "||") and)*
+ *   and     := not (("and" | "&&") not)*
+ *   not     := ("not" | "!") not | compare
+ *   compare := sum ((">" | ">=" | "<" | "<=" | "==" | "!=") sum)?
+ *   sum     := product (("+" | "-") product)*
+ *   product := unary (("*" | "/") unary)*
+ *   unary   := "-" unary | number | metric | metric "(" integer ")" | "abs(" or ")" | "(" or ")"
+ * </pre>
+ * Metrics are the {@link CrossSection} columns: {@code close}, {@code volume}, {@code ret(n)}, {@code ma(n)},
+ * {@code dist_ma(n)}, {@code high(n)}, {@code low(n)}, {@code from_high(n)}, {@code from_low(n)},
+ * {@code vol_ratio(n)}, {@code rs(n)}, {@code volatility(n)} and {@code max_drawdown(n)}. Comparisons and
+ * logic yield 1 or 0; a comparison with an undefined operand is false.
+ */
+public final class ScreenExpression {
+    private static final int MAX_LENGTH = 1000;
+
+    private interface Node {
+        double[] eval(CrossSection cs);
+    }
+
+    private final String text;
+    private final Node root;
+    private final Set<String> metrics;
+
+    private ScreenExpression(String text, Node root, Set<String> metrics) {
+        this.text = text;
+        this.root = root;
+        this.metrics = metrics;
+    }
+
+    public static ScreenExpression parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("expression must not be empty");
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("expression must be at most " + MAX_LENGTH + " characters");
+        }
+        Parser parser = new Parser(text);
+        Node root = parser.or();
+        if (parser.peek() != null) {
+            throw new IllegalArgumentException("Unexpected '" + parser.peek() + "' in expression: " + text);
+        }
+        return new ScreenExpression(text.trim(), root, parser.metrics);
+    }
+
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Canonical names ({@code ret(126)}) of the metric columns the expression reads.
+     */
+    public Set<String> metrics() {
+        return metrics;
+    }
+
+    public double[] eval(CrossSection cs) {
+        return root.eval(cs);
+    }
+
+    /**
+     * Whether row {@code i} of a filter result passes: defined and non-zero.
+     */
+    public static boolean truthy(double v) {
+        return !Double.isNaN(v) && v != 0.0;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private final List<String> tokens;
+        private final Set<String> metrics = new LinkedHashSet<>();
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+            this.tokens = tokenize(text);
+        }
+
+        String peek() {
+            return pos < tokens.size() ? tokens.get(pos) : null;
+        }
+
+        private boolean accept(String... options) {
+            String t = peek();
+            for (String o : options) {
+                if (o.equals(t)) {
+                    pos++;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw new IllegalArgumentException("Expected '" + token + "' in expression: " + text);
+            }
+        }
+
+        Node or() {
+            Node left = and();
+            while (accept("or", "||")) {
+                Node l = left;
+                Node r = and();
+                left = cs -> combine(l.eval(cs), r.eval(cs), (a, b) -> truthy(a) || truthy(b) ? 1 : 0);
+            }
+            return left;
+        }
+
+        Node and() {
+            Node left = not();
+            while (accept("and", "&&")) {
+                Node l = left;
+                Node r = not();
+                left = cs -> combine(l.eval(cs), r.eval(cs), (a, b) -> truthy(a) && truthy(b) ? 1 : 0);
+            }
+            return left;
+        }
+
+        Node not() {
+            if (accept("not", "!")) {
+                Node inner = not();
+                return cs -> map(inner.eval(cs), v -> truthy(v) ? 0 : 1);
+            }
+            return compare();
+        }
+
+        Node compare() {
+            Node left = sum();
+            String op = peek();
+            if (op == null || !List.of(">", ">=", "<", "<=", "==", "!=").contains(op)) {
+                return left;
+            }
+            pos++;
+            Node right = sum();
+            Op test = switch (op) {
+                case ">" -> (a, b) -> a > b ? 1 : 0;
+                case ">=" -> (a, b) -> a >= b ? 1 : 0;
+                case "<" -> (a, b) -> a < b ? 1 : 0;
+                case "<=" -> (a, b) -> a <= b ? 1 : 0;
+                case "==" -> (a, b) -> a == b ? 1 : 0;
+                default -> (a, b) -> !Double.isNaN(a) && !Double.isNaN(b) && a != b ? 1 : 0;
+            };
+            return cs -> combine(left.eval(cs), right.eval(cs), test);
+        }
+
+        Node sum() {
+            Node left = product();
+            while (true) {
+                if (accept("+")) {
+                    Node l = left;
+                    Node r = product();
+                    left = cs -> combine(l.eval(cs), r.eval(cs), Double::sum);
+                } else if (accept("-")) {
+                    Node l = left;
+                    Node r = product();
+                    left = cs -> combine(l.eval(cs), r.eval(cs), (a, b) -> a - b);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        Node product() {
+            Node left = unary();
+            while (true) {
+                if (accept("*")) {
+                    Node l = left;
+                    Node r = unary();
+                    left = cs -> combine(l.eval(cs), r.eval(cs), (a, b) -> a * b);
+                } else if (accept("/")) {
+                    Node l = left;
+                    Node r = unary();
+                    left = cs -> combine(l.eval(cs), r.eval(cs), (a, b) -> b == 0.0 ? Double.NaN : a / b);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        Node unary() {
+            if (accept("-")) {
+                Node inner = unary();
+                return cs -> map(inner.eval(cs), v -> -v);
+            }
+            if (accept("(")) {
+                Node inner = or();
+                expect(")");
+                return inner;
+            }
+            String t = peek();
+            if (t == null) {
+                throw new IllegalArgumentException("Unexpected end of expression: " + text);
+            }
+            pos++;
+            if (Character.isDigit(t.charAt(0)) || t.charAt(0) == '.') {
+                double v = number(t);
+                return cs -> constant(cs, v);
+            }
+            if (!Character.isLetter(t.charAt(0))) {
+                throw new IllegalArgumentException("Unexpected '" + t + "' in expression: " + text);
+            }
+            if (t.equals("abs")) {
+                expect("(");
+                Node inner = or();
+                expect(")");
+                return cs -> map(inner.eval(cs), Math::abs);
+            }
+
+            CrossSection.Metric metric = CrossSection.Metric.of(t);
+            int n = 0;
+            if (metric.windowed()) {
+                expect("(");
+                String arg = peek();
+                double v = arg == null ? Double.NaN : number(arg);
+                if (v != Math.rint(v) || v < 1 || v > CrossSection.MAX_WINDOW) {
+                    throw new IllegalArgumentException(t + " takes a window in [1, " + CrossSection.MAX_WINDOW + "] bars");
+                }
+                pos++;
+                expect(")");
+                n = (int) v;
+                metrics.add(t + "(" + n + ")");
+            } else {
+                metrics.add(t);
+            }
+            int window = n;
+            return cs -> cs.column(t, window);
+        }
+
+        private double number(String t) {
+            try {
+                return Double.parseDouble(t);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number '" + t + "' in expression: " + text);
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                i++;
+            } else if (Character.isLetter(ch) || ch == '_') {
+                int j = i;
+                while (j < text.length() && (Character.isLetterOrDigit(text.charAt(j)) || text.charAt(j) == '_')) {
+                    j++;
+                }
+                out.add(text.substring(i, j).toLowerCase(Locale.ROOT));
+                i = j;
+            } else if (Character.isDigit(ch) || ch == '.') {
+                int j = i;
+                while (j < text.length() && (Character.isDigit(text.charAt(j)) || text.charAt(j) == '.')) {
+                    j++;
+                }
+                out.add(text.substring(i, j));
+                i = j;
+            } else if (i + 1 < text.length() && List.of(">=", "<=", "==", "!=", "&&", "||").contains(text.substring(i, i + 2))) {
+                out.add(text.substring(i, i + 2));
+                i += 2;
+            } else if ("()+-*/<>!".indexOf(ch) >= 0) {
+                out.add(String.valueOf(ch));
+                i++;
+            } else {
+                throw new IllegalArgumentException("Unexpected '" + ch + "' in expression: " + text);
+            }
+        }
+        return out;
+    }
+
+    @FunctionalInterface
+    private interface Op {
+        double apply(double a, double b);
+    }
+
+    private static double[] combine(double[] a, double[] b, Op op) {
+        double[] out = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            out[i] = op.apply(a[i], b[i]);
+        }
+        return out;
+    }
+
+    private static double[] map(double[] a, DoubleUnaryOperator op) {
+        double[] out = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            out[i] = op.applyAsDouble(a[i]);
+        }
+        return out;
+    }
+
+    private static double[] constant(CrossSection cs, double v) {
+        double[] out = new double[cs.size()];
+        Arrays.fill(out, v);
+        return out;
+    }
+}
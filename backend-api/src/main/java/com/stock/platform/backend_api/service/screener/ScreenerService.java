@@ -0,0 +1,239 @@
+package com.stock.platform.backend_api.service.screener;
+
+import com.stock.platform.backend_api.api.dto.ScreenResultDto;
+import com.stock.platform.backend_api.api.dto.ScreenRowDto;
+import com.stock.platform.backend_api.api.dto.ScreenerItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.BreadthMember;
+import com.stock.platform.backend_api.repository.MarketRepository;
+import com.stock.platform.backend_api.service.InsightResultCache;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+/**
+ * Cross-sectional screens over the constituents of an index.
+ *
+ * Each index's {@link CrossSection} is loaded once per market data version; a screen then only parses its
+ * expressions and evaluates them over the in-memory columns, so no SQL is built or run per request.
+ */
+public class ScreenerService {
+    private static final int MAX_SORT_KEYS = 4;
+
+    /**
+     * One sort key: an expression and its direction. Undefined values always sort last.
+     */
+    record SortKey(ScreenExpression expression, boolean descending) {}
+
+    private final MarketRepository market;
+    private final InsightResultCache cache;
+
+    public ScreenerService(MarketRepository market, InsightResultCache cache) {
+        this.market = market;
+        this.cache = cache;
+    }
+
+    /**
+     * Constituents passing {@code filter} (all when blank), ordered by {@code sort} (e.g.
+     * {@code ret(126) desc, vol_ratio(50) desc}; symbol order when blank), at most {@code limit} of them.
+     */
+    public ScreenResultDto screen(String indexSymbol, String filter, String sort, int limit) {
+        ScreenExpression condition = filter == null || filter.isBlank() ? null : ScreenExpression.parse(filter);
+        List<SortKey> keys = parseSort(sort);
+        CrossSection cs = crossSection(indexSymbol);
+
+        List<Integer> rows = select(cs, condition, keys);
+        Set<String> shown = new LinkedHashSet<>();
+        for (SortKey key : keys) {
+            shown.add(key.expression().text());
+        }
+        if (condition != null) {
+            shown.addAll(condition.metrics());
+        }
+        Map<String, double[]> columns = new LinkedHashMap<>();
+        for (String text : shown) {
+            columns.put(text, ScreenExpression.parse(text).eval(cs));
+        }
+        double[] close = cs.column("close", 0);
+
+        List<ScreenRowDto> items = new ArrayList<>(Math.min(limit, rows.size()));
+        for (int i : rows.subList(0, Math.min(limit, rows.size()))) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            columns.forEach((text, column) -> values.put(text, boxed(column[i])));
+            items.add(new ScreenRowDto(cs.symbol(i), cs.name(i), boxed(close[i]), values));
+        }
+        return new ScreenResultDto(
+                indexSymbol,
+                cs.asOf() == null ? null : cs.asOf().toString(),
+                condition == null ? null : condition.text(),
+                sort == null || sort.isBlank() ? null : sort.trim(),
+                cs.size(),
+                rows.size(),
+                items
+        );
+    }
+
+    /**
+     * The classic presets, as screens: {@code trend} (close above the 50-day average) and {@code breakout}
+     * (close at its 52-week high), both ranked by the return over {@code lookbackDays} bars.
+     */
+    public List<ScreenerItemDto> preset(String indexSymbol, String preset, int lookbackDays, int limit) {
+        boolean trend = preset == null || preset.isBlank() || preset.equalsIgnoreCase("trend");
+        boolean breakout = preset != null && preset.equalsIgnoreCase("breakout");
+        String filter = breakout ? "close >= high(252)" : trend ? "close > ma(50)" : null;
+        String ret = "ret(" + lookbackDays + ")";
+
+        CrossSection cs = crossSection(indexSymbol);
+        List<Integer> rows = select(cs, filter == null ? null : ScreenExpression.parse(filter), parseSort(ret + " desc"));
+        double[] close = cs.column("close", 0);
+        double[] returns = cs.column("ret", lookbackDays);
+        double[] ma50 = cs.column("ma", 50);
+        double[] ma200 = cs.column("ma", 200);
+        double[] volume = cs.column("volume", 0);
+        String asOf = cs.asOf() == null ? null : cs.asOf().toString();
+
+        List<ScreenerItemDto> out = new ArrayList<>();
+        for (int i : rows.subList(0, Math.min(limit, rows.size()))) {
+            out.add(new ScreenerItemDto(
+                    cs.symbol(i),
+                    cs.name(i),
+                    asOf,
+                    boxed(close[i]),
+                    boxed(returns[i]),
+                    boxed(ma50[i]),
+                    boxed(ma200[i]),
+                    Double.isNaN(volume[i]) ? null : (long) volume[i]
+            ));
+        }
+        return out;
+    }
+
+    /**
+     * Positions of the rows passing {@code condition}, in sort order.
+     */
+    static List<Integer> select(CrossSection cs, ScreenExpression condition, List<SortKey> keys) {
+        double[] mask = condition == null ? null : condition.eval(cs);
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < cs.size(); i++) {
+            if (mask == null || ScreenExpression.truthy(mask[i])) {
+                rows.add(i);
+            }
+        }
+        if (!keys.isEmpty()) {
+            Comparator<Integer> order = null;
+            for (SortKey key : keys) {
+                double[] values = key.expression().eval(cs);
+                Comparator<Integer> c = (a, b) -> compare(values[a], values[b], key.descending());
+                order = order == null ? c : order.thenComparing(c);
+            }
+            rows.sort(order);
+        }
+        return rows;
+    }
+
+    private static int compare(double a, double b, boolean descending) {
+        boolean na = Double.isNaN(a);
+        boolean nb = Double.isNaN(b);
+        if (na || nb) {
+            return Boolean.compare(na, nb);
+        }
+        return descending ? Double.compare(b, a) : Double.compare(a, b);
+    }
+
+    static List<SortKey> parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return List.of();
+        }
+        List<SortKey> keys = new ArrayList<>();
+        for (String part : splitTopLevel(sort)) {
+            String text = part.trim();
+            boolean descending = false;
+            String lower = text.toLowerCase();
+            if (lower.endsWith(" desc")) {
+                descending = true;
+                text = text.substring(0, text.length() - 5);
+            } else if (lower.endsWith(" asc")) {
+                text = text.substring(0, text.length() - 4);
+            }
+            keys.add(new SortKey(ScreenExpression.parse(text), descending));
+        }
+        if (keys.size() > MAX_SORT_KEYS) {
+            throw new IllegalArgumentException("sort may have at most " + MAX_SORT_KEYS + " keys");
+        }
+        return keys;
+    }
+
+    private static List<String> splitTopLevel(String text) {
+        List<String> out = new ArrayList<>();
+        int depth = 0;
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '(') {
+                depth++;
+            } else if (ch == ')') {
+                depth--;
+            } else if (ch == ',' && depth == 0) {
+                out.add(text.substring(from, i));
+                from = i + 1;
+            }
+        }
+        out.add(text.substring(from));
+        return out;
+    }
+
+    public CrossSection crossSection(String indexSymbol) {
+        return cache.get("cross-section|" + indexSymbol, () -> loadCrossSection(indexSymbol));
+    }
+
+    private CrossSection loadCrossSection(String indexSymbol) {
+        List<BreadthMember> members = market.loadBreadthMembers(indexSymbol).stream()
+                .filter(m -> m.stock() && m.metrics() != null)
+                .toList();
+        LocalDate asOf = members.stream().map(m -> m.metrics().barDate()).max(Comparator.naturalOrder()).orElse(null);
+        if (asOf == null) {
+            return new CrossSection(null, List.of(), List.of(), List.of(), BarSeries.empty());
+        }
+
+        Map<String, String> names = new LinkedHashMap<>();
+        for (BreadthMember m : members) {
+            if (m.metrics().barDate().equals(asOf)) {
+                names.put(m.symbol(), m.name());
+            }
+        }
+        LocalDate start = asOf.minusDays(CrossSection.HISTORY_DAYS);
+        Map<String, BarSeries> bars = new HashMap<>();
+        market.forEachDailySeries(names.keySet(), start, asOf, (symbol, series) -> {
+            if (!series.isEmpty() && series.date(series.size() - 1).equals(asOf)) {
+                bars.put(symbol, series);
+            }
+        });
+
+        List<String> symbols = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<BarSeries> series = new ArrayList<>();
+        for (Map.Entry<String, String> e : names.entrySet()) {
+            BarSeries s = bars.get(e.getKey());
+            if (s != null) {
+                symbols.add(e.getKey());
+                labels.add(e.getValue());
+                series.add(s);
+            }
+        }
+        BarSeries index = market.getBarSeries(indexSymbol, "1d", start, asOf);
+        return new CrossSection(asOf, symbols, labels, series, index);
+    }
+
+    private static Double boxed(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+}
@@ -0,0 +1,60 @@
+package com.stock.platform.backend_api.api.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarFrameTest {
+    @Test
+    void layoutMatchesDeclaredSize() throws IOException {
+        ColumnarFrame frame = new ColumnarFrame(new int[]{19723, 19724, 19727})
+                .float32("close", new double[]{187.15, Double.NaN, 185.64})
+                .float64("volume", new double[]{82488700, 1, Double.NaN});
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        frame.writeTo(buf);
+        byte[] bytes = buf.toByteArray();
+        assertEquals(frame.byteSize(), bytes.length);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertEquals(3, in.readInt());
+        assertEquals(19723, in.readInt());
+        assertEquals(1, in.readUnsignedShort());
+        assertEquals(3, in.readUnsignedShort());
+        assertEquals(2, in.readUnsignedByte());
+
+        assertEquals(5, in.readUnsignedByte());
+        assertEquals("close", new String(in.readNBytes(5)));
+        assertEquals(1, in.readUnsignedByte());
+        assertEquals(187.15f, in.readFloat());
+        assertTrue(Float.isNaN(in.readFloat()));
+        assertEquals(185.64f, in.readFloat());
+
+        assertEquals(6, in.readUnsignedByte());
+        assertEquals("volume", new String(in.readNBytes(6)));
+        assertEquals(2, in.readUnsignedByte());
+        assertEquals(82488700d, in.readDouble());
+        assertEquals(1d, in.readDouble());
+        assertTrue(Double.isNaN(in.readDouble()));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    void emptyFrameHasNoDates() throws IOException {
+        ColumnarFrame frame = new ColumnarFrame(new int[0]).float32("close", new double[0]);
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        frame.writeTo(buf);
+        assertEquals(frame.byteSize(), buf.size());
+    }
+
+    @Test
+    void rejectsMismatchedColumn() {
+        ColumnarFrame frame = new ColumnarFrame(new int[]{1, 2});
+        assertThrows(IllegalArgumentException.class, () -> frame.float32("close", new double[]{1}));
+    }
+}
@@ -0,0 +1,60 @@
+package com.stock.platform.backend_api.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BarSeriesTest {
+    private static BarSeries weekdays(LocalDate from, int count) {
+        BarSeries.Builder b = new BarSeries.Builder(count);
+        LocalDate d = from;
+        int added = 0;
+        while (added < count) {
+            if (d.getDayOfWeek().getValue() <= 5) {
+                double px = 100 + added;
+                b.add((int) d.toEpochDay(), px, px + 2, px - 1, px + 1, 1000 + added);
+                added++;
+            }
+            d = d.plusDays(1);
+        }
+        return b.build();
+    }
+
+    @Test
+    void sliceIsInclusiveAndSharesIndexes() {
+        BarSeries s = weekdays(LocalDate.of(2024, 1, 1), 20);
+        BarSeries slice = s.slice(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 10));
+        assertEquals(3, slice.size());
+        assertEquals(LocalDate.of(2024, 1, 8), slice.date(0));
+        assertEquals(LocalDate.of(2024, 1, 10), slice.date(2));
+        assertEquals(0, slice.indexOf(LocalDate.of(2024, 1, 8)));
+        assertEquals(-1, slice.indexOf(LocalDate.of(2024, 1, 6)));
+        assertTrue(s.slice(LocalDate.of(2025, 1, 1), null).isEmpty());
+    }
+
+    @Test
+    void weeklyAggregateUsesLastTradingDay() {
+        BarSeries s = weekdays(LocalDate.of(2024, 1, 1), 10);
+        BarSeries w = s.aggregate("1w");
+        assertEquals(2, w.size());
+        assertEquals(LocalDate.of(2024, 1, 5), w.date(0));
+        assertEquals(100.0, w.open(0));
+        assertEquals(105.0, w.close(0));
+        assertEquals(106.0, w.high(0));
+        assertEquals(99.0, w.low(0));
+        assertEquals(1000 + 1001 + 1002 + 1003 + 1004, w.volume(0));
+    }
+
+    @Test
+    void missingVolumeStaysMissing() {
+        BarSeries s = new BarSeries.Builder(2)
+                .add((int) LocalDate.of(2024, 3, 1).toEpochDay(), 1, 1, 1, 1, BarSeries.NO_VOLUME)
+                .build();
+        assertFalse(s.hasVolume(0));
+        assertNull(s.toBarDtos().get(0).volume());
+        assertFalse(s.aggregate("1m").hasVolume(0));
+        assertThrows(IllegalArgumentException.class, () -> s.aggregate("2d"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.stock.platform.backend_api.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexMembershipHistoryTest {
+    private static final LocalDate S1 = LocalDate.of(2015, 1, 1);
+    private static final LocalDate S2 = LocalDate.of(2018, 1, 1);
+    private static final LocalDate S3 = LocalDate.of(2021, 1, 1);
+
+    // Snapshots S1, S2, S3: 1 always listed, 2 dropped at S2, 3 added at S2 (first added 2017), 4 listed at S1 and S3
+    private static IndexMembershipHistory history() {
+        return IndexMembershipHistory.of(7, List.of(
+                new IndexMembershipHistory.Run(1, S1, null, null),
+                new IndexMembershipHistory.Run(2, S1, S2, LocalDate.of(2010, 5, 1)),
+                new IndexMembershipHistory.Run(3, S2, null, LocalDate.of(2017, 6, 1)),
+                new IndexMembershipHistory.Run(4, S1, S2, null),
+                new IndexMembershipHistory.Run(4, S3, null, null)
+        ));
+    }
+
+    @Test
+    void membershipFollowsTheSnapshotRuns() {
+        IndexMembershipHistory h = history();
+        assertEquals(5, h.size());
+        assertTrue(h.isMember(1, LocalDate.of(1990, 1, 1)));
+        assertFalse(h.isMember(2, LocalDate.of(2009, 1, 1)));
+        assertTrue(h.isMember(2, LocalDate.of(2011, 1, 1)));
+        assertFalse(h.isMember(2, S2));
+        assertFalse(h.isMember(3, LocalDate.of(2017, 5, 31)));
+        assertTrue(h.isMember(3, LocalDate.of(2017, 6, 1)));
+        assertTrue(h.isMember(4, LocalDate.of(2017, 12, 31)));
+        assertFalse(h.isMember(4, LocalDate.of(2019, 1, 1)));
+        assertTrue(h.isMember(4, S3));
+        assertFalse(h.isMember(5, S3));
+    }
+
+    @Test
+    void overlappingKeepsOnlyPeriodsIntersectingTheWindow() {
+        IndexMembershipHistory.Periods p = history().overlapping(LocalDate.of(2019, 1, 1), LocalDate.of(2020, 12, 31));
+        assertArrayEquals(new long[]{1, 3}, Arrays.stream(p.securityIds()).sorted().toArray());
+
+        p = history().overlapping(LocalDate.of(2016, 1, 1), LocalDate.of(2022, 1, 1));
+        assertEquals(5, p.size());
+        for (int i = 0; i < p.size(); i++) {
+            if (p.securityIds()[i] == 2) {
+                assertEquals(LocalDate.of(2010, 5, 1), p.validFrom()[i]);
+                assertEquals(S2, p.validTo()[i]);
+            }
+            if (p.securityIds()[i] == 1) {
+                assertNull(p.validFrom()[i]);
+                assertNull(p.validTo()[i]);
+            }
+        }
+        assertEquals(3, history().overlapping(S1, S1).size());
+    }
+}
@@ -0,0 +1,40 @@
+package com.stock.platform.backend_api.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static com.stock.platform.backend_api.repository.TestBars.series;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketRepositoryTest {
+    // 2024-01-01 to 2024-01-14: two ISO weeks, the stored weekly bars dated 2024-01-07 and 2024-01-14
+    private static final BarSeries DAILY = series(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14);
+    private static final BarSeries WEEKLY = DAILY.aggregate("1w");
+
+    @Test
+    void aRangeInsideOnePeriodHasNoStoredBar() {
+        LocalDate monday = LocalDate.of(2024, 1, 8);
+        LocalDate wednesday = LocalDate.of(2024, 1, 10);
+        BarSeries bars = MarketRepository.sliceOrRollUp(WEEKLY, monday, wednesday,
+                () -> DAILY.slice(monday, wednesday).aggregate("1w"));
+        assertTrue(bars.isEmpty());
+
+        BarSeries week = MarketRepository.sliceOrRollUp(WEEKLY, monday, LocalDate.of(2024, 1, 14),
+                () -> fail("stored bars are never rolled up"));
+        assertEquals(1, week.size());
+        assertEquals(LocalDate.of(2024, 1, 14), week.date(0));
+        assertEquals(8.0, week.open(0));
+    }
+
+    @Test
+    void onlyASecurityWithoutStoredBarsIsRolledUp() {
+        LocalDate start = LocalDate.of(2024, 1, 3);
+        LocalDate end = LocalDate.of(2024, 1, 10);
+        BarSeries bars = MarketRepository.sliceOrRollUp(BarSeries.empty(), start, end,
+                () -> DAILY.slice(start, end).aggregate("1w"));
+        assertEquals(2, bars.size());
+        assertEquals(LocalDate.of(2024, 1, 7), bars.date(0));
+        assertEquals(10.0, bars.close(1));
+    }
+}
@@ -0,0 +1,64 @@
+package com.stock.platform.backend_api.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeIndexTest {
+    private static BarSeries randomSeries(Random rnd, int size) {
+        BarSeries.Builder b = new BarSeries.Builder(size);
+        double px = 100;
+        for (int i = 0; i < size; i++) {
+            px *= 1 + (rnd.nextDouble() - 0.5) * 0.05;
+            double c = rnd.nextInt(50) == 0 ? Double.NaN : px;
+            b.add(19_000 + i, px, px * 1.01, px * 0.99, c, 1_000);
+        }
+        return b.build();
+    }
+
+    private static void assertMatchesScan(BarSeries indexed, BarSeries plain, Random rnd) {
+        for (int q = 0; q < 2_000; q++) {
+            int from = rnd.nextInt(plain.size() + 1) - 5;
+            int to = from + rnd.nextInt(plain.size() + 10);
+            assertEquals(plain.highestClose(from, to), indexed.highestClose(from, to), "max close " + from + ".." + to);
+            assertEquals(plain.lowestClose(from, to), indexed.lowestClose(from, to), "min close " + from + ".." + to);
+            assertEquals(plain.highestHigh(from, to), indexed.highestHigh(from, to));
+            assertEquals(plain.lowestLow(from, to), indexed.lowestLow(from, to));
+        }
+    }
+
+    @Test
+    void indexedQueriesMatchALinearScan() {
+        Random rnd = new Random(7);
+        BarSeries plain = randomSeries(rnd, 1_000);
+        assertMatchesScan(plain.indexed(), plain, rnd);
+
+        BarSeries slicePlain = plain.range(137, 811);
+        BarSeries sliceIndexed = plain.indexed().range(137, 811);
+        assertMatchesScan(sliceIndexed, slicePlain, rnd);
+    }
+
+    @Test
+    void extendingAPrefixMatchesABuildFromScratch() {
+        Random rnd = new Random(11);
+        BarSeries full = randomSeries(rnd, 700);
+        for (int cut : new int[]{0, 1, 31, 32, 33, 64, 500, 699, 700}) {
+            BarSeries.Builder b = new BarSeries.Builder(cut);
+            for (int i = 0; i < cut; i++) {
+                b.add(full.day(i), full.open(i), full.high(i), full.low(i), full.close(i), full.volume(i));
+            }
+            BarSeries extended = full.indexedFrom(b.build().indexed());
+            assertMatchesScan(extended, full, rnd);
+        }
+    }
+
+    @Test
+    void emptyAndMissingRangesAreNaN() {
+        BarSeries s = new BarSeries.Builder(2).add(1, 1, 1, 1, Double.NaN, 1).add(2, 2, 2, 2, Double.NaN, 1).build().indexed();
+        assertTrue(Double.isNaN(s.highestClose(0, 2)));
+        assertTrue(Double.isNaN(s.lowestClose(1, 1)));
+        assertTrue(Double.isNaN(BarSeries.empty().indexed().highestHigh(0, 10)));
+    }
+}
@@ -0,0 +1,33 @@
+package com.stock.platform.backend_api.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Bar series fixtures for engine tests: one bar per calendar day from 2024-01-01, with open, high and low
+ * equal to the close.
+ */
+public final class TestBars {
+    public static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private TestBars() {
+    }
+
+    /**
+     * Bars with the given closes ({@code NaN} for a missing close) and a volume of 1000 each.
+     */
+    public static BarSeries series(double... closes) {
+        return series(closes, null);
+    }
+
+    /**
+     * @param volumes One per close, or null for 1000 each
+     */
+    public static BarSeries series(double[] closes, long[] volumes) {
+        BarSeries.Builder b = new BarSeries.Builder(closes.length);
+        int day = (int) START.toEpochDay();
+        for (int i = 0; i < closes.length; i++) {
+            b.add(day + i, closes[i], closes[i], closes[i], closes[i], volumes == null ? 1_000 : volumes[i]);
+        }
+        return b.build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.stock.platform.backend_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InsightResultCacheTest {
+    @Test
+    void concurrentMissesShareOneComputation() throws Exception {
+        InsightResultCache cache = new InsightResultCache(new MarketDataVersion());
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get("breadth|^SPX", () -> {
+                    calls.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Integer> f : results) {
+                assertEquals(42, f.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void newVersionRecomputesAndFailuresAreNotCached() {
+        MarketDataVersion version = new MarketDataVersion();
+        InsightResultCache cache = new InsightResultCache(version);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, (int) cache.get("k", calls::incrementAndGet));
+        assertEquals(1, (int) cache.get("k", calls::incrementAndGet));
+        version.bump();
+        assertEquals(2, (int) cache.get("k", calls::incrementAndGet));
+        assertEquals(1, cache.size());
+
+        assertThrows(IllegalStateException.class, () -> cache.get("bad", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("ok", cache.get("bad", () -> "ok"));
+    }
+
+    @Test
+    void overflowEvictsLeastRecentlyUsedResultsButNotComputationsInFlight() throws Exception {
+        InsightResultCache cache = new InsightResultCache(new MarketDataVersion());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> slow = pool.submit(() -> cache.get("slow", () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 1;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            cache.get("first", () -> 0);
+            cache.get("second", () -> 0);
+            for (int i = 0; i < InsightResultCache.MAX_ENTRIES; i++) {
+                cache.get("k" + i, () -> 0);
+                cache.get("second", () -> 0);
+            }
+            assertTrue(cache.size() <= InsightResultCache.MAX_ENTRIES);
+            assertTrue(cache.contains("slow"));
+            assertTrue(cache.contains("second"));
+            assertFalse(cache.contains("first"));
+
+            release.countDown();
+            assertEquals(1, slow.get(5, TimeUnit.SECONDS));
+            assertEquals(1, (int) cache.get("slow", () -> 2));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.stock.platform.backend_api.service;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.SecurityDailyMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityMetricsCalculatorTest {
+    private static final LocalDate START = LocalDate.of(2019, 1, 1);
+
+    private static BarSeries bars(int count) {
+        Random rnd = new Random(11);
+        BarSeries.Builder b = new BarSeries.Builder(count);
+        double px = 80;
+        for (int i = 0; i < count; i++) {
+            px *= 1 + rnd.nextGaussian() * 0.015;
+            double close = i % 71 == 5 ? Double.NaN : px;
+            long volume = i % 53 == 7 ? BarSeries.NO_VOLUME : 10_000 + rnd.nextInt(5_000);
+            b.add((int) START.plusDays(i).toEpochDay(), px, px, px, close, volume);
+        }
+        return b.build();
+    }
+
+    // SQL semantics: avg/max/min over the last n rows, nulls skipped, null when none is left
+    private static double window(BarSeries s, int i, int n, String agg) {
+        double sum = 0;
+        int count = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+        for (int t = Math.max(0, i - n + 1); t <= i; t++) {
+            double v = agg.equals("vavg") ? (s.hasVolume(t) ? s.volume(t) : Double.NaN) : s.close(t);
+            if (Double.isNaN(v)) {
+                continue;
+            }
+            sum += v;
+            count++;
+            max = Math.max(max, v);
+            min = Math.min(min, v);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return switch (agg) {
+            case "max" -> max;
+            case "min" -> min;
+            default -> sum / count;
+        };
+    }
+
+    @Test
+    void matchesNaiveWindowsIncludingPartialOnes() {
+        BarSeries s = bars(700);
+        List<SecurityDailyMetrics> rows = SecurityMetricsCalculator.compute(1L, s, null);
+        assertEquals(s.size(), rows.size());
+        for (int i : new int[]{0, 1, 19, 76, 150, 230, 360, 699}) {
+            SecurityDailyMetrics m = rows.get(i);
+            assertEquals(s.date(i), m.barDate());
+            assertEquals(i == 0 ? Double.NaN : s.close(i - 1), m.prevClose(), 1e-9);
+            assertEquals(window(s, i, 20, "avg"), m.ma20(), 1e-9);
+            assertEquals(window(s, i, 50, "avg"), m.ma50(), 1e-9);
+            assertEquals(window(s, i, 200, "avg"), m.ma200(), 1e-9);
+            assertEquals(i == 0 ? Double.NaN : window(s, i - 1, 200, "avg"), m.prevMa200(), 1e-9);
+            assertEquals(window(s, i, 252, "max"), m.high252(), 1e-9);
+            assertEquals(window(s, i, 252, "min"), m.low252(), 1e-9);
+            assertEquals(window(s, i, 50, "vavg"), m.vma50(), 1e-6);
+        }
+    }
+
+    @Test
+    void incrementalRunFromLookbackMatchesFullRun() {
+        BarSeries s = bars(900);
+        List<SecurityDailyMetrics> full = SecurityMetricsCalculator.compute(1L, s, null);
+
+        LocalDate from = s.date(850);
+        BarSeries tail = s.slice(from.minusDays(SecurityMetricsCalculator.LOOKBACK_DAYS), null);
+        List<SecurityDailyMetrics> partial = SecurityMetricsCalculator.compute(1L, tail, from);
+        assertEquals(50, partial.size());
+        for (int i = 0; i < partial.size(); i++) {
+            SecurityDailyMetrics a = full.get(850 + i);
+            SecurityDailyMetrics b = partial.get(i);
+            assertEquals(a.barDate(), b.barDate());
+            assertEquals(a.prevMa50(), b.prevMa50(), 1e-9);
+            assertEquals(a.ma200(), b.ma200(), 1e-9);
+            assertEquals(a.high252(), b.high252(), 1e-9);
+            assertEquals(a.low252(), b.low252(), 1e-9);
+            assertEquals(a.vma50(), b.vma50(), 1e-6);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicatorSeriesTest {
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    private static BarSeries bars(int count, int seed) {
+        BarSeries.Builder b = new BarSeries.Builder(count);
+        double px = 50;
+        for (int i = 0; i < count; i++) {
+            px += Math.sin(i * 0.37 + seed) * 1.5;
+            double close = i % 97 == 13 ? Double.NaN : px;
+            b.add((int) START.plusDays(i).toEpochDay(), px, px + 1 + (i % 3), px - 1 - (i % 2), close, 1000);
+        }
+        return b.build();
+    }
+
+    private static IndicatorAccumulator layout() {
+        return new IndicatorAccumulator(IndicatorSpec.legacy(List.of(20, 5, 20), true, true));
+    }
+
+    @Test
+    void smaMatchesWindowMean() {
+        BarSeries s = bars(40, 1);
+        IndicatorSeries series = IndicatorSeries.compute(layout(), s, START);
+        assertEquals(List.of("sma(5)", "sma(20)", "macd(12,26,9).dif", "macd(12,26,9).dea", "macd(12,26,9).hist",
+                "kdj(9,3,3).k", "kdj(9,3,3).d", "kdj(9,3,3).j"), layout().columnNames());
+        assertTrue(Double.isNaN(series.value(0, 3)));
+        double sum = 0;
+        for (int i = 20; i < 25; i++) {
+            sum += s.close(i);
+        }
+        assertEquals(sum / 5, series.value(0, 24), 1e-9);
+        // the missing close at index 13 leaves the windows that contain it undefined
+        assertTrue(Double.isNaN(series.value(0, 15)));
+        assertTrue(Double.isNaN(series.value(1, 30)));
+    }
+
+    @Test
+    void resumingMatchesFullComputation() {
+        BarSeries all = bars(600, 2);
+        IndicatorSeries full = IndicatorSeries.compute(layout(), all, START);
+
+        IndicatorSeries partial = IndicatorSeries.compute(layout(), all.range(0, 400), START);
+        LocalDate checkpoint = partial.checkpointDate();
+        assertEquals(all.date(400 - 1 - IndicatorSeries.PROVISIONAL_BARS), checkpoint);
+
+        IndicatorSeries resumed = partial.extend(all.slice(checkpoint, null));
+        assertNotNull(resumed);
+        assertEquals(full.size(), resumed.size());
+        for (int c = 0; c < layout().columnCount(); c++) {
+            for (int i = 0; i < full.size(); i++) {
+                assertEquals(full.value(c, i), resumed.value(c, i), 1e-9, "column " + c + " row " + i);
+            }
+        }
+    }
+
+    @Test
+    void correctedCheckpointBarIsRejected() {
+        BarSeries original = bars(100, 3);
+        IndicatorSeries partial = IndicatorSeries.compute(layout(), original, START);
+        assertNull(partial.extend(bars(120, 4).slice(partial.checkpointDate(), null)));
+        assertNull(partial.extend(original.slice(partial.checkpointDate().plusDays(1), null)));
+    }
+
+    @Test
+    void cacheEvictsLeastRecentlyUsedBySize() {
+        IndicatorSeries series = IndicatorSeries.compute(layout(), bars(100, 5), START);
+        IndicatorStateCache cache = new IndicatorStateCache(series.bytes() * 2 + 1);
+        cache.put("a", series);
+        cache.put("b", series);
+        cache.get("a");
+        cache.put("c", series);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(series.bytes() * 2, cache.bytes());
+    }
+
+    @Test
+    void invalidatingASymbolDropsEveryParameterSetOfIt() {
+        IndicatorSeries series = IndicatorSeries.compute(layout(), bars(100, 5), START);
+        IndicatorStateCache cache = new IndicatorStateCache(series.bytes() * 10);
+        cache.put(IndicatorStateCache.key("AAPL", "1d", layout()), series);
+        cache.put("AAPL|1w|other", series);
+        cache.put(IndicatorStateCache.key("AAPL.X", "1d", layout()), series);
+        cache.invalidate(List.of("AAPL"));
+        assertEquals(1, cache.size());
+        assertEquals(series.bytes(), cache.bytes());
+        assertNotNull(cache.get(IndicatorStateCache.key("AAPL.X", "1d", layout())));
+    }
+}
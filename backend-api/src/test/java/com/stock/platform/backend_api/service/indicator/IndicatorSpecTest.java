@@ -0,0 +1,107 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicatorSpecTest {
+    private static BarSeries bars(int count) {
+        Random rnd = new Random(7);
+        BarSeries.Builder b = new BarSeries.Builder(count);
+        double px = 100;
+        for (int i = 0; i < count; i++) {
+            double open = px;
+            px *= 1 + rnd.nextGaussian() * 0.02;
+            double high = Math.max(open, px) * (1 + rnd.nextDouble() * 0.01);
+            double low = Math.min(open, px) * (1 - rnd.nextDouble() * 0.01);
+            b.add((int) LocalDate.of(2020, 1, 1).plusDays(i).toEpochDay(), open, high, low, px, 1000 + rnd.nextInt(500));
+        }
+        return b.build();
+    }
+
+    private static double[][] run(String spec, BarSeries bars) {
+        IndicatorAccumulator acc = new IndicatorAccumulator(IndicatorSpec.parse(spec));
+        double[][] out = new double[acc.columnCount()][bars.size()];
+        for (int i = 0; i < bars.size(); i++) {
+            acc.step(bars, i, out, i);
+        }
+        return out;
+    }
+
+    @Test
+    void parsesDefaultsAliasesAndDuplicates() {
+        IndicatorSpec spec = IndicatorSpec.parse(" MA(20), boll, rsi ,sma(20),macd(5, 35,5), obv ");
+        assertEquals("sma(20),boll(20,2),rsi(14),macd(5,35,5),obv", spec.signature());
+        assertEquals(List.of("sma(20)", "boll(20,2).mid", "boll(20,2).upper", "boll(20,2).lower", "rsi(14)",
+                "macd(5,35,5).dif", "macd(5,35,5).dea", "macd(5,35,5).hist", "obv"), spec.columnNames());
+        assertEquals("boll(10,1.5)", IndicatorSpec.parse("boll(10,1.5)").signature());
+    }
+
+    @Test
+    void rejectsBadSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("sma"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("foo(3)"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("sma(2.5)"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("sma(20"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("rsi(14,2)"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("macd(26,12,9)"));
+    }
+
+    @Test
+    void sharedIntermediatesGiveSameValuesAsAlone() {
+        BarSeries bars = bars(400);
+        double[][] fused = run("sma(20),boll(20,2),ema(12),macd,rsi(14),atr(14)", bars);
+        double[][] sma = run("sma(20)", bars);
+        double[][] macd = run("macd", bars);
+        double[][] atr = run("atr(14)", bars);
+        assertArrayEquals(sma[0], fused[0]);
+        assertArrayEquals(sma[0], fused[1]);
+        assertArrayEquals(macd[0], fused[5]);
+        assertArrayEquals(atr[0], fused[9]);
+    }
+
+    @Test
+    void valuesMatchTextbookDefinitions() {
+        BarSeries bars = bars(200);
+        double[][] out = run("boll(20,2),rsi(14),atr(14),obv", bars);
+        int i = 150;
+
+        double mean = 0;
+        for (int t = i - 19; t <= i; t++) mean += bars.close(t) / 20;
+        double ss = 0;
+        for (int t = i - 19; t <= i; t++) ss += Math.pow(bars.close(t) - mean, 2);
+        assertEquals(mean, out[0][i], 1e-9);
+        assertEquals(mean + 2 * Math.sqrt(ss / 20), out[1][i], 1e-9);
+
+        double gain = 0;
+        double loss = 0;
+        for (int t = 1; t <= 14; t++) {
+            double ch = bars.close(t) - bars.close(t - 1);
+            gain += Math.max(ch, 0) / 14;
+            loss += Math.max(-ch, 0) / 14;
+        }
+        assertTrue(Double.isNaN(out[3][13]));
+        assertEquals(100 - 100 / (1 + gain / loss), out[3][14], 1e-9);
+
+        double tr = 0;
+        for (int t = 0; t < 14; t++) {
+            double range = bars.high(t) - bars.low(t);
+            if (t > 0) {
+                range = Math.max(range, Math.max(Math.abs(bars.high(t) - bars.close(t - 1)), Math.abs(bars.low(t) - bars.close(t - 1))));
+            }
+            tr += range / 14;
+        }
+        assertEquals(tr, out[4][13], 1e-9);
+
+        double obv = 0;
+        for (int t = 1; t <= i; t++) {
+            obv += Math.signum(bars.close(t) - bars.close(t - 1)) * bars.volume(t);
+        }
+        assertEquals(obv, out[5][i], 1e-6);
+    }
+}
@@ -0,0 +1,107 @@
+package com.stock.platform.backend_api.service.indicator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingKernelsTest {
+    private static double[] prices(int n, long seed) {
+        Random rnd = new Random(seed);
+        double[] out = new double[n];
+        double px = 100;
+        for (int i = 0; i < n; i++) {
+            px *= 1 + rnd.nextGaussian() * 0.02;
+            out[i] = rnd.nextInt(50) == 0 ? Double.NaN : px;
+        }
+        return out;
+    }
+
+    @Test
+    void extremesMatchWindowScan() {
+        double[] v = prices(3000, 1);
+        for (int window : new int[]{1, 9, 252, 1000}) {
+            double[] max = RollingExtreme.max(v, window);
+            double[] min = RollingExtreme.min(v, window);
+            for (int i = 0; i < v.length; i++) {
+                double hi = Double.NaN;
+                double lo = Double.NaN;
+                for (int t = Math.max(0, i - window + 1); t <= i; t++) {
+                    if (Double.isNaN(v[t])) continue;
+                    hi = Double.isNaN(hi) ? v[t] : Math.max(hi, v[t]);
+                    lo = Double.isNaN(lo) ? v[t] : Math.min(lo, v[t]);
+                }
+                assertEquals(hi, max[i], "max window " + window + " at " + i);
+                assertEquals(lo, min[i], "min window " + window + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void meanAndStdevMatchWindowScan() {
+        double[] v = prices(2000, 2);
+        for (int i = 0; i < v.length; i++) {
+            if (i >= 700 && i < 1200) v[i] = 100 + (i % 7); // a NaN-free stretch long enough to fill the window
+        }
+        int window = 252;
+        double[] mean = RollingSum.mean(v, window);
+        double[] stdev = RollingVariance.stdev(v, window);
+        for (int i = 0; i < v.length; i++) {
+            double sum = 0;
+            int count = 0;
+            for (int t = Math.max(0, i - window + 1); t <= i; t++) {
+                if (!Double.isNaN(v[t])) {
+                    sum += v[t];
+                    count++;
+                }
+            }
+            if (count < window) {
+                assertTrue(Double.isNaN(mean[i]));
+                assertTrue(Double.isNaN(stdev[i]));
+                continue;
+            }
+            double m = sum / window;
+            double ss = 0;
+            for (int t = i - window + 1; t <= i; t++) {
+                ss += (v[t] - m) * (v[t] - m);
+            }
+            assertEquals(m, mean[i], 1e-9);
+            assertEquals(Math.sqrt(ss / window), stdev[i], 1e-9);
+        }
+        assertFalse(Double.isNaN(mean[1100]));
+    }
+
+    @Test
+    void regressionForgetsOldPairs() {
+        RollingRegression r = new RollingRegression(5);
+        for (int i = 0; i < 5; i++) {
+            r.push(i, 100 - 3 * i);
+        }
+        assertEquals(-3, r.slope(), 1e-12);
+        for (int i = 5; i < 10; i++) {
+            r.push(i, 2 * i + 1);
+        }
+        assertEquals(5, r.count());
+        assertEquals(2, r.slope(), 1e-9);
+        assertEquals(1, r.intercept(), 1e-9);
+        assertEquals(1, r.rSquare(), 1e-9);
+
+        RollingRegression all = RollingRegression.expanding();
+        all.push(0, 1);
+        all.push(Double.NaN, 5);
+        all.push(1, 3);
+        assertEquals(2, all.count());
+        assertEquals(2, all.slope(), 1e-12);
+    }
+
+    @Test
+    void copiesAreIndependent() {
+        RollingExtreme max = RollingExtreme.max(3);
+        max.push(5);
+        RollingExtreme copy = max.copy();
+        max.push(9);
+        assertEquals(5, copy.current());
+        assertEquals(9, max.current());
+    }
+}
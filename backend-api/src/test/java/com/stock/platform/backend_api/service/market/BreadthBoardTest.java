@@ -0,0 +1,77 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.BreadthSnapshotDto;
+import com.stock.platform.backend_api.api.dto.ScreenerItemDto;
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.BreadthMember;
+import com.stock.platform.backend_api.repository.SecurityDailyMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreadthBoardTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    private static final double NA = Double.NaN;
+
+    private static BreadthMember member(String symbol, LocalDate date, double close, double prevClose,
+                                        double ma50, double ma200, double high, long volume, double vma50) {
+        SecurityDailyMetrics m = date == null ? null : new SecurityDailyMetrics(
+                symbol.hashCode(), date, close, prevClose, volume, close, ma50, ma200, NA, NA, NA, high, close - 5, vma50);
+        return new BreadthMember(symbol.hashCode(), symbol, symbol + " Inc", null, null, true, m);
+    }
+
+    private static BreadthBoard board() {
+        return new BreadthBoard("^TEST", List.of(
+                member("AAA", DAY, 110, 100, 100, 90, 110, 3_000, 1_000),
+                member("BBB", DAY, 95, 100, 100, 90, 120, 500, 1_000),
+                member("CCC", DAY, 100, 100, 90, NA, 130, BarSeries.NO_VOLUME, 1_000),
+                member("DDD", DAY.minusDays(1), 50, 40, 10, 10, 50, 9_000, 1_000),
+                member("EEE", null, 0, 0, 0, 0, 0, 0, 0),
+                member("FFF", DAY, 104, 100, 101, 200, 140, 2_500, 1_000)
+        ));
+    }
+
+    @Test
+    void snapshotCountsMatchMetricConditions() {
+        BreadthSnapshotDto s = board().snapshot(2.0);
+        assertEquals("2024-03-01", s.asOfDate());
+        assertEquals(6, s.totalMembers());
+        assertEquals(4, s.membersWithData());
+        assertEquals(2, s.up());
+        assertEquals(1, s.down());
+        assertEquals(1, s.flat());
+        assertEquals(3, s.aboveMa50());
+        assertEquals(2, s.aboveMa200());
+        assertEquals(1, s.newHigh52w());
+        assertEquals(2, s.volumeSurge());
+        assertEquals(1, board().snapshot(3.0).volumeSurge());
+    }
+
+    @Test
+    void volumeMultiplesAreClampedAndRoundedToOneDecimal() {
+        assertEquals(2.5, BreadthBoard.volumeMultiple(2.46));
+        assertEquals(1.0, BreadthBoard.volumeMultiple(0.2));
+        assertEquals(1.0, BreadthBoard.volumeMultiple(Double.NaN));
+        assertEquals(20.0, BreadthBoard.volumeMultiple(1e9));
+        // FFF's volume is 2.5 times its average: a surge at 2.54, which the board applies as 2.5, but not at 2.56
+        BreadthBoard board = board();
+        assertEquals(2, board.snapshot(2.54).volumeSurge());
+        assertEquals(1, board.snapshot(2.56).volumeSurge());
+    }
+
+    @Test
+    void combinedFiltersAreIntersections() {
+        BreadthBoard board = board();
+        List<ScreenerItemDto> both = board.detail(BreadthMetric.parseAll("above_ma50&volume_surge"), 2.0);
+        assertEquals(List.of("AAA", "FFF"), both.stream().map(ScreenerItemDto::symbol).toList());
+        assertEquals(0.10, both.get(0).returnPct(), 1e-12);
+
+        List<ScreenerItemDto> three = board.detail(BreadthMetric.parseAll("above_ma50,volume_surge,above_ma200"), 2.0);
+        assertEquals(List.of("AAA"), three.stream().map(ScreenerItemDto::symbol).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> BreadthMetric.parseAll("above_ma51"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.stock.platform.backend_api.repository.TestBars.series;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawdownEngineTest {
+    private static final double NA = Double.NaN;
+
+    @Test
+    void episodesRunFromPeakToRecoveryDeepestFirst() {
+        //                                      0    1    2   3    4    5    6   7   8
+        DrawdownEngine.Analysis a = DrawdownEngine.analyze(series(100, 110, 99, 105, 110, 120, 90, 60, 100), 5);
+        List<DrawdownEngine.Episode> episodes = a.episodes();
+        assertEquals(2, episodes.size());
+
+        DrawdownEngine.Episode open = episodes.get(0);
+        assertEquals(5, open.peak());
+        assertEquals(7, open.trough());
+        assertFalse(open.recovered());
+        assertEquals(-0.5, open.depth(), 1e-12);
+        assertEquals(3, a.duration(open));
+
+        DrawdownEngine.Episode closed = episodes.get(1);
+        assertEquals(new DrawdownEngine.Episode(1, 2, 4, 4, 110, 99, 99.0 / 110.0 - 1.0), closed);
+        assertEquals(3, a.duration(closed));
+
+        assertEquals(100.0 / 120.0 - 1.0, a.currentDrawdown(), 1e-12);
+        assertEquals(3, a.longestDuration());
+        assertSame(open, a.deepest());
+    }
+
+    @Test
+    void keepsOnlyTheDeepestEpisodesAndSkipsMissingCloses() {
+        DrawdownEngine.Analysis a = DrawdownEngine.analyze(series(10, 9, 10, 7, NA, 10, 8, 10, 11), 2);
+        assertEquals(8, a.bars());
+        assertEquals(2, a.episodes().size());
+        assertEquals(3, a.episodes().get(0).trough());
+        assertEquals(5, a.episodes().get(0).recovery());
+        assertEquals(6, a.episodes().get(1).trough());
+        assertEquals(0.0, a.currentDrawdown());
+    }
+
+    @Test
+    void risingSeriesHasNoEpisodes() {
+        DrawdownEngine.Analysis a = DrawdownEngine.analyze(series(1, 2, 2, 3), 3);
+        assertTrue(a.episodes().isEmpty());
+        assertNull(a.deepest());
+        assertEquals(0, a.longestDuration());
+        assertTrue(Double.isNaN(DrawdownEngine.analyze(BarSeries.empty(), 3).currentDrawdown()));
+    }
+
+    @Test
+    void episodeOpenAtASegmentEndStaysUnderWater() {
+        DrawdownEngine.Analysis a = DrawdownEngine.analyze(series(100, 80, 90, 95), new int[]{2}, 5);
+        assertEquals(List.of(new DrawdownEngine.Episode(0, 1, -1, 1, 100, 80, 80.0 / 100.0 - 1.0)), a.episodes());
+        assertEquals(1, a.duration(a.deepest()));
+        // The second segment's running high starts at 90
+        assertEquals(0.0, a.currentDrawdown());
+    }
+}
@@ -0,0 +1,60 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import static com.stock.platform.backend_api.repository.TestBars.series;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FactorEngineTest {
+    private static final double NA = Double.NaN;
+
+    @Test
+    void drawdownAndRunupTrackRunningExtremes() {
+        FactorEngine.Factors f = FactorEngine.compute(series(100, 120, 90, 110, 60, 80), 252);
+        assertEquals(6, f.bars());
+        assertEquals(60.0 / 120.0 - 1.0, f.maxDrawdown(), 1e-12);
+        assertEquals(4, f.troughIndex());
+        assertEquals(80.0 / 60.0 - 1.0, f.maxRunup(), 1e-12);
+        assertEquals(5, f.runupIndex());
+    }
+
+    @Test
+    void newHighsAndLowsCompareWithThePreviousLookbackCloses() {
+        // lookback 3: each bar against the two before it
+        FactorEngine.Factors f = FactorEngine.compute(series(10, 11, 9, 10, 12, 8, NA, 7), 3);
+        assertEquals(6, f.evaluated());
+        assertEquals(2, f.newHighs());
+        assertEquals(3, f.newLows());
+        assertEquals(2.0 / 6.0, f.newHighRate(), 1e-12);
+
+        // With lookback 2 only the previous close counts, so 10 after 9 is a high too
+        assertEquals(3, FactorEngine.compute(series(10, 11, 9, 10, 12, 8, NA, 7), 2).newHighs());
+    }
+
+    @Test
+    void streaksComeFromTheSamePass() {
+        FactorEngine.Factors f = FactorEngine.compute(series(1, 2, 3, 4, 3, 2), 10);
+        assertEquals(new StreakEngine.Streak(3, 1, 3), f.streaks().up());
+        assertEquals(new StreakEngine.Streak(2, 4, 5), f.streaks().down());
+    }
+
+    @Test
+    void emptySeriesHasNoFactors() {
+        FactorEngine.Factors f = FactorEngine.compute(BarSeries.empty(), 252);
+        assertEquals(0, f.bars());
+        assertTrue(Double.isNaN(f.maxDrawdown()));
+        assertTrue(Double.isNaN(f.newHighRate()));
+    }
+
+    @Test
+    void segmentsStartWithFreshExtremes() {
+        FactorEngine.Factors f = FactorEngine.compute(series(10, 12, 11, 9), new int[]{2}, 10);
+        assertEquals(9.0 / 11.0 - 1.0, f.maxDrawdown(), 1e-12);
+        assertEquals(3, f.troughIndex());
+        // 11 opens the second segment, so nothing before it is compared
+        assertEquals(2, f.evaluated());
+        assertEquals(1, f.newHighs());
+        assertEquals(1, f.newLows());
+    }
+}
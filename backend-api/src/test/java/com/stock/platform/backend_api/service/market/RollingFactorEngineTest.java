@@ -0,0 +1,58 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.stock.platform.backend_api.repository.TestBars.series;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingFactorEngineTest {
+    private static final double NA = Double.NaN;
+
+    @Test
+    void drawdownForgetsPeaksThatLeftTheWindow() {
+        RollingFactorEngine.Series s = RollingFactorEngine.compute(series(100, 120, 90, 110, 60, 80, 90), 3, 252);
+        assertEquals(0.0, s.maxDrawdown()[0], 1e-12);
+        assertEquals(90.0 / 120.0 - 1.0, s.maxDrawdown()[2], 1e-12);
+        // 120 is out of [90, 110, 60]
+        assertEquals(60.0 / 110.0 - 1.0, s.maxDrawdown()[4], 1e-12);
+        assertEquals(0.0, s.maxDrawdown()[6], 1e-12);
+        assertEquals(90.0 / 60.0 - 1.0, s.maxRunup()[6], 1e-12);
+    }
+
+    @Test
+    void countsAndStreaksSlideWithTheWindow() {
+        // lookback 2: a new high or low against the previous close; none after the bar without one
+        RollingFactorEngine.Series s = RollingFactorEngine.compute(series(1, 2, 3, 4, 3, 2, NA, 1), 3, 2);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 2, 1, 0, 0}, s.newHighs());
+        assertArrayEquals(new int[] {0, 0, 0, 0, 1, 2, 2, 1}, s.newLows());
+        assertArrayEquals(new int[] {0, 1, 2, 3, 2, 1, 0, 0}, s.upStreak());
+        // The bar without a close neither breaks the run of down moves nor counts in it
+        assertArrayEquals(new int[] {0, 0, 0, 0, 1, 2, 2, 2}, s.downStreak());
+    }
+
+    @Test
+    void matchesTheEnginesOverEachWindow() {
+        Random random = new Random(7);
+        double[] closes = new double[600];
+        double c = 100;
+        for (int i = 0; i < closes.length; i++) {
+            c *= 1 + (random.nextDouble() - 0.5) * 0.06;
+            closes[i] = c;
+        }
+        BarSeries bars = series(closes);
+        int window = 40;
+        RollingFactorEngine.Series s = RollingFactorEngine.compute(bars, window, 20);
+        for (int i = window; i < bars.size(); i++) {
+            FactorEngine.Factors f = FactorEngine.compute(bars.range(i - window + 1, i + 1), 20);
+            assertEquals(f.maxDrawdown(), s.maxDrawdown()[i], 1e-12);
+            assertEquals(f.maxRunup(), s.maxRunup()[i], 1e-12);
+            // The window's n bars span n moves, the first one from the close before it
+            StreakEngine.Result streaks = StreakEngine.scan(bars.range(i - window, i + 1), 0, 0);
+            assertEquals(streaks.up().length(), s.upStreak()[i]);
+            assertEquals(streaks.down().length(), s.downStreak()[i]);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.RsMatrixDto;
+import com.stock.platform.backend_api.api.dto.RsMatrixSeriesDto;
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RsMatrixServiceTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final int DAY0 = (int) START.toEpochDay();
+
+    // closes[k] on day offset days[k]
+    private static BarSeries series(int[] days, double... closes) {
+        BarSeries.Builder b = new BarSeries.Builder(days.length);
+        for (int k = 0; k < days.length; k++) {
+            b.add(DAY0 + days[k], closes[k], closes[k], closes[k], closes[k], 100);
+        }
+        return b.build();
+    }
+
+    @Test
+    void alignSkipsMissingDaysInOnePass() {
+        BarSeries s = series(new int[]{0, 2, 5}, 10, 12, 15);
+        double[] aligned = RsMatrixService.align(s, new int[]{DAY0 - 1, DAY0, DAY0 + 1, DAY0 + 2, DAY0 + 6});
+        assertEquals(5, aligned.length);
+        assertTrue(Double.isNaN(aligned[0]));
+        assertEquals(10, aligned[1]);
+        assertTrue(Double.isNaN(aligned[2]));
+        assertEquals(12, aligned[3]);
+        assertTrue(Double.isNaN(aligned[4]));
+    }
+
+    @Test
+    void pairsEveryStockWithEveryBenchmarkOnTheUnionCalendar() {
+        Map<String, BarSeries> stocks = new LinkedHashMap<>();
+        stocks.put("AAA", series(new int[]{0, 1, 2, 3}, 10, 11, 12, 13));
+        stocks.put("BBB", series(new int[]{1, 3}, 50, 40));
+        Map<String, BarSeries> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("^SPX", series(new int[]{0, 1, 3}, 100, 100, 200));
+        benchmarks.put("^HSI", series(new int[]{1, 2}, 20, 10));
+
+        RsMatrixDto m = RsMatrixService.build(START, START.plusDays(3), stocks, benchmarks, List.of("ZZZ"));
+        assertEquals(List.of("2024-01-01", "2024-01-02", "2024-01-03", "2024-01-04"), m.dates());
+        assertEquals(List.of("ZZZ"), m.notFound());
+        assertEquals(List.of("AAA|^SPX", "AAA|^HSI", "BBB|^SPX", "BBB|^HSI"),
+                m.series().stream().map(r -> r.symbol() + "|" + r.indexSymbol()).toList());
+
+        RsMatrixSeriesDto aSpx = m.series().get(0);
+        assertEquals(Arrays.asList(1.0, 1.1, null, 0.65), aSpx.rsNormalized().stream()
+                .map(v -> v == null ? null : Math.round(v * 100) / 100.0).toList());
+        assertEquals(0.3, aSpx.stockReturnPct(), 1e-12);
+        assertEquals(1.0, aSpx.indexReturnPct(), 1e-12);
+        assertEquals(1.3 / 2.0 - 1.0, aSpx.rsReturnPct(), 1e-12);
+
+        RsMatrixSeriesDto aHsi = m.series().get(1);
+        assertNull(aHsi.rsNormalized().get(0));
+        assertEquals(1.0, aHsi.rsNormalized().get(1), 1e-12);
+        assertEquals((12.0 / 10) / (11.0 / 20), aHsi.rsNormalized().get(2), 1e-12);
+
+        RsMatrixSeriesDto bHsi = m.series().get(3);
+        assertEquals(0.0, bHsi.stockReturnPct(), 1e-12);
+        assertEquals(Arrays.asList(null, 1.0, null, null), bHsi.rsNormalized());
+    }
+
+    @Test
+    void pairWithoutCommonDaysHasNoReturns() {
+        Map<String, BarSeries> stocks = Map.of("AAA", series(new int[]{5}, 10));
+        Map<String, BarSeries> benchmarks = Map.of("^SPX", series(new int[]{0}, 100));
+        RsMatrixSeriesDto r = RsMatrixService.build(START, START, stocks, benchmarks, List.of()).series().get(0);
+        assertNull(r.rsReturnPct());
+        assertEquals(Arrays.asList((Double) null), r.rsNormalized());
+    }
+}
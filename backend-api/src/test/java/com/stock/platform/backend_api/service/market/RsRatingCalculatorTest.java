@@ -0,0 +1,50 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RsRatingCalculatorTest {
+    private static final double NA = Double.NaN;
+
+    @Test
+    void ratingsArePercentilesFromOneToNinetyNine() {
+        int[] r = RsRatingCalculator.ratings(new double[]{0.3, -0.1, 0.1, 0.5, 0.0});
+        assertArrayEquals(new int[]{75, 1, 50, 99, 26}, r);
+    }
+
+    @Test
+    void tiesShareTheLowerRatingAndUndefinedIsUnrated() {
+        int[] r = RsRatingCalculator.ratings(new double[]{0.2, NA, 0.2, 0.1, 0.4});
+        assertArrayEquals(new int[]{34, 0, 34, 1, 99}, r);
+        assertArrayEquals(new int[]{50}, RsRatingCalculator.ratings(new double[]{0.7}));
+        assertArrayEquals(new int[]{0, 0}, RsRatingCalculator.ratings(new double[]{NA, NA}));
+    }
+
+    @Test
+    void scoreWeightsTheLatestQuarterDouble() {
+        assertEquals(0.4 * 0.1 + 0.2 * 0.2 + 0.2 * 0.3 + 0.2 * 0.4,
+                RsRatingCalculator.score(new double[]{0.1, 0.2, 0.3, 0.4}), 1e-12);
+        assertEquals((0.4 * 0.1 + 0.2 * 0.2) / 0.6,
+                RsRatingCalculator.score(new double[]{0.1, 0.2, NA, NA}), 1e-12);
+        assertTrue(Double.isNaN(RsRatingCalculator.score(new double[]{NA, 0.2, 0.3, 0.4})));
+    }
+
+    @Test
+    void returnsLookBackWholeHorizons() {
+        BarSeries.Builder b = new BarSeries.Builder(200);
+        int day = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        for (int i = 0; i < 200; i++) {
+            double c = 100 + i;
+            b.add(day + i, c, c, c, c, 1_000);
+        }
+        double[] r = RsRatingCalculator.returns(b.build());
+        assertEquals(299.0 / 236.0 - 1.0, r[0], 1e-12);
+        assertEquals(299.0 / 173.0 - 1.0, r[1], 1e-12);
+        assertEquals(299.0 / 110.0 - 1.0, r[2], 1e-12);
+        assertTrue(Double.isNaN(r[3]));
+    }
+}
@@ -0,0 +1,80 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.api.dto.SectorHeatmapDto;
+import com.stock.platform.backend_api.api.dto.SectorStatsDto;
+import com.stock.platform.backend_api.repository.BarSeries;
+import com.stock.platform.backend_api.repository.BreadthMember;
+import com.stock.platform.backend_api.repository.SecurityDailyMetrics;
+import com.stock.platform.backend_api.service.screener.CrossSection;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectorServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    private static final double NA = Double.NaN;
+
+    private static BreadthMember member(String symbol, String sector, String subIndustry, double close, double prevClose, double ma50) {
+        SecurityDailyMetrics m = new SecurityDailyMetrics(
+                symbol.hashCode(), DAY, close, prevClose, 1_000, close, ma50, NA, NA, NA, NA, close + 10, close - 10, 1_000);
+        return new BreadthMember(symbol.hashCode(), symbol, symbol, sector, subIndustry, true, m);
+    }
+
+    // count bars ending on DAY growing by growth per bar
+    private static BarSeries series(int count, double growth) {
+        BarSeries.Builder b = new BarSeries.Builder(count);
+        double px = 100;
+        for (int t = 0; t < count; t++) {
+            b.add((int) DAY.minusDays(count - 1 - t).toEpochDay(), px, px, px, px, 1_000);
+            px *= growth;
+        }
+        return b.build();
+    }
+
+    @Test
+    void groupsBreadthAndEqualWeightReturnsInOnePass() {
+        BreadthBoard board = new BreadthBoard("^TEST", List.of(
+                member("AAA", "Tech", "Software", 110, 100, 100),
+                member("BBB", "Tech", "Semis", 90, 100, 100),
+                member("CCC", "Energy", "Oil", 100, 100, 90),
+                new BreadthMember(4, "DDD", "DDD", null, null, true, null),
+                new BreadthMember(5, "^IDX", "Index", null, null, false, null)
+        ));
+        CrossSection cs = new CrossSection(
+                DAY,
+                List.of("AAA", "BBB", "CCC"),
+                List.of("AAA", "BBB", "CCC"),
+                List.of(series(30, 1.01), series(30, 0.99), series(3, 1.0)),
+                BarSeries.empty()
+        );
+
+        SectorHeatmapDto h = SectorService.aggregate("^TEST", board, cs, false, List.of(1, 10));
+        assertEquals("2024-03-01", h.asOfDate());
+        assertEquals(List.of("Energy", "Tech", SectorService.UNCLASSIFIED), h.groups().stream().map(SectorStatsDto::name).toList());
+
+        SectorStatsDto tech = h.groups().get(1);
+        assertEquals(2, tech.members());
+        assertEquals(1, tech.up());
+        assertEquals(1, tech.down());
+        assertEquals(50.0, tech.pctAboveMa50(), 1e-12);
+        assertEquals((0.01 - 0.01) / 2, tech.returns().get(0), 1e-12);
+        assertEquals((Math.pow(1.01, 10) + Math.pow(0.99, 10) - 2) / 2, tech.returns().get(1), 1e-12);
+
+        SectorStatsDto energy = h.groups().get(0);
+        assertEquals(1, energy.flat());
+        assertEquals(100.0, energy.pctAboveMa50(), 1e-12);
+        assertNull(energy.returns().get(1));
+
+        SectorStatsDto unclassified = h.groups().get(2);
+        assertEquals(1, unclassified.members());
+        assertEquals(0, unclassified.membersWithData());
+        assertNull(unclassified.pctAboveMa50());
+
+        SectorHeatmapDto sub = SectorService.aggregate("^TEST", board, cs, true, List.of(1));
+        assertEquals(List.of("Oil", "Semis", "Software", SectorService.UNCLASSIFIED),
+                sub.groups().stream().map(SectorStatsDto::name).toList());
+    }
+}
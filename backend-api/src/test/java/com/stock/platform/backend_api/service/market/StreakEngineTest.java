@@ -0,0 +1,62 @@
+package com.stock.platform.backend_api.service.market;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import static com.stock.platform.backend_api.repository.TestBars.series;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreakEngineTest {
+    private static final double NA = Double.NaN;
+    private static final long NV = BarSeries.NO_VOLUME;
+
+    @Test
+    void findsLongestUpAndDownStreaksInOnePass() {
+        StreakEngine.Result r = StreakEngine.scan(series(new double[]{10, 11, 12, 11, 10, 9, 8, 9, 9, 10}, null), 0, 0);
+        assertEquals(new StreakEngine.Streak(2, 1, 2), r.up());
+        assertEquals(new StreakEngine.Streak(4, 3, 6), r.down());
+    }
+
+    @Test
+    void latestStreakWinsTiesAndFlatBarsBreakStreaks() {
+        StreakEngine.Result r = StreakEngine.scan(series(new double[]{10, 11, 12, 12, 13, 14}, null), 0, 0);
+        assertEquals(new StreakEngine.Streak(2, 4, 5), r.up());
+        assertEquals(StreakEngine.Streak.NONE, r.down());
+    }
+
+    @Test
+    void barsWithoutCloseAreSkipped() {
+        StreakEngine.Result r = StreakEngine.scan(series(new double[]{NA, 10, 11, NA, 12, 13}, null), 0, 0);
+        assertEquals(new StreakEngine.Streak(3, 2, 5), r.up());
+    }
+
+    @Test
+    void movesBelowTheFlatThresholdCountAsNeither() {
+        StreakEngine.Result r = StreakEngine.scan(series(new double[]{100, 101, 101.2, 102.5, 103.6}, null), 0, 0.005);
+        assertEquals(new StreakEngine.Streak(2, 3, 4), r.up());
+    }
+
+    @Test
+    void volumeFilterNeedsAMultipleOfTheRollingAverage() {
+        double[] closes = new double[25];
+        long[] volumes = new long[25];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = 100 + i;
+            volumes[i] = 1_000;
+        }
+        volumes[22] = 5_000;
+        volumes[23] = 5_000;
+        volumes[24] = NV;
+        StreakEngine.Result r = StreakEngine.scan(series(closes, volumes), 1.5, 0);
+        assertEquals(new StreakEngine.Streak(2, 22, 23), r.up());
+        assertEquals(new StreakEngine.Streak(24, 1, 24), StreakEngine.scan(series(closes, volumes), 0, 0).up());
+    }
+
+    @Test
+    void streaksStartOverAtEachSegment() {
+        double[] closes = {1, 2, 3, 4, 5};
+        assertEquals(new StreakEngine.Streak(4, 1, 4), StreakEngine.scan(series(closes, null), 0, 0).up());
+        // The bar opening the second segment has no previous close
+        assertEquals(new StreakEngine.Streak(2, 1, 2), StreakEngine.scan(series(closes, null), new int[]{3}, 0, 0).up());
+    }
+}
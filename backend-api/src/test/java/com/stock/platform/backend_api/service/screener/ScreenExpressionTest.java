@@ -0,0 +1,80 @@
+package com.stock.platform.backend_api.service.screener;
+
+import com.stock.platform.backend_api.repository.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScreenExpressionTest {
+    private static final LocalDate END = LocalDate.of(2024, 6, 28);
+
+    // count bars ending on END, close = start * growth^t, volume spiking on the last bar by spike
+    private static BarSeries series(int count, double start, double growth, double spike) {
+        BarSeries.Builder b = new BarSeries.Builder(count);
+        double px = start;
+        for (int t = 0; t < count; t++) {
+            long volume = t == count - 1 ? (long) (1000 * spike) : 1000;
+            b.add((int) END.minusDays(count - 1 - t).toEpochDay(), px, px, px, px, volume);
+            px *= growth;
+        }
+        return b.build();
+    }
+
+    private static CrossSection crossSection() {
+        return new CrossSection(
+                END,
+                List.of("UP", "DOWN", "SPIKE", "NEW"),
+                List.of("Up", "Down", "Spike", "New"),
+                List.of(
+                        series(300, 100, 1.002, 1),
+                        series(300, 100, 0.998, 1),
+                        series(300, 100, 1.001, 3),
+                        series(30, 50, 1.0, 1)
+                ),
+                series(300, 1000, 1.001, 1)
+        );
+    }
+
+    @Test
+    void columnsMatchDefinitions() {
+        CrossSection cs = crossSection();
+        assertEquals(Math.pow(1.002, 126) - 1, cs.column("ret", 126)[0], 1e-9);
+        assertTrue(Double.isNaN(cs.column("ret", 126)[3]));
+        assertEquals(Math.pow(1.002, 126) / Math.pow(1.001, 126) - 1, cs.column("rs", 126)[0], 1e-9);
+        assertEquals(0.0, cs.column("from_high", 252)[0], 1e-12);
+        assertEquals(3 / ((3 + 49) / 50.0), cs.column("vol_ratio", 50)[2], 1e-9);
+        assertEquals(Math.pow(0.998, 251) - 1, cs.column("max_drawdown", 252)[1], 1e-9);
+        // a short history averages what it has, like the SQL it replaces
+        assertEquals(50.0, cs.column("ma", 200)[3], 1e-12);
+    }
+
+    @Test
+    void filtersAndSortsOverColumns() {
+        CrossSection cs = crossSection();
+        ScreenExpression filter = ScreenExpression.parse("close > ma(50) and (vol_ratio(50) >= 2 or rs(126) > 0)");
+        assertEquals(List.of("close", "ma(50)", "vol_ratio(50)", "rs(126)"), List.copyOf(filter.metrics()));
+
+        List<Integer> rows = ScreenerService.select(cs, filter, ScreenerService.parseSort("ret(126) desc"));
+        assertEquals(List.of(0, 2), rows);
+
+        List<Integer> all = ScreenerService.select(cs, null, ScreenerService.parseSort("-abs(dist_ma(20)), ret(126) desc"));
+        assertEquals(4, all.size());
+        assertEquals(3, all.get(3));
+
+        List<Integer> byRet = ScreenerService.select(cs, ScreenExpression.parse("not ret(5) < 0"), ScreenerService.parseSort("ret(126)"));
+        assertEquals(List.of(2, 0, 3), byRet);
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> ScreenExpression.parse("ret(126 > 0"));
+        assertThrows(IllegalArgumentException.class, () -> ScreenExpression.parse("ret > 0"));
+        assertThrows(IllegalArgumentException.class, () -> ScreenExpression.parse("ret(500) > 0"));
+        assertThrows(IllegalArgumentException.class, () -> ScreenExpression.parse("pe(1) > 0"));
+        assertThrows(IllegalArgumentException.class, () -> ScreenExpression.parse("close > ; drop table"));
+        assertThrows(IllegalArgumentException.class, () -> ScreenExpression.parse("close close"));
+    }
+}
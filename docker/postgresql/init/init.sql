@@ -82,6 +82,78 @@ CREATE INDEX IF NOT EXISTS idx_price_bar_security_interval_date
 CREATE INDEX IF NOT EXISTS idx_price_bar_interval_date
     ON market.price_bar (interval, bar_date);
 
+CREATE INDEX IF NOT EXISTS idx_price_bar_ingested_at
+    ON market.price_bar (ingested_at);
+
+-- Per-security daily technicals (previous close, MA20/50/200, 52-week high/low, 50-day average volume),
+-- maintained by the backend after each sync. Breadth, screener and alerts read the latest row instead of
+-- running window functions over a year of bars per request.
+CREATE TABLE IF NOT EXISTS market.security_daily_metrics (
+    security_id BIGINT NOT NULL REFERENCES market.security(id) ON DELETE CASCADE,
+    bar_date DATE NOT NULL,
+    close NUMERIC(20,6),
+    prev_close NUMERIC(20,6),
+    volume BIGINT,
+    ma20 NUMERIC(20,6),
+    ma50 NUMERIC(20,6),
+    ma200 NUMERIC(20,6),
+    prev_ma20 NUMERIC(20,6),
+    prev_ma50 NUMERIC(20,6),
+    prev_ma200 NUMERIC(20,6),
+    high252 NUMERIC(20,6),
+    low252 NUMERIC(20,6),
+    vma50 NUMERIC(24,4),
+    computed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (security_id, bar_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_security_daily_metrics_date
+    ON market.security_daily_metrics (bar_date);
+
+CREATE INDEX IF NOT EXISTS idx_security_daily_metrics_computed_at
+    ON market.security_daily_metrics (computed_at);
+
+-- Market breadth per index per trading day, aggregated by the backend from market.security_daily_metrics
+-- over the constituents in effect that day (membership_as_of: the snapshot whose member list applied).
+-- Only days with new metrics are re-aggregated, plus the days from a snapshot whose member list changed.
+CREATE TABLE IF NOT EXISTS market.index_breadth_daily (
+    index_id BIGINT NOT NULL REFERENCES market.security(id) ON DELETE CASCADE,
+    bar_date DATE NOT NULL,
+    membership_as_of DATE NOT NULL,
+    members_with_data INT NOT NULL,
+    up INT NOT NULL,
+    down INT NOT NULL,
+    flat INT NOT NULL,
+    above_ma20 INT NOT NULL,
+    above_ma50 INT NOT NULL,
+    above_ma200 INT NOT NULL,
+    new_high_52w INT NOT NULL,
+    new_low_52w INT NOT NULL,
+    computed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (index_id, bar_date)
+);
+
+-- Latest IBD-style relative-strength ratings (percentile 1-99 across all rated stocks), rewritten by the
+-- backend after each sync. score is the weighted 3/6/9/12-month return the composite rating ranks.
+CREATE TABLE IF NOT EXISTS market.security_rs_rating (
+    security_id BIGINT PRIMARY KEY REFERENCES market.security(id) ON DELETE CASCADE,
+    as_of_date DATE NOT NULL,
+    score NUMERIC(20,8) NOT NULL,
+    rating SMALLINT NOT NULL,
+    return_3m NUMERIC(20,8),
+    return_6m NUMERIC(20,8),
+    return_9m NUMERIC(20,8),
+    return_12m NUMERIC(20,8),
+    rating_3m SMALLINT,
+    rating_6m SMALLINT,
+    rating_9m SMALLINT,
+    rating_12m SMALLINT,
+    computed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_security_rs_rating_rating
+    ON market.security_rs_rating (rating DESC);
+
 CREATE TABLE IF NOT EXISTS market.corporate_action (
     id BIGSERIAL PRIMARY KEY,
     security_id BIGINT NOT NULL REFERENCES market.security(id) ON DELETE CASCADE,
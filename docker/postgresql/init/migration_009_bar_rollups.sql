@@ -0,0 +1,4 @@
+-- 1w/1m/1q/1y bars are rolled up from daily bars by the backend (source = 'rollup').
+-- Incremental rollups and bar-cache refreshes look up recently ingested rows.
+CREATE INDEX IF NOT EXISTS idx_price_bar_ingested_at
+    ON market.price_bar (ingested_at);
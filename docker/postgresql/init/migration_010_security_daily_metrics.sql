@@ -0,0 +1,27 @@
+-- Per-security daily technicals (previous close, MA20/50/200, 52-week high/low, 50-day average volume),
+-- maintained by the backend after each sync. Breadth, screener and alerts read the latest row instead of
+-- running window functions over a year of bars per request.
+CREATE TABLE IF NOT EXISTS market.security_daily_metrics (
+    security_id BIGINT NOT NULL REFERENCES market.security(id) ON DELETE CASCADE,
+    bar_date DATE NOT NULL,
+    close NUMERIC(20,6),
+    prev_close NUMERIC(20,6),
+    volume BIGINT,
+    ma20 NUMERIC(20,6),
+    ma50 NUMERIC(20,6),
+    ma200 NUMERIC(20,6),
+    prev_ma20 NUMERIC(20,6),
+    prev_ma50 NUMERIC(20,6),
+    prev_ma200 NUMERIC(20,6),
+    high252 NUMERIC(20,6),
+    low252 NUMERIC(20,6),
+    vma50 NUMERIC(24,4),
+    computed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (security_id, bar_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_security_daily_metrics_date
+    ON market.security_daily_metrics (bar_date);
+
+CREATE INDEX IF NOT EXISTS idx_security_daily_metrics_computed_at
+    ON market.security_daily_metrics (computed_at);
@@ -0,0 +1,19 @@
+-- Market breadth per index per trading day, aggregated by the backend from market.security_daily_metrics
+-- over the constituents in effect that day (membership_as_of: the snapshot whose member list applied).
+-- Only days with new metrics are re-aggregated, plus the days from a snapshot whose member list changed.
+CREATE TABLE IF NOT EXISTS market.index_breadth_daily (
+    index_id BIGINT NOT NULL REFERENCES market.security(id) ON DELETE CASCADE,
+    bar_date DATE NOT NULL,
+    membership_as_of DATE NOT NULL,
+    members_with_data INT NOT NULL,
+    up INT NOT NULL,
+    down INT NOT NULL,
+    flat INT NOT NULL,
+    above_ma20 INT NOT NULL,
+    above_ma50 INT NOT NULL,
+    above_ma200 INT NOT NULL,
+    new_high_52w INT NOT NULL,
+    new_low_52w INT NOT NULL,
+    computed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (index_id, bar_date)
+);
@@ -0,0 +1,20 @@
+-- Latest IBD-style relative-strength ratings (percentile 1-99 across all rated stocks), rewritten by the
+-- backend after each sync. score is the weighted 3/6/9/12-month return the composite rating ranks.
+CREATE TABLE IF NOT EXISTS market.security_rs_rating (
+    security_id BIGINT PRIMARY KEY REFERENCES market.security(id) ON DELETE CASCADE,
+    as_of_date DATE NOT NULL,
+    score NUMERIC(20,8) NOT NULL,
+    rating SMALLINT NOT NULL,
+    return_3m NUMERIC(20,8),
+    return_6m NUMERIC(20,8),
+    return_9m NUMERIC(20,8),
+    return_12m NUMERIC(20,8),
+    rating_3m SMALLINT,
+    rating_6m SMALLINT,
+    rating_9m SMALLINT,
+    rating_12m SMALLINT,
+    computed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_security_rs_rating_rating
+    ON market.security_rs_rating (rating DESC);
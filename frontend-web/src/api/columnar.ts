@@ -0,0 +1,94 @@
+/**
+ * Decoder for the backend's compact columnar format (`application/vnd.stock-platform.columns`).
+ *
+ * Layout (big-endian): int32 rows, int32 first epoch day, uint16 day gaps (rows - 1),
+ * uint8 column count, then per column: uint8 name length, UTF-8 name, uint8 type (1 = float32, 2 = float64),
+ * and `rows` values. Missing values are NaN.
+ */
+import { http } from './client'
+
+export const COLUMNAR_MEDIA_TYPE = 'application/vnd.stock-platform.columns'
+
+export type ColumnarFrame = {
+  dates: string[]
+  columns: Record<string, Float32Array | Float64Array>
+}
+
+const DAY_MS = 86_400_000
+
+export function decodeColumnarFrame(buffer: ArrayBuffer): ColumnarFrame {
+  const view = new DataView(buffer)
+  let pos = 0
+  const rows = view.getInt32(pos)
+  pos += 4
+
+  const dates: string[] = new Array(rows)
+  if (rows > 0) {
+    let day = view.getInt32(pos)
+    pos += 4
+    dates[0] = new Date(day * DAY_MS).toISOString().slice(0, 10)
+    for (let i = 1; i < rows; i++) {
+      day += view.getUint16(pos)
+      pos += 2
+      dates[i] = new Date(day * DAY_MS).toISOString().slice(0, 10)
+    }
+  }
+
+  const columns: ColumnarFrame['columns'] = {}
+  const count = view.getUint8(pos)
+  pos += 1
+  const decoder = new TextDecoder()
+  for (let c = 0; c < count; c++) {
+    const nameLength = view.getUint8(pos)
+    pos += 1
+    const name = decoder.decode(new Uint8Array(buffer, pos, nameLength))
+    pos += nameLength
+    const type = view.getUint8(pos)
+    pos += 1
+    if (type === 1) {
+      const values = new Float32Array(rows)
+      for (let i = 0; i < rows; i++, pos += 4) values[i] = view.getFloat32(pos)
+      columns[name] = values
+    } else {
+      const values = new Float64Array(rows)
+      for (let i = 0; i < rows; i++, pos += 8) values[i] = view.getFloat64(pos)
+      columns[name] = values
+    }
+  }
+  return { dates, columns }
+}
+
+/**
+ * Value at row `i` of a column, or null when missing. float32 values are rounded back to
+ * 7 significant digits so that e.g. 187.15 does not come out as 187.14999389648438.
+ */
+export function cell(column: Float32Array | Float64Array | undefined, i: number): number | null {
+  if (!column) return null
+  const v = column[i]
+  if (Number.isNaN(v)) return null
+  return column instanceof Float32Array ? Number(v.toPrecision(7)) : v
+}
+
+/**
+ * GET a columnar resource. JSON stays acceptable so that error bodies still arrive as `{ message }`.
+ */
+export async function getColumnarFrame(url: string, params?: Record<string, unknown>) {
+  try {
+    const res = await http.get<ArrayBuffer>(url, {
+      params,
+      responseType: 'arraybuffer',
+      headers: { Accept: `${COLUMNAR_MEDIA_TYPE}, application/json;q=0.5` },
+    })
+    return decodeColumnarFrame(res.data)
+  } catch (e: any) {
+    const data = e?.response?.data
+    if (data instanceof ArrayBuffer) {
+      try {
+        e.response.data = JSON.parse(new TextDecoder().decode(data))
+      } catch {
+        // not JSON; leave the raw body in place
+      }
+    }
+    throw e
+  }
+}
@@ -11,6 +11,7 @@
  * - Trading: Plans, Alerts.
  */
 import { http } from './client'
+import { cell, getColumnarFrame, type ColumnarFrame } from './columnar'
 
 /**
  * Standard OHLCV Bar
@@ -131,6 +132,30 @@ export type BreadthSnapshotDto = {
   volumeSurge: number
 }
 
+export type BreadthPointDto = {
+  date: string
+  membersWithData: number
+  up: number
+  down: number
+  flat: number
+  aboveMa20: number
+  aboveMa50: number
+  aboveMa200: number
+  newHigh52w: number
+  newLow52w: number
+  pctAboveMa50: number | null
+  pctAboveMa200: number | null
+  netNewHighs: number
+  advanceDeclineLine: number
+}
+
+export type BreadthHistoryDto = {
+  indexSymbol: string
+  start: string
+  end: string
+  points: BreadthPointDto[]
+}
+
 export type ScreenerItemDto = {
   symbol: string
   name: string | null
@@ -163,6 +188,74 @@ export type FactorRankItemDto = {
   endDate: string | null
 }
 
+export type FactorPanelRowDto = {
+  symbol: string
+  name: string | null
+  bars: number
+  maxDrawdown: number | null
+  troughDate: string | null
+  maxRunup: number | null
+  runupDate: string | null
+  maxRundown: number | null
+  newHighCount: number | null
+  newHighRate: number | null
+  newLowCount: number | null
+  newLowRate: number | null
+  upStreak: number
+  upStreakEndDate: string | null
+  downStreak: number
+  downStreakEndDate: string | null
+}
+
+export type FactorPanelDto = {
+  indexSymbol: string
+  interval: string
+  start: string
+  end: string
+  lookback: number
+  sort: string
+  descending: boolean
+  rows: FactorPanelRowDto[]
+}
+
+export type DrawdownEpisodeDto = {
+  peakDate: string
+  peakClose: number
+  troughDate: string
+  troughClose: number
+  recoveryDate: string | null
+  depth: number
+  durationBars: number
+  recoveryBars: number | null
+}
+
+export type DrawdownDto = {
+  symbol: string
+  name: string | null
+  interval: string
+  bars: number
+  maxDrawdown: number | null
+  currentDrawdown: number | null
+  episodes: DrawdownEpisodeDto[]
+}
+
+export type FactorSeriesDto = {
+  symbol: string
+  name: string | null
+  interval: string
+  start: string
+  end: string
+  window: number
+  lookback: number
+  dates: string[]
+  maxDrawdown: (number | null)[]
+  maxRunup: (number | null)[]
+  newHighCount: number[]
+  newLowCount: number[]
+  upStreak: number[]
+  downStreak: number[]
+}
+
 export type RsPointDto = {
   date: string
   stockClose: number | null
@@ -191,6 +284,62 @@ export type RsRankItemDto = {
   rsReturnPct: number | null
 }
 
+export type SectorStatsDto = {
+  name: string
+  members: number
+  membersWithData: number
+  up: number
+  down: number
+  flat: number
+  pctAboveMa20: number | null
+  pctAboveMa50: number | null
+  pctAboveMa200: number | null
+  newHigh52w: number
+  newLow52w: number
+  returns: (number | null)[]
+}
+
+export type SectorHeatmapDto = {
+  indexSymbol: string
+  asOfDate: string | null
+  level: string
+  horizons: number[]
+  groups: SectorStatsDto[]
+}
+
+export type RsMatrixSeriesDto = {
+  symbol: string
+  indexSymbol: string
+  stockReturnPct: number | null
+  indexReturnPct: number | null
+  rsReturnPct: number | null
+  rsNormalized: (number | null)[]
+}
+
+export type RsMatrixDto = {
+  start: string
+  end: string
+  dates: string[]
+  series: RsMatrixSeriesDto[]
+  notFound: string[]
+}
+
+export type RsRatingDto = {
+  symbol: string
+  name: string | null
+  asOfDate: string
+  rating: number
+  score: number
+  rating3m: number | null
+  rating6m: number | null
+  rating9m: number | null
+  rating12m: number | null
+  return3m: number | null
+  return6m: number | null
+  return9m: number | null
+  return12m: number | null
+}
+
 export type TradePlanDto = {
   id: number
   symbol: string
@@ -304,16 +453,69 @@ export async function getBreadth(index: string) {
   return res.data
 }
 
+/**
+ * Daily breadth history of an index (defaults to the last year).
+ */
+export async function getBreadthHistory(params: { index: string; start?: string; end?: string }) {
+  const res = await http.get<BreadthHistoryDto>('/api/market/breadth/history', { params })
+  return res.data
+}
+
 export async function getBreadthDetail(params: { index: string; metric: string; volumeSurgeMultiple?: number }) {
   const res = await http.get<ScreenerItemDto[]>('/api/market/breadth/detail', { params })
   return res.data
 }
 
+export async function getSectorHeatmap(params: { index: string; level?: 'sector' | 'sub_industry'; horizons?: string }) {
+  const res = await http.get<SectorHeatmapDto>('/api/market/sectors', { params })
+  return res.data
+}
+
+export async function getRsMatrix(body: { symbols: string[]; benchmarks?: string[]; start?: string; end?: string }) {
+  const res = await http.post<RsMatrixDto>('/api/market/rs/matrix', body)
+  return res.data
+}
+
+export async function getRsRatings(params: { index?: string; horizon?: string; minRating?: number; limit?: number }) {
+  const res = await http.get<RsRatingDto[]>('/api/market/rs/ratings', { params })
+  return res.data
+}
+
+export async function getRsRating(symbol: string) {
+  const res = await http.get<RsRatingDto>(`/api/market/rs/ratings/${encodeURIComponent(symbol)}`)
+  return res.data
+}
+
 export async function runScreener(params: { index: string; preset: string; lookbackDays: number; limit: number }) {
   const res = await http.get<ScreenerItemDto[]>('/api/market/screener', { params })
   return res.data
 }
 
+export type ScreenRowDto = {
+  symbol: string
+  name: string | null
+  close: number | null
+  values: Record<string, number | null>
+}
+
+export type ScreenResultDto = {
+  indexSymbol: string
+  asOfDate: string | null
+  filter: string | null
+  sort: string | null
+  universe: number
+  matched: number
+  items: ScreenRowDto[]
+}
+
+/**
+ * Run a custom screen, e.g. filter `ret(126) > 0.2 and close > ma(50)`, sort `ret(126) desc`.
+ */
+export async function runScreen(params: { index: string; filter?: string; sort?: string; limit?: number }) {
+  const res = await http.get<ScreenResultDto>('/api/market/screen', { params })
+  return res.data
+}
+
 export async function rankStreaks(params: {
   index: string
   interval: string
@@ -323,6 +525,7 @@ export async function rankStreaks(params: {
   limit: number
   volumeMultiple?: number
   flatThresholdPct?: number
+  pointInTime?: boolean
 }) {
   const res = await http.get<StreakRankItemDto[]>('/api/market/streaks/rank', { params })
   return res.data
@@ -345,11 +548,57 @@ export async function rankFactors(params: {
   start?: string
   end?: string
   limit: number
+  pointInTime?: boolean
 }) {
   const res = await http.get<FactorRankItemDto[]>('/api/market/factors/rank', { params })
   return res.data
 }
 
+export async function getFactorPanel(params: {
+  index: string
+  interval: string
+  lookback?: number
+  start?: string
+  end?: string
+  sort?: string
+  desc?: boolean
+  pointInTime?: boolean
+}) {
+  const res = await http.get<FactorPanelDto>('/api/market/factors/panel', { params })
+  return res.data
+}
+
+export async function rankDrawdowns(params: {
+  index: string
+  interval: string
+  start?: string
+  end?: string
+  sort?: string
+  mode?: string
+  limit: number
+  episodes?: number
+  pointInTime?: boolean
+}) {
+  const res = await http.get<DrawdownDto[]>('/api/market/factors/drawdowns', { params })
+  return res.data
+}
+
+export async function getDrawdowns(
+  symbol: string,
+  params: { interval: string; start?: string; end?: string; episodes?: number }
+) {
+  const res = await http.get<DrawdownDto>(`/api/market/factors/drawdowns/${encodeURIComponent(symbol)}`, { params })
+  return res.data
+}
+
+export async function getFactorSeries(
+  symbol: string,
+  params: { interval: string; window?: number; lookback?: number; start?: string; end?: string }
+) {
+  const res = await http.get<FactorSeriesDto>(`/api/market/factors/series/${encodeURIComponent(symbol)}`, { params })
+  return res.data
+}
+
 export async function getRelativeStrength(params: { symbol: string; index: string; start?: string; end?: string }) {
   const res = await http.get<RsSeriesDto>('/api/market/rs', { params })
   return res.data
@@ -442,10 +691,8 @@ export async function replaceIndexConstituents(indexSymbol: string, stockSymbols
 
 export async function getIndexBars(symbol: string, interval: string = '1d', start?: string, end?: string) {
   const clean = symbol.startsWith('^') ? symbol.substring(1).toLowerCase() : symbol.toLowerCase()
-  const res = await http.get<BarDto[]>(`/api/index/${encodeURIComponent(clean)}/bars`, {
-    params: { interval, start, end }
-  })
-  return res.data
+  const frame = await getColumnarFrame(`/api/index/${encodeURIComponent(clean)}/bars`, { interval, start, end })
+  return toBars(frame)
 }
 
 export async function getIndexIndicators(
@@ -453,8 +700,8 @@ export async function getIndexIndicators(
   params?: { start?: string; end?: string; interval?: string; ma?: string; include?: string }
 ) {
   const clean = symbol.startsWith('^') ? symbol.substring(1).toLowerCase() : symbol.toLowerCase()
-  const res = await http.get<IndicatorsResponseDto>(`/api/index/${encodeURIComponent(clean)}/indicators`, { params })
-  return res.data
+  const frame = await getColumnarFrame(`/api/index/${encodeURIComponent(clean)}/indicators`, params)
+  return toIndicators(frame, params?.interval || '1d')
 }
 
 export async function getSp500Bars(params?: { start?: string; end?: string; interval?: string }) {
@@ -487,16 +734,48 @@ export async function getStockDetail(symbol: string) {
 }
 
 export async function getStockBars(symbol: string, params?: { start?: string; end?: string; interval?: string }) {
-  const res = await http.get<BarDto[]>(`/api/stocks/${encodeURIComponent(symbol)}/bars`, { params })
-  return res.data
+  const frame = await getColumnarFrame(`/api/stocks/${encodeURIComponent(symbol)}/bars`, params)
+  return toBars(frame)
 }
 
 export async function getStockIndicators(
   symbol: string,
   params?: { start?: string; end?: string; interval?: string; ma?: string; include?: string }
 ) {
-  const res = await http.get<IndicatorsResponseDto>(`/api/stocks/${encodeURIComponent(symbol)}/indicators`, { params })
-  return res.data
+  const frame = await getColumnarFrame(`/api/stocks/${encodeURIComponent(symbol)}/indicators`, params)
+  return toIndicators(frame, params?.interval || '1d')
+}
+
+// Bars and indicators are fetched in the compact columnar format and expanded into the JSON DTO shapes.
+
+function toBars(frame: ColumnarFrame): BarDto[] {
+  const { open, high, low, close, volume } = frame.columns
+  return frame.dates.map((date, i) => ({
+    date,
+    open: cell(open, i),
+    high: cell(high, i),
+    low: cell(low, i),
+    close: cell(close, i),
+    volume: cell(volume, i),
+  }))
+}
+
+function toIndicators(frame: ColumnarFrame, interval: string): IndicatorsResponseDto {
+  const c = frame.columns
+  const maPeriods = Object.keys(c)
+    .filter((name) => /^ma\d+$/.test(name))
+    .map((name) => name.substring(2))
+  const points = frame.dates.map((date, i) => {
+    let ma: Record<string, number | null> | null = null
+    if (maPeriods.length) {
+      ma = {}
+      for (const p of maPeriods) ma[p] = cell(c[`ma${p}`], i)
+    }
+    const macd = c['macd.dif'] ? { dif: cell(c['macd.dif'], i), dea: cell(c['macd.dea'], i), hist: cell(c['macd.hist'], i) } : null
+    const kdj = c['kdj.k'] ? { k: cell(c['kdj.k'], i), d: cell(c['kdj.d'], i), j: cell(c['kdj.j'], i) } : null
+    return { date, ma, macd, kdj }
+  })
+  return { interval, points }
 }
 
 // --- Sync Operations ---